@@ -0,0 +1,92 @@
+package org.broadinstitute.hellbender.tools.walkers.genotyper;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GenotypeLikelihoodCalculator#genotypeLikelihoods} for a single sample, over a range of ploidies,
+ * allele counts and read depths. The read likelihoods are random log10 values from the GATK random generator,
+ * which is reset before the inputs are created so that every run sees the same matrix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenotypeLikelihoodCalculatorBenchmark {
+    private static final String SAMPLE = "sample";
+
+    @Param({"2", "4"})
+    public int ploidy;
+
+    @Param({"2", "4"})
+    public int alleleCount;
+
+    @Param({"30", "300"})
+    public int readCount;
+
+    private GenotypeLikelihoodCalculator calculator;
+    private LikelihoodMatrix<GATKRead, Allele> sampleLikelihoods;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+        final Random random = Utils.getRandomGenerator();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1_000_000);
+
+        final List<Allele> alleles = new ArrayList<>(alleleCount);
+        alleles.add(Allele.create("A", true));
+        final String[] altBases = {"C", "G", "T", "AC", "AG", "AT"};
+        for ( int a = 1; a < alleleCount; a++ ) {
+            alleles.add(Allele.create(altBases[a - 1]));
+        }
+
+        final List<GATKRead> reads = new ArrayList<>(readCount);
+        for ( int r = 0; r < readCount; r++ ) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + r, 0, 1, 100));
+        }
+
+        final AlleleLikelihoods<GATKRead, Allele> likelihoods = new AlleleLikelihoods<>(new IndexedSampleList(SAMPLE),
+                new IndexedAlleleList<>(alleles), Collections.singletonMap(SAMPLE, reads));
+        sampleLikelihoods = likelihoods.sampleMatrix(0);
+        for ( int a = 0; a < alleleCount; a++ ) {
+            for ( int r = 0; r < readCount; r++ ) {
+                sampleLikelihoods.set(a, r, -random.nextDouble() * 10);
+            }
+        }
+
+        calculator = new GenotypeLikelihoodCalculators().getInstance(ploidy, alleleCount);
+    }
+
+    @Benchmark
+    public GenotypeLikelihoods genotypeLikelihoods() {
+        return calculator.genotypeLikelihoods(sampleLikelihoods);
+    }
+}
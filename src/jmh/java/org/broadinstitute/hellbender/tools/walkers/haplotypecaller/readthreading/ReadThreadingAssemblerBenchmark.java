@@ -0,0 +1,102 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResultSet;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAlignmentConstants;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ReadThreadingAssembler#runLocalAssembly} on a synthetic assembly region: a random reference
+ * window covered by tiled reads, half of which carry a heterozygous SNP and a quarter of which carry a sequencing
+ * error. This exercises graph construction, pruning, haplotype finding and the alignment of haplotypes back to the
+ * reference.
+ *
+ * Inputs come from {@link ArtificialReadUtils} after resetting the GATK random generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadThreadingAssemblerBenchmark {
+    private static final String CONTIG = "1";
+    private static final int REGION_START = 100_000;
+    private static final int READ_LENGTH = 100;
+
+    @Param({"300"})
+    public int regionLength;
+
+    @Param({"50", "200"})
+    public int readCount;
+
+    private SAMFileHeader header;
+    private ReadThreadingAssembler assembler;
+    private SimpleInterval regionLoc;
+    private byte[] refBases;
+    private Haplotype refHaplotype;
+    private List<GATKRead> reads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+        header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1_000_000);
+        assembler = new ReadThreadingAssembler(ReadThreadingAssembler.DEFAULT_NUM_PATHS_PER_GRAPH, Arrays.asList(10, 25), 2);
+
+        regionLoc = new SimpleInterval(CONTIG, REGION_START, REGION_START + regionLength - 1);
+        refBases = ArtificialReadUtils.createRandomReadBases(regionLength, false);
+        refHaplotype = new Haplotype(refBases, true);
+        refHaplotype.setCigar(new Cigar(Arrays.asList(new CigarElement(regionLength, CigarOperator.M))));
+
+        final int snpOffset = regionLength / 2;
+        final byte[] altBases = refBases.clone();
+        altBases[snpOffset] = altBases[snpOffset] == 'A' ? (byte)'C' : (byte)'A';
+
+        reads = new ArrayList<>(readCount);
+        final int startStep = Math.max(1, (regionLength - READ_LENGTH) / readCount);
+        for ( int i = 0; i < readCount; i++ ) {
+            final int offset = (i * startStep) % (regionLength - READ_LENGTH + 1);
+            final byte[] bases = Arrays.copyOfRange(i % 2 == 0 ? refBases : altBases, offset, offset + READ_LENGTH);
+            if ( i % 4 == 1 ) {
+                final int errorOffset = (i * 7) % READ_LENGTH;
+                bases[errorOffset] = bases[errorOffset] == 'T' ? (byte)'G' : (byte)'T';
+            }
+            final byte[] quals = Utils.dupBytes((byte)30, READ_LENGTH);
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, REGION_START + offset, bases, quals, READ_LENGTH + "M"));
+        }
+    }
+
+    @Benchmark
+    public AssemblyResultSet runLocalAssembly() {
+        final AssemblyRegion region = new AssemblyRegion(regionLoc, true, 0, header);
+        region.addAll(reads);
+        return assembler.runLocalAssembly(region, refHaplotype, refBases, regionLoc, null, header, SmithWatermanJavaAligner.getInstance(),
+                SmithWatermanAlignmentConstants.STANDARD_NGS, SmithWatermanAlignmentConstants.NEW_SW_PARAMETERS);
+    }
+}
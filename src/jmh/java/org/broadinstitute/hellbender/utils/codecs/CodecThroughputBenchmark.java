@@ -0,0 +1,190 @@
+package org.broadinstitute.hellbender.utils.codecs;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamInputResource;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFStandardHeaderLines;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks raw encoding and decoding throughput of the BAM and VCF codecs on synthetic, in-memory data, so that
+ * the results are not dominated by disk I/O. Each benchmark invocation processes the whole record set; divide the
+ * reported time by {@link #recordCount} for a per-record cost.
+ *
+ * Reads come from {@link ArtificialReadUtils}, and all random values from the GATK random generator, which is reset
+ * before the inputs are created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecThroughputBenchmark {
+    private static final String CONTIG = "1";
+    private static final int CONTIG_LENGTH = 10_000_000;
+    private static final int READ_LENGTH = 151;
+    private static final int SAMPLE_COUNT = 3;
+
+    @Param({"10000"})
+    public int recordCount;
+
+    private SAMFileHeader samHeader;
+    private List<SAMRecord> samRecords;
+    private byte[] bamBytes;
+
+    private VCFHeader vcfHeader;
+    private List<VariantContext> variants;
+    private String vcfText;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Utils.resetRandomGenerator();
+        setupReads();
+        setupVariants();
+    }
+
+    private void setupReads() throws IOException {
+        samHeader = ArtificialReadUtils.createArtificialSamHeader(1, 1, CONTIG_LENGTH);
+        samRecords = new ArrayList<>(recordCount);
+        for ( int i = 0; i < recordCount; i++ ) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(samHeader, "read" + i, CONTIG, 1 + i * 10,
+                    ArtificialReadUtils.createRandomReadBases(READ_LENGTH, false), ArtificialReadUtils.createRandomReadQuals(READ_LENGTH), READ_LENGTH + "M");
+            read.setMappingQuality(60);
+            read.setAttribute("NM", 0);
+            samRecords.add(read.convertToSAMRecord(samHeader));
+        }
+        bamBytes = encodeBam().toByteArray();
+    }
+
+    private void setupVariants() {
+        final Random random = Utils.getRandomGenerator();
+        final List<String> samples = new ArrayList<>(SAMPLE_COUNT);
+        for ( int s = 0; s < SAMPLE_COUNT; s++ ) {
+            samples.add("sample" + s);
+        }
+        final Set<VCFHeaderLine> headerLines = new HashSet<>();
+        VCFStandardHeaderLines.addStandardFormatLines(headerLines, true,
+                VCFConstants.GENOTYPE_KEY, VCFConstants.GENOTYPE_ALLELE_DEPTHS, VCFConstants.DEPTH_KEY,
+                VCFConstants.GENOTYPE_QUALITY_KEY, VCFConstants.GENOTYPE_PL_KEY);
+        VCFStandardHeaderLines.addStandardInfoLines(headerLines, true, VCFConstants.DEPTH_KEY);
+        vcfHeader = new VCFHeader(headerLines, samples);
+        vcfHeader.setSequenceDictionary(samHeader.getSequenceDictionary());
+
+        variants = new ArrayList<>(recordCount);
+        for ( int i = 0; i < recordCount; i++ ) {
+            final byte[] bases = ArtificialReadUtils.createRandomReadBases(1, false);
+            final Allele ref = Allele.create(bases[0], true);
+            final Allele alt = Allele.create(bases[0] == 'A' ? (byte)'G' : (byte)'A', false);
+            final List<Genotype> genotypes = new ArrayList<>(SAMPLE_COUNT);
+            int totalDepth = 0;
+            for ( final String sample : samples ) {
+                final int refDepth = random.nextInt(30);
+                final int altDepth = random.nextInt(30);
+                totalDepth += refDepth + altDepth;
+                genotypes.add(new GenotypeBuilder(sample, altDepth > refDepth ? Arrays.asList(ref, alt) : Arrays.asList(ref, ref))
+                        .AD(new int[]{refDepth, altDepth}).DP(refDepth + altDepth).GQ(random.nextInt(99))
+                        .PL(new int[]{random.nextInt(500), random.nextInt(500), random.nextInt(500)}).make());
+            }
+            final int position = 1 + i * 10;
+            variants.add(new VariantContextBuilder("benchmark", CONTIG, position, position, Arrays.asList(ref, alt))
+                    .log10PError(-random.nextDouble() * 10).attribute(VCFConstants.DEPTH_KEY, totalDepth).genotypes(genotypes).make());
+        }
+        vcfText = new String(encodeVcf().toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream encodeBam() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try ( final SAMFileWriter writer = new SAMFileWriterFactory().makeBAMWriter(samHeader, true, out) ) {
+            samRecords.forEach(writer::addAlignment);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public void decodeBam(final Blackhole blackhole) throws IOException {
+        try ( final SamReader reader = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT)
+                .open(SamInputResource.of(new ByteArrayInputStream(bamBytes))) ) {
+            for ( final SAMRecord record : reader ) {
+                // force the lazily-decoded fields to be decoded
+                blackhole.consume(record.getCigar());
+                blackhole.consume(record.getReadBases());
+                blackhole.consume(record.getBaseQualities());
+                blackhole.consume(record.getAttributes());
+            }
+        }
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream encodeVcf() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try ( final VariantContextWriter writer = new VariantContextWriterBuilder().setOutputVCFStream(out)
+                .unsetOption(Options.INDEX_ON_THE_FLY).build() ) {
+            writer.writeHeader(vcfHeader);
+            variants.forEach(writer::add);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public void decodeVcf(final Blackhole blackhole) {
+        final VCFCodec codec = new VCFCodec();
+        final LineIterator lines = new LineIteratorImpl(new SynchronousLineReader(new StringReader(vcfText)));
+        codec.readActualHeader(lines);
+        while ( lines.hasNext() ) {
+            final VariantContext vc = codec.decode(lines.next());
+            // force the lazily-decoded genotypes to be decoded
+            blackhole.consume(vc.getGenotypes().size());
+            blackhole.consume(vc.getGenotype(0).getPL());
+        }
+    }
+}
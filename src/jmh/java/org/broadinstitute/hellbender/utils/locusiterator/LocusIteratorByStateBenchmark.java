@@ -0,0 +1,75 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building pileups with {@link LocusIteratorByState#next} over a window of uniformly-tiled synthetic reads
+ * at a given coverage. One read in ten carries a deletion and one in ten an insertion, so that the iterator has to
+ * step through all of the cigar operators it handles.
+ *
+ * Inputs come from {@link ArtificialReadUtils} after resetting the GATK random generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocusIteratorByStateBenchmark {
+    private static final String CONTIG = "1";
+    private static final int WINDOW_START = 100_000;
+    private static final int WINDOW_LENGTH = 10_000;
+    private static final int READ_LENGTH = 100;
+
+    @Param({"30", "100"})
+    public int coverage;
+
+    private SAMFileHeader header;
+    private List<GATKRead> reads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+        header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1_000_000);
+
+        final int readCount = coverage * WINDOW_LENGTH / READ_LENGTH;
+        reads = new ArrayList<>(readCount);
+        for ( int i = 0; i < readCount; i++ ) {
+            final int start = WINDOW_START + (int)((long)i * WINDOW_LENGTH / readCount);
+            final String cigar = i % 10 == 3 ? "40M2D60M" : i % 10 == 7 ? "45M2I53M" : READ_LENGTH + "M";
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, start,
+                    ArtificialReadUtils.createRandomReadBases(READ_LENGTH, false), ArtificialReadUtils.createRandomReadQuals(READ_LENGTH), cigar));
+        }
+    }
+
+    @Benchmark
+    public void iteratePileups(final Blackhole blackhole) {
+        final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), DownsamplingMethod.NONE,
+                Collections.singletonList(null), header, true);
+        while ( libs.hasNext() ) {
+            blackhole.consume(libs.next());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the inner kernel of the pure-Java {@link LoglessPairHMM} implementations, both for a single
+ * read/haplotype pair and for one read against a set of haplotypes that share a common prefix (as happens when the
+ * haplotypes of an assembly region differ only by a few events), where the HMM can skip recomputing the shared columns.
+ *
+ * Inputs are synthetic and reproducible: all bases and qualities come from {@link ArtificialReadUtils} after
+ * resetting the GATK random generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoglessPairHMMBenchmark {
+
+    @Param({"LOGLESS_CACHING", "JAVA_SIMD_LOGLESS_CACHING"})
+    public PairHMM.Implementation implementation;
+
+    @Param({"100", "250"})
+    public int readLength;
+
+    @Param({"300"})
+    public int haplotypeLength;
+
+    @Param({"8"})
+    public int haplotypeCount;
+
+    private PairHMM hmm;
+    private byte[] readBases;
+    private byte[] readQuals;
+    private byte[] insertionGOP;
+    private byte[] deletionGOP;
+    private byte[] overallGCP;
+    private byte[][] haplotypes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+
+        haplotypes = new byte[haplotypeCount][];
+        haplotypes[0] = ArtificialReadUtils.createRandomReadBases(haplotypeLength, false);
+        // each alternate haplotype carries a single SNP, placed progressively further from the start
+        for ( int i = 1; i < haplotypeCount; i++ ) {
+            haplotypes[i] = haplotypes[0].clone();
+            final int snpOffset = i * haplotypeLength / haplotypeCount;
+            haplotypes[i][snpOffset] = haplotypes[i][snpOffset] == 'A' ? (byte)'C' : (byte)'A';
+        }
+
+        // the read is drawn from the middle of the reference haplotype
+        final int readStart = (haplotypeLength - readLength) / 2;
+        readBases = Arrays.copyOfRange(haplotypes[0], readStart, readStart + readLength);
+        readQuals = ArtificialReadUtils.createRandomReadQuals(readLength);
+        for ( int i = 0; i < readLength; i++ ) {
+            readQuals[i] = (byte)Math.max(readQuals[i], PairHMM.BASE_QUALITY_SCORE_THRESHOLD);
+        }
+        insertionGOP = Utils.dupBytes((byte)45, readLength);
+        deletionGOP = Utils.dupBytes((byte)45, readLength);
+        overallGCP = Utils.dupBytes((byte)10, readLength);
+
+        // the pure-Java implementations don't use the native arguments
+        hmm = implementation.makeNewHMM(null);
+        hmm.initialize(readLength, haplotypeLength);
+    }
+
+    @Benchmark
+    public double singlePair() {
+        return hmm.computeReadLikelihoodGivenHaplotypeLog10(haplotypes[0], readBases, readQuals, insertionGOP, deletionGOP, overallGCP, true, null);
+    }
+
+    @Benchmark
+    public void readAgainstAllHaplotypes(final Blackhole blackhole) {
+        for ( int i = 0; i < haplotypeCount; i++ ) {
+            final byte[] nextHaplotype = i + 1 < haplotypeCount ? haplotypes[i + 1] : null;
+            blackhole.consume(hmm.computeReadLikelihoodGivenHaplotypeLog10(haplotypes[i], readBases, readQuals, insertionGOP, deletionGOP, overallGCP, i == 0, nextHaplotype));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link BaseRecalibrationEngine#processRead} with the standard covariates over a batch of synthetic reads
+ * drawn from an in-memory reference, with roughly one mismatch every fifty bases. The engine is recreated for every
+ * measurement iteration so that the size of the recalibration tables stays comparable across iterations.
+ *
+ * Inputs come from {@link ArtificialReadUtils} after resetting the GATK random generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseRecalibrationEngineBenchmark {
+    private static final String CONTIG = "1";
+    private static final int REFERENCE_LENGTH = 100_000;
+    private static final int READ_GROUP_COUNT = 4;
+
+    @Param({"1000"})
+    public int readCount;
+
+    @Param({"151"})
+    public int readLength;
+
+    private SAMFileHeader header;
+    private ReferenceDataSource reference;
+    private List<GATKRead> reads;
+    private final List<Locatable> knownSites = Collections.emptyList();
+    private BaseRecalibrationEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+        header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, REFERENCE_LENGTH, READ_GROUP_COUNT);
+        for ( final SAMReadGroupRecord readGroup : header.getReadGroups() ) {
+            readGroup.setPlatform("ILLUMINA");
+        }
+
+        final byte[] refBases = ArtificialReadUtils.createRandomReadBases(REFERENCE_LENGTH, false);
+        reference = new ReferenceMemorySource(new ReferenceBases(refBases, new SimpleInterval(CONTIG, 1, REFERENCE_LENGTH)), header.getSequenceDictionary());
+
+        reads = new ArrayList<>(readCount);
+        for ( int i = 0; i < readCount; i++ ) {
+            final int start = 1 + (int)((long)i * (REFERENCE_LENGTH - readLength) / readCount);
+            final byte[] bases = Arrays.copyOfRange(refBases, start - 1, start - 1 + readLength);
+            for ( int j = (i * 13) % 50; j < readLength; j += 50 ) {
+                bases[j] = bases[j] == 'A' ? (byte)'C' : (byte)'A';
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, start,
+                    bases, ArtificialReadUtils.createRandomReadQuals(readLength), readLength + "M");
+            read.setReadGroup(header.getReadGroups().get(i % READ_GROUP_COUNT).getId());
+            read.setMappingQuality(60);
+            read.setIsReverseStrand(i % 2 == 1);
+            reads.add(read);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createEngine() {
+        engine = new BaseRecalibrationEngine(new RecalibrationArgumentCollection(), header);
+    }
+
+    @Benchmark
+    public RecalibrationTables processReads() {
+        for ( final GATKRead read : reads ) {
+            engine.processRead(read, reference, knownSites);
+        }
+        return engine.getRecalibrationTables();
+    }
+}
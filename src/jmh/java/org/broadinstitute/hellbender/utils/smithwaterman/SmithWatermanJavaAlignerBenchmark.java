@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SmithWatermanJavaAligner#align} with the two parameter sets the HaplotypeCaller uses it with:
+ * aligning haplotypes back to the reference, and recovering dangling ends during assembly.
+ *
+ * The alternate sequence is a copy of a random reference with a SNP and a small deletion, so that the traceback
+ * goes through all three states. Inputs come from {@link ArtificialReadUtils} after resetting the GATK random generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmithWatermanJavaAlignerBenchmark {
+
+    @Param({"150", "500"})
+    public int referenceLength;
+
+    @Param({"SOFTCLIP", "INDEL"})
+    public SWOverhangStrategy overhangStrategy;
+
+    private final SmithWatermanJavaAligner aligner = SmithWatermanJavaAligner.getInstance();
+    private byte[] reference;
+    private byte[] alternate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Utils.resetRandomGenerator();
+        reference = ArtificialReadUtils.createRandomReadBases(referenceLength, false);
+
+        final int snpOffset = referenceLength / 3;
+        final int deletionOffset = 2 * referenceLength / 3;
+        final byte[] withSnp = reference.clone();
+        withSnp[snpOffset] = withSnp[snpOffset] == 'A' ? (byte)'C' : (byte)'A';
+        alternate = new byte[referenceLength - 3];
+        System.arraycopy(withSnp, 0, alternate, 0, deletionOffset);
+        System.arraycopy(withSnp, deletionOffset + 3, alternate, deletionOffset, referenceLength - deletionOffset - 3);
+        // trim the ends so that the overhang strategy matters
+        alternate = Arrays.copyOfRange(alternate, 5, alternate.length - 5);
+    }
+
+    @Benchmark
+    public SmithWatermanAlignment haplotypeToReference() {
+        return aligner.align(reference, alternate, SmithWatermanAlignmentConstants.NEW_SW_PARAMETERS, overhangStrategy);
+    }
+
+    @Benchmark
+    public SmithWatermanAlignment danglingEndToReference() {
+        return aligner.align(reference, alternate, SmithWatermanAlignmentConstants.STANDARD_NGS, overhangStrategy);
+    }
+}
@@ -43,6 +43,7 @@ public final class StandardArgumentDefinitions {
     public static final String SAMPLE_NAME_LONG_NAME = "sample-name";
     public static final String PEDIGREE_FILE_LONG_NAME = "pedigree";
     public static final String SITES_ONLY_LONG_NAME = "sites-only-vcf-output";
+    public static final String FEATURE_CACHE_MAX_FEATURES_LONG_NAME = "feature-cache-max-features";
     public static final String INVALIDATE_PREVIOUS_FILTERS_LONG_NAME = "invalidate-previous-filters";
     public static final String SORT_ORDER_LONG_NAME = "sort-order";
 
@@ -1,24 +1,35 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IGVUtils;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * An AssemblyRegionWalker is a tool that processes an entire region of reads at a time, each marked as either "active"
@@ -37,6 +48,14 @@ import java.util.List;
  *
  * Internally, the reads are loaded in chunks called read shards, which are then subdivided into active/inactive regions
  * for processing by the tool implementation. One read shard is created per contig.
+ *
+ * Tools that can process independent regions concurrently may opt into a parallel traversal mode (enabled via
+ * {@code --region-threads}) by overriding {@link #supportsParallelRegionProcessing} and {@link #applyInParallel}.
+ * In this mode region discovery still happens on the traversal thread, the expensive per-region work runs on a pool
+ * of worker threads, and the results of each region are committed back on the traversal thread in genomic order.
+ *
+ * Independently, reads may be loaded ahead of region processing on a background thread (enabled via
+ * {@code --read-prefetch-buffer-size}). Tools must not query the reads data source directly while prefetching is on.
  */
 public abstract class AssemblyRegionWalker extends WalkerBase {
 
@@ -54,6 +73,29 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
     @Argument(fullName = AssemblyRegionArgumentCollection.ASSEMBLY_REGION_OUT_LONG_NAME, doc="Output the assembly region to this IGV formatted file", optional = true)
     protected String assemblyRegionOut = null;
 
+    /**
+     * Number of worker threads used to process assembly regions. Values greater than 1 enable parallel region
+     * processing, which is only available for tools that support it. Output is identical to the single-threaded
+     * traversal, since results are committed in genomic order.
+     */
+    @Argument(fullName = AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, doc = "Number of threads used to process assembly regions in parallel (only supported by some tools)", optional = true, minValue = 1)
+    public int regionThreads = 1;
+
+    /**
+     * If greater than 0, reads are decoded, transformed, filtered and downsampled on a background thread, up to this
+     * many reads ahead of assembly region processing. Once the current read shard has been fully loaded, the background
+     * thread moves on to the next one, so I/O for the next shard overlaps with processing of the current one.
+     * Larger values allow more overlap at the cost of memory.
+     */
+    @Argument(fullName = AssemblyRegionArgumentCollection.READ_PREFETCH_BUFFER_SIZE_LONG_NAME, doc = "Number of reads to load ahead of assembly region processing on a background thread (0 to disable)", optional = true, minValue = 0)
+    public int readPrefetchBufferSize = 0;
+
+    /**
+     * Maximum number of regions that may be in flight (submitted but not yet committed) per worker thread during a
+     * parallel traversal. Bounds the memory used by regions waiting to be processed or committed.
+     */
+    private static final int MAX_PENDING_REGIONS_PER_THREAD = 4;
+
     private PrintStream assemblyRegionOutStream;
 
     @Override
@@ -77,6 +119,10 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         super.onStartup();
 
         assemblyRegionArgs.validate();
+        if ( regionThreads > 1 && ! supportsParallelRegionProcessing() ) {
+            throw new CommandLineException.BadArgumentValue(AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, String.valueOf(regionThreads),
+                    getClass().getSimpleName() + " does not support parallel processing of assembly regions");
+        }
 
         final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
@@ -167,22 +213,59 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
             readShard.setReadFilter(countedFilter);
             readShard.setDownsampler(createDownsampler());
             readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
+        }
+
+        final ReadShardPrefetcher readPrefetcher = readPrefetchBufferSize > 0 ? new ReadShardPrefetcher(readShards, readPrefetchBufferSize) : null;
+        final ExecutorService regionExecutor = regionThreads > 1 ? makeRegionExecutor() : null;
+
+        // When regions are processed in parallel, reference queries come from both the traversal thread and the
+        // worker threads, so they must be serialized
+        final ReferenceDataSource regionReference = regionExecutor != null && reference != null ? new SynchronizedReferenceDataSource(reference) : reference;
+        final Deque<PendingRegion> pendingRegions = new ArrayDeque<>();
 
-            processReadShard(readShard, reference, features);
+        try {
+            for ( final MultiIntervalLocalReadShard readShard : readShards ) {
+                final MultiIntervalShard<GATKRead> shardToProcess = readPrefetcher != null ? readPrefetcher.nextShard() : readShard;
+                processReadShard(shardToProcess, regionReference, features, regionExecutor, pendingRegions);
+            }
+
+            // Commit any regions still in flight, in order
+            while ( ! pendingRegions.isEmpty() ) {
+                commitNextPendingRegion(pendingRegions);
+            }
+        } finally {
+            if ( regionExecutor != null ) {
+                regionExecutor.shutdownNow();
+            }
+            // The read filter is updated by the prefetching thread, so make sure it is done before we report on it
+            if ( readPrefetcher != null ) {
+                readPrefetcher.close();
+            }
         }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    private ExecutorService makeRegionExecutor() {
+        logger.info("Processing assembly regions using " + regionThreads + " threads");
+        return Executors.newFixedThreadPool(regionThreads, new ThreadFactoryBuilder()
+                .setNameFormat("assemblyRegion-thread-%d")
+                .setDaemon(true)
+                .build());
+    }
+
     /**
      * Divide the given Shard up into active/inactive AssemblyRegions using the {@link #assemblyRegionEvaluator},
      * and send each region to the tool implementation for processing.
      *
-     * @param shard MultiIntervalLocalReadShard to process
+     * @param shard shard of reads to process
      * @param reference Reference data source
      * @param features FeatureManager
+     * @param regionExecutor executor used to process regions in parallel, or null to process regions on this thread
+     * @param pendingRegions regions submitted to the regionExecutor but not yet committed, in genomic order
      */
-    private void processReadShard(MultiIntervalLocalReadShard shard, ReferenceDataSource reference, FeatureManager features ) {
+    private void processReadShard(final MultiIntervalShard<GATKRead> shard, final ReferenceDataSource reference, final FeatureManager features,
+                                  final ExecutorService regionExecutor, final Deque<PendingRegion> pendingRegions ) {
         final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(shard, getHeaderForReads(), reference, features, assemblyRegionEvaluator(), assemblyRegionArgs, shouldTrackPileupsForAssemblyRegions());
 
         // Call into the tool implementation to process each assembly region from this shard.
@@ -195,6 +278,11 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
             logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
             writeAssemblyRegion(assemblyRegion);
 
+            if ( regionExecutor != null ) {
+                submitRegion(assemblyRegion, reference, features, regionExecutor, pendingRegions);
+                continue;
+            }
+
             apply(assemblyRegion,
                     new ReferenceContext(reference, assemblyRegion.getPaddedSpan()),
                     new FeatureContext(features, assemblyRegion.getPaddedSpan()));
@@ -204,6 +292,67 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         }
     }
 
+    /**
+     * Hand a region to a worker thread for processing, then commit finished regions (in order) until the number of
+     * in-flight regions is back within bounds.
+     */
+    private void submitRegion(final AssemblyRegion region, final ReferenceDataSource reference, final FeatureManager features,
+                              final ExecutorService regionExecutor, final Deque<PendingRegion> pendingRegions) {
+        // Reads are shared between overlapping regions and tools are free to modify them, so each region
+        // handed to a worker gets its own copies
+        final List<GATKRead> readCopies = region.getReads().stream().map(GATKRead::deepCopy).collect(Collectors.toList());
+        region.clearReads();
+        region.addAll(readCopies);
+
+        final ReferenceContext referenceContext = new ReferenceContext(reference, region.getPaddedSpan());
+        final FeatureContext featureContext = new FeatureContext(features, region.getPaddedSpan());
+        pendingRegions.add(new PendingRegion(region.getSpan(), regionExecutor.submit(() -> applyInParallel(region, referenceContext, featureContext))));
+
+        while ( pendingRegions.size() >= regionThreads * MAX_PENDING_REGIONS_PER_THREAD ) {
+            commitNextPendingRegion(pendingRegions);
+        }
+    }
+
+    /**
+     * Wait for the oldest in-flight region to finish processing, and commit its results on this thread.
+     */
+    private void commitNextPendingRegion(final Deque<PendingRegion> pendingRegions) {
+        final PendingRegion pendingRegion = pendingRegions.poll();
+        final Runnable commit;
+        try {
+            commit = pendingRegion.result.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for assembly region " + pendingRegion.span + " to be processed", e);
+        } catch ( final ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            } else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new GATKException("Error processing assembly region " + pendingRegion.span, cause);
+        }
+
+        commit.run();
+
+        // For this traversal, the progress meter unit is the assembly region rather than the read shard
+        progressMeter.update(pendingRegion.span);
+    }
+
+    /**
+     * An assembly region submitted for parallel processing, along with the (future) action that commits its results.
+     */
+    private static final class PendingRegion {
+        private final SimpleInterval span;
+        private final Future<Runnable> result;
+
+        private PendingRegion(final SimpleInterval span, final Future<Runnable> result) {
+            this.span = span;
+            this.result = result;
+        }
+    }
+
     private void writeAssemblyRegion(final AssemblyRegion region) {
         if ( assemblyRegionOutStream != null ) {
             IGVUtils.printIGVFormatRow(assemblyRegionOutStream, new SimpleInterval(region.getContig(), region.getStart(), region.getStart()),
@@ -252,4 +401,33 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
      * @param featureContext features overlapping the padded span of the assembly region
      */
     public abstract void apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Tools that can process independent assembly regions concurrently should override this to return true,
+     * and implement {@link #applyInParallel}. Such tools may then be run with {@code --region-threads} greater than 1.
+     *
+     * @return true if this tool supports parallel processing of assembly regions, otherwise false
+     */
+    public boolean supportsParallelRegionProcessing() {
+        return false;
+    }
+
+    /**
+     * Process an individual AssemblyRegion on a worker thread, as part of the parallel traversal mode. Only called
+     * if {@link #supportsParallelRegionProcessing} returns true and more than one region thread was requested.
+     *
+     * Implementations must only touch thread-confined state (for example, per-thread calling engines) while processing
+     * the region, and should defer any output to the returned action. The returned actions are run on the traversal
+     * thread, one at a time and in the genomic order of their regions, so they may safely write to shared outputs.
+     *
+     * Regions passed to this method own private copies of their reads.
+     *
+     * @param region region to process (pre-marked as either active or inactive)
+     * @param referenceContext reference data overlapping the padded span of the assembly region
+     * @param featureContext features overlapping the padded span of the assembly region
+     * @return action that commits the results for this region, to be run on the traversal thread
+     */
+    public Runnable applyInParallel( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel processing of assembly regions");
+    }
 }
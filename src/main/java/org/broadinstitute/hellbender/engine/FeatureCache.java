@@ -4,31 +4,32 @@ import htsjdk.samtools.util.Locatable;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * FeatureCache: helper class for {@link FeatureDataSource} to manage the cache of Feature records used
  * during query operations initiated via {@link FeatureDataSource#query(org.broadinstitute.hellbender.utils.SimpleInterval)}
- * and/or {@link FeatureDataSource#queryAndPrefetch(org.broadinstitute.hellbender.utils.SimpleInterval)}.
+ * and/or {@link FeatureDataSource#queryAndPrefetch(htsjdk.samtools.util.Locatable)}.
  *
- * Strategy is to pre-fetch a large number of records AFTER each query interval that produces
- * a cache miss. This optimizes for the use case of intervals with gradually increasing start
- * positions, as many subsequent queries will find their records wholly contained in the cache
- * before we have another cache miss. Performance will be poor for random/non-localized access
- * patterns, or intervals with decreasing start positions.
+ * Each contig is partitioned into fixed-size blocks of {@link #getBlockSize()} bases, and the cache holds the Features
+ * overlapping a set of blocks, each block being complete (it holds every Feature overlapping it) and indexed by start
+ * position so that the Features overlapping a query within it are found by binary search. A query is answered from the
+ * blocks it spans, and the blocks missing from the cache are fetched from disk in as few reads as possible, together
+ * with the missing blocks following the query up to a lookahead distance.
  *
- * Usage:
- * -Test whether each query interval is a cache hit via {@link #cacheHit(org.broadinstitute.hellbender.utils.SimpleInterval)}
- *
- * -If it is a cache hit, trim the cache to the start position of the interval (discarding records that
- *  end before the start of the new interval) via {@link #trimToNewStartPosition(int)}, then retrieve
- *  records up to the desired endpoint using {@link #getCachedFeaturesUpToStopPosition(int)}.
+ * Unlike a single sliding window, this keeps serving queries from the cache when the access pattern goes back and forth
+ * between nearby regions or contigs (eg., interleaved walkers, overlapping shards or decreasing start positions), as
+ * long as the blocks involved fit in the cache. The size of the cache is bounded by a maximum number of Features, and
+ * when it is exceeded the least-recently used blocks are evicted. Features overlapping several blocks are held (and
+ * counted) once per block.
  *
- * -If it is a cache miss, reset the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}, pre-fetching
- *  a large number of records after the query interval in addition to those actually requested.
+ * Usage:
+ * -Query the cache via {@link #query(Locatable, int, Function)}, providing a function used to fetch the Features
+ *  overlapping an interval from disk on cache misses.
  *
  * @param <CACHED_FEATURE> Type of Feature record we are caching
  */
@@ -36,69 +37,134 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     private static final Logger logger = LogManager.getLogger(FeatureCache.class);
 
     /**
-     * Our cache of Features, optimized for insertion/removal at both ends.
+     * Default size of the blocks the contigs are partitioned into, in bases
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    /**
+     * Default maximum number of Features held in the cache
      */
-    private final Deque<CACHED_FEATURE> cache;
+    public static final long DEFAULT_MAX_CACHED_FEATURES = 100_000L;
+
+    private final int blockSize;
+
+    private long maxCachedFeatures;
 
     /**
-     * Our cache currently contains Feature records overlapping this interval
+     * Our cached blocks, keyed by contig and block index (see {@link #blockKey}), in least-recently used first order
      */
-    private SimpleInterval cachedInterval;
+    private final LinkedHashMap<Long, Block<CACHED_FEATURE>> blocks = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
-     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
+     * Index assigned to each contig seen so far, used to build the block keys
      */
-    private int numCacheHits = 0;
+    private final Map<String, Integer> contigIndices = new HashMap<>();
 
     /**
-     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned false
+     * Number of Features held in our blocks, counting Features once per block they're in, and empty blocks as one
      */
-    private int numCacheMisses = 0;
+    private long cachedFeatures = 0;
 
     /**
-     * Initial capacity of our cache (will grow by doubling if needed)
+     * Number of queries answered entirely from the cache
      */
-    private static final int INITIAL_CAPACITY = 1024;
+    private int numCacheHits = 0;
 
     /**
-     * When we trim our cache to a new start position, this is the maximum number of
-     * Features we expect to need to place into temporary storage for the duration of
-     * the trim operation. Performance only suffers slightly if our estimate is wrong.
+     * Number of queries that needed to fetch Features from disk
      */
-    private static final int EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM = 128;
+    private int numCacheMisses = 0;
+
+    private long numBlockHits = 0;
+    private long numBlockMisses = 0;
+    private long numBlockEvictions = 0;
+    private long numFetches = 0;
 
     /**
-     * Create an initially-empty FeatureCache with default initial capacity
+     * The Features overlapping one block, sorted by start position
+     */
+    private static final class Block<T extends Feature> {
+        private final List<T> features;
+        private final int[] starts;
+        // length of the longest Feature in the block, which bounds how far before a query start its overlappers start
+        private final int maxFeatureLength;
+
+        private Block(final List<T> features) {
+            this.features = features;
+            this.starts = new int[features.size()];
+            int maxLength = 1;
+            for ( int i = 0; i < starts.length; i++ ) {
+                final T feature = features.get(i);
+                starts[i] = feature.getStart();
+                maxLength = Math.max(maxLength, feature.getEnd() - feature.getStart() + 1);
+            }
+            this.maxFeatureLength = maxLength;
+        }
+
+        private long cost() {
+            return Math.max(1, features.size());
+        }
+
+        /**
+         * @return index of the first Feature starting at or after the given position
+         */
+        private int firstStartingAtOrAfter(final int position) {
+            int low = 0;
+            int high = starts.length;
+            while ( low < high ) {
+                final int mid = (low + high) >>> 1;
+                if ( starts[mid] < position ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Create an initially-empty FeatureCache with the default block size and maximum number of Features
      */
     public FeatureCache() {
-        cache = new ArrayDeque<>(INITIAL_CAPACITY);
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_MAX_CACHED_FEATURES);
     }
 
     /**
-     * Get the name of the contig on which the Features in our cache are located
+     * Create an initially-empty FeatureCache
      *
-     * @return the name of the contig on which the Features in our cache are located
+     * @param blockSize size of the blocks the contigs are partitioned into, in bases (> 0)
+     * @param maxCachedFeatures maximum number of Features to hold in the cache (> 0)
      */
-    public String getContig() {
-        return cachedInterval.getContig();
+    public FeatureCache( final int blockSize, final long maxCachedFeatures ) {
+        Utils.validateArg(blockSize > 0, "Block size must be > 0");
+        this.blockSize = blockSize;
+        setMaxCachedFeatures(maxCachedFeatures);
     }
 
     /**
-     * Get the start position of the interval that all Features in our cache overlap
-     *
-     * @return the start position of the interval that all Features in our cache overlap
+     * @return size of the blocks the contigs are partitioned into, in bases
      */
-    public int getCacheStart() {
-        return cachedInterval.getStart();
+    public int getBlockSize() {
+        return blockSize;
     }
 
     /**
-     * Get the stop position of the interval that all Features in our cache overlap
+     * @return maximum number of Features held in the cache
+     */
+    public long getMaxCachedFeatures() {
+        return maxCachedFeatures;
+    }
+
+    /**
+     * Change the maximum number of Features held in the cache, evicting blocks if the cache is already larger.
      *
-     * @return the stop position of the interval that all Features in our cache overlap
+     * @param maxCachedFeatures maximum number of Features to hold in the cache (> 0)
      */
-    public int getCacheEnd() {
-        return cachedInterval.getEnd();
+    public void setMaxCachedFeatures( final long maxCachedFeatures ) {
+        Utils.validateArg(maxCachedFeatures > 0, "Maximum number of cached Features must be > 0");
+        this.maxCachedFeatures = maxCachedFeatures;
+        evictIfNecessary();
     }
 
     /**
@@ -107,120 +173,204 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
      * @return true if our cache contains no Features, otherwise false
      */
     public boolean isEmpty() {
-        return cache.isEmpty();
+        return blocks.values().stream().allMatch(block -> block.features.isEmpty());
     }
 
     /**
-     * @return Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
+     * @return number of blocks currently in the cache
+     */
+    public int getNumCachedBlocks() {
+        return blocks.size();
+    }
+
+    /**
+     * @return number of Features currently in the cache, counting Features once per block they're in
+     */
+    public long getNumCachedFeatures() {
+        return cachedFeatures;
+    }
+
+    /**
+     * @return Number of queries answered entirely from the cache
      */
     public int getNumCacheHits() {
         return numCacheHits;
     }
 
     /**
-     * @return Number of times we called {@link #cacheHit(SimpleInterval)} and it returned false
+     * @return Number of queries that needed to fetch Features from disk
      */
     public int getNumCacheMisses() {
         return numCacheMisses;
     }
 
     /**
-     * Clear our cache and fill it with the records from the provided iterator, preserving their
-     * relative ordering, and update our contig/start/stop to reflect the new interval that all
-     * records in our cache overlap.
-     *
-     * Typically each fill operation should involve significant lookahead beyond the region
-     * requested so that future queries will be cache hits.
-     *
-     * @param featureIter iterator from which to pull Features with which to populate our cache
-     *                    (replacing existing cache contents)
-     * @param interval all Features from featureIter overlap this interval
-     */
-    public void fill( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval ) {
-        cache.clear();
-        while ( featureIter.hasNext() ) {
-            cache.add(featureIter.next());
-        }
+     * @return Number of blocks evicted from the cache so far
+     */
+    public long getNumBlockEvictions() {
+        return numBlockEvictions;
+    }
 
-        cachedInterval = interval;
+    /**
+     * @return Number of times Features were fetched from disk
+     */
+    public long getNumFetches() {
+        return numFetches;
     }
 
     /**
-     * Determines whether all records overlapping the provided interval are already contained in our cache.
+     * Returns all Features overlapping the given interval, in the order in which the fetch function returns them,
+     * going to disk for the blocks of the interval that are not already cached.
      *
-     * @param interval the interval to check against the contents of our cache
-     * @return true if all records overlapping the provided interval are already contained in our cache, otherwise false
+     * @param interval retrieve all Features overlapping this interval
+     * @param lookaheadBases on cache misses, also fetch the missing blocks up to this many bases past the end of the interval
+     * @param fetcher returns the Features overlapping the given interval, sorted by start position, from disk
+     * @return all Features overlapping the given interval
      */
-    public boolean cacheHit( final Locatable interval ) {
-        final boolean cacheHit = cachedInterval != null && cachedInterval.contains(interval);
+    public List<CACHED_FEATURE> query( final Locatable interval, final int lookaheadBases, final Function<SimpleInterval, List<CACHED_FEATURE>> fetcher ) {
+        Utils.nonNull(interval);
+        Utils.nonNull(fetcher);
+        Utils.validateArg(lookaheadBases >= 0, "Lookahead bases must be >= 0");
+
+        final String contig = interval.getContig();
+        final int queryStart = Math.max(1, interval.getStart());
+        final int queryEnd = interval.getEnd();
+        if ( queryEnd < queryStart ) {
+            ++numCacheHits;
+            return new ArrayList<>(0);
+        }
+        final int contigIndex = contigIndices.computeIfAbsent(contig, c -> contigIndices.size());
+        final int firstBlock = blockIndex(queryStart);
+        final int lastBlock = blockIndex(queryEnd);
+        // Note: we use addExact to blow up on overflow rather than propagate negative results downstream
+        final int lastLookaheadBlock = blockIndex(Math.addExact(queryEnd, lookaheadBases));
+
+        final List<Block<CACHED_FEATURE>> queryBlocks = new ArrayList<>(lastBlock - firstBlock + 1);
+        boolean cacheHit = true;
+        int blockIndex = firstBlock;
+        while ( blockIndex <= lastBlock ) {
+            final Block<CACHED_FEATURE> block = blocks.get(blockKey(contigIndex, blockIndex));
+            if ( block != null ) {
+                ++numBlockHits;
+                queryBlocks.add(block);
+                ++blockIndex;
+                continue;
+            }
+
+            // fetch the run of missing blocks starting here in a single read, extending it past the end of the query
+            // with the missing blocks within the lookahead
+            cacheHit = false;
+            int runEnd = blockIndex;
+            while ( runEnd < lastLookaheadBlock && ! blocks.containsKey(blockKey(contigIndex, runEnd + 1)) ) {
+                ++runEnd;
+            }
+            final List<Block<CACHED_FEATURE>> fetchedBlocks = fetchBlocks(contig, contigIndex, blockIndex, runEnd, fetcher);
+            queryBlocks.addAll(fetchedBlocks.subList(0, Math.min(lastBlock, runEnd) - blockIndex + 1));
+            blockIndex = runEnd + 1;
+        }
 
         if ( cacheHit ) {
             ++numCacheHits;
-        }
-        else {
+        } else {
             ++numCacheMisses;
         }
 
-        return cacheHit;
+        final List<CACHED_FEATURE> matchingFeatures = collectOverlappingFeatures(queryBlocks, firstBlock, queryStart, queryEnd);
+        evictIfNecessary();
+        return matchingFeatures;
     }
 
     /**
-     * Trims the cache to the specified new start position by discarding all records that end before it
-     * while preserving relative ordering of records.
-     *
-     * @param newStart new start position on the current contig to which to trim the cache
+     * Features overlapping several blocks are taken from the first query block they're in, which is the block of the
+     * query start for the Features starting before it, and the block they start in for the others. This way each Feature
+     * is returned once, and in start position order.
      */
-    public void trimToNewStartPosition( final int newStart ) {
-        if ( newStart > cachedInterval.getEnd() ) {
-            throw new GATKException(String.format("BUG: attempted to trim Feature cache to an improper new start position (%d). Cache stop = %d",
-                    newStart, cachedInterval.getEnd()));
+    private List<CACHED_FEATURE> collectOverlappingFeatures( final List<Block<CACHED_FEATURE>> queryBlocks, final int firstBlock,
+                                                             final int queryStart, final int queryEnd ) {
+        final List<CACHED_FEATURE> matchingFeatures = new ArrayList<>();
+        for ( int i = 0; i < queryBlocks.size(); i++ ) {
+            final Block<CACHED_FEATURE> block = queryBlocks.get(i);
+            final int from = i == 0 ? block.firstStartingAtOrAfter(queryStart - block.maxFeatureLength + 1)
+                                    : block.firstStartingAtOrAfter(blockStart(firstBlock + i));
+            for ( int j = from; j < block.starts.length && block.starts[j] <= queryEnd; j++ ) {
+                final CACHED_FEATURE feature = block.features.get(j);
+                if ( feature.getEnd() >= queryStart ) {
+                    matchingFeatures.add(feature);
+                }
+            }
         }
+        return matchingFeatures;
+    }
 
-        List<CACHED_FEATURE> overlappingFeaturesBeforeNewStart = new ArrayList<>(EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM);
-
-        // In order to trim the cache to the new start position, we need to find
-        // all Features in the cache that start before the new start position,
-        // and discard those that don't overlap the new start while keeping those
-        // that do overlap. We can stop once we find a Feature that starts on or
-        // after the new start position, since the Features are assumed to be sorted
-        // by start position.
-        while ( ! cache.isEmpty() && cache.getFirst().getStart() < newStart ) {
-            CACHED_FEATURE featureBeforeNewStart = cache.removeFirst();
+    /**
+     * Fetch the Features overlapping a run of consecutive blocks, and add the blocks to the cache.
+     *
+     * @return the new blocks, in order
+     */
+    private List<Block<CACHED_FEATURE>> fetchBlocks( final String contig, final int contigIndex, final int firstBlock, final int lastBlock,
+                                                     final Function<SimpleInterval, List<CACHED_FEATURE>> fetcher ) {
+        final int numBlocks = lastBlock - firstBlock + 1;
+        final List<List<CACHED_FEATURE>> blockFeatures = new ArrayList<>(numBlocks);
+        for ( int i = 0; i < numBlocks; i++ ) {
+            blockFeatures.add(new ArrayList<>());
+        }
 
-            if ( featureBeforeNewStart.getEnd() >= newStart ) {
-                overlappingFeaturesBeforeNewStart.add(featureBeforeNewStart);
+        final List<CACHED_FEATURE> fetched = fetcher.apply(new SimpleInterval(contig, blockStart(firstBlock), blockEnd(lastBlock)));
+        ++numFetches;
+        for ( final CACHED_FEATURE feature : fetched ) {
+            final int from = Math.max(firstBlock, blockIndex(Math.max(1, feature.getStart())));
+            // zero-length Features (end == start - 1) go in the block of their start
+            final int to = Math.min(lastBlock, Math.max(from, blockIndex(Math.max(1, feature.getEnd()))));
+            for ( int block = from; block <= to; block++ ) {
+                blockFeatures.get(block - firstBlock).add(feature);
             }
         }
 
-        // Add back the Features that started before the new start but overlapped it
-        // in the reverse of the order in which we encountered them so that their original
-        // relative ordering in the cache is restored.
-        for ( int i = overlappingFeaturesBeforeNewStart.size() - 1; i >= 0; --i ) {
-            cache.addFirst(overlappingFeaturesBeforeNewStart.get(i));
+        final List<Block<CACHED_FEATURE>> newBlocks = new ArrayList<>(numBlocks);
+        for ( int i = 0; i < numBlocks; i++ ) {
+            final Block<CACHED_FEATURE> block = new Block<>(blockFeatures.get(i));
+            blocks.put(blockKey(contigIndex, firstBlock + i), block);
+            cachedFeatures += block.cost();
+            newBlocks.add(block);
         }
+        numBlockMisses += numBlocks;
+        return newBlocks;
+    }
 
-        // Record our new start boundary
-        cachedInterval = new SimpleInterval(cachedInterval.getContig(), newStart, cachedInterval.getEnd());
+    /**
+     * Evict the least-recently used blocks until the cache is within its maximum size
+     */
+    private void evictIfNecessary() {
+        final Iterator<Block<CACHED_FEATURE>> leastRecentlyUsed = blocks.values().iterator();
+        while ( cachedFeatures > maxCachedFeatures && leastRecentlyUsed.hasNext() ) {
+            cachedFeatures -= leastRecentlyUsed.next().cost();
+            leastRecentlyUsed.remove();
+            ++numBlockEvictions;
+        }
     }
 
     /**
-     * Returns (but does not remove) all cached Features that overlap the region from the start
-     * of our cache (cacheStart) to the specified stop position.
-     *
-     * @param stopPosition Endpoint of the interval that returned Features must overlap
-     * @return all cached Features that overlap the region from the start of our cache to the specified stop position
+     * Remove all Features from the cache
      */
-    public List<CACHED_FEATURE> getCachedFeaturesUpToStopPosition( final int stopPosition ) {
-        List<CACHED_FEATURE> matchingFeatures = new ArrayList<>(cache.size());
+    public void clear() {
+        blocks.clear();
+        cachedFeatures = 0;
+    }
 
-        // Find (but do not remove from our cache) all Features that start before or on the provided stop position
-        for ( CACHED_FEATURE candidateFeature : cache ) {
-            if ( candidateFeature.getStart() > stopPosition ) {
-                break; // No more possible matches among the remaining cached Features, so stop looking
-            }
-            matchingFeatures.add(candidateFeature);
-        }
-        return matchingFeatures;
+    private int blockIndex( final int position ) {
+        return (position - 1) / blockSize;
+    }
+
+    private int blockStart( final int blockIndex ) {
+        return blockIndex * blockSize + 1;
+    }
+
+    private int blockEnd( final int blockIndex ) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) blockIndex * blockSize + blockSize);
+    }
+
+    private static long blockKey( final int contigIndex, final int blockIndex ) {
+        return ((long) contigIndex << 32) | (blockIndex & 0xFFFFFFFFL);
     }
 
     /**
@@ -239,11 +389,19 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         final String sourceNameString = sourceName.isEmpty() ? "" : "for data source " + sourceName;
 
         final int totalQueries = getNumCacheHits() + getNumCacheMisses();
-        logger.debug(String.format("Cache hit rate %s was %.2f%% (%d out of %d total queries)",
+        final long totalBlockLookups = numBlockHits + numBlockMisses;
+        logger.debug(String.format("Cache hit rate %s was %.2f%% (%d out of %d total queries); block hit rate was %.2f%% (%d out of %d), " +
+                        "with %d reads from disk, %d blocks evicted, and %d blocks holding %d features currently cached",
                 sourceNameString,
                 totalQueries > 0 ? ((double)getNumCacheHits() / totalQueries) * 100.0 : 0.0,
                 getNumCacheHits(),
-                totalQueries));
+                totalQueries,
+                totalBlockLookups > 0 ? ((double)numBlockHits / totalBlockLookups) * 100.0 : 0.0,
+                numBlockHits,
+                totalBlockLookups,
+                numFetches,
+                numBlockEvictions,
+                blocks.size(),
+                cachedFeatures));
     }
 }
-
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
@@ -31,6 +32,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -55,13 +57,17 @@ import static org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStre
  * the bundled tool IndexFeatureFile. Targeted queries by one interval at a time are unaffected by
  * any intervals for full traversal set via {@link #setIntervalsForTraversal(List)}.
  * <p>
- * To improve performance in the case of targeted queries by one interval at a time, this class uses a caching
- * scheme that is optimized for the common access pattern of multiple separate queries over intervals with
- * gradually increasing start positions. It optimizes for this use case by pre-fetching records immediately
- * following each interval during a query and caching them. Performance will suffer if the access pattern is
- * random, involves queries over intervals with DECREASING start positions instead of INCREASING start positions,
- * or involves lots of very large jumps forward on the genome or lots of contig switches. Query caching
- * can be disabled, if desired.
+ * To improve performance in the case of targeted queries by one interval at a time, this class caches the records
+ * of recent queries in fixed-size blocks of the genome, together with the records immediately following each query
+ * interval (see {@link FeatureCache}). This is optimized for the common access pattern of multiple separate queries
+ * over intervals with gradually increasing start positions, but also handles queries that go back to recently visited
+ * regions, up to the maximum size of the cache. Performance will suffer if the access pattern is random, or involves
+ * lots of very large jumps on the genome.
+ * <p>
+ * Inputs tagged with {@link FeatureInput#CACHE_ATTRIBUTE_KEY}={@link FeatureInput#FULL_CACHE} are instead loaded in
+ * memory entirely when the data source is created, and queries over them are answered from memory (see
+ * {@link ResidentFeatureIndex}). The loaded Features are shared by all the open data sources over the same input in the
+ * JVM. Such inputs don't need an index to be queried, but must be in a text format.
  *
  * @param <T> The type of Feature returned by this data source
  */
@@ -90,16 +96,31 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
     /**
      * Cache containing Features from recent queries initiated via {@link #query(SimpleInterval)} and/or
-     * {@link #queryAndPrefetch(Locatable)}. This is guaranteed to start at the start position of the
-     * most recent query, but will typically end well after the end of the most recent query. Designed to
-     * improve performance of the common access pattern involving multiple queries across nearby intervals
-     * with gradually increasing start positions.
+     * {@link #queryAndPrefetch(Locatable)}, along with the Features following them up to queryLookaheadBases.
+     * Designed to improve performance of the common access pattern involving multiple queries across nearby
+     * intervals with gradually increasing start positions.
      */
     private final FeatureCache<T> queryCache;
 
+    /**
+     * All the Features of this data source, held in memory and used to fill {@link #queryCache} in place of the file,
+     * if requested by our FeatureInput ({@link FeatureInput#isFullyCached}). Otherwise null.
+     */
+    private final ResidentFeatureIndex residentIndex;
+
+    /**
+     * Key that {@link #residentIndex} is shared under, until it is released when this data source is closed
+     */
+    private String residentIndexKey;
+
+    /**
+     * Our own codec to decode the Features of {@link #residentIndex}, which is shared with other data sources
+     */
+    private final AsciiFeatureCodec<T> residentCodec;
+
     /**
      * When we experience a cache miss (ie., a query interval not fully contained within our cache) and need
-     * to re-populate the Feature cache from disk to satisfy a query, this controls the number of extra bases
+     * to populate the Feature cache from disk to satisfy a query, this controls the number of extra bases
      * AFTER the end of our interval to fetch. Should be sufficiently large so that typically a significant number
      * of subsequent queries will be cache hits (ie., query intervals fully contained within our cache) before
      * we have another cache miss and need to go to disk again.
@@ -343,12 +364,79 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         this.intervalsForTraversal = null;
         this.queryCache = new FeatureCache<>();
         this.queryLookaheadBases = queryLookaheadBases;
+
+        this.residentCodec = featureInput.isFullyCached() ? getResidentCodec(featureInput, targetFeatureType, setNameOnCodec) : null;
+        if (residentCodec != null) {
+            this.residentIndex = acquireResidentIndex(residentCodec);
+            residentIndex.initializeCodec(residentCodec);
+        } else {
+            if (featureInput.isFullyCached()) {
+                logger.warn("Input " + featureInput + " is not in a text format, so it will be queried from disk rather than held in memory");
+            }
+            this.residentIndex = null;
+        }
+    }
+
+    /**
+     * @return a new codec for a fully-cached input, or null if it isn't a text file that can be held in memory
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Feature> AsciiFeatureCodec<T> getResidentCodec(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType,
+                                                                            final boolean setNameOnCodec) {
+        if (IOUtils.isGenomicsDBPath(featureInput) || featureInput.getFeaturePath().toLowerCase().endsWith(BCI_FILE_EXTENSION)) {
+            return null;
+        }
+        final FeatureCodec<T, ?> codec = getCodecForFeatureInput(featureInput, targetFeatureType, setNameOnCodec);
+        return codec instanceof AsciiFeatureCodec ? (AsciiFeatureCodec<T>) codec : null;
+    }
+
+    /**
+     * Get the in-memory index of all the Features of our input, loading it from our file if no other open data source
+     * loaded it already. The index is shared only between data sources reading the same version of the file with the
+     * same type of codec.
+     */
+    private ResidentFeatureIndex acquireResidentIndex(final AsciiFeatureCodec<T> codec) {
+        String lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(featureInput.toPath()).toString();
+        } catch (final IOException | RuntimeException e) {
+            lastModified = "";
+        }
+        residentIndexKey = String.join("\t", featureInput.getURIString(), lastModified, codec.getClass().getName());
+
+        return ResidentFeatureIndex.acquire(residentIndexKey, () -> {
+            try {
+                // the index gets a codec of its own, as ours would be left in the state of the end of the file
+                final ResidentFeatureIndex index = ResidentFeatureIndex.load(featureInput.toPath(), codec.getClass().getDeclaredConstructor().newInstance());
+                logger.info(String.format("Loaded %d features from %s into memory", index.size(), featureInput));
+                return index;
+            } catch (final IOException e) {
+                throw new GATKException("Error loading file " + featureInput + " into memory", e);
+            } catch (final ReflectiveOperationException e) {
+                throw new GATKException("Unable to instantiate codec " + codec.getClass().getName(), e);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    ResidentFeatureIndex getResidentIndex() {
+        return residentIndex;
     }
 
     final void printCacheStats() {
         queryCache.printCacheStatistics( getName() );
     }
 
+    /**
+     * Set the maximum number of Features held in the query cache of this data source, evicting the least-recently
+     * used Features if the cache is already larger. Defaults to 100,000 Features.
+     *
+     * @param maxCachedFeatures maximum number of Features to cache (> 0)
+     */
+    public void setQueryCacheMaxFeatures(final long maxCachedFeatures) {
+        queryCache.setMaxCachedFeatures(maxCachedFeatures);
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static <T extends Feature> FeatureReader<T> getFeatureReader(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType,
                                                                          final Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
@@ -575,54 +663,42 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      * @return a List of all Features in this data source that overlap the provided interval
      */
     public List<T> queryAndPrefetch(final Locatable interval) {
+        if (residentIndex != null) {
+            // cache the decoded Features, so that nearby queries don't decode the same lines again
+            return queryCache.query(interval, queryLookaheadBases, i -> residentIndex.query(i, residentCodec));
+        }
         if (!supportsRandomAccess) {
             throw new UserException("Input " + featureInput.getFeaturePath() + " must support random access to enable queries by interval. " +
                     "If it's a file, please index it using the bundled tool " + IndexFeatureFile.class.getSimpleName());
         }
 
-        // If the query can be satisfied using existing cache contents, prepare for retrieval
-        // by discarding all Features at the beginning of the cache that end before the start
-        // of our query interval.
-        if (queryCache.cacheHit(interval)) {
-            queryCache.trimToNewStartPosition(interval.getStart());
-        }
-        // Otherwise, we have a cache miss, so go to disk to refill our cache.
-        else {
-            refillQueryCache(interval);
-        }
-
-        // Return the subset of our cache that overlaps our query interval
-        return queryCache.getCachedFeaturesUpToStopPosition(interval.getEnd());
+        // Return the Features overlapping our query interval, going to disk for the parts that are not cached
+        return queryCache.query(interval, queryLookaheadBases, this::queryFeatureReader);
     }
 
     /**
-     * Refill our cache from disk after a cache miss. Will prefetch Features overlapping an additional
-     * queryLookaheadBases bases after the end of the provided interval, in addition to those overlapping
-     * the interval itself.
+     * Fetch Features from disk after a cache miss.
      * <p>
      * Calling this has the side effect of invalidating (closing) any currently-open iteration over
      * this data source.
      *
-     * @param interval the query interval that produced a cache miss
+     * @param queryInterval retrieve all Features overlapping this interval
+     * @return all Features overlapping the interval, in file order
      */
-    private void refillQueryCache(final Locatable interval) {
+    private List<T> queryFeatureReader(final SimpleInterval queryInterval) {
         // Tribble documentation states that having multiple iterators open simultaneously over the same FeatureReader
         // results in undefined behavior
         closeOpenIterationIfNecessary();
 
-        // Expand the end of our query by the configured number of bases, in anticipation of probable future
-        // queries with slightly larger start/stop positions.
-        //
-        // Note that it doesn't matter if we go off the end of the contig in the process, since
+        // Note that it doesn't matter if the query goes off the end of the contig, since
         // our reader's query operation is not aware of (and does not care about) contig boundaries.
-        // Note: we use addExact to blow up on overflow rather than propagate negative results downstream
-        final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.addExact(interval.getEnd(), queryLookaheadBases));
-
-        // Query iterator over our reader will be immediately closed after re-populating our cache
+        // Query iterator over our reader will be immediately closed after populating our cache
         try (final CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
-            queryCache.fill(queryIter, queryInterval);
+            final List<T> features = new ArrayList<>();
+            queryIter.forEachRemaining(features::add);
+            return features;
         } catch (final IOException e) {
-            throw new GATKException("Error querying file " + featureInput + " over interval " + interval, e);
+            throw new GATKException("Error querying file " + featureInput + " over interval " + queryInterval, e);
         }
     }
 
@@ -655,6 +731,11 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         logger.debug(String.format("Cache statistics for FeatureInput %s:", featureInput));
         queryCache.printCacheStatistics();
 
+        if (residentIndexKey != null) {
+            ResidentFeatureIndex.release(residentIndexKey);
+            residentIndexKey = null;
+        }
+
         try {
             if (featureReader != null) {
                 featureReader.close();
@@ -5,6 +5,7 @@ import htsjdk.tribble.Feature;
 import htsjdk.tribble.FeatureCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
@@ -36,6 +37,14 @@ import java.util.*;
  *
  * the string value provided for a given key can be retrieved via {@link #getAttribute(String)}. Keys must be unique.
  *
+ * The engine recognizes the key {@value #CACHE_ATTRIBUTE_KEY}: with the value {@value #FULL_CACHE}, as in
+ *
+ *     --known-sites:dbsnp,cache=full dbsnp.vcf
+ *
+ * the whole file is loaded in memory when it is opened, and queries (by any tool or traversal in the same JVM that has
+ * it open) are answered from memory. Only text formats, such as VCF or BED, can be held in memory. This is meant for
+ * resources that are queried often.
+ *
  * @param <T> the type of Feature that this FeatureInput file contains (eg., VariantContext, BEDFeature, etc.)
  */
 public final class FeatureInput<T extends Feature> extends GATKPath implements Serializable {
@@ -57,6 +66,16 @@ public final class FeatureInput<T extends Feature> extends GATKPath implements S
      */
     public static final String FEATURE_ARGUMENT_TAG_DELIMITER = ":";
 
+    /**
+     * Key of the attribute controlling how the engine caches the Features of this input
+     */
+    public static final String CACHE_ATTRIBUTE_KEY = "cache";
+
+    /**
+     * Value of the {@link #CACHE_ATTRIBUTE_KEY} attribute requesting that the whole input be held in memory
+     */
+    public static final String FULL_CACHE = "full";
+
     /**
      * Construct a FeatureInput from a raw String argument value. To specify a logical name or tags, use
      * {@link #FeatureInput(String, String)} or {@link #FeatureInput( String, String, Map<String, String>)}.
@@ -167,6 +186,23 @@ public final class FeatureInput<T extends Feature> extends GATKPath implements S
         return getTagAttributes().get(key);
     }
 
+    /**
+     * @return true if all the Features of this source should be held in memory, as requested by the
+     *         {@link #CACHE_ATTRIBUTE_KEY}={@link #FULL_CACHE} attribute
+     * @throws CommandLineException.BadArgumentValue if the {@link #CACHE_ATTRIBUTE_KEY} attribute has an unknown value
+     */
+    public boolean isFullyCached() {
+        final String cache = getTagAttributes() == null ? null : getAttribute(CACHE_ATTRIBUTE_KEY);
+        if ( cache == null ) {
+            return false;
+        }
+        if ( ! cache.equals(FULL_CACHE) ) {
+            throw new CommandLineException.BadArgumentValue(toString(),
+                    String.format("unknown value '%s' for attribute '%s', only '%s' is supported", cache, CACHE_ATTRIBUTE_KEY, FULL_CACHE));
+        }
+        return true;
+    }
+
     /**
      * Gets the logical name of this Feature source. This will be a user-provided value if the
      * --argument_name logical_name:feature_file was used on the command line, otherwise it will
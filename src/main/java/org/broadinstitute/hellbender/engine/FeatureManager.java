@@ -91,6 +91,11 @@ public final class FeatureManager implements AutoCloseable {
      */
     private final Map<FeatureInput<? extends Feature>, FeatureDataSource<? extends Feature>> featureSources;
 
+    /**
+     * Maximum number of Features held in the query cache of each FeatureDataSource
+     */
+    private long featureQueryCacheMaxFeatures = FeatureCache.DEFAULT_MAX_CACHED_FEATURES;
+
     /**
      * Create a FeatureManager given a CommandLineProgram tool instance, discovering all FeatureInput
      * arguments in the tool and creating query-able FeatureDataSources for them. Uses the default
@@ -211,6 +216,18 @@ public final class FeatureManager implements AutoCloseable {
         }
     }
 
+    /**
+     * Set the maximum number of Features held in the query cache of each of our FeatureDataSources, including
+     * the ones added later.
+     *
+     * @param maxCachedFeatures maximum number of Features to cache per data source (> 0)
+     */
+    public void setFeatureQueryCacheMaxFeatures( final long maxCachedFeatures ) {
+        Utils.validateArg(maxCachedFeatures > 0, "Maximum number of cached Features must be > 0");
+        featureQueryCacheMaxFeatures = maxCachedFeatures;
+        featureSources.values().forEach(source -> source.setQueryCacheMaxFeatures(maxCachedFeatures));
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     public void dumpAllFeatureCacheStats() {
         for ( final FeatureDataSource f : featureSources.values() ) {
@@ -222,7 +239,9 @@ public final class FeatureManager implements AutoCloseable {
                              final Class<? extends Feature> featureType, final int cloudPrefetchBuffer,
                              final int cloudIndexPrefetchBuffer, final Path reference) {
         // Create a new FeatureDataSource for this file, and add it to our query pool
-        featureSources.put(featureInput, new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, new GenomicsDBOptions(reference)));
+        final FeatureDataSource<? extends Feature> featureSource = new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, new GenomicsDBOptions(reference));
+        featureSource.setQueryCacheMaxFeatures(featureQueryCacheMaxFeatures);
+        featureSources.put(featureInput, featureSource);
     }
 
     /**
@@ -242,11 +261,14 @@ public final class FeatureManager implements AutoCloseable {
                              final Class<? extends Feature> featureType, final int cloudPrefetchBuffer,
                              final int cloudIndexPrefetchBuffer, final GenomicsDBOptions genomicsDBOptions) {
         // Create a new FeatureDataSource for this file, and add it to our query pool
-        featureSources.put(featureInput, new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions));
+        final FeatureDataSource<? extends Feature> featureSource = new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions);
+        featureSource.setQueryCacheMaxFeatures(featureQueryCacheMaxFeatures);
+        featureSources.put(featureInput, featureSource);
     }
 
     <F extends Feature> void addToFeatureSources (final FeatureInput<F> featureInput,
                                                   final FeatureDataSource<F> featureDataSource) {
+        featureDataSource.setQueryCacheMaxFeatures(featureQueryCacheMaxFeatures);
         featureSources.put(featureInput, featureDataSource);
     }
 
@@ -360,7 +382,12 @@ public final class FeatureManager implements AutoCloseable {
         // No danger of a ClassCastException here, since we verified that the FeatureDataSource for this
         // FeatureInput will return Features of the expected type T when we first created the data source
         // in initializeFeatureSources()
-        return dataSource.queryAndPrefetch(interval);
+        //
+        // Data sources keep a cache that is not thread-safe, and may be queried concurrently by tools that process
+        // regions in parallel, so we serialize queries on each individual data source
+        synchronized (dataSource) {
+            return dataSource.queryAndPrefetch(interval);
+        }
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
 import htsjdk.samtools.SAMProgramRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SamReaderFactory;
@@ -127,6 +128,15 @@ public abstract class GATKTool extends CommandLineProgram {
             doc = "If true, don't emit genotype fields when writing vcf file output.", optional = true)
     public boolean outputSitesOnlyVCFs = false;
 
+    /**
+     * Queries over feature inputs are cached in blocks of the genome, and the least-recently used blocks are evicted when
+     * a cache holds more than this many features. Raise it to keep more of the inputs cached when a tool goes back and
+     * forth over large regions, or lower it to reduce memory usage with many feature inputs.
+     */
+    @Argument(fullName = StandardArgumentDefinitions.FEATURE_CACHE_MAX_FEATURES_LONG_NAME,
+            doc = "Maximum number of features held in the query cache of each feature input.", optional = true, minValue = 1)
+    public long featureCacheMaxFeatures = FeatureCache.DEFAULT_MAX_CACHED_FEATURES;
+
     /**
      * Master sequence dictionary to be used instead of all other dictionaries (if provided).
      */
@@ -165,6 +175,14 @@ public abstract class GATKTool extends CommandLineProgram {
      */
     List<SimpleInterval> userIntervals;
 
+    /**
+     * Parallel traversal set up by walker base classes that support it (null if the traversal runs on a single thread).
+     *
+     * While this is set, the writers returned by {@link #createSAMWriter} and {@link #createVCFWriter} keep the output
+     * of each shard of the traversal apart, and put it back together in order when closed.
+     */
+    ParallelTraversal parallelTraversal;
+
     /**
      * Get the {@link ReferenceDataSource} for this {@link GATKTool}.
      * Will throw a {@link GATKException} if the reference is null.
@@ -447,16 +465,25 @@ public abstract class GATKTool extends CommandLineProgram {
      */
     void initializeReads() {
         if (! readArguments.getReadPathSpecifiers().isEmpty()) {
-            final SamReaderFactory factory = makeSamReaderFactory();
-
-            reads = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
-                (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+            reads = makeReadsDataSource();
         }
         else {
             reads = null;
         }
     }
 
+    /**
+     * Open a new source of reads data over the reads inputs of this tool, independent of {@link #reads}.
+     *
+     * Package-private so that engine classes can access it, but concrete tool child classes cannot.
+     */
+    final ReadsPathDataSource makeReadsDataSource() {
+        final SamReaderFactory factory = makeSamReaderFactory();
+
+        return new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
+            (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+    }
+
     protected final SamReaderFactory makeSamReaderFactory() {
         SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
         if (hasReference()) { // pass in reference if available, because CRAM files need it
@@ -724,6 +751,9 @@ public abstract class GATKTool extends CommandLineProgram {
         initializeReads(); // Must be initialized after reference, in case we are dealing with CRAM and a reference is required
 
         initializeFeatures();
+        if ( features != null ) {
+            features.setFeatureQueryCacheMaxFeatures(featureCacheMaxFeatures);
+        }
 
         initializeIntervals(); // Must be initialized after reference, reads and features, since intervals currently require a sequence dictionary from another data source
 
@@ -843,15 +873,18 @@ public abstract class GATKTool extends CommandLineProgram {
             throw UserException.MISSING_REFERENCE_FOR_CRAM;
         }
 
-        return new SAMFileGATKReadWriter(
-            ReadUtils.createCommonSAMWriter(
+        final SAMFileHeader header = getHeaderForSAMWriter();
+        final SAMFileWriter samWriter = ReadUtils.createCommonSAMWriter(
                 outputPathSpecifier.toPath(),
                 referenceArguments.getReferencePath(),
-                getHeaderForSAMWriter(),
+                header,
                 preSorted,
                 createOutputBamIndex,
                 createOutputBamMD5
-            )
+        );
+
+        return new SAMFileGATKReadWriter(
+            parallelTraversal != null ? new ShardedSAMFileWriter(parallelTraversal, header, preSorted, samWriter) : samWriter
         );
     }
 
@@ -912,19 +945,28 @@ public abstract class GATKTool extends CommandLineProgram {
             options.add(Options.DO_NOT_WRITE_GENOTYPES);
         }
 
+        final VariantContextWriter vcfWriter;
         if (maxVariantsPerShard > 0) {
-            return new ShardingVCFWriter(
+            vcfWriter = new ShardingVCFWriter(
                     outPath,
                     maxVariantsPerShard,
                     sequenceDictionary,
                     createOutputVariantMD5,
                     options.toArray(new Options[options.size()]));
+        } else {
+            vcfWriter = GATKVariantContextUtils.createVCFWriter(
+                    outPath,
+                    sequenceDictionary,
+                    createOutputVariantMD5,
+                    options.toArray(new Options[options.size()]));
+        }
+
+        if (parallelTraversal != null) {
+            // the temporary files keep the genotypes and need no index: only the final output is affected by those options
+            final Options[] tempFileOptions = lenientVCFProcessing ? new Options[]{Options.ALLOW_MISSING_FIELDS_IN_HEADER} : new Options[0];
+            return new ShardedVariantContextWriter(parallelTraversal, vcfWriter, sequenceDictionary, tempFileOptions);
         }
-        return GATKVariantContextUtils.createVCFWriter(
-                outPath,
-                sequenceDictionary,
-                createOutputVariantMD5,
-                options.toArray(new Options[options.size()]));
+        return vcfWriter;
     }
 
     /**
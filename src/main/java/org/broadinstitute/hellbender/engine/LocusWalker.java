@@ -1,24 +1,25 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMFileHeader;
-import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.SAMSequenceDictionary;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIteratorBuilder;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
+import org.broadinstitute.hellbender.utils.pileup.LocusPileupBatch;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * A LocusWalker is a tool that processes reads that overlap a single position in a reference at a time from
@@ -39,6 +40,11 @@ import java.util.stream.Collectors;
 public abstract class LocusWalker extends WalkerBase {
     public static final String MAX_DEPTH_PER_SAMPLE_NAME = "max-depth-per-sample";
 
+    /**
+     * Number of loci per batch when {@link #usePileupBatches()} is {@code true}
+     */
+    static final int LOCUS_BATCH_SIZE = 1024;
+
     @Argument(fullName = MAX_DEPTH_PER_SAMPLE_NAME, shortName = MAX_DEPTH_PER_SAMPLE_NAME, doc = "Maximum number of reads to retain per sample per locus. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     protected int maxDepthPerSample = defaultMaxDepthPerSample();
 
@@ -145,6 +151,10 @@ public abstract class LocusWalker extends WalkerBase {
      */
     @Override
     public void traverse() {
+        if ( usePileupBatches() ) {
+            traverseBatches();
+            return;
+        }
         final CountingReadFilter countedFilter = makeReadFilter();
         final Iterator<AlignmentContext> iterator = getAlignmentContextIterator(countedFilter);
 
@@ -165,23 +175,129 @@ public abstract class LocusWalker extends WalkerBase {
      * code as this class.
      */
     final Iterator<AlignmentContext> getAlignmentContextIterator(final CountingReadFilter readFilterToUse) {
-        final SAMFileHeader header = getHeaderForReads();
-        // get the samples from the read groups
-        final Set<String> samples = header.getReadGroups().stream()
-                                          .map(SAMReadGroupRecord::getSample)
-                                          .collect(Collectors.toSet());
         // get the filter and transformed iterator
         final Iterator<GATKRead> readIterator = getTransformedReadStream(readFilterToUse).iterator();
 
+        return makeAlignmentContextIteratorBuilder().build(
+                readIterator, getHeaderForReads(), userIntervals, getBestAvailableSequenceDictionary(),
+                hasReference());
+    }
+
+    private AlignmentContextIteratorBuilder makeAlignmentContextIteratorBuilder() {
         final AlignmentContextIteratorBuilder alignmentContextIteratorBuilder = new AlignmentContextIteratorBuilder();
         alignmentContextIteratorBuilder.setDownsamplingInfo(getDownsamplingInfo());
         alignmentContextIteratorBuilder.setEmitEmptyLoci(emitEmptyLoci());
         alignmentContextIteratorBuilder.setIncludeDeletions(includeDeletions());
         alignmentContextIteratorBuilder.setIncludeNs(includeNs());
+        return alignmentContextIteratorBuilder;
+    }
 
-        return alignmentContextIteratorBuilder.build(
-                readIterator, header, userIntervals, getBestAvailableSequenceDictionary(),
-                hasReference());
+    /**
+     * Batched version of the traversal: pileups are produced {@link #LOCUS_BATCH_SIZE} loci at a time into a reused
+     * {@link LocusPileupBatch}, and passed on to {@link #apply(LocusPileupBatch, int, ReferenceContext, FeatureContext)}
+     * one locus at a time. Loci are the same, and come in the same order, as in the non-batched traversal.
+     */
+    private void traverseBatches() {
+        final CountingReadFilter countedFilter = makeReadFilter();
+        final SAMFileHeader header = getHeaderForReads();
+        final AlignmentContextIteratorBuilder builder = makeAlignmentContextIteratorBuilder();
+        final List<SimpleInterval> intervals = builder.getTraversalIntervals(userIntervals, getBestAvailableSequenceDictionary(), hasReference());
+        final LocusIteratorByState libs = builder.buildLocusIteratorByState(getTransformedReadStream(countedFilter).iterator(), header);
+
+        final LocusPileupBatch batch = new LocusPileupBatch(LOCUS_BATCH_SIZE);
+        final BatchIntervalCursor cursor = intervals == null ? null : new BatchIntervalCursor(intervals, header.getSequenceDictionary(), emitEmptyLoci());
+        while ( libs.nextBatch(batch) ) {
+            for ( int i = 0; i < batch.size(); i++ ) {
+                if ( cursor == null || cursor.advanceTo(batch.getContig(i), batch.getPosition(i)) ) {
+                    applyToBatchLocus(batch, i);
+                }
+            }
+        }
+        if ( cursor != null ) {
+            cursor.finish();
+        }
+        logger.info(countedFilter.getSummaryLine());
+    }
+
+    private void applyToBatchLocus(final LocusPileupBatch batch, final int locusIndex) {
+        final SimpleInterval locus = batch.getLocation(locusIndex);
+        apply(batch, locusIndex, new ReferenceContext(reference, locus), new FeatureContext(features, locus));
+        progressMeter.update(locus);
+    }
+
+    /**
+     * Walks the sorted traversal intervals alongside the loci of a batched traversal, to only keep the loci within
+     * the intervals and, if requested, to emit the uncovered loci between them, as the non-batched traversal does
+     * using {@link org.broadinstitute.hellbender.utils.iterators.IntervalOverlappingIterator} and
+     * {@link org.broadinstitute.hellbender.utils.locusiterator.IntervalAlignmentContextIterator}.
+     */
+    private final class BatchIntervalCursor {
+        private final Iterator<SimpleInterval> intervals;
+        private final SAMSequenceDictionary dictionary;
+        private final boolean emitUncoveredLoci;
+        // used to emit uncovered loci, with a single locus and no elements
+        private final LocusPileupBatch emptyLocus = new LocusPileupBatch(1);
+        private SimpleInterval currentInterval;
+        private int currentIntervalContigIndex;
+        // next position of the current interval that has not been emitted yet
+        private int nextPosition;
+
+        private BatchIntervalCursor(final List<SimpleInterval> intervals, final SAMSequenceDictionary dictionary, final boolean emitUncoveredLoci) {
+            this.intervals = intervals.iterator();
+            this.dictionary = Utils.nonNull(dictionary);
+            this.emitUncoveredLoci = emitUncoveredLoci;
+            advanceInterval();
+        }
+
+        /**
+         * Move forward to the given locus, emitting any uncovered loci before it if requested.
+         *
+         * @return true if the locus is within the traversal intervals
+         */
+        private boolean advanceTo(final String contig, final int position) {
+            final int contigIndex = dictionary.getSequenceIndex(contig);
+            while ( currentInterval != null && (currentIntervalContigIndex < contigIndex ||
+                    (currentIntervalContigIndex == contigIndex && currentInterval.getEnd() < position)) ) {
+                emitUncoveredLoci(currentInterval.getEnd());
+                advanceInterval();
+            }
+            if ( currentInterval == null || currentIntervalContigIndex != contigIndex || position < currentInterval.getStart() ) {
+                return false;
+            }
+            emitUncoveredLoci(position - 1);
+            nextPosition = position + 1;
+            return true;
+        }
+
+        /**
+         * Emit any remaining uncovered loci, if requested, once there are no more loci with reads
+         */
+        private void finish() {
+            while ( currentInterval != null ) {
+                emitUncoveredLoci(currentInterval.getEnd());
+                advanceInterval();
+            }
+        }
+
+        private void emitUncoveredLoci(final int lastPosition) {
+            if ( ! emitUncoveredLoci ) {
+                return;
+            }
+            for ( ; nextPosition <= lastPosition; nextPosition++ ) {
+                emptyLocus.clear();
+                emptyLocus.startLocus(currentInterval.getContig(), nextPosition);
+                emptyLocus.endLocus();
+                applyToBatchLocus(emptyLocus, 0);
+            }
+        }
+
+        private void advanceInterval() {
+            currentInterval = intervals.hasNext() ? intervals.next() : null;
+            if ( currentInterval != null ) {
+                currentIntervalContigIndex = dictionary.getSequenceIndex(currentInterval.getContig());
+                nextPosition = currentInterval.getStart();
+            }
+        }
     }
 
     /**
@@ -200,6 +316,38 @@ public abstract class LocusWalker extends WalkerBase {
      */
     public abstract void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext);
 
+    /**
+     * Does this tool process loci in batches, through {@link #apply(LocusPileupBatch, int, ReferenceContext, FeatureContext)}
+     * rather than {@link #apply(AlignmentContext, ReferenceContext, FeatureContext)}? Tools that do should override to
+     * return {@code true}.
+     *
+     * In a batched traversal, the pileups of many loci are stored in a single {@link LocusPileupBatch}, made of
+     * primitive arrays that are reused from one batch to the next, instead of one {@link AlignmentContext} with a
+     * {@link org.broadinstitute.hellbender.utils.pileup.ReadPileup} of {@link org.broadinstitute.hellbender.utils.pileup.PileupElement}s
+     * per locus. This is much cheaper for tools that only compute simple summaries of the bases and qualities at each locus.
+     *
+     * @return {@code true} if this tool uses batched traversal, {@code false} otherwise
+     */
+    public boolean usePileupBatches() {
+        return false;
+    }
+
+    /**
+     * Process an individual locus of a batch (with optional contextual information). Must be implemented by tools
+     * that return {@code true} from {@link #usePileupBatches()}, and is called for the same loci, with the same reads,
+     * as {@link #apply(AlignmentContext, ReferenceContext, FeatureContext)} would be otherwise.
+     *
+     * The batch is reused once all of its loci have been processed, so tools must not keep a reference to it.
+     *
+     * @param pileups batch holding the pileup of the current locus, as well as of other loci
+     * @param locusIndex index of the current locus in the batch
+     * @param referenceContext Reference bases spanning the current locus. See {@link #apply(AlignmentContext, ReferenceContext, FeatureContext)}.
+     * @param featureContext Features spanning the current locus. See {@link #apply(AlignmentContext, ReferenceContext, FeatureContext)}.
+     */
+    public void apply(final LocusPileupBatch pileups, final int locusIndex, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        throw new GATKException.ShouldNeverReachHereException("Tools using pileup batches must implement apply(LocusPileupBatch, ...)");
+    }
+
     /**
      * Marked final so that tool authors don't override it. Tool authors should override onTraversalSuccess() instead.
      */
@@ -282,14 +282,21 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
      */
     private void validateAllSequenceDictionaries() {
         final Map<String, FeatureDataSource<VariantContext>> contigMap = new HashMap<>();
+        // Inputs usually share a handful of distinct dictionaries. Each contig of a dictionary identical to one that
+        // was validated already has been checked against the same first source of that contig, so skip it.
+        final Set<SAMSequenceDictionary> validatedDictionaries = new HashSet<>();
         featureDataSources.forEach(
-            ds -> getDataSourceDictionaryAndValidate(ds, contigMap)
+            ds -> getDataSourceDictionaryAndValidate(ds, contigMap, validatedDictionaries)
         );
     }
 
     private void getDataSourceDictionaryAndValidate(final FeatureDataSource<VariantContext> ds,
-                                                    final Map<String, FeatureDataSource<VariantContext>> contigMap) {
+                                                    final Map<String, FeatureDataSource<VariantContext>> contigMap,
+                                                    final Set<SAMSequenceDictionary> validatedDictionaries) {
         final SAMSequenceDictionary dictionary = ds.getSequenceDictionary();
+        if (dictionary != null && !validatedDictionaries.add(dictionary)) {
+            return;
+        }
         if (dictionary == null) {
             logger.warn(
                     "A sequence dictionary is required for each input when using multiple inputs, and one could" +
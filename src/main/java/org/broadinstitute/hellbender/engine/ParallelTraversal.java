@@ -0,0 +1,145 @@
+package org.broadinstitute.hellbender.engine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the traversal of a walker as a number of independent shards (groups of whole contigs) on a thread pool, and keeps
+ * track of which part of the output each thread is currently producing.
+ *
+ * Output is divided into numbered slots, in the order in which it must appear in the final output: slot 0 holds
+ * everything written before the traversal starts (eg., in {@link GATKTool#onTraversalStart}), slot {@code i + 1}
+ * everything written while processing shard {@code i}, and slot {@link #FINAL_OUTPUT_SLOT} everything written after
+ * the traversal ends. Writers created by the tool while a parallel traversal is active use {@link #getOutputSlot} to
+ * send each record to a per-slot temporary file, and concatenate the slots in order when they are closed.
+ */
+final class ParallelTraversal {
+    private static final Logger logger = LogManager.getLogger(ParallelTraversal.class);
+
+    /**
+     * Number of shards per thread to aim for, so that threads that finish early have more work to pick up
+     */
+    static final int SHARDS_PER_THREAD = 4;
+
+    static final int INITIAL_OUTPUT_SLOT = 0;
+    static final int FINAL_OUTPUT_SLOT = Integer.MAX_VALUE;
+
+    private final int numThreads;
+    private final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+    private volatile boolean traversalFinished = false;
+    private File tempDir;
+
+    ParallelTraversal(final int numThreads) {
+        Utils.validateArg(numThreads > 1, "a parallel traversal needs more than one thread");
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * @return the maximum number of shards the traversal intervals should be divided into
+     */
+    int getMaxShards() {
+        return numThreads * SHARDS_PER_THREAD;
+    }
+
+    /**
+     * @return the output slot records written by the calling thread at this point belong to
+     */
+    int getOutputSlot() {
+        final Integer shard = currentShard.get();
+        if ( shard != null ) {
+            return shard + 1;
+        }
+        return traversalFinished ? FINAL_OUTPUT_SLOT : INITIAL_OUTPUT_SLOT;
+    }
+
+    /**
+     * Create a new, empty temporary file to hold the output of a slot. All such files are in a temporary directory
+     * created on first use.
+     *
+     * @param suffix suffix of the file name, usually the file extension
+     */
+    synchronized File createTempFile(final String suffix) {
+        if ( tempDir == null ) {
+            tempDir = IOUtils.createTempDir("parallelTraversal");
+        }
+        try {
+            return File.createTempFile("slot", suffix, tempDir);
+        } catch ( final IOException e ) {
+            throw new UserException.BadTempDir(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Process each shard on the thread pool, returning once all of them have been processed.
+     *
+     * If processing a shard fails, the first such failure (in shard order) is rethrown and the remaining shards are
+     * cancelled.
+     *
+     * @param shards shards to process, in the order of their output
+     * @param shardProcessor processes a single shard, must be safe to call from several threads at once
+     */
+    <S> void run(final List<S> shards, final Consumer<S> shardProcessor) {
+        Utils.nonNull(shards);
+        Utils.nonNull(shardProcessor);
+        logger.info("Traversing " + shards.size() + " shards using " + numThreads + " threads");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setNameFormat("traversal-thread-%d")
+                .setDaemon(true)
+                .build());
+        try {
+            final List<Future<?>> results = new ArrayList<>(shards.size());
+            for ( int i = 0; i < shards.size(); i++ ) {
+                final int shardIndex = i;
+                final S shard = shards.get(i);
+                results.add(executor.submit(() -> {
+                    currentShard.set(shardIndex);
+                    try {
+                        shardProcessor.accept(shard);
+                    } finally {
+                        currentShard.remove();
+                    }
+                }));
+            }
+
+            for ( int i = 0; i < results.size(); i++ ) {
+                waitForShard(results.get(i), i, shards.size());
+            }
+        } finally {
+            executor.shutdownNow();
+            traversalFinished = true;
+        }
+    }
+
+    private static void waitForShard(final Future<?> result, final int shardIndex, final int numShards) {
+        try {
+            result.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for traversal shard " + (shardIndex + 1) + " of " + numShards + " to be processed", e);
+        } catch ( final ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            } else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new GATKException("Error processing traversal shard " + (shardIndex + 1) + " of " + numShards, cause);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Loads the reads for a sequence of {@link MultiIntervalLocalReadShard}s on a background thread, so that decoding,
+ * transforming, filtering and downsampling of reads overlaps with the processing of those reads on the calling thread.
+ *
+ * The shards are loaded strictly in order by a single producer thread, which moves on to the next shard as soon as it
+ * has loaded all reads from the current one. This means that the reads of the next shard start loading while the
+ * current shard is still being processed. The number of reads loaded ahead of the consumer is bounded: once the
+ * buffer is full, the producer blocks until the consumer catches up.
+ *
+ * Each shard must be fully configured (filters, transformers and downsampler) before it is handed to this class,
+ * and the backing {@link ReadsDataSource} must not be used by any other thread until this prefetcher is closed.
+ * Shards must be consumed in order via {@link #nextShard}, and the reads of each returned shard may only be
+ * iterated over once. Any reads of a shard that have not been consumed by the time the next shard is requested
+ * are discarded.
+ */
+public final class ReadShardPrefetcher implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReadShardPrefetcher.class);
+
+    /**
+     * Reads are handed from the producer to the consumer in batches of this size, to amortize synchronization costs
+     */
+    public static final int READ_BATCH_SIZE = 1000;
+
+    private final List<MultiIntervalLocalReadShard> shards;
+    private final BlockingQueue<ReadBatch> prefetchedBatches;
+    private final Thread producerThread;
+    private int nextShardIndex = 0;
+    private PrefetchedShard currentShard = null;
+    private boolean closed = false;
+
+    /**
+     * Start loading reads from the given shards in the background.
+     *
+     * @param shards shards to load reads from, in the order in which they will be consumed; must already be configured
+     *               with any filters, transformers and downsamplers
+     * @param maxPrefetchedReads approximate maximum number of reads to load ahead of the consumer (must be > 0)
+     */
+    public ReadShardPrefetcher(final List<MultiIntervalLocalReadShard> shards, final int maxPrefetchedReads) {
+        Utils.nonNull(shards);
+        Utils.validateArg(maxPrefetchedReads > 0, "maxPrefetchedReads must be > 0");
+
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.prefetchedBatches = new ArrayBlockingQueue<>(Math.max(1, (maxPrefetchedReads + READ_BATCH_SIZE - 1) / READ_BATCH_SIZE));
+        this.producerThread = new Thread(this::loadShards, "readShardPrefetcher-thread");
+        this.producerThread.setDaemon(true);
+        this.producerThread.start();
+    }
+
+    /**
+     * @return true if there are shards remaining that have not yet been returned by {@link #nextShard}
+     */
+    public boolean hasNextShard() {
+        return nextShardIndex < shards.size();
+    }
+
+    /**
+     * @return the next shard, whose reads will be served from the prefetch buffer. Any unconsumed reads from the
+     *         previously-returned shard are discarded.
+     */
+    public MultiIntervalShard<GATKRead> nextShard() {
+        Utils.validate(! closed, "cannot get shards from a closed ReadShardPrefetcher");
+        if ( ! hasNextShard() ) {
+            throw new NoSuchElementException("No more shards in this ReadShardPrefetcher");
+        }
+        if ( currentShard != null ) {
+            currentShard.discardRemainingReads();
+        }
+        currentShard = new PrefetchedShard(shards.get(nextShardIndex++));
+        return currentShard;
+    }
+
+    /**
+     * Stop the background thread (if it's still running) and wait for it to exit. After this method returns,
+     * the backing reads data source and any filters attached to the shards are no longer in use by this class.
+     */
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        producerThread.interrupt();
+        try {
+            producerThread.join();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for the read prefetching thread to exit", e);
+        }
+        prefetchedBatches.clear();
+    }
+
+    /**
+     * Body of the producer thread: load all reads from all shards in order.
+     */
+    private void loadShards() {
+        try {
+            for ( final MultiIntervalLocalReadShard shard : shards ) {
+                List<GATKRead> batch = new ArrayList<>(READ_BATCH_SIZE);
+                for ( final GATKRead read : shard ) {
+                    batch.add(read);
+                    if ( batch.size() == READ_BATCH_SIZE ) {
+                        prefetchedBatches.put(new ReadBatch(batch, false, null));
+                        batch = new ArrayList<>(READ_BATCH_SIZE);
+                    }
+                }
+                prefetchedBatches.put(new ReadBatch(batch, true, null));
+            }
+        } catch ( final InterruptedException e ) {
+            // We've been closed by the consumer, so just exit quietly
+            logger.debug("Read prefetching interrupted");
+        } catch ( final Throwable t ) {
+            // Hand the failure over to the consumer, who will rethrow it
+            try {
+                prefetchedBatches.put(new ReadBatch(Collections.emptyList(), true, t));
+            } catch ( final InterruptedException e ) {
+                logger.debug("Read prefetching interrupted while reporting an error", e);
+            }
+        }
+    }
+
+    private ReadBatch takeBatch() {
+        final ReadBatch batch;
+        try {
+            batch = prefetchedBatches.take();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for reads to be loaded", e);
+        }
+
+        if ( batch.failure != null ) {
+            if ( batch.failure instanceof RuntimeException ) {
+                throw (RuntimeException) batch.failure;
+            } else if ( batch.failure instanceof Error ) {
+                throw (Error) batch.failure;
+            }
+            throw new GATKException("Error loading reads", batch.failure);
+        }
+        return batch;
+    }
+
+    /**
+     * A batch of reads handed from the producer thread to the consumer. The last batch for each shard has
+     * endOfShard set. If loading failed, the batch carries the failure instead.
+     */
+    private static final class ReadBatch {
+        private final List<GATKRead> reads;
+        private final boolean endOfShard;
+        private final Throwable failure;
+
+        private ReadBatch(final List<GATKRead> reads, final boolean endOfShard, final Throwable failure) {
+            this.reads = reads;
+            this.endOfShard = endOfShard;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * A view of a {@link MultiIntervalLocalReadShard} whose reads are served from the prefetch buffer.
+     */
+    private final class PrefetchedShard implements MultiIntervalShard<GATKRead> {
+        private final MultiIntervalLocalReadShard shard;
+        private PrefetchedReadIterator readIterator = null;
+
+        private PrefetchedShard(final MultiIntervalLocalReadShard shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public List<SimpleInterval> getIntervals() {
+            return shard.getIntervals();
+        }
+
+        @Override
+        public List<SimpleInterval> getPaddedIntervals() {
+            return shard.getPaddedIntervals();
+        }
+
+        @Override
+        public Iterator<GATKRead> iterator() {
+            Utils.validate(readIterator == null, "the reads of a prefetched shard may only be iterated over once");
+            readIterator = new PrefetchedReadIterator();
+            return readIterator;
+        }
+
+        /**
+         * Pull any remaining batches for this shard off of the prefetch buffer, so that the next shard starts
+         * at the right place.
+         */
+        private void discardRemainingReads() {
+            if ( readIterator == null ) {
+                readIterator = new PrefetchedReadIterator();
+            }
+            readIterator.discardRemainingReads();
+        }
+    }
+
+    /**
+     * Iterates over the reads of a single shard, pulling batches from the prefetch buffer as needed.
+     */
+    private final class PrefetchedReadIterator implements Iterator<GATKRead> {
+        private Iterator<GATKRead> currentBatch = Collections.emptyIterator();
+        private boolean sawEndOfShard = false;
+
+        @Override
+        public boolean hasNext() {
+            while ( ! currentBatch.hasNext() && ! sawEndOfShard ) {
+                final ReadBatch batch = takeBatch();
+                currentBatch = batch.reads.iterator();
+                sawEndOfShard = batch.endOfShard;
+            }
+            return currentBatch.hasNext();
+        }
+
+        @Override
+        public GATKRead next() {
+            if ( ! hasNext() ) {
+                throw new NoSuchElementException("No more reads in this shard");
+            }
+            return currentBatch.next();
+        }
+
+        private void discardRemainingReads() {
+            currentBatch = Collections.emptyIterator();
+            while ( ! sawEndOfShard ) {
+                sawEndOfShard = takeBatch().endOfShard;
+            }
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package org.broadinstitute.hellbender.engine;
 
+import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * A ReadWalker is a tool that processes a single read at a time from one or multiple sources of reads, with
@@ -27,6 +34,9 @@ import java.util.List;
  */
 public abstract class ReadWalker extends WalkerBase {
 
+    @Argument(fullName = TRAVERSAL_THREADS_LONG_NAME, doc = "Number of threads used to traverse the reads, one group of contigs at a time (only supported by some tools)", optional = true, minValue = 1)
+    public int traversalThreads = 1;
+
     @Override
     public boolean requiresReads() {
         return true;
@@ -51,6 +61,7 @@ public abstract class ReadWalker extends WalkerBase {
         super.onStartup();
 
         setReadTraversalBounds();
+        initializeParallelTraversal(traversalThreads);
     }
 
     /**
@@ -91,6 +102,11 @@ public abstract class ReadWalker extends WalkerBase {
      */
     @Override
     public void traverse() {
+        if ( parallelTraversal != null ) {
+            traverseInParallel();
+            return;
+        }
+
         // Process each read in the input stream.
         // Supply reference bases spanning each read, if a reference is available.
         final CountingReadFilter countedFilter = makeReadFilter();
@@ -107,6 +123,65 @@ public abstract class ReadWalker extends WalkerBase {
         logger.info(countedFilter.getSummaryLine());
     }
 
+    /**
+     * Traverse the reads using a {@link ParallelTraversal}, with one shard per group of contigs (and a final shard for the
+     * unmapped reads, when those are traversed), so that each read belongs to exactly one shard.
+     */
+    private void traverseInParallel() {
+        final SAMFileHeader header = getHeaderForReads();
+        if ( header.getSortOrder() != SAMFileHeader.SortOrder.coordinate || ! reads.isQueryableByInterval() ) {
+            throw new UserException("Traversing reads using more than one thread (--" + TRAVERSAL_THREADS_LONG_NAME +
+                    ") requires coordinate-sorted and indexed reads inputs");
+        }
+
+        final SAMSequenceDictionary dictionary = header.getSequenceDictionary();
+        final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(dictionary);
+        final boolean traverseUnmapped = ! hasUserSuppliedIntervals() ||
+                intervalArgumentCollection.getTraversalParameters(dictionary).traverseUnmappedReads();
+
+        final List<TraversalParameters> shards = IntervalUtils.groupIntervalsByContig(intervals, parallelTraversal.getMaxShards())
+                .stream()
+                .map(contigGroup -> new TraversalParameters(contigGroup, false))
+                .collect(Collectors.toList());
+        if ( traverseUnmapped ) {
+            shards.add(new TraversalParameters(Collections.emptyList(), true));
+        }
+
+        parallelTraversal.run(shards, this::traverseShard);
+    }
+
+    /**
+     * Process the reads of a single shard of a parallel traversal, using data sources opened for this shard only.
+     */
+    private void traverseShard(final TraversalParameters shard) {
+        try ( final ReadsPathDataSource shardReads = makeReadsDataSource();
+              final ReferenceDataSource shardReference = makeReferenceDataSourceForShard();
+              final FeatureManager shardFeatures = features != null ? new FeatureManager(this, FEATURE_CACHE_LOOKAHEAD, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, getGenomicsDBOptions()) : null ) {
+            shardReads.setTraversalBounds(shard);
+            if ( shardFeatures != null ) {
+                shardFeatures.setFeatureQueryCacheMaxFeatures(featureCacheMaxFeatures);
+            }
+
+            final CountingReadFilter countedFilter = makeReadFilter();
+            final ReadTransformer preTransformer = makePreReadFilterTransformer();
+            final ReadTransformer postTransformer = makePostReadFilterTransformer();
+            Utils.stream(shardReads)
+                    .map(preTransformer)
+                    .filter(countedFilter)
+                    .map(postTransformer)
+                    .forEach(read -> {
+                        final SimpleInterval readInterval = getReadInterval(read);
+                        apply(read,
+                              new ReferenceContext(shardReference, readInterval),
+                              new FeatureContext(shardFeatures, readInterval));
+
+                        updateProgressMeterFromShard(readInterval);
+                    });
+
+            logger.info(countedFilter.getSummaryLine());
+        }
+    }
+
     /**
      * Returns an interval for the read.
      * Note: some walkers must be able to work on any read, including those whose coordinates do not form a valid SimpleInterval.
@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequence;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.iterators.ByteArrayIterator;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceFile;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
 import java.nio.file.Path;
@@ -21,9 +22,15 @@ public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable
      *
      * The provided fasta file must have companion .fai and .dict files.
      *
+     * If the fasta has an up-to-date packed sidecar ({@link PackedReferenceFile#getSidecarPath}), the returned source
+     * is backed by that memory-mapped sidecar rather than by the fasta itself.
+     *
      * @param fastaPath reference fasta Path
      */
     public static ReferenceDataSource of(final Path fastaPath) {
+        if ( PackedReferenceFile.hasUsableSidecar(fastaPath) ) {
+            return new ReferencePackedFileSource(fastaPath);
+        }
         return new ReferenceFileSource(fastaPath);
     }
 
@@ -0,0 +1,124 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceFile;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Manages queries over reference data stored in a {@link PackedReferenceFile}, the packed, memory-mapped sidecar of a
+ * fasta file.
+ *
+ * Returns the same bases as a {@link ReferenceFileSource} over the fasta, but queries are copies out of a memory-mapped
+ * file shared with other processes using the same reference, rather than reads from the fasta into a private cache.
+ * Unlike {@link ReferenceFileSource}, this source can be queried from several threads at once.
+ *
+ * Supports targeted queries over the reference by interval, but does not
+ * yet support complete iteration over the entire reference.
+ */
+public final class ReferencePackedFileSource implements ReferenceDataSource {
+
+    private final PackedReferenceFile reference;
+    private final SAMSequenceDictionary sequenceDictionary;
+
+    /**
+     * Initialize this data source using the packed sidecar of a fasta file.
+     *
+     * The fasta must have a companion .dict file, which provides the sequence dictionary, and a packed sidecar
+     * ({@link PackedReferenceFile#getSidecarPath}) with the same contigs.
+     *
+     * @param fastaPath reference fasta file
+     */
+    public ReferencePackedFileSource(final Path fastaPath) {
+        Utils.nonNull(fastaPath);
+        final Path dictPath = ReferenceSequenceFileFactory.getDefaultDictionaryForReferenceSequence(fastaPath);
+        if ( ! Files.exists(dictPath) ) {
+            throw new UserException.MissingReferenceDictFile(dictPath, fastaPath);
+        }
+        sequenceDictionary = ReferenceUtils.loadFastaDictionary(new GATKPath(dictPath.toUri().toString()));
+
+        final Path packedPath = PackedReferenceFile.getSidecarPath(fastaPath);
+        reference = PackedReferenceFile.open(packedPath);
+        for ( final SAMSequenceRecord sequence : sequenceDictionary.getSequences() ) {
+            if ( reference.getContigLength(sequence.getSequenceName()) != sequence.getSequenceLength() ) {
+                throw new UserException.MalformedFile(packedPath, "Packed reference does not match the sequence dictionary " + dictPath +
+                        " for contig " + sequence.getSequenceName() + ", it must be recreated");
+            }
+        }
+    }
+
+    /**
+     * Start an iteration over the entire reference. Not yet supported!
+     *
+     * See the BaseUtils class for guidance on how to work with bases in this format.
+     *
+     * @return iterator over all bases in this reference
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not yet implemented");
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back all bases spanning that interval at once.
+     * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
+     * class for guidance on how to work with bases in this format.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop
+     * @return a ReferenceSequence containing all bases spanning the query interval, prefetched
+     */
+    @Override
+    public ReferenceSequence queryAndPrefetch( final String contig, final long start , final long stop) {
+        validateContig(contig);
+        return reference.getSubsequenceAt(contig, start, stop);
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back a read-only view of the bases spanning that interval,
+     * without copying them.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop
+     * @return a read-only buffer positioned at the first base of the query interval
+     */
+    public ByteBuffer queryView( final String contig, final long start, final long stop ) {
+        validateContig(contig);
+        return reference.getBasesView(contig, start, stop);
+    }
+
+    private void validateContig( final String contig ) {
+        if ( sequenceDictionary.getSequence(contig) == null ) {
+            throw new UserException.MissingContigInSequenceDictionary(contig, sequenceDictionary);
+        }
+    }
+
+    /**
+     * Get the sequence dictionary for this reference
+     *
+     * @return SAMSequenceDictionary for this reference
+     */
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    /**
+     * Permanently close this data source
+     */
+    @Override
+    public void close() {
+        reference.close();
+    }
+}
@@ -0,0 +1,323 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.AsciiFeatureCodec;
+import htsjdk.tribble.Feature;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ResidentFeatureIndex: all the Features of a text source held in memory, used by {@link FeatureDataSource} in place
+ * of queries on disk for inputs tagged with {@link FeatureInput#CACHE_ATTRIBUTE_KEY}={@link FeatureInput#FULL_CACHE}.
+ *
+ * Rather than decoded Features, which take many times the size of their text, the index holds for each contig
+ * primitive arrays of the starts, ends and running maximum end of the Features sorted by start position, along with
+ * their lines, encoded in large byte arrays. The Features overlapping a query interval are found by binary search,
+ * and only those are decoded, by the codec of the querying data source (see {@link #query}).
+ *
+ * Indices are shared by all the data sources over the same file in the JVM, and released when the last of these is
+ * closed (see {@link #acquire} and {@link #release}). Since indices are shared across threads, they are immutable
+ * once built; codecs are not thread-safe, so each data source decodes with its own codec.
+ */
+final class ResidentFeatureIndex {
+    private static final Map<String, SharedIndex> SHARED_INDICES = new ConcurrentHashMap<>();
+
+    // lines are copied into byte arrays of this size, except for longer lines which get an array of their own
+    private static final int LINE_CHUNK_SIZE = 1 << 20;
+
+    private final List<String> headerLines;
+    private final Map<String, ContigFeatures> contigs;
+    private final long numFeatures;
+
+    /**
+     * An index, built by the first user to get it, with the number of data sources using it
+     */
+    private static final class SharedIndex {
+        private ResidentFeatureIndex index = null;
+        // only changed within SHARED_INDICES.compute, which locks the entry
+        private int numUsers = 0;
+
+        /**
+         * Users wait here for the one building the index. If that one fails, the next one tries again.
+         */
+        private synchronized ResidentFeatureIndex getOrBuild(final Supplier<ResidentFeatureIndex> indexBuilder) {
+            if ( index == null ) {
+                index = Utils.nonNull(indexBuilder.get());
+            }
+            return index;
+        }
+    }
+
+    /**
+     * The Features of one contig, sorted by start position
+     */
+    private static final class ContigFeatures {
+        private final int[] starts;
+        private final int[] ends;
+        // maxEnds[i] is the largest end of features 0..i, so the first Feature that can overlap a position is found by binary search
+        private final int[] maxEnds;
+        // the line of each Feature is at (address & 0xFFFFFFFF) in lineChunks[address >>> 32]
+        private final long[] lineAddresses;
+        private final int[] lineLengths;
+        private final byte[][] lineChunks;
+
+        private ContigFeatures(final int[] starts, final int[] ends, final long[] lineAddresses, final int[] lineLengths, final byte[][] lineChunks) {
+            this.starts = starts;
+            this.ends = ends;
+            this.lineAddresses = lineAddresses;
+            this.lineLengths = lineLengths;
+            this.lineChunks = lineChunks;
+            this.maxEnds = new int[starts.length];
+            int maxEnd = Integer.MIN_VALUE;
+            for ( int i = 0; i < starts.length; i++ ) {
+                maxEnd = Math.max(maxEnd, ends[i]);
+                maxEnds[i] = maxEnd;
+            }
+        }
+
+        private int firstIndexWithMaxEndAtLeast(final int position) {
+            int low = 0;
+            int high = maxEnds.length;
+            while ( low < high ) {
+                final int mid = (low + high) >>> 1;
+                if ( maxEnds[mid] < position ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private String getLine(final int i) {
+            final long address = lineAddresses[i];
+            return new String(lineChunks[(int) (address >>> 32)], (int) address, lineLengths[i], StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Collects the Features of one contig in file order
+     */
+    private static final class ContigFeaturesBuilder {
+        private final IntArrayList starts = new IntArrayList();
+        private final IntArrayList ends = new IntArrayList();
+        private final LongArrayList lineAddresses = new LongArrayList();
+        private final IntArrayList lineLengths = new IntArrayList();
+        private final List<byte[]> lineChunks = new ArrayList<>();
+        private int chunkPosition = 0;
+        private boolean sorted = true;
+
+        private void add(final Feature location, final String line) {
+            final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if ( lineChunks.isEmpty() || chunkPosition + bytes.length > lineChunks.get(lineChunks.size() - 1).length ) {
+                lineChunks.add(new byte[Math.max(LINE_CHUNK_SIZE, bytes.length)]);
+                chunkPosition = 0;
+            }
+            System.arraycopy(bytes, 0, lineChunks.get(lineChunks.size() - 1), chunkPosition, bytes.length);
+            sorted &= starts.isEmpty() || starts.getInt(starts.size() - 1) <= location.getStart();
+            starts.add(location.getStart());
+            ends.add(location.getEnd());
+            lineAddresses.add(((long) (lineChunks.size() - 1) << 32) | chunkPosition);
+            lineLengths.add(bytes.length);
+            chunkPosition += bytes.length;
+        }
+
+        private ContigFeatures build() {
+            // don't keep the unused end of the last chunk
+            final int lastChunk = lineChunks.size() - 1;
+            lineChunks.set(lastChunk, Arrays.copyOf(lineChunks.get(lastChunk), chunkPosition));
+
+            final int[] startArray = starts.toIntArray();
+            final int[] endArray = ends.toIntArray();
+            final long[] addressArray = lineAddresses.toLongArray();
+            final int[] lengthArray = lineLengths.toIntArray();
+            if ( ! sorted ) {
+                // stable, so that Features with the same start stay in file order
+                final Integer[] order = new Integer[startArray.length];
+                for ( int i = 0; i < order.length; i++ ) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparingInt(i -> startArray[i]));
+                final int[] sortedStarts = new int[order.length];
+                for ( int i = 0; i < order.length; i++ ) {
+                    sortedStarts[i] = startArray[order[i]];
+                    endArray[i] = ends.getInt(order[i]);
+                    addressArray[i] = lineAddresses.getLong(order[i]);
+                    lengthArray[i] = lineLengths.getInt(order[i]);
+                }
+                return new ContigFeatures(sortedStarts, endArray, addressArray, lengthArray, lineChunks.toArray(new byte[0][]));
+            }
+            return new ContigFeatures(startArray, endArray, addressArray, lengthArray, lineChunks.toArray(new byte[0][]));
+        }
+    }
+
+    /**
+     * Build an index over all the Features of a text file, consuming the lines
+     *
+     * @param lines the lines of the file, starting with its header
+     * @param codec codec for the file, used to read its header and the location of each Feature
+     */
+    ResidentFeatureIndex(final LineIterator lines, final AsciiFeatureCodec<?> codec) {
+        Utils.nonNull(lines);
+        Utils.nonNull(codec);
+        final RecordingLineIterator headerLineIterator = new RecordingLineIterator(lines);
+        codec.readActualHeader(headerLineIterator);
+        this.headerLines = Collections.unmodifiableList(headerLineIterator.recordedLines);
+
+        final Map<String, ContigFeaturesBuilder> builders = new LinkedHashMap<>();
+        long count = 0;
+        while ( lines.hasNext() ) {
+            final String line = lines.peek();
+            // consumes the line, and returns null for comments
+            final Feature location = codec.decodeLoc(lines);
+            if ( location != null ) {
+                builders.computeIfAbsent(location.getContig(), c -> new ContigFeaturesBuilder()).add(location, line);
+                ++count;
+            }
+        }
+        final Map<String, ContigFeatures> contigFeatures = new HashMap<>(builders.size() * 2);
+        builders.forEach((contig, builder) -> contigFeatures.put(contig, builder.build()));
+        this.contigs = contigFeatures;
+        this.numFeatures = count;
+    }
+
+    /**
+     * Build an index over all the Features of a text file, which may be gzipped
+     *
+     * @param path the file
+     * @param codec codec for the file, used to read its header and the location of each Feature
+     */
+    static ResidentFeatureIndex load(final Path path, final AsciiFeatureCodec<?> codec) throws IOException {
+        Utils.nonNull(path);
+        try ( final Reader reader = IOUtils.makeReaderMaybeGzipped(new BufferedInputStream(Files.newInputStream(path)),
+                IOUtil.hasBlockCompressedExtension(path.toString())) ) {
+            return new ResidentFeatureIndex(new LineIteratorImpl(new SynchronousLineReader(reader)), codec);
+        }
+    }
+
+    /**
+     * Get the index shared in this JVM under the given key, building it if there isn't one yet, and register one more
+     * user of it. Only one thread builds the index of a given key, and others asking for it at the same time wait for
+     * it to be built, while indices of other keys can be acquired and released. Each successful call must be matched
+     * by a call to {@link #release} once the index is no longer used.
+     *
+     * @param key identifies the source of the Features, and the way they are decoded
+     * @param indexBuilder builds the index, called only if there is no index for the key yet
+     * @return the shared index for the key
+     */
+    static ResidentFeatureIndex acquire(final String key, final Supplier<ResidentFeatureIndex> indexBuilder) {
+        Utils.nonNull(key);
+        Utils.nonNull(indexBuilder);
+        // register as a user first, so that the index isn't dropped while we build it, but don't hold the lock on the
+        // map entry for the build, which may take a long time
+        final SharedIndex shared = SHARED_INDICES.compute(key, (k, existing) -> {
+            final SharedIndex result = existing == null ? new SharedIndex() : existing;
+            result.numUsers++;
+            return result;
+        });
+        try {
+            return shared.getOrBuild(indexBuilder);
+        } catch ( final RuntimeException | Error e ) {
+            release(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Unregister a user of the index shared under the given key, and drop the index if that was the last one
+     *
+     * @param key key that the index was acquired with
+     */
+    static void release(final String key) {
+        Utils.nonNull(key);
+        SHARED_INDICES.computeIfPresent(key, (k, shared) -> --shared.numUsers == 0 ? null : shared);
+    }
+
+    /**
+     * Prepare a codec to decode the Features of this index, by giving it the header of the file
+     *
+     * @param codec a new codec of the same type as the one the index was built with
+     */
+    void initializeCodec(final AsciiFeatureCodec<?> codec) {
+        Utils.nonNull(codec);
+        codec.readActualHeader(new LineIteratorImpl(new SynchronousLineReader(new StringReader(String.join("\n", headerLines)))));
+    }
+
+    /**
+     * @return the total number of Features in the index
+     */
+    long size() {
+        return numFeatures;
+    }
+
+    /**
+     * Returns all the Features overlapping the given interval, sorted by start position (in file order for sorted files)
+     *
+     * @param interval retrieve all Features overlapping this interval
+     * @param codec decodes the Features, and must have been initialized with {@link #initializeCodec}
+     * @return a new List of all the Features overlapping the interval
+     */
+    <T extends Feature> List<T> query(final Locatable interval, final AsciiFeatureCodec<T> codec) {
+        Utils.nonNull(interval);
+        Utils.nonNull(codec);
+        final ContigFeatures contig = contigs.get(interval.getContig());
+        if ( contig == null ) {
+            return new ArrayList<>(0);
+        }
+        final int queryStart = interval.getStart();
+        final int queryEnd = interval.getEnd();
+        final List<T> matchingFeatures = new ArrayList<>();
+        for ( int i = contig.firstIndexWithMaxEndAtLeast(queryStart); i < contig.starts.length && contig.starts[i] <= queryEnd; i++ ) {
+            if ( contig.ends[i] >= queryStart ) {
+                matchingFeatures.add(codec.decode(contig.getLine(i)));
+            }
+        }
+        return matchingFeatures;
+    }
+
+    /**
+     * Records the lines taken from another LineIterator
+     */
+    private static final class RecordingLineIterator implements LineIterator {
+        private final LineIterator lines;
+        private final List<String> recordedLines = new ArrayList<>();
+
+        private RecordingLineIterator(final LineIterator lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public String peek() {
+            return lines.peek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return lines.hasNext();
+        }
+
+        @Override
+        public String next() {
+            final String line = lines.next();
+            recordedLines.add(line);
+            return line;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+import htsjdk.samtools.util.ProgressLoggerInterface;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A SAMFileWriter used while a {@link ParallelTraversal} is active: records are written to a temporary BAM file per
+ * output slot, and the slots are copied, in order, to the real output when this writer is closed. The output is
+ * therefore the same as if all the records had been written to the real output by a single thread, shard after shard.
+ *
+ * Records of a given slot must be added by one thread at a time, which is the case as each shard is processed by a
+ * single thread.
+ */
+final class ShardedSAMFileWriter implements SAMFileWriter {
+    // temporary files only live until the end of the run, so favor speed over size
+    private static final int TEMP_FILE_COMPRESSION_LEVEL = 1;
+
+    private final ParallelTraversal traversal;
+    private final SAMFileHeader header;
+    private final boolean preSorted;
+    private final SAMFileWriter outputWriter;
+    private final Map<Integer, SlotOutput> slots = new ConcurrentSkipListMap<>();
+    private ProgressLoggerInterface progressLogger;
+
+    /**
+     * @param traversal the parallel traversal that determines the slot of each record
+     * @param header header of the output
+     * @param preSorted if true, the records of each shard are already sorted to match the header sort order
+     * @param outputWriter writer for the real output, which receives all the records on {@link #close}
+     */
+    ShardedSAMFileWriter(final ParallelTraversal traversal, final SAMFileHeader header, final boolean preSorted, final SAMFileWriter outputWriter) {
+        this.traversal = Utils.nonNull(traversal);
+        this.header = Utils.nonNull(header);
+        this.preSorted = preSorted;
+        this.outputWriter = Utils.nonNull(outputWriter);
+    }
+
+    @Override
+    public void addAlignment(final SAMRecord alignment) {
+        final int slot = traversal.getOutputSlot();
+        SlotOutput output = slots.get(slot);
+        if ( output == null ) {
+            output = new SlotOutput();
+            slots.put(slot, output);
+        }
+        output.writer.addAlignment(alignment);
+    }
+
+    @Override
+    public SAMFileHeader getFileHeader() {
+        return header;
+    }
+
+    @Override
+    public void setProgressLogger(final ProgressLoggerInterface progressLogger) {
+        // records are only logged once they reach the real output
+        this.progressLogger = progressLogger;
+    }
+
+    @Override
+    public void close() {
+        slots.values().forEach(slot -> slot.writer.close());
+        if ( progressLogger != null ) {
+            outputWriter.setProgressLogger(progressLogger);
+        }
+        try {
+            for ( final SlotOutput slot : slots.values() ) {
+                try ( final SamReader reader = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).open(slot.file) ) {
+                    for ( final SAMRecord record : reader ) {
+                        outputWriter.addAlignment(record);
+                    }
+                } catch ( final IOException e ) {
+                    throw new UserException.CouldNotReadInputFile(slot.file.toPath(), e);
+                }
+                slot.file.delete();
+            }
+        } finally {
+            outputWriter.close();
+        }
+    }
+
+    /**
+     * The temporary output of a single slot
+     */
+    private final class SlotOutput {
+        private final File file;
+        private final SAMFileWriter writer;
+
+        private SlotOutput() {
+            file = traversal.createTempFile(".bam");
+            writer = new SAMFileWriterFactory()
+                    .setCompressionLevel(TEMP_FILE_COMPRESSION_LEVEL)
+                    .makeBAMWriter(header, preSorted, file);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A VariantContextWriter used while a {@link ParallelTraversal} is active: variants are written to a temporary VCF file
+ * per output slot, and the slots are copied, in order, to the real output when this writer is closed. The output is
+ * therefore the same as if all the variants had been written to the real output by a single thread, shard after shard.
+ *
+ * The header must be set (using either {@link #setHeader} or {@link #writeHeader}) before any variant is added, and is
+ * passed on to the real output right away.
+ *
+ * Variants of a given slot must be added by one thread at a time, which is the case as each shard is processed by a
+ * single thread.
+ */
+final class ShardedVariantContextWriter implements VariantContextWriter {
+    private final ParallelTraversal traversal;
+    private final VariantContextWriter outputWriter;
+    private final SAMSequenceDictionary dictionary;
+    private final Options[] tempFileOptions;
+    private final Map<Integer, SlotOutput> slots = new ConcurrentSkipListMap<>();
+    private volatile VCFHeader header;
+
+    /**
+     * @param traversal the parallel traversal that determines the slot of each variant
+     * @param outputWriter writer for the real output, which receives all the variants on {@link #close}
+     * @param dictionary sequence dictionary for the temporary files, may be null
+     * @param tempFileOptions options for the temporary files
+     */
+    ShardedVariantContextWriter(final ParallelTraversal traversal, final VariantContextWriter outputWriter,
+                                final SAMSequenceDictionary dictionary, final Options... tempFileOptions) {
+        this.traversal = Utils.nonNull(traversal);
+        this.outputWriter = Utils.nonNull(outputWriter);
+        this.dictionary = dictionary;
+        this.tempFileOptions = tempFileOptions;
+    }
+
+    @Override
+    public void writeHeader(final VCFHeader header) {
+        Utils.validate(this.header == null, "Cannot redefine header");
+        outputWriter.writeHeader(header);
+        this.header = header;
+    }
+
+    @Override
+    public void setHeader(final VCFHeader header) {
+        Utils.validate(this.header == null, "Cannot redefine header");
+        outputWriter.setHeader(header);
+        this.header = header;
+    }
+
+    @Override
+    public void add(final VariantContext vc) {
+        Utils.validate(header != null, "The header must be set before adding variants");
+        final int slot = traversal.getOutputSlot();
+        SlotOutput output = slots.get(slot);
+        if ( output == null ) {
+            output = new SlotOutput();
+            slots.put(slot, output);
+        }
+        output.writer.add(vc);
+    }
+
+    @Override
+    public boolean checkError() {
+        return outputWriter.checkError() || slots.values().stream().anyMatch(slot -> slot.writer.checkError());
+    }
+
+    @Override
+    public void close() {
+        slots.values().forEach(slot -> slot.writer.close());
+        try {
+            for ( final SlotOutput slot : slots.values() ) {
+                try ( final VCFFileReader reader = new VCFFileReader(slot.file, false) ) {
+                    for ( final VariantContext vc : reader ) {
+                        outputWriter.add(vc);
+                    }
+                }
+                slot.file.delete();
+            }
+        } finally {
+            outputWriter.close();
+        }
+    }
+
+    /**
+     * The temporary output of a single slot, which always includes the header so that it can be read back
+     */
+    private final class SlotOutput {
+        private final File file;
+        private final VariantContextWriter writer;
+
+        private SlotOutput() {
+            file = traversal.createTempFile(".vcf");
+            writer = GATKVariantContextUtils.createVCFWriter(file.toPath(), dictionary, false, tempFileOptions);
+            // each slot gets its own copy of the header, since writers may update the header they are given
+            writer.writeHeader(new VCFHeader(header));
+        }
+    }
+}
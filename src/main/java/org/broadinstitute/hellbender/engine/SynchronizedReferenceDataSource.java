@@ -0,0 +1,45 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Iterator;
+
+/**
+ * A {@link ReferenceDataSource} that serializes all queries against a wrapped data source, so that
+ * {@link ReferenceContext} objects created against it can be safely consumed from multiple threads.
+ *
+ * Used by the parallel traversal mode of {@link AssemblyRegionWalker}, where regions are processed on worker
+ * threads while the traversal thread continues to query the same underlying reference.
+ *
+ * Closing this data source does NOT close the wrapped data source, which remains owned by the caller.
+ */
+final class SynchronizedReferenceDataSource implements ReferenceDataSource {
+
+    private final ReferenceDataSource wrappedSource;
+
+    /**
+     * @param wrappedSource data source to guard; all queries will synchronize on it
+     */
+    SynchronizedReferenceDataSource(final ReferenceDataSource wrappedSource) {
+        this.wrappedSource = Utils.nonNull(wrappedSource);
+    }
+
+    @Override
+    public ReferenceSequence queryAndPrefetch(final String contig, final long start, final long stop) {
+        synchronized (wrappedSource) {
+            return wrappedSource.queryAndPrefetch(contig, start, stop);
+        }
+    }
+
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return wrappedSource.getSequenceDictionary();
+    }
+}
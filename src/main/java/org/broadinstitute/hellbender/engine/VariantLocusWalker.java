@@ -9,7 +9,10 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBOptions;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.IntervalLocusIterator;
@@ -27,6 +30,11 @@ import java.util.stream.Stream;
  *
  * VariantLocusWalker authors must implement the {@link #apply} method to process each variant, and may optionally implement
  * {@link #onTraversalStart}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
+ *
+ * Tools that declare {@link #supportsParallelTraversal()} can be traversed on several threads with
+ * {@value WalkerBase#TRAVERSAL_THREADS_LONG_NAME}. Since each locus only depends on the variants overlapping it, the
+ * traversal intervals are divided into shards of about the same length, which may cut through contigs, and each shard
+ * opens its own query over the driving variants (eg., its own GenomicsDB query iterator).
  */
 public abstract class VariantLocusWalker extends VariantWalkerBase {
 
@@ -40,6 +48,9 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
     private FeatureDataSource<VariantContext> drivingVariants;
     private FeatureInput<VariantContext> drivingVariantsFeatureInput;
 
+    @Argument(fullName = TRAVERSAL_THREADS_LONG_NAME, doc = "Number of threads used to traverse the variants, one shard of the traversal intervals at a time (only supported by some tools)", optional = true, minValue = 1)
+    public int traversalThreads = 1;
+
     private boolean traverseByVariant = false;
 
     /**
@@ -64,6 +75,7 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
         if ( hasUserSuppliedIntervals() ) {
             drivingVariants.setIntervalsForTraversal(userIntervals);
         }
+        initializeParallelTraversal(traversalThreads);
     }
 
     @Override
@@ -121,6 +133,11 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
      */
     @Override
     public void traverse() {
+        if ( parallelTraversal != null ) {
+            traverseInParallel();
+            return;
+        }
+
         final CountingReadFilter readFilter = makeReadFilter();
         final CountingVariantFilter variantFilter = makeVariantFilter();
         final VariantTransformer preTransformer  = makePreVariantFilterTransformer();
@@ -173,6 +190,94 @@ public abstract class VariantLocusWalker extends VariantWalkerBase {
         }
     }
 
+    /**
+     * Traverse the variants using a {@link ParallelTraversal}, with shards of about the same length cut from the
+     * traversal intervals.
+     */
+    private void traverseInParallel() {
+        final List<SimpleInterval> intervals = getTraversalIntervals();
+        if ( intervals == null ) {
+            throw new UserException("Traversing variants using more than one thread (--" + TRAVERSAL_THREADS_LONG_NAME +
+                    ") requires intervals or a reference");
+        }
+        final List<List<SimpleInterval>> shards = IntervalUtils.divideIntervalsByLength(intervals, parallelTraversal.getMaxShards());
+
+        // resolved here, as the GenomicsDB options are cached lazily
+        final GenomicsDBOptions genomicsDBOptions = getGenomicsDBOptions();
+        final List<Integer> shardIndices = new ArrayList<>(shards.size());
+        for ( int i = 0; i < shards.size(); i++ ) {
+            shardIndices.add(i);
+        }
+        parallelTraversal.run(shardIndices,
+                i -> traverseShard(shards.get(i), i == 0 ? null : shards.get(i - 1).get(shards.get(i - 1).size() - 1), genomicsDBOptions));
+    }
+
+    /**
+     * Process the variants of a single shard of a parallel traversal, using data sources opened for this shard only.
+     *
+     * @param shard the intervals of the shard
+     * @param lastIntervalOfPreviousShard the last interval of the previous shard, or null for the first shard. In
+     *                                    by-variant traversals, variants overlapping it belong to a previous shard.
+     */
+    private void traverseShard(final List<SimpleInterval> shard, final SimpleInterval lastIntervalOfPreviousShard, final GenomicsDBOptions genomicsDBOptions) {
+        try ( final FeatureDataSource<VariantContext> shardVariants = new FeatureDataSource<>(drivingVariantsFeatureInput, getDrivingVariantCacheLookAheadBases(),
+                      VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions);
+              final ReadsDataSource shardReads = hasReads() ? makeReadsDataSource() : null;
+              final ReferenceDataSource shardReference = makeReferenceDataSourceForShard();
+              final FeatureManager shardFeatures = new FeatureManager(this, DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions) ) {
+            shardFeatures.setFeatureQueryCacheMaxFeatures(featureCacheMaxFeatures);
+            shardFeatures.addToFeatureSources(0, drivingVariantsFeatureInput, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions);
+
+            final CountingReadFilter readFilter = makeReadFilter();
+            final CountingVariantFilter variantFilter = makeVariantFilter();
+            final VariantTransformer preTransformer  = makePreVariantFilterTransformer();
+            final VariantTransformer postTransformer = makePostVariantFilterTransformer();
+
+            if (traverseByVariant) {
+                shardVariants.setIntervalsForTraversal(shard);
+                getTransformedVariantStream( shardVariants.spliterator(), preTransformer, variantFilter, postTransformer )
+                        .filter(variant -> lastIntervalOfPreviousShard == null || ! lastIntervalOfPreviousShard.overlaps(variant))
+                        .forEachOrdered(variant -> {
+                            final SimpleInterval variantInterval = new SimpleInterval(variant);
+                            apply(variant,
+                                    Collections.singletonList(variant),
+                                    new ReadsContext(shardReads, variantInterval, readFilter),
+                                    new ReferenceContext(shardReference, variantInterval),
+                                    new FeatureContext(shardFeatures, variantInterval));
+
+                            updateProgressMeterFromShard(variantInterval);
+                        });
+            } else {
+                Utils.stream(new ShardedIntervalIterator(shard.iterator(), getDrivingVariantCacheLookAheadBases()))
+                        .forEachOrdered (subShard -> {
+                            if (shardVariants.query(subShard).hasNext()) {
+                                getLocusStream(new SimpleInterval(subShard))
+                                        .forEachOrdered(locus -> {
+                                            final Iterator<VariantContext> overlappingVariants = shardVariants.query(locus);
+                                            if (overlappingVariants.hasNext()) {
+                                                final List<VariantContext> filteredVariants = getTransformedVariantStream(
+                                                        Spliterators.spliteratorUnknownSize(overlappingVariants, 0),
+                                                        preTransformer,
+                                                        variantFilter,
+                                                        postTransformer)
+                                                        .collect(Collectors.toList());
+                                                if (!filteredVariants.isEmpty()) {
+                                                    apply(locus,
+                                                            filteredVariants,
+                                                            new ReadsContext(shardReads, locus, readFilter),
+                                                            new ReferenceContext(shardReference, locus),
+                                                            new FeatureContext(shardFeatures, locus));
+
+                                                    updateProgressMeterFromShard(locus);
+                                                }
+                                            }
+                                        });
+                            }
+                        });
+            }
+        }
+    }
+
     // Return a Stream of SimpleInterval covering the entire territory sketched out by requestedInterval
     private Stream<SimpleInterval> getLocusStream(final SimpleInterval requestedInterval) {
         return Utils.stream(new IntervalLocusIterator(Collections.singletonList(requestedInterval).iterator()));
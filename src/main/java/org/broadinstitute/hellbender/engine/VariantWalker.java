@@ -6,9 +6,14 @@ import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBOptions;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 
+import java.util.List;
 import java.util.Spliterator;
 
 /**
@@ -26,6 +31,9 @@ public abstract class VariantWalker extends VariantWalkerBase {
     @Argument(fullName = StandardArgumentDefinitions.VARIANT_LONG_NAME, shortName = StandardArgumentDefinitions.VARIANT_SHORT_NAME, doc = "A VCF file containing variants", common = false, optional = false)
     public GATKPath drivingVariantFile;
 
+    @Argument(fullName = TRAVERSAL_THREADS_LONG_NAME, doc = "Number of threads used to traverse the variants, one group of contigs at a time (only supported by some tools)", optional = true, minValue = 1)
+    public int traversalThreads = 1;
+
     // NOTE: keeping the driving source of variants separate from other, supplementary FeatureInputs in our FeatureManager in GATKTool
     // we do add the driving source to the Feature manager but we do need to treat it differently and thus this field.
     private FeatureDataSource<VariantContext> drivingVariants;
@@ -46,6 +54,7 @@ public abstract class VariantWalker extends VariantWalkerBase {
         if ( hasUserSuppliedIntervals() ) {
             drivingVariants.setIntervalsForTraversal(userIntervals);
         }
+        initializeParallelTraversal(traversalThreads);
     }
 
     @Override
@@ -96,6 +105,11 @@ public abstract class VariantWalker extends VariantWalkerBase {
      */
     @Override
     public void traverse() {
+        if ( parallelTraversal != null ) {
+            traverseInParallel();
+            return;
+        }
+
         final CountingReadFilter readFilter = makeReadFilter();
         // Process each variant in the input stream.
         getTransformedVariantStream( makeVariantFilter() )
@@ -110,6 +124,56 @@ public abstract class VariantWalker extends VariantWalkerBase {
                 });
     }
 
+    /**
+     * Traverse the variants using a {@link ParallelTraversal}, with one shard per group of contigs.
+     */
+    private void traverseInParallel() {
+        final List<SimpleInterval> intervals;
+        if ( hasUserSuppliedIntervals() ) {
+            intervals = userIntervals;
+        } else {
+            final SAMSequenceDictionary dictionary = getBestAvailableSequenceDictionary();
+            if ( dictionary == null ) {
+                throw new UserException("Traversing variants using more than one thread (--" + TRAVERSAL_THREADS_LONG_NAME +
+                        ") requires a sequence dictionary, from the variants, the reference or --" + StandardArgumentDefinitions.SEQUENCE_DICTIONARY_NAME);
+            }
+            intervals = IntervalUtils.getAllIntervalsForReference(dictionary);
+        }
+
+        // resolved here, as the GenomicsDB options are cached lazily
+        final GenomicsDBOptions genomicsDBOptions = getGenomicsDBOptions();
+        parallelTraversal.run(IntervalUtils.groupIntervalsByContig(intervals, parallelTraversal.getMaxShards()),
+                shard -> traverseShard(shard, genomicsDBOptions));
+    }
+
+    /**
+     * Process the variants of a single shard of a parallel traversal, using data sources opened for this shard only.
+     */
+    private void traverseShard(final List<SimpleInterval> shard, final GenomicsDBOptions genomicsDBOptions) {
+        try ( final FeatureDataSource<VariantContext> shardVariants = new FeatureDataSource<>(drivingVariantsFeatureInput, getDrivingVariantCacheLookAheadBases(),
+                      VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions);
+              final ReadsDataSource shardReads = hasReads() ? makeReadsDataSource() : null;
+              final ReferenceDataSource shardReference = makeReferenceDataSourceForShard();
+              final FeatureManager shardFeatures = new FeatureManager(this, DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions) ) {
+            shardVariants.setIntervalsForTraversal(shard);
+            shardFeatures.setFeatureQueryCacheMaxFeatures(featureCacheMaxFeatures);
+            shardFeatures.addToFeatureSources(0, drivingVariantsFeatureInput, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, genomicsDBOptions);
+
+            final CountingReadFilter readFilter = makeReadFilter();
+            final CountingVariantFilter variantFilter = makeVariantFilter();
+            getTransformedVariantStream(shardVariants.spliterator(), makePreVariantFilterTransformer(), variantFilter, makePostVariantFilterTransformer())
+                    .forEach(variant -> {
+                        final SimpleInterval variantInterval = new SimpleInterval(variant);
+                        apply(variant,
+                                new ReadsContext(shardReads, variantInterval, readFilter),
+                                new ReferenceContext(shardReference, variantInterval),
+                                new FeatureContext(shardFeatures, variantInterval));
+
+                        updateProgressMeterFromShard(variantInterval);
+                    });
+        }
+    }
+
     /**
      * Process an individual variant. Must be implemented by tool authors.
      * In general, tool authors should simply stream their output from apply(), and maintain as little internal state
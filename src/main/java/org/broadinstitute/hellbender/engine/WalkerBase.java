@@ -1,5 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 
 /**
@@ -15,6 +17,64 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
  */
 public abstract class WalkerBase extends GATKTool {
 
+    /**
+     * Full name of the argument controlling the number of threads used to traverse the input, for the walker types that
+     * support parallel traversal.
+     */
+    public static final String TRAVERSAL_THREADS_LONG_NAME = "traversal-threads";
+
+    /**
+     * Whether this tool can be traversed on several threads at once, for the walker types that support parallel
+     * traversal (see {@link #TRAVERSAL_THREADS_LONG_NAME}).
+     *
+     * In a parallel traversal, the traversal intervals are divided into shards made of whole contigs. Each shard is
+     * processed by a single thread, with its own data sources, and the records written by the tool to writers obtained
+     * from {@link #createSAMWriter} or {@link #createVCFWriter} are put back together in order once the writers are
+     * closed, so the output is the same as for a single-threaded traversal.
+     *
+     * Tools should only opt in if their {@code apply()} is safe to call from several threads at once and does not
+     * depend on the records seen before, eg., tools that write each record they are given, possibly modified, to an
+     * output and keep no other state. Any output that does not go through the writers above, and anything computed
+     * from the whole traversal, is the responsibility of the tool.
+     *
+     * The default implementation returns false.
+     */
+    public boolean supportsParallelTraversal() {
+        return false;
+    }
+
+    /**
+     * Set up a parallel traversal using the given number of threads, if that is more than one. Must be called by
+     * walker types that support parallel traversal before the tool creates its writers.
+     */
+    final void initializeParallelTraversal(final int traversalThreads) {
+        if ( traversalThreads > 1 ) {
+            if ( ! supportsParallelTraversal() ) {
+                throw new CommandLineException.BadArgumentValue(TRAVERSAL_THREADS_LONG_NAME, String.valueOf(traversalThreads),
+                        getClass().getSimpleName() + " does not support parallel traversal");
+            }
+            parallelTraversal = new ParallelTraversal(traversalThreads);
+        }
+    }
+
+    /**
+     * Open a new reference data source for a single shard of a parallel traversal.
+     *
+     * @return the new data source, or null if no reference was provided
+     */
+    final ReferenceDataSource makeReferenceDataSourceForShard() {
+        return referenceArguments.getReferencePath() != null ? ReferenceDataSource.of(referenceArguments.getReferencePath()) : null;
+    }
+
+    /**
+     * Update the progress meter after processing a record, from any thread of a parallel traversal.
+     */
+    final void updateProgressMeterFromShard(final Locatable currentLocus) {
+        synchronized ( progressMeter ) {
+            progressMeter.update(currentLocus);
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
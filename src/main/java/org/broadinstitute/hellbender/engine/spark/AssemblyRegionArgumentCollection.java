@@ -10,6 +10,8 @@ import java.io.Serializable;
 public class AssemblyRegionArgumentCollection implements Serializable {
     public static final String ASSEMBLY_REGION_OUT_LONG_NAME = "assembly-region-out";
     public static final String FORCE_ACTIVE_REGIONS_LONG_NAME = "force-active";
+    public static final String REGION_THREADS_LONG_NAME = "region-threads";
+    public static final String READ_PREFETCH_BUFFER_SIZE_LONG_NAME = "read-prefetch-buffer-size";
     private static final long serialVersionUID = 1L;
 
     public static final String MIN_ASSEMBLY_LONG_NAME = "min-assembly-region-size";
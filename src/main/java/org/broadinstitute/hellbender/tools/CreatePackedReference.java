@@ -0,0 +1,77 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceFile;
+import picard.cmdline.programgroups.ReferenceProgramGroup;
+
+import java.nio.file.Path;
+
+/**
+ * Create a packed, memory-mappable copy of a reference FASTA file
+ *
+ * <p>The packed reference holds the bases of all the contigs without line breaks, upper-cased and with IUPAC ambiguity
+ * codes converted to N, as GATK tools see them. When a FASTA file has an up-to-date packed sidecar next to it (with the
+ * same name plus the extension ".gatkref"), GATK tools given that FASTA as reference read the bases from the sidecar
+ * instead. The sidecar is memory-mapped, so reference queries don't need to parse the FASTA, and all the GATK processes
+ * running on a machine with the same reference share a single copy of it in the OS page cache.</p>
+ *
+ * <p>The FASTA file must still be present, along with its index (.fai) and sequence dictionary (.dict), and the sidecar
+ * is ignored if it is older than the FASTA file.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>Reference FASTA file</li>
+ * </ul>
+ *
+ * <h4>Output</h4>
+ *
+ * <ul>
+ *     <li>Packed reference file</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk CreatePackedReference \
+ *     -R reference.fasta
+ * </pre>
+ *
+ */
+@DocumentedFeature
+@CommandLineProgramProperties(
+        summary = "Create a packed, memory-mappable copy of a reference FASTA file, used by GATK tools in place of the FASTA",
+        oneLineSummary = "Create a packed, memory-mappable copy of a reference FASTA file",
+        programGroup = ReferenceProgramGroup.class
+)
+public final class CreatePackedReference extends CommandLineProgram {
+
+    @Argument(fullName = StandardArgumentDefinitions.REFERENCE_LONG_NAME,
+            shortName = StandardArgumentDefinitions.REFERENCE_SHORT_NAME,
+            doc = "Input reference FASTA file, with .fai and .dict companion files.")
+    private GATKPath referenceFasta = null;
+
+    /**
+     * If not provided, the packed reference will be the sidecar of the reference FASTA, with the extension ".gatkref"
+     * appended to the FASTA file name, which is where GATK tools look for it.
+     */
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "Output packed reference file.",
+            optional = true)
+    private GATKPath packedReferenceOutput = null;
+
+    @Override
+    protected Object doWork() {
+        final Path fastaPath = referenceFasta.toPath();
+        final Path outputPath = packedReferenceOutput != null ? packedReferenceOutput.toPath() : PackedReferenceFile.getSidecarPath(fastaPath);
+        logger.info("Writing packed reference to " + outputPath.toUri());
+        PackedReferenceFile.create(fastaPath, outputPath);
+        return null;
+    }
+}
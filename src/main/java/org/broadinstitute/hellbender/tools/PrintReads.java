@@ -95,6 +95,11 @@ public final class PrintReads extends ReadWalker {
     public GATKPath output;
     private SAMFileGATKReadWriter outputWriter;
 
+    @Override
+    public boolean supportsParallelTraversal() {
+        return true;
+    }
+
     @Override
     public void onTraversalStart() {
         outputWriter = createSAMWriter(output, true);
@@ -21,6 +21,7 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.Metadata;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.MetadataUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
 import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.broadinstitute.hellbender.utils.pileup.LocusPileupBatch;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -111,6 +112,11 @@ public final class CollectAllelicCounts extends LocusWalker {
         return true;
     }
 
+    @Override
+    public boolean usePileupBatches() {
+        return true;
+    }
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -162,4 +168,10 @@ public final class CollectAllelicCounts extends LocusWalker {
         final byte refAsByte = referenceContext.getBase();
         allelicCountCollector.collectAtLocus(Nucleotide.decode(refAsByte), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
     }
+
+    @Override
+    public void apply(LocusPileupBatch pileups, int locusIndex, ReferenceContext referenceContext, FeatureContext featureContext) {
+        final byte refAsByte = referenceContext.getBase();
+        allelicCountCollector.collectAtLocus(Nucleotide.decode(refAsByte), pileups, locusIndex, minimumBaseQuality);
+    }
 }
@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
+import org.broadinstitute.hellbender.utils.pileup.LocusPileupBatch;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 
 import java.util.ArrayList;
@@ -64,13 +65,50 @@ public final class AllelicCountCollector {
                 .filter(r -> r.getQual() >= minBaseQuality)
                 .forEach(r -> nucleotideCounter.add(r.getBase()));
 
+        addAllelicCount(refBase, nucleotideCounter, locus.getContig(), locus.getStart(), locus.getEnd());
+    }
+
+    /**
+     * Add counts to this class for a locus of a batch of pileups.  Equivalent to
+     * {@link #collectAtLocus(Nucleotide, ReadPileup, Locatable, int)} with the pileup and location of that locus.
+     *
+     * @param refBase single nucleotide of the reference.  Not {@code null}
+     * @param pileups batch of pileups containing the locus.  Not {@code null}
+     * @param locusIndex index of the locus in the batch
+     * @param minBaseQuality minimum base quality in the read for that read to count at that position.  Must be greater than or equal to 0.
+     */
+    public void collectAtLocus(final Nucleotide refBase, final LocusPileupBatch pileups, final int locusIndex, final int minBaseQuality) {
+        Utils.nonNull(refBase);
+        Utils.nonNull(pileups);
+        ParamUtils.isPositiveOrZero(minBaseQuality, "Minimum base quality must be zero or higher.");
+
+        if (!BASES.contains(refBase)) {
+            logger.warn(String.format("The reference position at %s has an unknown base call (value: %s). Skipping...",
+                    pileups.getLocation(locusIndex), refBase.toString()));
+            return;
+        }
+
+        final Nucleotide.Counter nucleotideCounter = new Nucleotide.Counter();
+        final int end = pileups.getEndElement(locusIndex);
+        for (int e = pileups.getFirstElement(locusIndex); e < end; e++) {
+            if (!pileups.isDeletion(e) && pileups.getQual(e) >= minBaseQuality) {
+                nucleotideCounter.add(pileups.getBase(e));
+            }
+        }
+
+        final int position = pileups.getPosition(locusIndex);
+        addAllelicCount(refBase, nucleotideCounter, pileups.getContig(locusIndex), position, position);
+    }
+
+    private void addAllelicCount(final Nucleotide refBase, final Nucleotide.Counter nucleotideCounter,
+                                 final String contig, final int start, final int end) {
         final int totalBaseCount = BASES.stream().mapToInt(b -> (int) nucleotideCounter.get(b)).sum();  //only include total ACGT counts (exclude N, etc.)
         final int refReadCount = (int) nucleotideCounter.get(refBase);
         final int altReadCount = totalBaseCount - refReadCount;                                         //we take alt = total - ref instead of the actual alt count
         final Nucleotide altBase = altReadCount == 0 ? Nucleotide.N : inferAltFromPileupBaseCounts(nucleotideCounter, refBase);
 
         allelicCounts.add(new AllelicCount(
-                new SimpleInterval(locus.getContig(), locus.getStart(), locus.getEnd()),
+                new SimpleInterval(contig, start, end),
                 refReadCount, altReadCount, refBase, altBase));
     }
 
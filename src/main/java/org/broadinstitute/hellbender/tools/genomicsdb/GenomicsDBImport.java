@@ -33,6 +33,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.VcfHeaderCache;
 import org.genomicsdb.Constants;
 import org.genomicsdb.GenomicsDBUtils;
 import org.genomicsdb.importer.GenomicsDBImporter;
@@ -204,6 +205,7 @@ public final class GenomicsDBImport extends GATKTool {
     public static final String MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL = "max-num-intervals-to-import-in-parallel";
     public static final String MERGE_CONTIGS_INTO_NUM_PARTITIONS = "merge-contigs-into-num-partitions";
     public static final String BYPASS_FEATURE_READER = "bypass-feature-reader";
+    public static final String VCF_HEADER_CACHE_DIRECTORY_LONG_NAME = "vcf-header-cache-directory";
     public static final int INTERVAL_LIST_SIZE_WARNING_THRESHOLD = 100;
     public static final int ARRAY_COLUMN_BOUNDS_START = 0;
     public static final int ARRAY_COLUMN_BOUNDS_END = 1;
@@ -362,6 +364,20 @@ public final class GenomicsDBImport extends GATKTool {
             optional = true)
     public boolean useGcsHdfsConnector = false;
 
+    /**
+     * The headers of the input GVCFs are cached in this local directory, and later runs over the same (unmodified)
+     * GVCFs read them from the cache instead of opening each GVCF. This mostly helps when importing many GVCFs
+     * with -V, whose headers are all read before the import starts.
+     */
+    @Advanced
+    @Argument(fullName = VCF_HEADER_CACHE_DIRECTORY_LONG_NAME,
+            doc = "Local directory in which to cache the headers of the input GVCFs.",
+            optional = true)
+    public String vcfHeaderCacheDirectory = null;
+
+    // cache of the headers of the input GVCFs, if vcfHeaderCacheDirectory was specified
+    private VcfHeaderCache vcfHeaderCache;
+
     //executor service used when vcfInitializerThreads > 1
     private ExecutorService inputPreloadExecutorService;
 
@@ -456,6 +472,9 @@ public final class GenomicsDBImport extends GATKTool {
         initializeWorkspaceAndToolMode();
         assertVariantPathsOrSampleNameFileWasSpecified();
         assertOverwriteWorkspaceAndIncrementalImportMutuallyExclusive();
+        if (vcfHeaderCacheDirectory != null) {
+            vcfHeaderCache = new VcfHeaderCache(IOUtils.getPath(vcfHeaderCacheDirectory));
+        }
         initializeHeaderAndSampleMappings();
         initializeIntervals();
         super.onStartup();
@@ -551,6 +570,9 @@ public final class GenomicsDBImport extends GATKTool {
                     throw new UserException("Malformed URI "+e.toString(), e);
                 }
             }
+            if (vcfHeaderCache != null) {
+                logger.info(String.format("Read %d of %d headers from the VCF header cache", vcfHeaderCache.getNumCacheHits(), variantPaths.size()));
+            }
             mergedHeaderLines = VCFUtils.smartMergeHeaders(headers, true);
             mergedHeaderSequenceDictionary = new VCFHeader(mergedHeaderLines).getSequenceDictionary();
             mergedHeaderLines.addAll(getDefaultToolVCFHeaderLines());
@@ -595,6 +617,10 @@ public final class GenomicsDBImport extends GATKTool {
     }
 
     private VCFHeader getHeaderFromPath(final Path variantPath) {
+        return vcfHeaderCache != null ? vcfHeaderCache.getHeader(variantPath, this::readHeaderFromPath) : readHeaderFromPath(variantPath);
+    }
+
+    private VCFHeader readHeaderFromPath(final Path variantPath) {
         try(final FeatureReader<VariantContext> reader = getReaderFromPath(variantPath)) {
             return (VCFHeader) reader.getHeader();
         } catch (final IOException e) {
@@ -146,7 +146,10 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
     protected DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
 
     // State that gets accumulated between calls of apply()
-    private final LinkedList<VariantContext> variantContextsOverlappingCurrentMerge = new LinkedList<>();
+    private final List<VariantContext> variantContextsOverlappingCurrentMerge = new ArrayList<>();
+    // Output genotypes of the reference blocks overlapping the current merge, which are the same for every band cut
+    // from a block when genotypes are not called, so they are only built once per block
+    private final Map<VariantContext, List<Genotype>> noCallReferenceBlockGenotypes = new IdentityHashMap<>();
     private final Set<String> samples = new HashSet<>();
     private SimpleInterval prevPos = null;
     private byte refAfterPrevPos;
@@ -194,61 +197,93 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
     void createIntermediateVariants(SimpleInterval intervalToClose) {
         resizeReferenceIfNeeded(intervalToClose);
 
-        // Break up the GVCF according to the provided reference blocking scheme
-        // The values returned from getIntermediateStopSites represent a proposed set of stop sites that may include
-        // intervals that are outside the actual interval being closed. These sites are filtered out below.
-        // Note: Precomputing these is really inefficient when large reference blocks are closed with
-        // fine band resolution because it results in very large collections of stop sites (tens or hundreds of millions)
-        // that must subsequently be sorted.
-        final Set<Integer> sitesToStop = getIntermediateStopSites(intervalToClose, multipleAtWhichToBreakBands);
+        // Stop sites come from two sources, which are merged in order as we go: the reference blocking scheme, which
+        // can propose a very large number of sites when large reference blocks are closed with fine band resolution,
+        // and so is never materialized, and the variant contexts that end in the interval or contain a variant, of
+        // which there are only a few.
+        final int[] variantStopSites = getVariantStopSites(intervalToClose);
+        int nextVariantStopSite = 0;
+        final PrimitiveIterator.OfInt bandStopSites = getBandStopSites(intervalToClose, multipleAtWhichToBreakBands);
+        int bandStopSite = bandStopSites.hasNext() ? bandStopSites.nextInt() : Integer.MAX_VALUE;
+
+        while ( true ) {
+            final int variantStopSite = nextVariantStopSite < variantStopSites.length ? variantStopSites[nextVariantStopSite] : Integer.MAX_VALUE;
+            final int stoppedLoc = Math.min(variantStopSite, bandStopSite);
+            if ( stoppedLoc > intervalToClose.getEnd() ) {
+                break;
+            }
+            while ( nextVariantStopSite < variantStopSites.length && variantStopSites[nextVariantStopSite] == stoppedLoc ) {
+                nextVariantStopSite++;
+            }
+            if ( stoppedLoc == bandStopSite ) {
+                bandStopSite = bandStopSites.hasNext() ? bandStopSites.nextInt() : Integer.MAX_VALUE;
+            }
 
-        // If any variant contexts ended (or were spanning deletions) the last context compute where we should stop them
-        for (VariantContext vc : variantContextsOverlappingCurrentMerge) {
+            // For each stopped loc that is within the interval being closed, create a fake QueuedContextState and pass it to endPreviousStats
+            final SimpleInterval loc = new SimpleInterval(intervalToClose.getContig(), stoppedLoc, stoppedLoc);
+            if ( stoppedLoc >= intervalToClose.getStart() && isWithinInterval(loc) ) {
+                byte[] refBases = Arrays.copyOfRange(storedReferenceContext.getBases(), stoppedLoc - storedReferenceContext.getWindow().getStart(), stoppedLoc - storedReferenceContext.getWindow().getStart() + 2);
+                endPreviousStates(loc, refBases, Collections.emptyList(), true);
+            }
+        }
+    }
 
+    /**
+     * Sites at which the variant contexts overlapping the current merge force us to stop, sorted (possibly with duplicates).
+     * These are every site spanned by a variant context containing a variant, and the end of every reference block
+     * ending in the interval.
+     */
+    private int[] getVariantStopSites(final SimpleInterval intervalToClose) {
+        int numSites = 0;
+        for (final VariantContext vc : variantContextsOverlappingCurrentMerge) {
             // Asking if the number of alleles > 2 is a shorthand for a variant being present, as we expect <non-ref>
             // symbolic alleles to be present in all VariantContext. This might also be the case if we saw a spanning
             // deletion that reads into the current site, as we would expect ReferenceConfidenceVariantContextMerger to
             // insert symbolic alleles for those spanning variants.
             if (vc.getNAlleles() > 2) {
-                for (int i = vc.getStart(); i <= vc.getEnd(); i++ ) {
-                    sitesToStop.add(i);
-                }
+                numSites += vc.getLengthOnReference();
             } else if (vc.getEnd() <= intervalToClose.getEnd()) {
-                sitesToStop.add(vc.getEnd());
+                numSites++;
             }
         }
 
-        List<Integer> stoppedLocs = new ArrayList<>(sitesToStop);
-        stoppedLocs.sort(Comparator.naturalOrder());
-
-        // For each stopped loc that is within the interval being closed, create a fake QueuedContextState and pass it to endPreviousStats
-        for (int stoppedLoc : stoppedLocs) {
-            SimpleInterval loc = new SimpleInterval(intervalToClose.getContig(), stoppedLoc, stoppedLoc);
-            if (( stoppedLoc <= intervalToClose.getEnd() && stoppedLoc>= intervalToClose.getStart()) && isWithinInterval(loc)) {
-                byte[] refBases = Arrays.copyOfRange(storedReferenceContext.getBases(), stoppedLoc - storedReferenceContext.getWindow().getStart(), stoppedLoc - storedReferenceContext.getWindow().getStart() + 2);
-                endPreviousStates(loc, refBases, Collections.emptyList(), true);
+        final int[] sites = new int[numSites];
+        int i = 0;
+        for (final VariantContext vc : variantContextsOverlappingCurrentMerge) {
+            if (vc.getNAlleles() > 2) {
+                for (int pos = vc.getStart(); pos <= vc.getEnd(); pos++ ) {
+                    sites[i++] = pos;
+                }
+            } else if (vc.getEnd() <= intervalToClose.getEnd()) {
+                sites[i++] = vc.getEnd();
             }
         }
-
+        Arrays.sort(sites);
+        return sites;
     }
 
-    // Get any intermediate stop sites based on the break band multiple.
+    /**
+     * Sites at which the reference blocking scheme stops, in increasing order. These are generated lazily, since
+     * closing a large reference block with fine band resolution can give a very large number of them. The first
+     * ones may be before the start of the interval, and are skipped by the caller.
+     */
     @VisibleForTesting
-    protected final static Set<Integer> getIntermediateStopSites(final SimpleInterval intervalToClose, final int breakBandMultiple) {
-        final Set<Integer> sitesToStop = new HashSet<>();
-
-        if ( breakBandMultiple > 0) {
-            // if the intermediate interval to close starts before the end of the first band multiple,
-            // create the first stop position at the end of the band multiple
-            for (int blockEndPosition = intervalToClose.getStart() < (breakBandMultiple + 1) ?
-                    Math.max(2, breakBandMultiple) :
-                    (intervalToClose.getStart() / breakBandMultiple) * breakBandMultiple;
-                 blockEndPosition <= intervalToClose.getEnd();
-                 blockEndPosition += breakBandMultiple) {
-                sitesToStop.add(blockEndPosition - 1); // Subtract 1 here because we want to split before this base
-            }
+    static PrimitiveIterator.OfInt getBandStopSites(final SimpleInterval intervalToClose, final int breakBandMultiple) {
+        if ( breakBandMultiple <= 0 ) {
+            return IntStream.empty().iterator();
         }
-        return sitesToStop;
+        final int firstBandBoundary = getFirstBandBoundary(intervalToClose, breakBandMultiple);
+        final int numBandBoundaries = firstBandBoundary <= intervalToClose.getEnd() ? (intervalToClose.getEnd() - firstBandBoundary) / breakBandMultiple + 1 : 0;
+        // Subtract 1 here because we want to split before each band boundary
+        return IntStream.iterate(firstBandBoundary - 1, site -> site + breakBandMultiple).limit(numBandBoundaries).iterator();
+    }
+
+    // if the intermediate interval to close starts before the end of the first band multiple,
+    // create the first stop position at the end of the band multiple
+    private static int getFirstBandBoundary(final SimpleInterval intervalToClose, final int breakBandMultiple) {
+        return intervalToClose.getStart() < (breakBandMultiple + 1) ?
+                Math.max(2, breakBandMultiple) :
+                (intervalToClose.getStart() / breakBandMultiple) * breakBandMultiple;
     }
 
     /**
@@ -399,6 +434,7 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
                 if((vc.getEnd() == pos.getStart()) || (variantContexts.size() > 0 && !forceOutputAtCurrentPosition && newSamples.containsAll(vc.getSampleNames()))) {
                     samples.removeAll(vc.getSampleNames());
                     variantContextsOverlappingCurrentMerge.remove(i);
+                    noCallReferenceBlockGenotypes.remove(vc);
                 }
             }
         }
@@ -455,19 +491,30 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
 
         // genotypes
         final GenotypesContext genotypes = GenotypesContext.create();
-        final GenotypeAssignmentMethod assignmentMethod = makeGenotypeCalls ? GenotypeAssignmentMethod.PREFER_PLS : GenotypeAssignmentMethod.SET_TO_NO_CALL;
         for (final VariantContext vc : vcs) {
-            for (final Genotype g : vc.getGenotypes()) {
-                final GenotypeBuilder gBuilder = new GenotypeBuilder(g);
-                GATKVariantContextUtils.makeGenotypeCall(g.getPloidy(),
-                            gBuilder, assignmentMethod,
-                            g.hasLikelihoods() ? g.getLikelihoods().getAsVector() : null, allelesToUse, g.getAlleles(), null);
-                genotypes.add(gBuilder.make());
+            if ( makeGenotypeCalls ) {
+                // called genotypes depend on the reference allele of the band, so they can't be reused across bands
+                genotypes.addAll(makeReferenceBlockGenotypes(vc, allelesToUse, GenotypeAssignmentMethod.PREFER_PLS));
+            } else {
+                genotypes.addAll(noCallReferenceBlockGenotypes.computeIfAbsent(vc,
+                        block -> makeReferenceBlockGenotypes(block, allelesToUse, GenotypeAssignmentMethod.SET_TO_NO_CALL)));
             }
         }
         return new VariantContextBuilder("", first.getContig(), start, end, allelesToUse).attributes(attrs).genotypes(genotypes).make();
     }
 
+    private static List<Genotype> makeReferenceBlockGenotypes(final VariantContext vc, final List<Allele> allelesToUse, final GenotypeAssignmentMethod assignmentMethod) {
+        final List<Genotype> genotypes = new ArrayList<>(vc.getNSamples());
+        for (final Genotype g : vc.getGenotypes()) {
+            final GenotypeBuilder gBuilder = new GenotypeBuilder(g);
+            GATKVariantContextUtils.makeGenotypeCall(g.getPloidy(),
+                        gBuilder, assignmentMethod,
+                        g.hasLikelihoods() ? g.getLikelihoods().getAsVector() : null, allelesToUse, g.getAlleles(), null);
+            genotypes.add(gBuilder.make());
+        }
+        return genotypes;
+    }
+
     /**
      * Does the given list of VariantContexts contain any with an alternate allele other than <NON_REF>?
      *
@@ -70,6 +70,18 @@ import java.util.*;
  *   --tmp-dir /path/to/large/tmp
  * </pre>
  *
+ * <h4>Perform joint genotyping on a GenomicsDB workspace using 8 threads</h4>
+ * <p>The intervals are divided into shards genotyped in parallel, each with its own GenomicsDB query, and the output
+ * is the same as for a single thread.</p>
+ * <pre>
+ * gatk --java-options "-Xmx16g" GenotypeGVCFs \
+ *   -R Homo_sapiens_assembly38.fasta \
+ *   -V gendb://my_database \
+ *   -L chr20 \
+ *   --traversal-threads 8 \
+ *   -O output.vcf.gz
+ * </pre>
+ *
  * <h3>Caveats</h3>
  * <ul>
  *   <li>Only GVCF files produced by HaplotypeCaller (or CombineGVCFs) can be used as input for this tool. Some other
@@ -173,8 +185,6 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
     // the annotation engine
     private VariantAnnotatorEngine annotationEngine;
 
-    private ReferenceConfidenceVariantContextMerger merger;
-
     private VariantContextWriter vcfWriter;
 
     /** these are used when {@link #onlyOutputCallsStartingInIntervals) is true */
@@ -186,6 +196,10 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
 
     private GenotypeGVCFsEngine gvcfEngine;
 
+    // each thread of a parallel traversal genotypes with its own engine and merger, copied from the ones of the main thread
+    private final ThreadLocal<GenotypeGVCFsEngine> threadGvcfEngine = ThreadLocal.withInitial(() -> gvcfEngine.copyForThread());
+    private final ThreadLocal<ReferenceConfidenceVariantContextMerger> threadMerger = ThreadLocal.withInitial(this::createMerger);
+
     /**
      * Get the largest interval per contig that contains the intervals specified on the command line.
      * @param getIntervals intervals to be transformed
@@ -219,6 +233,14 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
     @Override
     public boolean useVariantAnnotations() { return true;}
 
+    /**
+     * Each locus (or variant) is genotyped independently, so GenotypeGVCFs can be traversed on several threads.
+     */
+    @Override
+    public boolean supportsParallelTraversal() {
+        return true;
+    }
+
     @Override
     public List<Class<? extends Annotation>> getDefaultVariantAnnotationGroups() {
         return Arrays.asList(StandardAnnotation.class);
@@ -261,7 +283,7 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
 
         annotationEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), dbsnp.dbsnp, Collections.emptyList(), false, keepCombined);
 
-        merger = new ReferenceConfidenceVariantContextMerger(annotationEngine, getHeaderForVariants(), somaticInput, false, true);
+        threadMerger.set(createMerger());
 
         //methods that cannot be called in engine bc its protected
         Set<VCFHeaderLine> defaultToolVCFHeaderLines = getDefaultToolVCFHeaderLines();
@@ -272,7 +294,11 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
 
         //call initialize method in engine class that creates VCFWriter object and writes a header to it
         vcfWriter = gvcfEngine.setupVCFWriter(defaultToolVCFHeaderLines, keepCombined, dbsnp, vcfWriter);
+        threadGvcfEngine.set(gvcfEngine);
+    }
 
+    private ReferenceConfidenceVariantContextMerger createMerger() {
+        return new ReferenceConfidenceVariantContextMerger(annotationEngine, getHeaderForVariants(), somaticInput, false, true);
     }
 
     @Override
@@ -280,7 +306,7 @@ public final class GenotypeGVCFs extends VariantLocusWalker {
 
         final boolean inForceOutputIntervals = forceOutputIntervalsPresent && forceOutputIntervals.overlapsAny(loc);
         final boolean forceOutput = includeNonVariants || inForceOutputIntervals;
-        final VariantContext regenotypedVC = gvcfEngine.callRegion(loc, variants, ref, features, merger, somaticInput, tlodThreshold, afTolerance, forceOutput);
+        final VariantContext regenotypedVC = threadGvcfEngine.get().callRegion(loc, variants, ref, features, threadMerger.get(), somaticInput, tlodThreshold, afTolerance, forceOutput);
 
         if (regenotypedVC != null) {
             final SimpleInterval variantStart = new SimpleInterval(regenotypedVC.getContig(), regenotypedVC.getStart(), regenotypedVC.getStart());
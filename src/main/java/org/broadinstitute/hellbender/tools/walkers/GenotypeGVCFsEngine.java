@@ -118,6 +118,20 @@ public class GenotypeGVCFsEngine
         }
     }
 
+    /**
+     * Create a new engine with the same arguments and output header as this one, but with its own genotyping engines,
+     * so that {@link #callRegion} can be called on several threads at once, one engine per thread.
+     * Must be called after {@link #setupVCFWriter}.
+     *
+     * @return a new GenotypeGVCFsEngine
+     */
+    public GenotypeGVCFsEngine copyForThread() {
+        Utils.validate(outputHeader != null, "the output header must be set up before copying the engine");
+        final GenotypeGVCFsEngine copy = new GenotypeGVCFsEngine(annotationEngine, genotypeArgs, includeNonVariants, inputVCFHeader);
+        copy.outputHeader = outputHeader;
+        return copy;
+    }
+
     public VariantContext callRegion(Locatable loc, List<VariantContext> variants, ReferenceContext ref, FeatureContext features,
                                      ReferenceConfidenceVariantContextMerger merger, boolean somaticInput, double tlodThreshold,
                                      double afTolerance, final boolean outputNonVariants) //do work for apply
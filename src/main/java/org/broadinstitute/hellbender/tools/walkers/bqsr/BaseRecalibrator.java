@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.bqsr;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,6 +16,7 @@ import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -25,8 +27,14 @@ import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCo
 import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * First pass of the base quality score recalibration.
@@ -73,6 +81,14 @@ import java.util.List;
  *   --known-sites another/optional/setOfSitesToMask.vcf \
  *   -O recal_data.table
  * </pre>
+ *
+ * <p>
+ * Use --bqsr-threads to process reads on several threads. Reads are split into batches of consecutive reads, which
+ * are handed to the threads in turn. Each thread collects a single set of recalibration tables over all its batches,
+ * and the tables of the threads are merged in a fixed order once all the reads are processed. The result is therefore
+ * the same in every run with the same number of threads. It can differ from runs with another number of threads in
+ * the last digits of the fractional error counts, which are added up in a different order.
+ * </p>
  */
 
 @CommandLineProgramProperties(
@@ -89,6 +105,18 @@ public final class BaseRecalibrator extends ReadWalker {
             "(such as read group, reported quality score, machine cycle, and nucleotide context).";
 
     public static final String KNOWN_SITES_ARG_FULL_NAME = "known-sites";
+    public static final String BQSR_THREADS_LONG_NAME = "bqsr-threads";
+
+    /**
+     * Number of reads handed to a worker thread at a time when running with more than one thread
+     */
+    private static final int READS_PER_BATCH = 1000;
+
+    /**
+     * Maximum number of batches that may be waiting to be processed by a worker thread. Bounds the memory used by
+     * reads that have been loaded but not processed yet.
+     */
+    private static final int MAX_PENDING_BATCHES_PER_THREAD = 4;
 
     protected static final Logger logger = LogManager.getLogger(BaseRecalibrator.class);
 
@@ -119,8 +147,21 @@ public final class BaseRecalibrator extends ReadWalker {
     @WorkflowOutput
     private GATKPath recalTableFile = null;
 
+    /**
+     * Number of threads used to collect the recalibration data. Reads are loaded on the traversal thread and handed in
+     * batches to each worker thread in turn. Each worker collects its own recalibration tables, which are merged in the
+     * order of the workers at the end.
+     */
+    @Argument(fullName = BQSR_THREADS_LONG_NAME, doc = "Number of threads used to process reads", optional = true, minValue = 1)
+    private int bqsrThreads = 1;
+
     private BaseRecalibrationEngine recalibrationEngine;
 
+    // State for the multithreaded mode, only used if bqsrThreads > 1
+    private List<RecalibrationWorker> workers;
+    private int nextWorker = 0;
+    private ReadBatch currentBatch;
+
     private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
 
     /**
@@ -148,6 +189,17 @@ public final class BaseRecalibrator extends ReadWalker {
         recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
         recalibrationEngine.logCovariatesUsed();
         referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferencePath());
+
+        if ( bqsrThreads > 1 ) {
+            logger.info("Processing reads using " + bqsrThreads + " threads");
+            // each worker has its own engine and reference data source, which are not thread-safe
+            workers = new ArrayList<>(bqsrThreads);
+            for ( int i = 0; i < bqsrThreads; i++ ) {
+                workers.add(new RecalibrationWorker(new BaseRecalibrationEngine(recalArgs, getHeaderForReads()),
+                        ReferenceDataSource.of(referenceArguments.getReferencePath()), i));
+            }
+            currentBatch = new ReadBatch();
+        }
     }
 
     @Override
@@ -186,11 +238,50 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     @Override
     public void apply( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
-        recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        if ( workers == null ) {
+            recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+            return;
+        }
+
+        // feature queries are not thread-safe, so the known sites are looked up here on the traversal thread
+        currentBatch.add(read, featureContext.getValues(knownSites));
+        if ( currentBatch.size() == READS_PER_BATCH ) {
+            submitCurrentBatch();
+        }
+    }
+
+    /**
+     * Hand the current batch of reads to the next worker thread in turn. Each worker processes its batches in the
+     * order they were submitted, so the data it collects does not depend on thread scheduling.
+     */
+    private void submitCurrentBatch() {
+        final ReadBatch batch = currentBatch;
+        currentBatch = new ReadBatch();
+        workers.get(nextWorker).submit(batch);
+        nextWorker = (nextWorker + 1) % workers.size();
+    }
+
+    /**
+     * Wait for all the reads to be processed, merge the data of the workers into the main engine in the order of the
+     * workers, then release the worker threads
+     */
+    private void finishWorkers() {
+        if ( currentBatch.size() > 0 ) {
+            submitCurrentBatch();
+        }
+        for ( final RecalibrationWorker worker : workers ) {
+            worker.finish();
+            final long numReads = worker.engine.getNumReadsProcessed();
+            recalibrationEngine.combine(worker.engine.takeRecalibrationTables(), numReads);
+        }
+        workers = null;
     }
 
     @Override
     public Object onTraversalSuccess() {
+        if ( workers != null ) {
+            finishWorkers();
+        }
         recalibrationEngine.finalizeData();
 
         logger.info("Calculating quantized quality scores...");
@@ -221,4 +312,96 @@ public final class BaseRecalibrator extends ReadWalker {
             RecalUtils.outputRecalibrationReport(recalTableStream, recalArgs, quantizationInfo, recalibrationEngine.getFinalRecalibrationTables(), recalibrationEngine.getCovariates());
         }
     }
+
+    @Override
+    public void closeTool() {
+        if ( workers != null ) {
+            workers.forEach(worker -> worker.executor.shutdownNow());
+        }
+    }
+
+    /**
+     * A worker thread, with the recalibration engine that collects the data of all the batches it processes and its
+     * own reference
+     */
+    private static final class RecalibrationWorker {
+        private final BaseRecalibrationEngine engine;
+        private final ReferenceDataSource reference;
+        private final ExecutorService executor;
+        private final Deque<Future<?>> pendingBatches = new ArrayDeque<>();
+
+        private RecalibrationWorker(final BaseRecalibrationEngine engine, final ReferenceDataSource reference, final int index) {
+            this.engine = engine;
+            this.reference = reference;
+            this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("bqsr-thread-" + index)
+                    .setDaemon(true)
+                    .build());
+        }
+
+        /**
+         * Queue a batch of reads to be processed after the ones already submitted, first waiting for the oldest
+         * batches to be processed until the number of pending batches is back within bounds
+         */
+        private void submit(final ReadBatch batch) {
+            while ( pendingBatches.size() >= MAX_PENDING_BATCHES_PER_THREAD ) {
+                waitForOldestBatch();
+            }
+            pendingBatches.add(executor.submit(() -> batch.process(engine, reference)));
+        }
+
+        private void waitForOldestBatch() {
+            try {
+                pendingBatches.poll().get();
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while waiting for reads to be processed", e);
+            } catch ( final ExecutionException e ) {
+                final Throwable cause = e.getCause();
+                if ( cause instanceof RuntimeException ) {
+                    throw (RuntimeException) cause;
+                } else if ( cause instanceof Error ) {
+                    throw (Error) cause;
+                }
+                throw new GATKException("Error processing reads", cause);
+            }
+        }
+
+        /**
+         * Wait for all the submitted batches to be processed, then release the thread and the reference
+         */
+        private void finish() {
+            while ( ! pendingBatches.isEmpty() ) {
+                waitForOldestBatch();
+            }
+            executor.shutdown();
+            reference.close();
+        }
+    }
+
+    /**
+     * A batch of consecutive reads, along with the known sites overlapping each of them, to be processed by a worker thread
+     */
+    private static final class ReadBatch {
+        private final List<GATKRead> reads = new ArrayList<>(READS_PER_BATCH);
+        private final List<List<Feature>> knownSitesForReads = new ArrayList<>(READS_PER_BATCH);
+
+        private void add(final GATKRead read, final List<Feature> knownSites) {
+            reads.add(read);
+            knownSitesForReads.add(knownSites);
+        }
+
+        private int size() {
+            return reads.size();
+        }
+
+        /**
+         * Add the data of the reads of this batch to the given engine
+         */
+        private void process(final BaseRecalibrationEngine engine, final ReferenceDataSource reference) {
+            for ( int i = 0; i < reads.size(); i++ ) {
+                engine.processRead(reads.get(i), reference, knownSitesForReads.get(i));
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 
@@ -14,8 +15,8 @@ public class GenotypeLikelihoodCalculator {
      * Offset table for this calculator.
      *
      * <p>
-     *     This is a shallow copy of {@link GenotypeLikelihoodCalculators#alleleFirstGenotypeOffsetByPloidy} when the calculator was created
-     *     thus it follows the same format as that array. Please refer to its documentation.
+     *     This is the offset table shared by all calculators created by {@link GenotypeLikelihoodCalculators} at the time this
+     *     calculator was created. Please refer to the documentation of {@link GenotypeLikelihoodCalculators} for its format.
      * </p>
      *
      * <p>You can assume that this offset table contain at least (probably more) the numbers corresponding to the allele count and ploidy for this calculator.
@@ -51,10 +52,11 @@ public class GenotypeLikelihoodCalculator {
      *
      * <p>
      *     It is indexed by genotype index and then by read index. The read capacity is increased as needed by calling
-     *     {@link #ensureReadCapacity(int) ensureReadCapacity}.
+     *     {@link #ensureReadCapacity(int) ensureReadCapacity}. Unless {@link #keepsReadBuffersBetweenCalls()}, the rows
+     *     are borrowed from the {@link ReadBuffers} of the calling thread and may be longer than the read capacity.
      * </p>
      */
-    final double[][] readLikelihoodsByGenotypeIndex;
+    double[][] readLikelihoodsByGenotypeIndex;
     /**
      * Buffer field use as a temporal container for sorted allele counts when calculating the likelihood of a
      * read in a genotype.
@@ -121,6 +123,44 @@ public class GenotypeLikelihoodCalculator {
      */
     private double[] readGenotypeLikelihoodComponents;
 
+    /**
+     * Read buffers of each thread, shared by all the calculators that don't {@link #keepsReadBuffersBetweenCalls() keep
+     * their own}, so that creating a calculator for every sample and site does not allocate new buffers each time.
+     */
+    private static final ThreadLocal<ReadBuffers> THREAD_READ_BUFFERS = ThreadLocal.withInitial(ReadBuffers::new);
+
+    /**
+     * Read buffers shared by the calculators used in the same thread, grown as needed and never shrunk.
+     *
+     * <p>Calculators index the buffers by their own read count, allele count and ploidy, so a buffer larger than
+     * needed can be used as is. The contents are only meaningful within a single likelihood calculation.</p>
+     */
+    private static final class ReadBuffers {
+        private double[] readAlleleLikelihoodByAlleleCount = new double[0];
+        private double[][] readLikelihoodsByGenotypeIndex = new double[0][];
+        private double[] readGenotypeLikelihoodComponents = new double[0];
+
+        private void ensureCapacity(final int readCapacity, final int genotypeCount, final int alleleCountTimesFrequencies,
+                                    final int maximumDistinctAllelesInGenotype) {
+            final int readAlleleLikelihoodsLength = readCapacity * alleleCountTimesFrequencies;
+            if (readAlleleLikelihoodByAlleleCount.length < readAlleleLikelihoodsLength) {
+                readAlleleLikelihoodByAlleleCount = new double[readAlleleLikelihoodsLength];
+            }
+            if (readLikelihoodsByGenotypeIndex.length < genotypeCount) {
+                readLikelihoodsByGenotypeIndex = Arrays.copyOf(readLikelihoodsByGenotypeIndex, genotypeCount);
+            }
+            for (int i = 0; i < genotypeCount; i++) {
+                if (readLikelihoodsByGenotypeIndex[i] == null || readLikelihoodsByGenotypeIndex[i].length < readCapacity) {
+                    readLikelihoodsByGenotypeIndex[i] = new double[readCapacity];
+                }
+            }
+            final int componentsLength = readCapacity * maximumDistinctAllelesInGenotype;
+            if (readGenotypeLikelihoodComponents.length < componentsLength) {
+                readGenotypeLikelihoodComponents = new double[componentsLength];
+            }
+        }
+    }
+
     public GenotypeLikelihoodCalculator(final int ploidy, final int alleleCount, final int[][] alleleFirstGenotypeOffsetByPloidy,
                                         final GenotypeAlleleCounts[][] genotypeTableByPloidy) {
         maximumDistinctAllelesInGenotype = Math.min(ploidy, alleleCount);
@@ -130,7 +170,7 @@ public class GenotypeLikelihoodCalculator {
         this.alleleCount = alleleCount;
         this.ploidy = ploidy;
         alleleHeap = new PriorityQueue<>(ploidy, Comparator.<Integer>naturalOrder().reversed());
-        readLikelihoodsByGenotypeIndex = new double[genotypeCount][];
+        readLikelihoodsByGenotypeIndex = keepsReadBuffersBetweenCalls() ? new double[genotypeCount][] : null;
         genotypeAllelesAndCounts = new int[maximumDistinctAllelesInGenotype * 2];
     }
 
@@ -140,7 +180,17 @@ public class GenotypeLikelihoodCalculator {
      */
     public void ensureReadCapacity(final int requestedCapacity) {
         Utils.validateArg(requestedCapacity >= 0, "capacity may not be negative");
-        if (readCapacity == -1) { // first time call.
+        if (!keepsReadBuffersBetweenCalls()) {
+            // the buffers of the thread might have been grown by another calculator, so bind to them on every call.
+            final ReadBuffers buffers = THREAD_READ_BUFFERS.get();
+            if (readCapacity < requestedCapacity) {
+                readCapacity = Math.max(requestedCapacity << 1, 10); // Never go too small, 10 is the minimum.
+            }
+            buffers.ensureCapacity(readCapacity, genotypeCount, alleleCount * (ploidy + 1), maximumDistinctAllelesInGenotype);
+            readAlleleLikelihoodByAlleleCount = buffers.readAlleleLikelihoodByAlleleCount;
+            readLikelihoodsByGenotypeIndex = buffers.readLikelihoodsByGenotypeIndex;
+            readGenotypeLikelihoodComponents = buffers.readGenotypeLikelihoodComponents;
+        } else if (readCapacity == -1) { // first time call.
             final int minimumCapacity = Math.max(requestedCapacity, 10); // Never go too small, 10 is the minimum.
             readAlleleLikelihoodByAlleleCount = new double[minimumCapacity * alleleCount * (ploidy+1)];
             for (int i = 0; i < genotypeCount; i++) {
@@ -159,6 +209,16 @@ public class GenotypeLikelihoodCalculator {
         }
     }
 
+    /**
+     * Whether this calculator needs its read buffers to keep their contents between likelihood calculations, in which case
+     * it gets buffers of its own rather than sharing those of the calling thread with other calculators.
+     *
+     * <p>Called from the constructor, so overrides must not depend on the state of the subclass.</p>
+     */
+    protected boolean keepsReadBuffersBetweenCalls() {
+        return false;
+    }
+
     /**
      * Give a list of alleles, returns the likelihood array index.
      * @param alleleIndices the indices of the alleles in the genotype, there should be as many repetition of an
@@ -51,6 +51,15 @@ public final class GenotypeLikelihoodCalculatorDRAGEN extends GenotypeLikelihood
         cachedLog10NonErrorRate = Math.log10(1 - BQD_FIXED_ERROR_RATE);
     }
 
+    /**
+     * The BQD and FRD models reuse the per-read likelihoods left in the read buffers by the last call to
+     * {@link #getReadRawReadLikelihoodsByGenotypeIndex(LikelihoodMatrix)}, so they can't be shared with other calculators.
+     */
+    @Override
+    protected boolean keepsReadBuffersBetweenCalls() {
+        return true;
+    }
+
     /**
      * Calculate the BQD model outputs to the likelihoods array.
      * This method handles splitting the model by strand and selecting the best scoring parameters across the two for return in the likelihoods array.
@@ -9,27 +9,24 @@ import org.apache.logging.log4j.Logger;
 import java.util.Arrays;
 
 /**
- * Genotype likelihood calculator utility. This class is thread-safe since access to shared mutable state is
- * synchronized.
+ * Genotype likelihood calculator utility. This class is thread-safe.
  *
  * <p>
  *     This class provide genotype likelihood calculators with any number of alleles able given an arbitrary ploidy and allele
  *     count (number of distinct alleles).
  * </p>
+ *
+ * <p>
+ *     The genotype offset and allele-count tables the calculators are built on are shared by all instances of this class
+ *     in the JVM. They are grown lazily, as larger ploidies and allele counts are requested, by replacing them with new,
+ *     larger tables, and are never modified once published, so they can be read from any thread without locking.
+ *     Instances of this class hold no state of their own and are cheap to create.
+ * </p>
  */
 public final class GenotypeLikelihoodCalculators {
 
     private static final Logger logger = LogManager.getLogger(GenotypeLikelihoodCalculators.class);
 
-    /**
-     * The current maximum ploidy supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #genotypeTableByPloidy}. Feel free
-     *     to change it to anything reasonable that is non-negative.
-     * </p>
-     */
-    private int maximumPloidy = 2; // its initial value is the initial capacity of the shared tables.
-
     /**
      * Maximum possible number of genotypes that this calculator can handle.
      */
@@ -41,32 +38,40 @@ public final class GenotypeLikelihoodCalculators {
     static final int GENOTYPE_COUNT_OVERFLOW = -1;
 
     /**
-     * The current maximum allele index supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #alleleFirstGenotypeOffsetByPloidy} table.
-     *     Feel free to change it to anything reasonable that is non-negative.
-     * </p>
-     */
-    private int maximumAllele = 1; // its initial value is the initial capacity of the shared tables.
-
-    /**
-     * Shared copy of the offset table as described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     *
-     * This reference holds the largest requested so far in terms of maximum-allele and maximum-ploidy.
+     * Immutable snapshot of the shared tables, supporting up to a maximum ploidy and allele index.
      */
-    private int[][] alleleFirstGenotypeOffsetByPloidy =
-            buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+    private static final class Tables {
+        private final int maximumPloidy;
+        private final int maximumAllele;
+
+        /**
+         * Offset table as described in {@link #buildAlleleFirstGenotypeOffsetTable(int, int)}.
+         */
+        private final int[][] alleleFirstGenotypeOffsetByPloidy;
+
+        /**
+         * Table of genotypes given the ploidy sorted by their index in the likelihood array, as described in
+         * {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+         */
+        private final GenotypeAlleleCounts[][] genotypeTableByPloidy;
+
+        private Tables(final int maximumPloidy, final int maximumAllele) {
+            this.maximumPloidy = maximumPloidy;
+            this.maximumAllele = maximumAllele;
+            alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+            genotypeTableByPloidy = buildGenotypeAlleleCountsTable(maximumPloidy, maximumAllele, alleleFirstGenotypeOffsetByPloidy);
+        }
 
+        private boolean supports(final int ploidy, final int alleleCount) {
+            return ploidy <= maximumPloidy && alleleCount <= maximumAllele;
+        }
+    }
 
     /**
-     * Shared table of genotypes given the ploidy sorted by their index in the likelihood array.
-     *
-     * <p>
-     *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     * </p>
+     * The largest tables requested so far in terms of maximum-allele and maximum-ploidy. Its initial capacity is
+     * ploidy 2 and allele 1; feel free to change it to anything reasonable that is non-negative.
      */
-    private GenotypeAlleleCounts[][] genotypeTableByPloidy =
-            buildGenotypeAlleleCountsTable(maximumPloidy,maximumAllele,alleleFirstGenotypeOffsetByPloidy);
+    private static volatile Tables sharedTables = new Tables(2, 1);
 
     public GenotypeLikelihoodCalculators(){
 
@@ -258,23 +263,24 @@ public final class GenotypeLikelihoodCalculators {
      *
      * @return never {@code null}.
      */
-    public synchronized GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
-        calculateGenotypeCountsUsingTablesAndValidate(ploidy, alleleCount);
+    public GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
+        final Tables tables = getTablesAndValidate(ploidy, alleleCount);
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, tables.alleleFirstGenotypeOffsetByPloidy, tables.genotypeTableByPloidy);
     }
 
     /**
-     * Calculate genotype counts using the tables and validate that there is no overflow
+     * Get tables with at least the requested capacity and validate that there is no overflow
      */
-    private synchronized void calculateGenotypeCountsUsingTablesAndValidate(final int ploidy, final int alleleCount) {
-        checkPloidyAndMaximumAllele(ploidy, alleleCount);
+    private static Tables getTablesAndValidate(final int ploidy, final int alleleCount) {
+        final Tables tables = getTables(ploidy, alleleCount);
 
-        if (calculateGenotypeCountUsingTables(ploidy, alleleCount) == GENOTYPE_COUNT_OVERFLOW) {
+        if (tables.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount] == GENOTYPE_COUNT_OVERFLOW) {
             final double largeGenotypeCount = Math.pow(10, MathUtils.log10BinomialCoefficient(ploidy + alleleCount - 1, alleleCount - 1));
             throw new IllegalArgumentException(String.format("the number of genotypes is too large for ploidy %d and allele %d: approx. %.0f", ploidy, alleleCount, largeGenotypeCount));
         }
+        return tables;
     }
 
     /**
@@ -287,44 +293,43 @@ public final class GenotypeLikelihoodCalculators {
      *
      * @return never {@code null}.
      */
-    public synchronized GenotypeLikelihoodCalculatorDRAGEN getInstanceDRAGEN(final int ploidy, final int alleleCount) {
+    public GenotypeLikelihoodCalculatorDRAGEN getInstanceDRAGEN(final int ploidy, final int alleleCount) {
         Utils.validate(ploidy == 2, "DRAGEN genotyping mode currently only supports diploid samples");
-        calculateGenotypeCountsUsingTablesAndValidate(ploidy, alleleCount);
+        final Tables tables = getTablesAndValidate(ploidy, alleleCount);
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculatorDRAGEN(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        return new GenotypeLikelihoodCalculatorDRAGEN(ploidy, alleleCount, tables.alleleFirstGenotypeOffsetByPloidy, tables.genotypeTableByPloidy);
     }
 
 
     /**
-     * Update of shared tables.
+     * Returns the shared tables, replacing them by larger ones first if they don't support the requested ploidy and
+     * allele. Only growing the tables requires a lock.
      *
-     * @param requestedMaximumAllele the new requested maximum allele maximum.
-     * @param requestedMaximumPloidy the new requested ploidy maximum.
+     * @param ploidy the requested ploidy.
+     * @param alleleCount the requested maximum allele.
      */
-    private synchronized void ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
-
-        final boolean needsToExpandAlleleCapacity = requestedMaximumAllele > maximumAllele;
-        final boolean needsToExpandPloidyCapacity = requestedMaximumPloidy > maximumPloidy;
-
-        if (!needsToExpandAlleleCapacity && !needsToExpandPloidyCapacity) {
-            return;
+    private static Tables getTables(final int ploidy, final int alleleCount) {
+        checkPloidyAndMaximumAllele(ploidy, alleleCount);
+        final Tables tables = sharedTables;
+        if (tables.supports(ploidy, alleleCount)) {
+            return tables;
         }
 
-        final int newMaximumPloidy = Math.max(maximumPloidy, requestedMaximumPloidy);
-        final int newMaximumAllele = Math.max(maximumAllele, requestedMaximumAllele);
+        synchronized (GenotypeLikelihoodCalculators.class) {
+            final Tables currentTables = sharedTables;
+            if (currentTables.supports(ploidy, alleleCount)) {
+                return currentTables;
+            }
 
-        logger.debug("Expanding capacity ploidy:" + maximumPloidy + "->" + newMaximumPloidy + " allele:" +  maximumAllele +"->" + newMaximumAllele );
+            final int newMaximumPloidy = Math.max(currentTables.maximumPloidy, ploidy);
+            final int newMaximumAllele = Math.max(currentTables.maximumAllele, alleleCount);
 
-        // Update tables first.
-        alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(newMaximumPloidy,newMaximumAllele);
-        genotypeTableByPloidy = buildGenotypeAlleleCountsTable(newMaximumPloidy,newMaximumAllele,alleleFirstGenotypeOffsetByPloidy);
+            logger.debug("Expanding capacity ploidy:" + currentTables.maximumPloidy + "->" + newMaximumPloidy + " allele:" +  currentTables.maximumAllele +"->" + newMaximumAllele );
 
-        if (needsToExpandAlleleCapacity) {
-            maximumAllele = requestedMaximumAllele;
-        }
-        if (needsToExpandPloidyCapacity) {
-            maximumPloidy = requestedMaximumPloidy;
+            final Tables newTables = new Tables(newMaximumPloidy, newMaximumAllele);
+            sharedTables = newTables;
+            return newTables;
         }
     }
 
@@ -409,9 +414,7 @@ public final class GenotypeLikelihoodCalculators {
         throw new GATKException("Code should never reach here.");
     }
 
-    private synchronized int calculateGenotypeCountUsingTables(int ploidy, int alleleCount) {
-        checkPloidyAndMaximumAllele(ploidy, alleleCount);
-        ensureCapacity(alleleCount, ploidy);
-        return alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
+    private static int calculateGenotypeCountUsingTables(int ploidy, int alleleCount) {
+        return getTables(ploidy, alleleCount).alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
     }
 }
\ No newline at end of file
@@ -11,6 +11,9 @@ import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAlignmentConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Set of arguments for Assembly Based Callers
  */
@@ -72,6 +75,29 @@ public abstract class AssemblyBasedCallerArgumentCollection {
 
     protected abstract ReadThreadingAssemblerArgumentCollection getReadThreadingAssemblerArgumentCollection();
 
+    /**
+     * Debug and auxiliary outputs are opened by each calling engine, so they can't be requested when assembly regions
+     * are processed in parallel by one engine per thread.
+     *
+     * @return the names of any requested arguments that produce per-engine outputs (empty if there are none)
+     */
+    public List<String> getRequestedPerEngineOutputArguments() {
+        final List<String> requested = new ArrayList<>();
+        if ( bamOutputPath != null ) {
+            requested.add(BAM_OUTPUT_LONG_NAME);
+        }
+        if ( assemblerArgs.debugAssemblyVariantsOut != null ) {
+            requested.add("debug-assembly-variants-out");
+        }
+        if ( assemblerArgs.graphOutput != null ) {
+            requested.add("graph-output");
+        }
+        if ( assemblerArgs.haplotypeHistogramOutput != null ) {
+            requested.add("haplotype-debug-histogram-output");
+        }
+        return requested;
+    }
+
     @ArgumentCollection
     public ReadThreadingAssemblerArgumentCollection assemblerArgs = getReadThreadingAssemblerArgumentCollection();
 
@@ -10,6 +10,7 @@ import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.vcf.VCFConstants;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
 import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
@@ -48,6 +49,7 @@ import java.util.stream.Collectors;
  * Created by davidben on 9/8/16.
  */
 public final class AssemblyBasedCallerUtils {
+    private static final Logger logger = LogManager.getLogger(AssemblyBasedCallerUtils.class);
 
     static final int REFERENCE_PADDING_FOR_ASSEMBLY = 500;
     public static final int NUM_HAPLOTYPES_TO_INJECT_FORCE_CALLING_ALLELES_INTO = 5;
@@ -100,14 +102,18 @@ public final class AssemblyBasedCallerUtils {
     public static Map<GATKRead, GATKRead> realignReadsToTheirBestHaplotype(final AlleleLikelihoods<GATKRead, Haplotype> originalReadLikelihoods, final Haplotype refHaplotype, final Locatable paddedReferenceLoc, final SmithWatermanAligner aligner, final SWParameters readToHaplotypeSWParameters) {
         final Collection<AlleleLikelihoods<GATKRead, Haplotype>.BestAllele> bestAlleles = originalReadLikelihoods.bestAllelesBreakingTies(HAPLOTYPE_ALIGNMENT_TIEBREAKING_PRIORITY);
         final Map<GATKRead, GATKRead> result = new HashMap<>(bestAlleles.size());
+        // reads with the same bases and clipping are aligned to the same haplotype only once
+        final ReadToHaplotypeAlignmentCache alignmentCache = new ReadToHaplotypeAlignmentCache(refHaplotype, paddedReferenceLoc.getStart(), aligner, readToHaplotypeSWParameters);
 
         for (final AlleleLikelihoods<GATKRead, Haplotype>.BestAllele bestAllele : bestAlleles) {
             final GATKRead originalRead = bestAllele.evidence;
             final Haplotype bestHaplotype = bestAllele.allele;
             final boolean isInformative = bestAllele.isInformative();
-            final GATKRead realignedRead = AlignmentUtils.createReadAlignedToRef(originalRead, bestHaplotype, refHaplotype, paddedReferenceLoc.getStart(), isInformative, aligner, readToHaplotypeSWParameters);
+            final GATKRead realignedRead = alignmentCache.createReadAlignedToRef(originalRead, bestHaplotype, isInformative);
             result.put(originalRead, realignedRead);
         }
+        logger.debug(() -> String.format("Realigned %d reads to their best haplotypes in %s with %d alignments (%.1f%% reused)",
+                alignmentCache.getHits() + alignmentCache.getMisses(), paddedReferenceLoc, alignmentCache.getMisses(), 100 * alignmentCache.getHitRate()));
         return result;
     }
 
@@ -248,10 +254,14 @@ public final class AssemblyBasedCallerUtils {
         final double log10GlobalReadMismappingRate = likelihoodArgs.phredScaledGlobalReadMismappingRate < 0 ? Double.NEGATIVE_INFINITY
                 : QualityUtils.qualToErrorProbLog10(likelihoodArgs.phredScaledGlobalReadMismappingRate);
 
+        final PairHMMLikelihoodCache likelihoodCache = likelihoodArgs.pairHmmLikelihoodCache == null ? null
+                : new PairHMMLikelihoodCache(likelihoodArgs.pairHmmLikelihoodCache.toPath(), likelihoodArgs.pairHmmLikelihoodCacheMaxSizeMb * 1024 * 1024);
+
         return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.dontUseDragstrPairHMMScores ? null : DragstrParamUtils.parse(likelihoodArgs.dragstrParams),
                 likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, likelihoodArgs.pairHmmResultsFile, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel,
                 likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD, likelihoodArgs.enableDynamicReadDisqualification, likelihoodArgs.readDisqualificationThresholdConstant,
-                likelihoodArgs.expectedErrorRatePerBase, !likelihoodArgs.disableSymmetricallyNormalizeAllelesToReference, likelihoodArgs.disableCapReadQualitiesToMapQ, handleSoftclips);
+                likelihoodArgs.expectedErrorRatePerBase, !likelihoodArgs.disableSymmetricallyNormalizeAllelesToReference, likelihoodArgs.disableCapReadQualitiesToMapQ, handleSoftclips,
+                likelihoodCache, likelihoodArgs.collapseIdenticalReadsForPairHMM);
     }
 
     public static Optional<HaplotypeBAMWriter> createBamWriter(final AssemblyBasedCallerArgumentCollection args,
@@ -0,0 +1,171 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * View of a likelihood matrix in which reads with identical PairHMM inputs are collapsed into a single row.
+ *
+ * <p>
+ *     Reads are identical when their processed bases, base qualities, and insertion and deletion qualities are equal,
+ *     which also makes their imputed gap penalties equal.  Each row of this matrix is one of the distinct processed
+ *     reads, and setting a likelihood in a row sets it for all the reads of the underlying matrix collapsed into it,
+ *     so that running the PairHMM on {@link #uniqueProcessedReads()} fills in the whole underlying matrix with the
+ *     same values it would have computed for each read separately.
+ * </p>
+ */
+final class CollapsedReadLikelihoodMatrix implements LikelihoodMatrix<GATKRead, Haplotype> {
+    private final LikelihoodMatrix<GATKRead, Haplotype> matrix;
+    private final List<GATKRead> uniqueProcessedReads = new ArrayList<>();
+    // the row of each read of the underlying matrix, and for each row the reads collapsed into it
+    private final int[] rowOfRead;
+    private final List<int[]> readsOfRow = new ArrayList<>();
+
+    /**
+     * @param matrix the matrix to fill in
+     * @param processedReads the reads of the matrix, in the same order, as they will be given to the PairHMM
+     */
+    CollapsedReadLikelihoodMatrix(final LikelihoodMatrix<GATKRead, Haplotype> matrix, final List<GATKRead> processedReads) {
+        this.matrix = Utils.nonNull(matrix);
+        Utils.nonNull(processedReads);
+        Utils.validateArg(processedReads.size() == matrix.evidenceCount(), "there must be one processed read per read in the matrix");
+
+        rowOfRead = new int[processedReads.size()];
+        final Map<PairHMMInputs, Integer> rows = new HashMap<>();
+        final List<List<Integer>> readLists = new ArrayList<>();
+        for (int r = 0; r < processedReads.size(); r++) {
+            final GATKRead read = processedReads.get(r);
+            final Integer row = rows.putIfAbsent(new PairHMMInputs(read), uniqueProcessedReads.size());
+            if (row == null) {
+                rowOfRead[r] = uniqueProcessedReads.size();
+                uniqueProcessedReads.add(read);
+                readLists.add(new ArrayList<>(1));
+            } else {
+                rowOfRead[r] = row;
+            }
+            readLists.get(rowOfRead[r]).add(r);
+        }
+        readLists.forEach(reads -> readsOfRow.add(reads.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @return the first of the processed reads with each distinct PairHMM inputs, in the order of the rows of this matrix
+     */
+    List<GATKRead> uniqueProcessedReads() {
+        return uniqueProcessedReads;
+    }
+
+    /**
+     * @return the reads of the underlying matrix, one per row
+     */
+    @Override
+    public List<GATKRead> evidence() {
+        final List<GATKRead> result = new ArrayList<>(readsOfRow.size());
+        for (final int[] reads : readsOfRow) {
+            result.add(matrix.getEvidence(reads[0]));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Haplotype> alleles() {
+        return matrix.alleles();
+    }
+
+    @Override
+    public void set(final int alleleIndex, final int evidenceIndex, final double value) {
+        for (final int r : readsOfRow.get(evidenceIndex)) {
+            matrix.set(alleleIndex, r, value);
+        }
+    }
+
+    @Override
+    public double get(final int alleleIndex, final int evidenceIndex) {
+        return matrix.get(alleleIndex, readsOfRow.get(evidenceIndex)[0]);
+    }
+
+    @Override
+    public int indexOfAllele(final Allele allele) {
+        return matrix.indexOfAllele(allele);
+    }
+
+    /**
+     * @return the row into which evidence is collapsed, or -1 if it is not in the underlying matrix
+     */
+    @Override
+    public int indexOfEvidence(final GATKRead evidence) {
+        final int index = matrix.indexOfEvidence(evidence);
+        return index < 0 ? -1 : rowOfRead[index];
+    }
+
+    @Override
+    public int numberOfAlleles() {
+        return matrix.numberOfAlleles();
+    }
+
+    @Override
+    public int evidenceCount() {
+        return readsOfRow.size();
+    }
+
+    @Override
+    public Haplotype getAllele(final int alleleIndex) {
+        return matrix.getAllele(alleleIndex);
+    }
+
+    @Override
+    public GATKRead getEvidence(final int evidenceIndex) {
+        return matrix.getEvidence(readsOfRow.get(evidenceIndex)[0]);
+    }
+
+    @Override
+    public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+        for (int row = 0; row < readsOfRow.size(); row++) {
+            dest[offset + row] = get(alleleIndex, row);
+        }
+    }
+
+    // the per-base inputs of a processed read to the PairHMM
+    private static final class PairHMMInputs {
+        private final byte[] bases;
+        private final byte[] quals;
+        private final byte[] insertionQuals;
+        private final byte[] deletionQuals;
+        private final int hashCode;
+
+        PairHMMInputs(final GATKRead processedRead) {
+            bases = processedRead.getBasesNoCopy();
+            quals = processedRead.getBaseQualitiesNoCopy();
+            insertionQuals = ReadUtils.getBaseInsertionQualities(processedRead);
+            deletionQuals = ReadUtils.getBaseDeletionQualities(processedRead);
+            hashCode = 31 * (31 * (31 * Arrays.hashCode(bases) + Arrays.hashCode(quals)) + Arrays.hashCode(insertionQuals)) + Arrays.hashCode(deletionQuals);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof PairHMMInputs)) {
+                return false;
+            }
+            final PairHMMInputs other = (PairHMMInputs) o;
+            return hashCode == other.hashCode && Arrays.equals(bases, other.bases) && Arrays.equals(quals, other.quals)
+                    && Arrays.equals(insertionQuals, other.insertionQuals) && Arrays.equals(deletionQuals, other.deletionQuals);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
@@ -13,6 +15,7 @@ import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscovery
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
 import org.broadinstitute.hellbender.tools.walkers.annotator.Annotation;
 import org.broadinstitute.hellbender.tools.walkers.annotator.VariantAnnotatorEngine;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeAssignmentMethod;
@@ -20,7 +23,9 @@ import org.broadinstitute.hellbender.transformers.DRAGENMappingQualityReadTransf
 import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -154,6 +159,11 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     private HaplotypeCallerEngine hcEngine;
 
+    // When processing regions in parallel, each worker thread calls variants using its own engine, while hcEngine
+    // is only used to determine region activity on the traversal thread
+    private ThreadLocal<HaplotypeCallerEngine> regionEngines;
+    private final List<HaplotypeCallerEngine> allRegionEngines = Collections.synchronizedList(new ArrayList<>());
+
     @Override
     public List<ReadFilter> getDefaultReadFilters() {
         return HaplotypeCallerEngine.makeStandardHCReadFilters();
@@ -213,6 +223,14 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     @Override
     public void onTraversalStart() {
+        if ( regionThreads > 1 ) {
+            final List<String> perEngineOutputs = hcArgs.getRequestedPerEngineOutputArguments();
+            if ( ! perEngineOutputs.isEmpty() ) {
+                throw new CommandLineException.BadArgumentValue(AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, String.valueOf(regionThreads),
+                        "parallel region processing cannot be combined with " + String.join(", ", perEngineOutputs));
+            }
+        }
+
         if (hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF && hcArgs.maxMnpDistance > 0) {
             logger.warn("*************************************************************************");
             logger.warn("* MNP support enabled in GVCF mode.                                     *");
@@ -267,6 +285,14 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         final SAMSequenceDictionary sequenceDictionary = getHeaderForReads().getSequenceDictionary();
         vcfWriter = hcEngine.makeVCFWriter(outputVCF, sequenceDictionary, createOutputVariantIndex, createOutputVariantMD5, outputSitesOnlyVCFs);
         hcEngine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
+
+        if ( regionThreads > 1 ) {
+            regionEngines = ThreadLocal.withInitial(() -> {
+                final HaplotypeCallerEngine engine = new HaplotypeCallerEngine(hcArgs, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments), variantAnnotatorEngine);
+                allRegionEngines.add(engine);
+                return engine;
+            });
+        }
     }
 
     private static CachingIndexedFastaSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
@@ -278,6 +304,15 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.callRegion(region, featureContext, referenceContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    public boolean supportsParallelRegionProcessing() { return true; }
+
+    @Override
+    public Runnable applyInParallel(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        final List<VariantContext> calls = regionEngines.get().callRegion(region, featureContext, referenceContext);
+        return () -> calls.forEach(vcfWriter::add);
+    }
+
     @Override
     public void closeTool() {
         if ( vcfWriter != null ) {
@@ -288,5 +323,7 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
             hcEngine.shutdown();
         }
 
+        allRegionEngines.forEach(HaplotypeCallerEngine::shutdown);
+
     }
 }
@@ -28,6 +28,7 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     public static final String DO_NOT_CORRECT_OVERLAPPING_BASE_QUALITIES_LONG_NAME = "do-not-correct-overlapping-quality";
     public static final String OUTPUT_BLOCK_LOWER_BOUNDS = "floor-blocks";
     public static final String DRAGEN_GATK_MODE_LONG_NAME = "dragen-mode";
+    public static final String GVCF_BLOCK_SUMMARY_OUTPUT_LONG_NAME = "gvcf-block-summary-output";
 
 
     @ArgumentCollection
@@ -41,6 +42,18 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
         return new HaplotypeCallerReadThreadingAssemblerArgumentCollection();
     }
 
+    @Override
+    public List<String> getRequestedPerEngineOutputArguments() {
+        final List<String> requested = super.getRequestedPerEngineOutputArguments();
+        if ( assemblyStateOutput != null ) {
+            requested.add("debug-assembly-region-state");
+        }
+        if ( genotyperDebugOutStream != null ) {
+            requested.add("debug-genotyper-output");
+        }
+        return requested;
+    }
+
     /**
      * You can use this argument to specify that HC should process a single sample out of a multisample BAM file. This
      * is especially useful if your samples are all in the same file but you need to run them individually through HC
@@ -100,6 +113,15 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     @Argument(fullName=HaplotypeCallerArgumentCollection.OUTPUT_BLOCK_LOWER_BOUNDS, doc = "Output the band lower bound for each GQ block regardless of the data it represents", optional = true)
     public boolean floorBlocks = false;
 
+    /**
+     * In GVCF mode, also write a compact binary summary of the reference blocks and variant sites of the GVCF to this
+     * file, which must end with .gvcf.bci. Downstream tools can read the GQ bands and the per-variant annotations
+     * they sum across samples from it without parsing the GVCF.
+     */
+    @Advanced
+    @Argument(fullName=HaplotypeCallerArgumentCollection.GVCF_BLOCK_SUMMARY_OUTPUT_LONG_NAME, doc = "File to which a binary summary of the GVCF blocks should be written (GVCF mode only)", optional = true)
+    public GATKPath gvcfBlockSummaryOutput = null;
+
     /**
      * This parameter determines the maximum size of an indel considered as potentially segregating in the
      * reference model.  It is used to eliminate reads from being indel informative at a site, and determines
@@ -308,6 +308,12 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
                     " so reference confidence mode (" + AssemblyBasedCallerArgumentCollection.EMIT_REF_CONFIDENCE_LONG_NAME +
                     ") must be specified.");
         }
+
+        if (hcArgs.gvcfBlockSummaryOutput != null && hcArgs.emitReferenceConfidence != ReferenceConfidenceMode.GVCF) {
+            throw new UserException(HaplotypeCallerArgumentCollection.GVCF_BLOCK_SUMMARY_OUTPUT_LONG_NAME + " summarizes GVCF blocks," +
+                    " so GVCF reference confidence mode (" + AssemblyBasedCallerArgumentCollection.EMIT_REF_CONFIDENCE_LONG_NAME +
+                    " GVCF) must be specified.");
+        }
     }
 
     private void initializeSamples() {
@@ -395,7 +401,11 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if ( hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF ) {
             try {
-                writer = new GVCFWriter(writer, hcArgs.GVCFGQBands, hcArgs.floorBlocks);
+                final GVCFWriter gvcfWriter = new GVCFWriter(writer, hcArgs.GVCFGQBands, hcArgs.floorBlocks);
+                if ( hcArgs.gvcfBlockSummaryOutput != null ) {
+                    gvcfWriter.setBlockSummaryOutput(hcArgs.gvcfBlockSummaryOutput);
+                }
+                writer = gvcfWriter;
             } catch ( IllegalArgumentException e ) {
                 throw new CommandLineException.BadArgumentValue("GQBands", "are malformed: " + e.getMessage());
             }
@@ -21,6 +21,9 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     public static final String DRAGSTR_PARAMS_PATH_FULLNAME = "dragstr-params-path";
     public static final String DRAGSTR_HET_HOM_RATIO_FULLNAME = "dragstr-het-hom-ratio";
     public static final String DONT_USE_DRAGSTR_PAIRHMM_FULLNAME = "dont-use-dragstr-pair-hmm-scores";
+    public static final String PAIR_HMM_LIKELIHOOD_CACHE_FULLNAME = "pair-hmm-likelihood-cache";
+    public static final String PAIR_HMM_LIKELIHOOD_CACHE_MAX_SIZE_FULLNAME = "pair-hmm-likelihood-cache-max-size-mb";
+    public static final String COLLAPSE_IDENTICAL_READS_FOR_PAIR_HMM_FULLNAME = "collapse-identical-reads-for-pair-hmm";
 
     /**
      * Bases with a quality below this threshold will reduced to the minimum usable qualiy score (6).
@@ -111,6 +114,33 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="pair-hmm-results-file", doc="File to write exact pairHMM inputs/outputs to for debugging purposes", optional = true)
     public GATKPath pairHmmResultsFile = null;
 
+    /**
+     * Directory in which to keep the raw PairHMM likelihoods of each active region, keyed by the content of the reads
+     * and haplotypes they were computed from. When the same data is processed again (for example, to try different
+     * genotyping or annotation arguments) the likelihoods are read back from this directory instead of being recomputed.
+     * The directory may be shared between runs, and is created if it does not exist.
+     */
+    @Advanced
+    @Argument(fullName=PAIR_HMM_LIKELIHOOD_CACHE_FULLNAME, doc="Directory of a persistent cache of PairHMM likelihoods to reuse across runs", optional = true)
+    public GATKPath pairHmmLikelihoodCache = null;
+
+    /**
+     * Once the likelihood cache grows beyond this size, the least recently used entries are deleted.
+     */
+    @Advanced
+    @Argument(fullName=PAIR_HMM_LIKELIHOOD_CACHE_MAX_SIZE_FULLNAME, doc="Maximum size in megabytes of the PairHMM likelihood cache", minValue = 1, optional = true)
+    public long pairHmmLikelihoodCacheMaxSizeMb = 1024;
+
+    /**
+     * Evaluate reads whose bases, base qualities and indel qualities are identical after quality adjustments only once
+     * per sample with the PairHMM, and give all of them the resulting likelihoods. The likelihoods are exactly those
+     * that would be computed for each read, so this only saves time, which can be considerable in deep amplicon or
+     * duplicate-rich data.
+     */
+    @Advanced
+    @Argument(fullName=COLLAPSE_IDENTICAL_READS_FOR_PAIR_HMM_FULLNAME, doc="Run the PairHMM once for reads with identical bases and qualities", optional = true)
+    public boolean collapseIdenticalReadsForPairHMM = false;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 }
@@ -0,0 +1,345 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import com.google.common.io.BaseEncoding;
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputation;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputator;
+import org.broadinstitute.hellbender.utils.pairhmm.VectorLoglessPairHMM;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent, content-addressed cache of raw PairHMM log10 likelihood matrices, stored as one file per matrix in a
+ * local directory. This lets a re-run of a caller over the same reads and haplotypes (for example, with only
+ * genotyping or annotation arguments changed) skip the PairHMM entirely.
+ *
+ * Entries are keyed by a SHA-256 digest of everything the PairHMM result depends on: the PairHMM implementation
+ * and its native arguments (see {@link #describePairHMM}), the haplotype sequences, and the bases, base qualities, insertion/deletion gap open penalties and gap continuation
+ * penalties of each read, in order. The cached values are the likelihoods as produced by the PairHMM, before any
+ * normalization or read disqualification, so those steps are still controlled by the arguments of the current run.
+ *
+ * The total size of the files in the cache is bounded: once it goes over the limit, the least recently used entries
+ * are deleted. Recency is persisted in the file modification times, so it carries over between runs.
+ *
+ * Several instances (in the same or different processes) can safely share a directory: entries are written to a
+ * temporary file and atomically moved into place, and entries that disappear or can't be read are treated as misses.
+ * In that case each instance only accounts for the entries it knows about, so the size limit is approximate.
+ */
+public final class PairHMMLikelihoodCache {
+    private static final Logger logger = LogManager.getLogger(PairHMMLikelihoodCache.class);
+
+    static final String ENTRY_EXTENSION = ".lk";
+    private static final int ENTRY_MAGIC = 0x4c4b4331; // "LKC1"
+    private static final int ENTRY_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+
+    // key -> size in bytes of the entry on disk, in least-recently-used first order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSizeInBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Open (creating it if necessary) a likelihood cache in the given directory. Existing entries are kept, and evicted
+     * in order of least recent use if they exceed the size limit.
+     *
+     * @param directory directory holding the cache entries
+     * @param maxSizeInBytes maximum total size of the cache entries on disk (must be > 0)
+     */
+    public PairHMMLikelihoodCache(final Path directory, final long maxSizeInBytes) {
+        Utils.nonNull(directory);
+        Utils.validateArg(maxSizeInBytes > 0, "maxSizeInBytes must be > 0");
+        this.directory = directory;
+        this.maxSizeInBytes = maxSizeInBytes;
+
+        try {
+            Files.createDirectories(directory);
+            loadExistingEntries();
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(directory.toString(), "could not open PairHMM likelihood cache directory", e);
+        }
+        evictIfNecessary();
+        logger.info(String.format("Using PairHMM likelihood cache %s with %d entries (%d bytes)", directory.toUri(), entries.size(), totalSizeInBytes));
+    }
+
+    private void loadExistingEntries() throws IOException {
+        final List<Path> entryPaths = new ArrayList<>();
+        try ( final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_EXTENSION) ) {
+            stream.forEach(entryPaths::add);
+        }
+
+        final Map<Path, FileTime> lastAccessTimes = new LinkedHashMap<>();
+        for ( final Path entryPath : entryPaths ) {
+            lastAccessTimes.put(entryPath, Files.getLastModifiedTime(entryPath));
+        }
+        entryPaths.sort(Comparator.comparing(lastAccessTimes::get));
+        for ( final Path entryPath : entryPaths ) {
+            final long size = Files.size(entryPath);
+            entries.put(keyFor(entryPath), size);
+            totalSizeInBytes += size;
+        }
+    }
+
+    /**
+     * Describe a PairHMM for use in cache keys: its class, which native implementation it resolved to if any, and the
+     * value of every native argument it was created with (such as precision), since any of these may change the
+     * results. Native arguments are included even for Java implementations that ignore them, which can only cause
+     * extra misses.
+     *
+     * @param pairHMM the PairHMM that computes the likelihoods
+     * @param arguments the native arguments the PairHMM was created with, or null if there were none
+     * @return a description that differs between PairHMMs that may give different results
+     */
+    public static String describePairHMM(final PairHMM pairHMM, final PairHMMNativeArguments arguments) {
+        Utils.nonNull(pairHMM);
+        final StringBuilder description = new StringBuilder(pairHMM.getClass().getName());
+        if ( pairHMM instanceof VectorLoglessPairHMM ) {
+            description.append(':').append(((VectorLoglessPairHMM) pairHMM).getImplementation());
+        }
+        if ( arguments != null ) {
+            final Field[] fields = arguments.getClass().getFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for ( final Field field : fields ) {
+                if ( Modifier.isStatic(field.getModifiers()) ) {
+                    continue;
+                }
+                try {
+                    description.append(';').append(field.getName()).append('=').append(field.get(arguments));
+                } catch ( final IllegalAccessException e ) {
+                    throw new GATKException("Could not read PairHMM native argument " + field.getName(), e);
+                }
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Compute the cache key for evaluating the given reads against the given haplotypes.
+     *
+     * @param pairHMMName identifies the PairHMM and its settings (see {@link #describePairHMM}), since different
+     *                    implementations and settings may give slightly different results
+     * @param haplotypes haplotypes, in the order in which they appear in the likelihood matrix
+     * @param reads the reads as they are handed to the PairHMM, in the order in which they appear in the likelihood matrix
+     * @param inputScoreImputator source of the gap penalties for each read
+     * @return the key, as a hex string
+     */
+    public static String computeKey(final String pairHMMName, final List<Haplotype> haplotypes, final List<GATKRead> reads,
+                                    final PairHMMInputScoreImputator inputScoreImputator) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException("SHA-256 digest algorithm not present", e);
+        }
+
+        digest.update(pairHMMName.getBytes(StandardCharsets.UTF_8));
+        digest.update(toBytes(haplotypes.size()));
+        for ( final Haplotype haplotype : haplotypes ) {
+            updateWithArray(digest, haplotype.getBases());
+        }
+        digest.update(toBytes(reads.size()));
+        for ( final GATKRead read : reads ) {
+            final PairHMMInputScoreImputation imputation = inputScoreImputator.impute(read);
+            updateWithArray(digest, read.getBases());
+            updateWithArray(digest, read.getBaseQualities());
+            updateWithArray(digest, imputation.insOpenPenalties());
+            updateWithArray(digest, imputation.delOpenPenalties());
+            updateWithArray(digest, imputation.gapContinuationPenalties());
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    // prefix each array with its length, so that the boundaries between arrays are unambiguous
+    private static void updateWithArray(final MessageDigest digest, final byte[] array) {
+        digest.update(toBytes(array.length));
+        digest.update(array);
+    }
+
+    private static byte[] toBytes(final int value) {
+        return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+    }
+
+    /**
+     * Look up a likelihood matrix in the cache.
+     *
+     * @param key key from {@link #computeKey}
+     * @param expectedLength the number of values in the matrix (haplotypes x reads)
+     * @return the cached likelihoods in allele-major order, or {@code null} if there is no usable entry for this key
+     */
+    public synchronized double[] get(final String key, final int expectedLength) {
+        Utils.nonNull(key);
+        if ( entries.get(key) == null ) {
+            misses++;
+            return null;
+        }
+
+        final Path entryPath = pathFor(key);
+        try ( final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath))) ) {
+            if ( in.readInt() != ENTRY_MAGIC || in.readInt() != expectedLength ) {
+                throw new IOException("unexpected cache entry header");
+            }
+            final double[] values = new double[expectedLength];
+            for ( int i = 0; i < expectedLength; i++ ) {
+                values[i] = in.readDouble();
+            }
+            Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return values;
+        } catch ( final IOException e ) {
+            // the entry was evicted by another user of this directory, or is corrupt: treat it as a miss
+            logger.debug("Discarding unusable PairHMM likelihood cache entry " + entryPath.toUri(), e);
+            removeEntry(key);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Store a likelihood matrix in the cache, evicting least recently used entries if needed to stay within the size limit.
+     * Failures to write the entry are logged and otherwise ignored.
+     *
+     * @param key key from {@link #computeKey}
+     * @param values the likelihoods in allele-major order
+     */
+    public synchronized void put(final String key, final double[] values) {
+        Utils.nonNull(key);
+        Utils.nonNull(values);
+        final long size = ENTRY_HEADER_BYTES + (long) values.length * Double.BYTES;
+        if ( entries.containsKey(key) || size > maxSizeInBytes ) {
+            return;
+        }
+
+        final Path entryPath = pathFor(key);
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(directory, key, ".tmp");
+            try ( final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath))) ) {
+                out.writeInt(ENTRY_MAGIC);
+                out.writeInt(values.length);
+                for ( final double value : values ) {
+                    out.writeDouble(value);
+                }
+            }
+            try {
+                Files.move(tempPath, entryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch ( final AtomicMoveNotSupportedException e ) {
+                Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch ( final IOException e ) {
+            logger.warn("Could not write PairHMM likelihood cache entry " + entryPath.toUri() + ": " + e.getMessage());
+            deleteQuietly(tempPath);
+            return;
+        }
+
+        entries.put(key, size);
+        totalSizeInBytes += size;
+        evictIfNecessary();
+    }
+
+    private void evictIfNecessary() {
+        final Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entries.entrySet().iterator();
+        while ( totalSizeInBytes > maxSizeInBytes && leastRecentlyUsed.hasNext() ) {
+            final Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+            deleteQuietly(pathFor(entry.getKey()));
+            totalSizeInBytes -= entry.getValue();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private void removeEntry(final String key) {
+        final Long size = entries.remove(key);
+        if ( size != null ) {
+            totalSizeInBytes -= size;
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        if ( path == null ) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch ( final NoSuchFileException e ) {
+            // deleted by another user of the cache directory in the meantime
+        } catch ( final IOException e ) {
+            logger.debug("Could not delete PairHMM likelihood cache file " + path.toUri(), e);
+        }
+    }
+
+    private Path pathFor(final String key) {
+        return directory.resolve(key + ENTRY_EXTENSION);
+    }
+
+    private static String keyFor(final Path entryPath) {
+        final String fileName = entryPath.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ENTRY_EXTENSION.length());
+    }
+
+    /**
+     * @return the number of entries in the cache, as known to this instance
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size in bytes of the entries in the cache, as known to this instance
+     */
+    public synchronized long sizeInBytes() {
+        return totalSizeInBytes;
+    }
+
+    /**
+     * @return the number of successful lookups so far
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of failed lookups so far
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Log the lookup statistics of this cache
+     */
+    public synchronized void logStatistics() {
+        logger.info(String.format("PairHMM likelihood cache: %d hits, %d misses, %d entries (%d bytes)", hits, misses, entries.size(), totalSizeInBytes));
+    }
+}
@@ -45,6 +45,17 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    // persistent cache of raw PairHMM results, or null if disabled
+    private final PairHMMLikelihoodCache likelihoodCache;
+
+    // identifies pairHMM and its settings in likelihoodCache keys
+    private final String pairHMMCacheName;
+
+    // whether reads with identical PairHMM inputs are evaluated only once, and how many reads and distinct reads were evaluated
+    private final boolean collapseIdenticalReads;
+    private long pairHMMReadCount = 0;
+    private long pairHMMUniqueReadCount = 0;
+
     // DRAGEN-GATK related parameters
     private final DragstrParams dragstrParams;
     private final boolean dynamicDisqualification;
@@ -141,6 +152,63 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final boolean symmetricallyNormalizeAllelesToReference,
                                               final boolean disableCapReadQualitiesToMapQ,
                                               final boolean modifySoftclippedBases) {
+        this(constantGCP, dragstrParams, arguments, hmmType, resultsFile, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold,
+                dynamicReadDisqualificaiton, readDisqualificationScale, expectedErrorRatePerBase, symmetricallyNormalizeAllelesToReference,
+                disableCapReadQualitiesToMapQ, modifySoftclippedBases, null);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine that reuses PairHMM results stored in a persistent likelihood cache.
+     * See the previous constructor for the other parameters.
+     *
+     * @param likelihoodCache cache of raw PairHMM likelihoods to read from and add to (null if not enabled). The cache
+     *                        is not used if {@code resultsFile} is set, since cached results would be missing from that file.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final DragstrParams dragstrParams,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final GATKPath resultsFile,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean dynamicReadDisqualificaiton,
+                                              final double readDisqualificationScale,
+                                              final double expectedErrorRatePerBase,
+                                              final boolean symmetricallyNormalizeAllelesToReference,
+                                              final boolean disableCapReadQualitiesToMapQ,
+                                              final boolean modifySoftclippedBases,
+                                              final PairHMMLikelihoodCache likelihoodCache) {
+        this(constantGCP, dragstrParams, arguments, hmmType, resultsFile, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold,
+                dynamicReadDisqualificaiton, readDisqualificationScale, expectedErrorRatePerBase, symmetricallyNormalizeAllelesToReference,
+                disableCapReadQualitiesToMapQ, modifySoftclippedBases, likelihoodCache, false);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine that may evaluate reads with identical PairHMM inputs only once.
+     * See the previous constructors for the other parameters.
+     *
+     * @param collapseIdenticalReads if true, reads of a sample whose processed bases, base qualities, and insertion and
+     *                               deletion qualities are all identical are evaluated by the PairHMM only once, and the
+     *                               resulting likelihoods are copied to all of them.  The likelihoods are the same as
+     *                               those computed for each read separately.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final DragstrParams dragstrParams,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final GATKPath resultsFile,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean dynamicReadDisqualificaiton,
+                                              final double readDisqualificationScale,
+                                              final double expectedErrorRatePerBase,
+                                              final boolean symmetricallyNormalizeAllelesToReference,
+                                              final boolean disableCapReadQualitiesToMapQ,
+                                              final boolean modifySoftclippedBases,
+                                              final PairHMMLikelihoodCache likelihoodCache,
+                                              final boolean collapseIdenticalReads) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -156,13 +224,19 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         this.pairHMM = hmmType.makeNewHMM(arguments);
         if (resultsFile != null) {
             pairHMM.setAndInitializeDebugOutputStream(new OutputStreamWriter(resultsFile.getOutputStream()));
+            if (likelihoodCache != null) {
+                logger.warn("The PairHMM likelihood cache is disabled because PairHMM results are being written to " + resultsFile);
+            }
         }
+        this.likelihoodCache = resultsFile == null ? likelihoodCache : null;
+        this.pairHMMCacheName = this.likelihoodCache == null ? null : PairHMMLikelihoodCache.describePairHMM(pairHMM, arguments);
         this.dynamicDisqualification = dynamicReadDisqualificaiton;
         this.readDisqualificationScale = readDisqualificationScale;
         this.symmetricallyNormalizeAllelesToReference = symmetricallyNormalizeAllelesToReference;
         this.expectedErrorRatePerBase = expectedErrorRatePerBase;
         this.disableCapReadQualitiesToMapQ = disableCapReadQualitiesToMapQ;
         this.modifySoftclippedBases = modifySoftclippedBases;
+        this.collapseIdenticalReads = collapseIdenticalReads;
 
         initializePCRErrorModel();
 
@@ -175,6 +249,13 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
     @Override
     public void close() {
         pairHMM.close();
+        if (likelihoodCache != null) {
+            likelihoodCache.logStatistics();
+        }
+        if (collapseIdenticalReads && pairHMMReadCount > 0) {
+            logger.info(String.format("PairHMM evaluated %d distinct reads out of %d reads (%.1f%%)",
+                    pairHMMUniqueReadCount, pairHMMReadCount, 100.0 * pairHMMUniqueReadCount / pairHMMReadCount));
+        }
     }
 
     @Override
@@ -342,8 +423,53 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                 HaplotypeCallerGenotypingDebugger.println(Arrays.toString(read.getBaseQualitiesNoCopy()));
             }
         }
+        if (likelihoodCache == null) {
+            // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
+            runPairHMM(likelihoods, processedReads);
+        } else {
+            computeReadLikelihoodsWithCache(likelihoods, processedReads);
+        }
+    }
+
+    /**
+     * Fill in the likelihoods from the persistent cache if they have been computed before for exactly the same
+     * haplotypes and processed reads, otherwise run the PairHMM and add its results to the cache.
+     */
+    private void computeReadLikelihoodsWithCache(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
+        final int alleleCount = likelihoods.numberOfAlleles();
+        final int readCount = likelihoods.evidenceCount();
+        final String key = PairHMMLikelihoodCache.computeKey(pairHMMCacheName, likelihoods.alleles(), processedReads, inputScoreImputator);
+        final double[] cached = likelihoodCache.get(key, alleleCount * readCount);
+        if (cached != null) {
+            for (int a = 0; a < alleleCount; a++) {
+                for (int r = 0; r < readCount; r++) {
+                    likelihoods.set(a, r, cached[a * readCount + r]);
+                }
+            }
+            return;
+        }
+
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator);
+        runPairHMM(likelihoods, processedReads);
+        final double[] computed = new double[alleleCount * readCount];
+        for (int a = 0; a < alleleCount; a++) {
+            likelihoods.copyAlleleLikelihoods(a, computed, a * readCount);
+        }
+        likelihoodCache.put(key, computed);
+    }
+
+    /**
+     * Run the PairHMM on the processed reads, once per distinct set of PairHMM inputs if identical reads are collapsed
+     */
+    private void runPairHMM(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
+        if (!collapseIdenticalReads) {
+            pairHMM.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator);
+            return;
+        }
+        final CollapsedReadLikelihoodMatrix collapsedLikelihoods = new CollapsedReadLikelihoodMatrix(likelihoods, processedReads);
+        pairHMMReadCount += processedReads.size();
+        pairHMMUniqueReadCount += collapsedLikelihoods.evidenceCount();
+        pairHMM.computeLog10Likelihoods(collapsedLikelihoods, collapsedLikelihoods.uniqueProcessedReads(), inputScoreImputator);
     }
 
     /**
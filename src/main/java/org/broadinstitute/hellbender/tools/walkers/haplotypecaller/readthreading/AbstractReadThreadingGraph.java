@@ -34,7 +34,7 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSampleEdge> implements KmerSearchableGraph<MultiDeBruijnVertex, MultiSampleEdge> {
     private static final long serialVersionUID = 1l;
-    private static final String ANONYMOUS_SAMPLE = "XXX_UNNAMED_XXX";
+    static final String ANONYMOUS_SAMPLE = "XXX_UNNAMED_XXX";
     private static final boolean WRITE_GRAPH = false;
     private static final boolean DEBUG_NON_UNIQUE_CALC = false;
     private static final int MAX_CIGAR_COMPLEXITY = 3;
@@ -52,7 +52,7 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
     /**
      * A map from kmers -> their corresponding vertex in the graph
      */
-    protected final Map<Kmer, MultiDeBruijnVertex> kmerToVertexMap = new LinkedHashMap<>();
+    protected final PackedKmerMap<MultiDeBruijnVertex> kmerToVertexMap = new PackedKmerMap<>(kmerSize);
     protected final boolean debugGraphTransformations;
     protected final byte minBaseQualityToUseInAssembly;
     protected List<MultiDeBruijnVertex> referencePath = null;
@@ -94,11 +94,12 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
     /**
      * Checks whether a kmer can be the threading start based on the current threading start location policy.
      *
-     * @param kmer the query kmer.
+     * @param sequence the bases holding the query kmer.
+     * @param start the start of the query kmer in sequence.
      * @return {@code true} if we can start thread the sequence at this kmer, {@code false} otherwise.
      * @see #setThreadingStartOnlyAtExistingVertex(boolean)
      */
-    protected abstract boolean isThreadingStart(final Kmer kmer, final boolean startThreadingOnlyAtExistingVertex);
+    protected abstract boolean isThreadingStart(final byte[] sequence, final int start, final boolean startThreadingOnlyAtExistingVertex);
 
     // get the next kmerVertex for ChainExtension and validate if necessary.
     protected abstract MultiDeBruijnVertex getNextKmerVertexForChainExtension(final Kmer kmer, final boolean isRef, final MultiDeBruijnVertex prevVertex);
@@ -203,8 +204,7 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
         }
 
         for (int i = seqForKmers.start; i < seqForKmers.stop - kmerSize; i++) {
-            final Kmer kmer1 = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if (isThreadingStart(kmer1, startThreadingOnlyAtExistingVertex)) {
+            if (isThreadingStart(seqForKmers.sequence, i, startThreadingOnlyAtExistingVertex)) {
                 return i;
             }
         }
@@ -253,13 +253,24 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
      */
     protected void addSequence(final String seqName, final String sampleName, final byte[] sequence, final int start, final int stop, final int count, final boolean isRef) {
         // note that argument testing is taken care of in SequenceForKmers
+        addSequence(sampleName, new SequenceForKmers(seqName, sequence, start, stop, count, isRef));
+    }
+
+    /**
+     * Add a sequence to this graph, e.g. one of the {@link AssemblySequences} shared by the graphs of several kmer sizes
+     *
+     * @param sampleName  the sample of the sequence
+     * @param seqForKmers non-null sequence, which must not be modified while the graph holds it
+     */
+    void addSequence(final String sampleName, final SequenceForKmers seqForKmers) {
+        Utils.nonNull(seqForKmers);
         Utils.validate(!alreadyBuilt, "Attempting to add sequence to a graph that has already been built");
 
         // get the list of sequences for this sample
         List<SequenceForKmers> sampleSequences = pending.computeIfAbsent(sampleName, s -> new LinkedList<>());
 
         // add the new sequence to the list of sequences for sample
-        sampleSequences.add(new SequenceForKmers(seqName, sequence, start, stop, count, isRef));
+        sampleSequences.add(seqForKmers);
     }
 
     /**
@@ -366,8 +377,9 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
         final boolean result = super.removeVertex(V);
         if (result) {
             final byte[] sequence = V.getSequence();
-            final Kmer kmer = new Kmer(sequence);
-            kmerToVertexMap.remove(kmer);
+            if (sequence.length == kmerSize) {
+                kmerToVertexMap.remove(sequence, 0);
+            }
         }
         return result;
     }
@@ -956,9 +968,8 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
      * @return a non-null vertex
      */
     private MultiDeBruijnVertex getOrCreateKmerVertex(final byte[] sequence, final int start) {
-        final Kmer kmer = new Kmer(sequence, start, kmerSize);
-        final MultiDeBruijnVertex vertex = getKmerVertex(kmer, true);
-        return (vertex != null) ? vertex : createVertex(kmer);
+        final MultiDeBruijnVertex vertex = kmerToVertexMap.get(sequence, start);
+        return (vertex != null) ? vertex : createVertex(new Kmer(sequence, start, kmerSize));
     }
 
     /**
@@ -1070,6 +1081,10 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
      * @return true if the base can be used for assembly, false otherwise
      */
     protected boolean baseIsUsableForAssembly(final byte base, final byte qual) {
+        return isUsableForAssembly(base, qual, minBaseQualityToUseInAssembly);
+    }
+
+    static boolean isUsableForAssembly(final byte base, final byte qual, final byte minBaseQualityToUseInAssembly) {
         return base != BaseUtils.Base.N.base && qual >= minBaseQualityToUseInAssembly;
     }
 
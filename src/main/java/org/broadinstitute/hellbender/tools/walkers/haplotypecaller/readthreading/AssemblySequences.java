@@ -0,0 +1,114 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.AbstractReadThreadingGraph.SequenceForKmers;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reference and reads of an assembly region split into the sequences threaded into read threading graphs.
+ *
+ * <p>
+ *     The assembler tries several kmer sizes for a region, and more when graphs have cycles. Splitting the reads into
+ *     their runs of bases usable for assembly only depends on the base qualities, so it is done once here and the
+ *     resulting sequences are shared by the graphs of every kmer size, each of which only keeps those that are at
+ *     least as long as its kmers. Likewise whether the reference has repeated kmers is remembered across kmer sizes.
+ * </p>
+ */
+final class AssemblySequences {
+    static final String REFERENCE_NAME = "ref";
+
+    private final SequenceForKmers reference;
+    // the usable runs of bases of the reads, in read order, and the sample of each
+    private final List<SequenceForKmers> readSequences = new ArrayList<>();
+    private final List<String> readSampleNames = new ArrayList<>();
+
+    // kmers of a size >= smallestKmerSizeUniqueInRef are unique in the reference, and kmers of a size
+    // <= largestKmerSizeNonUniqueInRef are not, since a repeated kmer contains repeated kmers of all smaller sizes
+    private int smallestKmerSizeUniqueInRef = Integer.MAX_VALUE;
+    private int largestKmerSizeNonUniqueInRef = 0;
+
+    /**
+     * @param refHaplotype the reference haplotype of the region
+     * @param reads the reads to assemble
+     * @param header header of the reads, used to find their sample
+     * @param minBaseQualityToUseInAssembly bases with a lower quality are not assembled
+     * @param minKmerSize the smallest kmer size that will be assembled, shorter runs of usable bases are dropped
+     */
+    AssemblySequences(final Haplotype refHaplotype, final Iterable<GATKRead> reads, final SAMFileHeader header,
+                      final byte minBaseQualityToUseInAssembly, final int minKmerSize) {
+        Utils.nonNull(refHaplotype);
+        Utils.nonNull(reads);
+        Utils.validateArg(minKmerSize > 0, () -> "minKmerSize must be positive but was " + minKmerSize);
+        final byte[] refBases = refHaplotype.getBases();
+        reference = new SequenceForKmers(REFERENCE_NAME, refBases, 0, refBases.length, 1, true);
+        for ( final GATKRead read : reads ) {
+            addRead(read, header, minBaseQualityToUseInAssembly, minKmerSize);
+        }
+    }
+
+    /**
+     * Finds maximal consecutive runs of bases of read usable for assembly, in the same way as
+     * {@link AbstractReadThreadingGraph#addRead}, and keeps those at least minLength long
+     */
+    private void addRead(final GATKRead read, final SAMFileHeader header, final byte minBaseQualityToUseInAssembly, final int minLength) {
+        final byte[] sequence = read.getBases();
+        final byte[] qualities = read.getBaseQualities();
+
+        String sampleName = null;
+        int lastGood = -1;
+        for ( int end = 0; end <= sequence.length; end++ ) {
+            if ( end == sequence.length || !AbstractReadThreadingGraph.isUsableForAssembly(sequence[end], qualities[end], minBaseQualityToUseInAssembly) ) {
+                final int start = lastGood;
+                if ( start != -1 && end - start >= minLength ) {
+                    if ( sampleName == null ) {
+                        sampleName = ReadUtils.getSampleName(read, header);
+                    }
+                    readSequences.add(new SequenceForKmers(read.getName() + '_' + start + '_' + end, sequence, start, end, 1, false));
+                    readSampleNames.add(sampleName);
+                }
+                lastGood = -1;
+            } else if ( lastGood == -1 ) {
+                lastGood = end;
+            }
+        }
+    }
+
+    /**
+     * Add the reference and then the read sequences with at least kmerSize bases to graph, in the order
+     * {@link ReadThreadingAssembler} would add the reference and reads to it
+     */
+    void addTo(final AbstractReadThreadingGraph graph) {
+        Utils.nonNull(graph);
+        graph.addSequence(AbstractReadThreadingGraph.ANONYMOUS_SAMPLE, reference);
+        for ( int i = 0; i < readSequences.size(); i++ ) {
+            final SequenceForKmers sequence = readSequences.get(i);
+            if ( sequence.stop - sequence.start >= graph.getKmerSize() ) {
+                graph.addSequence(readSampleNames.get(i), sequence);
+            }
+        }
+    }
+
+    /**
+     * @return true if some kmer of size kmerSize appears more than once in the reference
+     */
+    boolean referenceHasNonUniqueKmers(final int kmerSize) {
+        if ( kmerSize >= smallestKmerSizeUniqueInRef ) {
+            return false;
+        } else if ( kmerSize <= largestKmerSizeNonUniqueInRef ) {
+            return true;
+        }
+        final boolean result = !ReadThreadingGraph.determineNonUniqueKmers(reference, kmerSize).isEmpty();
+        if ( result ) {
+            largestKmerSizeNonUniqueInRef = kmerSize;
+        } else {
+            smallestKmerSizeUniqueInRef = kmerSize;
+        }
+        return result;
+    }
+}
@@ -61,8 +61,7 @@ public class JunctionTreeLinkedDeBruijnGraph extends AbstractReadThreadingGraph
 
     protected int findStartForJunctionThreading(final SequenceForKmers seqForKmers) {
         for ( int i = seqForKmers.start; i < seqForKmers.stop - kmerSize; i++ ) {
-            final Kmer kmer1 = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if ( kmerToVertexMap.containsKey(kmer1) ) {
+            if ( kmerToVertexMap.containsKey(seqForKmers.sequence, i) ) {
                 return i;
             }
         }
@@ -93,12 +92,13 @@ public class JunctionTreeLinkedDeBruijnGraph extends AbstractReadThreadingGraph
      *
      * @see #setThreadingStartOnlyAtExistingVertex(boolean)
      *
-     * @param kmer the query kmer.
+     * @param sequence the bases holding the query kmer.
+     * @param start the start of the query kmer in sequence.
      * @return {@code true} if we can start thread the sequence at this kmer, {@code false} otherwise.
      */
-    protected boolean isThreadingStart(final Kmer kmer, final boolean startThreadingOnlyAtExistingVertex) {
-        Utils.nonNull(kmer);
-        return !startThreadingOnlyAtExistingVertex || kmers.contains(kmer);
+    protected boolean isThreadingStart(final byte[] sequence, final int start, final boolean startThreadingOnlyAtExistingVertex) {
+        Utils.nonNull(sequence);
+        return !startThreadingOnlyAtExistingVertex || kmers.contains(new Kmer(sequence, start, kmerSize));
     }
 
     /**
@@ -463,7 +463,7 @@ public class JunctionTreeLinkedDeBruijnGraph extends AbstractReadThreadingGraph
             return;
         }
 
-        final MultiDeBruijnVertex startingVertex = kmerToVertexMap.get(new Kmer(seqForKmers.sequence, startPos, kmerSize));
+        final MultiDeBruijnVertex startingVertex = kmerToVertexMap.get(seqForKmers.sequence, startPos);
 
         // loop over all of the bases in sequence, extending the graph by one base at each point, as appropriate
         MultiDeBruijnVertex lastVertex = startingVertex;
@@ -473,8 +473,7 @@ public class JunctionTreeLinkedDeBruijnGraph extends AbstractReadThreadingGraph
             if (!hasToRediscoverKmer) {
                 vertex = extendJunctionThreadingByOne(lastVertex, seqForKmers.sequence, i, nodeHelper, true);
             } else {
-                Kmer kmer = new Kmer(seqForKmers.sequence, i, kmerSize);
-                vertex = kmerToVertexMap.get(kmer);
+                vertex = kmerToVertexMap.get(seqForKmers.sequence, i);
             }
 
             // If we missed the vertex, attempt to recover the path from the graph if there is no ambiguity
@@ -0,0 +1,241 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Map from kmers of a fixed size to values, used by the read threading graphs to find the vertex of a kmer.
+ *
+ * <p>
+ *     Kmers of up to {@link #MAX_PACKED_KMER_SIZE} bases made of A, C, G and T only are packed into a {@code long},
+ *     2 bits per base, and kept in an open-addressing table with linear probing, so that looking up the kmer at
+ *     a position of a read allocates nothing and compares a single {@code long} rather than hashing and comparing
+ *     bytes. Other kmers (too long, or with any other base) go to a regular map keyed by {@link Kmer}.
+ * </p>
+ *
+ * <p>
+ *     Kmers are always given as a position in an array of bases, so that callers threading reads through the graph
+ *     don't need to create a {@link Kmer} for every position.
+ * </p>
+ *
+ * @param <V> type of the values
+ */
+final class PackedKmerMap<V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Largest kmer size whose kmers can be packed into a long, leaving the sign bit free for {@link #EMPTY}
+     */
+    static final int MAX_PACKED_KMER_SIZE = 31;
+
+    // no packed kmer has all its bits set, since they use at most 62 bits
+    private static final long EMPTY = -1L;
+    private static final long NOT_PACKABLE = -1L;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private final int kmerSize;
+    private long[] keys;
+    private V[] values;
+    private int packedSize = 0;
+    private final Map<Kmer, V> unpackedKmers = new HashMap<>();
+
+    /**
+     * @param kmerSize the size of all the kmers in the map, must be > 0
+     */
+    PackedKmerMap(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmer size must be positive but was " + kmerSize);
+        this.kmerSize = kmerSize;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = (V[]) new Object[capacity];
+    }
+
+    /**
+     * Pack the kmer starting at start in bases into a long
+     *
+     * @return the packed kmer, or {@link #NOT_PACKABLE} if the kmer is too long or has bases other than A, C, G and T
+     */
+    private long pack(final byte[] bases, final int start) {
+        if ( kmerSize > MAX_PACKED_KMER_SIZE ) {
+            return NOT_PACKABLE;
+        }
+        long packed = 0;
+        for ( int i = start, stop = start + kmerSize; i < stop; i++ ) {
+            final long code;
+            switch ( bases[i] ) {
+                case 'A': code = 0; break;
+                case 'C': code = 1; break;
+                case 'G': code = 2; break;
+                case 'T': code = 3; break;
+                default: return NOT_PACKABLE;
+            }
+            packed = (packed << 2) | code;
+        }
+        return packed;
+    }
+
+    private int slotOf(final long packed) {
+        // spread the bits of the kmer (a MurmurHash3 finalizer step) so that kmers sharing a suffix don't cluster
+        long h = packed * 0xff51afd7ed558ccdL;
+        h ^= h >>> 32;
+        return (int) h & (keys.length - 1);
+    }
+
+    /**
+     * @return the index of the slot holding packed, or of the empty slot where it would go
+     */
+    private int findSlot(final long packed) {
+        final int mask = keys.length - 1;
+        int slot = slotOf(packed);
+        while ( keys[slot] != EMPTY && keys[slot] != packed ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void checkBounds(final byte[] bases, final int start) {
+        Utils.nonNull(bases);
+        Utils.validateArg(start >= 0 && start + kmerSize <= bases.length, () -> "kmer at " + start + " of size " + kmerSize + " is out of the bounds of bases of length " + bases.length);
+    }
+
+    /**
+     * @param bases the bases holding the kmer
+     * @param start the start of the kmer in bases
+     * @return the value of the kmer of size {@code kmerSize} starting at start in bases, or null if there is none
+     */
+    V get(final byte[] bases, final int start) {
+        checkBounds(bases, start);
+        final long packed = pack(bases, start);
+        if ( packed == NOT_PACKABLE ) {
+            return unpackedKmers.get(new Kmer(bases, start, kmerSize));
+        }
+        return values[findSlot(packed)];
+    }
+
+    /**
+     * @return the value of kmer, or null if there is none (including when kmer doesn't have the size of the kmers in this map)
+     */
+    V get(final Kmer kmer) {
+        Utils.nonNull(kmer);
+        return kmer.length() != kmerSize ? null : get(kmer.bases(), 0);
+    }
+
+    boolean containsKey(final byte[] bases, final int start) {
+        return get(bases, start) != null;
+    }
+
+    boolean containsKey(final Kmer kmer) {
+        return get(kmer) != null;
+    }
+
+    /**
+     * Associate value with the kmer of size {@code kmerSize} starting at start in bases, unless there is a value for it already
+     *
+     * @return the previous value of the kmer, in which case the map is unchanged, or null if value was added
+     */
+    V putIfAbsent(final byte[] bases, final int start, final V value) {
+        checkBounds(bases, start);
+        Utils.nonNull(value);
+        final long packed = pack(bases, start);
+        if ( packed == NOT_PACKABLE ) {
+            return unpackedKmers.putIfAbsent(new Kmer(bases, start, kmerSize), value);
+        }
+        final int slot = findSlot(packed);
+        if ( values[slot] != null ) {
+            return values[slot];
+        }
+        keys[slot] = packed;
+        values[slot] = value;
+        if ( ++packedSize > keys.length * LOAD_FACTOR ) {
+            resize();
+        }
+        return null;
+    }
+
+    V putIfAbsent(final Kmer kmer, final V value) {
+        Utils.nonNull(kmer);
+        Utils.validateArg(kmer.length() == kmerSize, () -> "kmer " + kmer + " doesn't have size " + kmerSize);
+        return putIfAbsent(kmer.bases(), 0, value);
+    }
+
+    /**
+     * Remove the kmer of size {@code kmerSize} starting at start in bases
+     *
+     * @return the value of the kmer, or null if it wasn't in the map
+     */
+    V remove(final byte[] bases, final int start) {
+        checkBounds(bases, start);
+        final long packed = pack(bases, start);
+        if ( packed == NOT_PACKABLE ) {
+            return unpackedKmers.remove(new Kmer(bases, start, kmerSize));
+        }
+        int slot = findSlot(packed);
+        final V removed = values[slot];
+        if ( removed == null ) {
+            return null;
+        }
+        // shift back the entries that follow in the probing sequence, so that lookups don't stop at the hole
+        final int mask = keys.length - 1;
+        int hole = slot;
+        for ( slot = (slot + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask ) {
+            final int home = slotOf(keys[slot]);
+            // move the entry into the hole unless its home is cyclically in (hole, slot]
+            if ( hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot) ) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        packedSize--;
+        return removed;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final V[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldKeys[i] != EMPTY ) {
+                final int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @return the number of kmers in the map
+     */
+    int size() {
+        return packedSize + unpackedKmers.size();
+    }
+
+    /**
+     * @return a new list with all the values in the map, in no particular order
+     */
+    List<V> values() {
+        final List<V> result = new ArrayList<>(size());
+        for ( final V value : values ) {
+            if ( value != null ) {
+                result.add(value);
+            }
+        }
+        result.addAll(unpackedKmers.values());
+        return result;
+    }
+}
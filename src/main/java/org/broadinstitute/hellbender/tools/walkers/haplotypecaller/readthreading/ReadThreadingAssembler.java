@@ -232,12 +232,13 @@ public final class ReadThreadingAssembler {
 
         boolean hasAdequatelyAssembledGraph = false;
         List<Integer> kmersToTry = getExpandedKmerList();
+        final AssemblySequences sequences = getAssemblySequences(correctedReads, refHaplotype, header);
         // first, try using the requested kmer sizes
         for ( int i = 0; i < kmersToTry.size(); i++ ) {
             final int kmerSize = kmersToTry.get(i);
             final boolean isLastCycle = i == kmersToTry.size() - 1;
             if (!hasAdequatelyAssembledGraph) {
-                AssemblyResult assembledResult = createGraph(correctedReads, refHaplotype, kmerSize, isLastCycle || dontIncreaseKmerSizesForCycles, isLastCycle || allowNonUniqueKmersInRef, header, aligner, danglingEndSWParameters);
+                AssemblyResult assembledResult = createGraph(sequences, refHaplotype, kmerSize, isLastCycle || dontIncreaseKmerSizesForCycles, isLastCycle || allowNonUniqueKmersInRef, aligner, danglingEndSWParameters);
                 if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION) {
                     // do some QC on the graph
                     sanityCheckGraph(assembledResult.getThreadingGraph(), refHaplotype);
@@ -552,10 +553,11 @@ public final class ReadThreadingAssembler {
     @VisibleForTesting
     List<AssemblyResult> assemble(final List<GATKRead> reads, final Haplotype refHaplotype, final SAMFileHeader header, final SmithWatermanAligner aligner, final SWParameters danglingEndSWParameters) {
         final List<AssemblyResult> results = new LinkedList<>();
+        final AssemblySequences sequences = getAssemblySequences(reads, refHaplotype, header);
 
         // first, try using the requested kmer sizes
         for ( final int kmerSize : kmerSizes ) {
-            addResult(results, createGraph(reads, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner, danglingEndSWParameters));
+            addResult(results, createGraph(sequences, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, aligner, danglingEndSWParameters));
         }
 
         // if none of those worked, iterate over larger sizes if allowed to do so
@@ -565,7 +567,7 @@ public final class ReadThreadingAssembler {
             while ( results.isEmpty() && numIterations <= MAX_KMER_ITERATIONS_TO_ATTEMPT ) {
                 // on the last attempt we will allow low complexity graphs
                 final boolean lastAttempt = numIterations == MAX_KMER_ITERATIONS_TO_ATTEMPT;
-                addResult(results, createGraph(reads, refHaplotype, kmerSize, lastAttempt, lastAttempt, header, aligner, danglingEndSWParameters));
+                addResult(results, createGraph(sequences, refHaplotype, kmerSize, lastAttempt, lastAttempt, aligner, danglingEndSWParameters));
                 kmerSize += KMER_SIZE_ITERATION_INCREASE;
                 numIterations++;
             }
@@ -596,10 +598,19 @@ public final class ReadThreadingAssembler {
         return array.stream().mapToInt(Integer::intValue).max().orElseThrow(() -> new IllegalArgumentException("Array size cannot be 0!"));
     }
 
+    /**
+     * Split the reads into the sequences to thread into the graphs of all the kmer sizes we'll try, since the
+     * smallest kmer size is tried first and the expanded kmer sizes are all larger
+     */
+    private AssemblySequences getAssemblySequences(final List<GATKRead> reads, final Haplotype refHaplotype, final SAMFileHeader header) {
+        final int minKmerSize = kmerSizes.isEmpty() ? 1 : kmerSizes.get(0);
+        return new AssemblySequences(refHaplotype, reads, header, minBaseQualityToUseInAssembly, minKmerSize);
+    }
+
     /**
      * Creates the sequence graph for the given kmerSize
      *
-     * @param reads            reads to use
+     * @param sequences        the reference and read sequences to thread into the graph
      * @param refHaplotype     reference haplotype
      * @param kmerSize         kmer size
      * @param allowLowComplexityGraphs if true, do not check for low-complexity graphs
@@ -608,12 +619,11 @@ public final class ReadThreadingAssembler {
      * @param danglingEndSWParameters {@link SWParameters} used to align dangling ends to the reference sequence
      * @return sequence graph or null if one could not be created (e.g. because it contains cycles or too many paths or is low complexity)
      */
-    private AssemblyResult createGraph(final Iterable<GATKRead> reads,
+    private AssemblyResult createGraph(final AssemblySequences sequences,
                                        final Haplotype refHaplotype,
                                        final int kmerSize,
                                        final boolean allowLowComplexityGraphs,
                                        final boolean allowNonUniqueKmersInRef,
-                                       final SAMFileHeader header,
                                        final SmithWatermanAligner aligner,
                                        final SWParameters danglingEndSWParameters) {
         if ( refHaplotype.length() < kmerSize ) {
@@ -621,7 +631,7 @@ public final class ReadThreadingAssembler {
             return new AssemblyResult(AssemblyResult.Status.FAILED, null, null);
         }
 
-        if ( !allowNonUniqueKmersInRef && !ReadThreadingGraph.determineNonUniqueKmers(new ReadThreadingGraph.SequenceForKmers("ref", refHaplotype.getBases(), 0, refHaplotype.getBases().length, 1, true), kmerSize).isEmpty() ) {
+        if ( !allowNonUniqueKmersInRef && sequences.referenceHasNonUniqueKmers(kmerSize) ) {
             if ( debug ) {
                 logger.info("Not using kmer size of " + kmerSize + " in read threading assembler because reference contains non-unique kmers");
             }
@@ -634,13 +644,8 @@ public final class ReadThreadingAssembler {
 
         rtgraph.setThreadingStartOnlyAtExistingVertex(!recoverDanglingBranches);
 
-        // add the reference sequence to the graph
-        rtgraph.addSequence("ref", refHaplotype.getBases(), true);
-
-        // Next pull kmers out of every read and throw them on the graph
-        for( final GATKRead read : reads ) {
-            rtgraph.addRead(read, header);
-        }
+        // add the reference sequence to the graph, then the usable parts of every read
+        sequences.addTo(rtgraph);
 
         // actually build the read threading graph
         rtgraph.buildGraphIfNecessary();
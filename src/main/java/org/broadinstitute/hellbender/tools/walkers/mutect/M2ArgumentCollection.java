@@ -89,6 +89,18 @@ public class M2ArgumentCollection extends AssemblyBasedCallerArgumentCollection
         return new MutectReadThreadingAssemblerArgumentCollection();
     }
 
+    @Override
+    public List<String> getRequestedPerEngineOutputArguments() {
+        final List<String> requested = super.getRequestedPerEngineOutputArguments();
+        if ( f1r2TarGz != null ) {
+            requested.add(F1R2_TAR_GZ_NAME);
+        }
+        if ( mutect3Dataset != null ) {
+            requested.add(MUTECT3_DATASET_LONG_NAME);
+        }
+        return requested;
+    }
+
     @Override
     public ReadThreadingAssembler createReadThreadingAssembler(){
         if(mitochondria ) {
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
@@ -10,6 +11,7 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.ReferenceConfidenceMode;
@@ -229,6 +231,11 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     private Mutect2Engine m2Engine;
 
+    // When processing regions in parallel, each worker thread calls variants using its own engine, while m2Engine
+    // is only used to determine region activity (and collect callable sites) on the traversal thread
+    private ThreadLocal<Mutect2Engine> regionEngines;
+    private final List<Mutect2Engine> allRegionEngines = Collections.synchronizedList(new ArrayList<>());
+
     @Override
     public boolean useVariantAnnotations() { return true;}
 
@@ -262,7 +269,15 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     @Override
     public void onTraversalStart() {
-        VariantAnnotatorEngine annotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), null, Collections.emptyList(), false, false);
+        if ( regionThreads > 1 ) {
+            final List<String> perEngineOutputs = MTAC.getRequestedPerEngineOutputArguments();
+            if ( ! perEngineOutputs.isEmpty() ) {
+                throw new CommandLineException.BadArgumentValue(AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, String.valueOf(regionThreads),
+                        "parallel region processing cannot be combined with " + String.join(", ", perEngineOutputs));
+            }
+        }
+
+        final VariantAnnotatorEngine annotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), null, Collections.emptyList(), false, false);
         m2Engine = new Mutect2Engine(MTAC, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceSpecifier(), annotatorEngine);
         vcfWriter = createVCFWriter(outputVCF);
         if (m2Engine.emitReferenceConfidence()) {
@@ -280,6 +295,14 @@ public final class Mutect2 extends AssemblyRegionWalker {
             throw new UserException.CouldNotCreateOutputFile(MTAC.f1r2TarGz, M2ArgumentCollection.F1R2_TAR_GZ_NAME + " file must end in .tar.gz");
         }
         m2Engine.writeHeader(vcfWriter, getDefaultToolVCFHeaderLines());
+
+        if ( regionThreads > 1 ) {
+            regionEngines = ThreadLocal.withInitial(() -> {
+                final Mutect2Engine engine = new Mutect2Engine(MTAC, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceSpecifier(), annotatorEngine);
+                allRegionEngines.add(engine);
+                return engine;
+            });
+        }
     }
 
     @Override
@@ -305,6 +328,15 @@ public final class Mutect2 extends AssemblyRegionWalker {
         m2Engine.callRegion(region, referenceContext, featureContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    public boolean supportsParallelRegionProcessing() { return true; }
+
+    @Override
+    public Runnable applyInParallel(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        final List<VariantContext> calls = regionEngines.get().callRegion(region, referenceContext, featureContext);
+        return () -> calls.forEach(vcfWriter::add);
+    }
+
     @Override
     public void closeTool() {
         if (vcfWriter != null) {
@@ -313,5 +345,6 @@ public final class Mutect2 extends AssemblyRegionWalker {
         if (m2Engine != null) {
             m2Engine.close();
         }
+        allRegionEngines.forEach(Mutect2Engine::close);
     }
 }
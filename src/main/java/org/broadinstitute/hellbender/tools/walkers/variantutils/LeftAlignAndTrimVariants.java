@@ -178,7 +178,13 @@ public class LeftAlignAndTrimVariants extends VariantWalker {
     private VariantContextWriter vcfWriter = null;
     private VCFHeader vcfHeader = null;
 
-    VariantContext lastVariant;
+    // per thread, so that contigs can be traversed in parallel: the last variant only matters on its own contig
+    private final ThreadLocal<VariantContext> lastVariant = new ThreadLocal<>();
+
+    @Override
+    public boolean supportsParallelTraversal() {
+        return true;
+    }
 
     @Override
     public void onTraversalStart() {
@@ -237,12 +243,14 @@ public class LeftAlignAndTrimVariants extends VariantWalker {
             if (indelLength > maxIndelSize) {
                 logger.info(String.format("%s (%d) at position %s:%d; skipping that record. Set --max-indel-length >= %d",
                         "Indel is too long", indelLength, splitVariant.getContig(), splitVariant.getStart(), indelLength));
-                lastVariant = splitVariant;
+                lastVariant.set(splitVariant);
                 vcfWriter.add(splitVariant);
             } else {
-                final int distanceToLastVariant = (lastVariant != null && splitVariant.contigsMatch(lastVariant)) ? splitVariant.getStart() - lastVariant.getEnd() : Integer.MAX_VALUE;
-                lastVariant = leftAlignAndTrim(splitVariant, ref, Math.min(maxLeadingBases, distanceToLastVariant - 1), !dontTrimAlleles);
-                vcfWriter.add(lastVariant);
+                final VariantContext previousVariant = lastVariant.get();
+                final int distanceToLastVariant = (previousVariant != null && splitVariant.contigsMatch(previousVariant)) ? splitVariant.getStart() - previousVariant.getEnd() : Integer.MAX_VALUE;
+                final VariantContext alignedVariant = leftAlignAndTrim(splitVariant, ref, Math.min(maxLeadingBases, distanceToLastVariant - 1), !dontTrimAlleles);
+                lastVariant.set(alignedVariant);
+                vcfWriter.add(alignedVariant);
             }
         }
     }
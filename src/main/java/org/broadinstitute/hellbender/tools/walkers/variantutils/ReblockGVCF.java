@@ -124,6 +124,10 @@ public final class ReblockGVCF extends MultiVariantWalker {
     @Argument(fullName=HaplotypeCallerArgumentCollection.OUTPUT_BLOCK_LOWER_BOUNDS, doc = "Output the band lower bound for each GQ block regardless of the data it represents", optional = true)
     private boolean floorBlocks = false;
 
+    @Advanced
+    @Argument(fullName=HaplotypeCallerArgumentCollection.GVCF_BLOCK_SUMMARY_OUTPUT_LONG_NAME, doc = "File to which a binary summary of the reblocked GVCF blocks should be written", optional = true)
+    private GATKPath blockSummaryOutput = null;
+
     @Advanced
     @Argument(fullName=HaplotypeCallerArgumentCollection.GQ_BAND_LONG_NAME, shortName=HaplotypeCallerArgumentCollection.GQ_BAND_SHORT_NAME,
             doc="Exclusive upper bounds for reference confidence GQ bands (must be in [1, 100] and specified in increasing order)", optional = true)
@@ -244,6 +248,9 @@ public final class ReblockGVCF extends MultiVariantWalker {
 
         try {
             vcfWriter = new ReblockingGVCFWriter(writer, new ArrayList<>(GVCFGQBands), floorBlocks, referenceReader, reblockingOptions);
+            if ( blockSummaryOutput != null ) {
+                vcfWriter.setBlockSummaryOutput(blockSummaryOutput);
+            }
         } catch ( final IllegalArgumentException e ) {
             throw new UserException.BadInput("GQBands are malformed: " + e.getMessage(), e);
         }
@@ -1011,6 +1011,93 @@ public final class IntervalUtils {
         return intervalGroups;
     }
 
+    /**
+     * Accepts a sorted List of intervals, and returns at most {@code maxGroups} Lists of intervals, each made of the
+     * intervals of one or more consecutive whole contigs. Contigs are assigned to groups in order so that the groups have
+     * roughly the same total length, although a single contig is never split, so a group holding a long contig may be much
+     * longer than the others.
+     *
+     * Concatenating the groups gives back the input intervals, in their original order.
+     *
+     * @param sortedIntervals sorted List of intervals to group
+     * @param maxGroups maximum number of groups to return, must be > 0
+     * @return A List of non-empty Lists of intervals, with no contig appearing in more than one List
+     */
+    public static List<List<SimpleInterval>> groupIntervalsByContig(final List<SimpleInterval> sortedIntervals, final int maxGroups) {
+        Utils.nonNull(sortedIntervals);
+        Utils.validateArg(maxGroups > 0, "maxGroups must be > 0");
+        final List<List<SimpleInterval>> contigGroups = groupIntervalsByContig(sortedIntervals);
+        if ( contigGroups.size() <= maxGroups ) {
+            return contigGroups;
+        }
+
+        final long[] contigLengths = contigGroups.stream().mapToLong(group -> group.stream().mapToLong(SimpleInterval::size).sum()).toArray();
+        final long totalLength = Arrays.stream(contigLengths).sum();
+
+        final List<List<SimpleInterval>> intervalGroups = new ArrayList<>(maxGroups);
+        List<SimpleInterval> currentGroup = new ArrayList<>();
+        long lengthSoFar = 0;
+        for ( int i = 0; i < contigGroups.size(); i++ ) {
+            currentGroup.addAll(contigGroups.get(i));
+            lengthSoFar += contigLengths[i];
+
+            // close the group once it reaches its share of the total length, keeping enough contigs for the remaining groups
+            final int remainingContigs = contigGroups.size() - i - 1;
+            final int remainingGroups = maxGroups - intervalGroups.size() - 1;
+            final boolean reachedShare = (double) lengthSoFar >= (double) totalLength * (intervalGroups.size() + 1) / maxGroups;
+            if ( remainingGroups > 0 && (reachedShare || remainingContigs <= remainingGroups) && remainingContigs > 0 ) {
+                intervalGroups.add(currentGroup);
+                currentGroup = new ArrayList<>();
+            }
+        }
+        intervalGroups.add(currentGroup);
+
+        return intervalGroups;
+    }
+
+    /**
+     * Accepts a sorted List of intervals, and divides the territory they cover into at most {@code maxGroups} Lists of
+     * intervals of the same total length (except for the last one, which may be shorter). Unlike
+     * {@link #groupIntervalsByContig(List, int)}, intervals are cut as needed, so a single contig, or a single interval,
+     * may be divided among several groups.
+     *
+     * Concatenating the groups gives back the territory of the input intervals, in order, with no base in more than one group.
+     *
+     * @param sortedIntervals sorted List of non-overlapping intervals to divide
+     * @param maxGroups maximum number of groups to return, must be > 0
+     * @return A List of non-empty Lists of intervals
+     */
+    public static List<List<SimpleInterval>> divideIntervalsByLength(final List<SimpleInterval> sortedIntervals, final int maxGroups) {
+        Utils.nonNull(sortedIntervals);
+        Utils.validateArg(maxGroups > 0, "maxGroups must be > 0");
+        final long totalLength = sortedIntervals.stream().mapToLong(SimpleInterval::size).sum();
+        final long groupLength = (totalLength + maxGroups - 1) / maxGroups;
+
+        final List<List<SimpleInterval>> intervalGroups = new ArrayList<>(maxGroups);
+        List<SimpleInterval> currentGroup = new ArrayList<>();
+        long currentGroupLength = 0;
+        for ( final SimpleInterval interval : sortedIntervals ) {
+            int start = interval.getStart();
+            while ( start <= interval.getEnd() ) {
+                final int end = (int) Math.min(interval.getEnd(), start + (groupLength - currentGroupLength) - 1);
+                currentGroup.add(start == interval.getStart() && end == interval.getEnd() ? interval : new SimpleInterval(interval.getContig(), start, end));
+                currentGroupLength += end - start + 1;
+                start = end + 1;
+
+                if ( currentGroupLength == groupLength ) {
+                    intervalGroups.add(currentGroup);
+                    currentGroup = new ArrayList<>();
+                    currentGroupLength = 0;
+                }
+            }
+        }
+        if ( ! currentGroup.isEmpty() ) {
+            intervalGroups.add(currentGroup);
+        }
+
+        return intervalGroups;
+    }
+
     private static LinkedHashMap<String, List<GenomeLoc>> splitByContig(final List<GenomeLoc> sorted) {
         final LinkedHashMap<String, List<GenomeLoc>> splits = new LinkedHashMap<>();
         GenomeLoc last = null;
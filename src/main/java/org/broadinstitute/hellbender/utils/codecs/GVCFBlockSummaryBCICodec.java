@@ -0,0 +1,162 @@
+package org.broadinstitute.hellbender.utils.codecs;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.sv.SVFeaturesHeader;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Reader;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream.Writer;
+import org.broadinstitute.hellbender.utils.variant.writers.GVCFBlockSummary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Codec to handle GVCFBlockSummary in BlockCompressedInterval files.
+ *
+ * Reference blocks are stored as a single record per run of positions in a GQ band, with their alleles implied
+ * (the reference allele followed by {@code <NON_REF>}) and only their GQ, DP, MIN_DP and PLs.
+ * Variants also store their alleles and the annotations summed across samples by joint genotyping.
+ */
+public class GVCFBlockSummaryBCICodec extends AbstractBCICodec<GVCFBlockSummary> {
+    private boolean versionChecked = false;
+    public static final String GVCF_SUMMARY_BCI_FILE_EXTENSION = ".gvcf.bci";
+
+    private static final byte REFERENCE_BLOCK = 0;
+    private static final byte VARIANT = 1;
+
+    @Override
+    public GVCFBlockSummary decode( final Reader<GVCFBlockSummary> reader ) throws IOException {
+        if ( !versionChecked ) {
+            if ( !GVCFBlockSummary.BCI_VERSION.equals(reader.getVersion()) ) {
+                throw new UserException("gvcf.bci file has wrong version: expected " +
+                        GVCFBlockSummary.BCI_VERSION + " but found " + reader.getVersion());
+            }
+            versionChecked = true;
+        }
+        final DataInputStream dis = reader.getStream();
+        final String contig = reader.getDictionary().getSequence(dis.readInt()).getSequenceName();
+        final int start = dis.readInt();
+        final int end = start + dis.readInt();
+        final boolean referenceBlock = dis.readByte() == REFERENCE_BLOCK;
+        final List<Allele> alleles;
+        if ( referenceBlock ) {
+            alleles = Arrays.asList(Allele.create(dis.readUTF(), true), Allele.NON_REF_ALLELE);
+        } else {
+            final int nAlleles = dis.readShort();
+            alleles = new ArrayList<>(nAlleles);
+            for ( int idx = 0; idx != nAlleles; ++idx ) {
+                alleles.add(Allele.create(dis.readUTF(), idx == 0));
+            }
+        }
+        final int ploidy = dis.readByte();
+        final int[] genotypeAlleleIndices = new int[ploidy];
+        for ( int idx = 0; idx != ploidy; ++idx ) {
+            genotypeAlleleIndices[idx] = dis.readShort();
+        }
+        final int genotypeQuality = dis.readInt();
+        final int depth = dis.readInt();
+        final int minDepth = dis.readInt();
+        final int[] likelihoods = readIntArray(dis);
+        if ( referenceBlock ) {
+            return new GVCFBlockSummary(contig, start, end, true, alleles, genotypeAlleleIndices,
+                    genotypeQuality, depth, minDepth, new int[0], likelihoods, new int[0],
+                    GVCFBlockSummary.MISSING_VALUE, GVCFBlockSummary.MISSING_VALUE, Double.NaN, GVCFBlockSummary.MISSING_VALUE);
+        }
+        final int[] alleleDepths = readIntArray(dis);
+        final int[] strandBiasCounts = readIntArray(dis);
+        final int qualApprox = dis.readInt();
+        final int variantDepth = dis.readInt();
+        final double rawMappingQuality = dis.readDouble();
+        final int mappingQualityDepth = dis.readInt();
+        return new GVCFBlockSummary(contig, start, end, false, alleles, genotypeAlleleIndices,
+                genotypeQuality, depth, minDepth, alleleDepths, likelihoods, strandBiasCounts,
+                qualApprox, variantDepth, rawMappingQuality, mappingQualityDepth);
+    }
+
+    @Override
+    public Class<GVCFBlockSummary> getFeatureType() { return GVCFBlockSummary.class; }
+
+    @Override
+    public boolean canDecode( final String path ) {
+        return path.toLowerCase().endsWith(GVCF_SUMMARY_BCI_FILE_EXTENSION);
+    }
+
+    @Override
+    public Writer<GVCFBlockSummary> makeSink( final GATKPath path,
+                                              final SAMSequenceDictionary dict,
+                                              final List<String> sampleNames,
+                                              final int compressionLevel ) {
+        final String className = GVCFBlockSummary.class.getSimpleName();
+        return new Writer<>(path,
+                            new SVFeaturesHeader(className, GVCFBlockSummary.BCI_VERSION, dict, sampleNames),
+                            this::encode,
+                            compressionLevel);
+    }
+
+    @Override
+    public void encode( final GVCFBlockSummary summary,
+                        final Writer<GVCFBlockSummary> writer ) throws IOException {
+        final DataOutputStream dos = writer.getStream();
+        dos.writeInt(writer.getContigIndex(summary.getContig()));
+        dos.writeInt(summary.getStart());
+        dos.writeInt(summary.getEnd() - summary.getStart());
+        final List<Allele> alleles = summary.getAlleles();
+        if ( summary.isReferenceBlock() ) {
+            dos.writeByte(REFERENCE_BLOCK);
+            dos.writeUTF(alleles.get(0).getBaseString());
+        } else {
+            dos.writeByte(VARIANT);
+            dos.writeShort(alleles.size());
+            for ( final Allele allele : alleles ) {
+                dos.writeUTF(allele.getDisplayString());
+            }
+        }
+        final int[] genotypeAlleleIndices = summary.getGenotypeAlleleIndices();
+        dos.writeByte(genotypeAlleleIndices.length);
+        for ( final int alleleIndex : genotypeAlleleIndices ) {
+            dos.writeShort(alleleIndex);
+        }
+        dos.writeInt(summary.getGenotypeQuality());
+        dos.writeInt(summary.getDepth());
+        dos.writeInt(summary.getMinDepth());
+        writeIntArray(dos, summary.getLikelihoods());
+        if ( !summary.isReferenceBlock() ) {
+            writeIntArray(dos, summary.getAlleleDepths());
+            writeIntArray(dos, summary.getStrandBiasCounts());
+            dos.writeInt(summary.getQualApprox());
+            dos.writeInt(summary.getVariantDepth());
+            dos.writeDouble(summary.getRawMappingQuality());
+            dos.writeInt(summary.getMappingQualityDepth());
+        }
+    }
+
+    @Override
+    public FeatureSink<GVCFBlockSummary> makeSortMerger( final GATKPath path,
+                                                         final SAMSequenceDictionary dict,
+                                                         final List<String> sampleNames,
+                                                         final int compressionLevel ) {
+        // GVCF records are already sorted and don't overlap
+        return makeSink(path, dict, sampleNames, compressionLevel);
+    }
+
+    private static void writeIntArray( final DataOutputStream dos, final int[] values ) throws IOException {
+        dos.writeInt(values.length);
+        for ( final int value : values ) {
+            dos.writeInt(value);
+        }
+    }
+
+    private static int[] readIntArray( final DataInputStream dis ) throws IOException {
+        final int[] values = new int[dis.readInt()];
+        for ( int idx = 0; idx != values.length; ++idx ) {
+            values[idx] = dis.readInt();
+        }
+        return values;
+    }
+}
@@ -61,16 +61,27 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
     protected final List<List<EVIDENCE>> filteredEvidenceBySampleIndex;
 
     /**
-     * Indexed per sample, allele and finally evidence (within sample).
+     * Likelihood values of all samples, alleles and evidence in a single flat array, sample-major.
      * <p>
-     *     valuesBySampleIndex[s][a][r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     *     Each sample's values take a contiguous block that starts at {@link #sampleOffsets sampleOffsets[s]}. Within it
+     *     there is a row per allele of {@link #likelihoodsMatrixEvidenceCapacityBySampleIndex capacity[s]} values, so
+     *     values[sampleOffsets[s] + a * capacity[s] + r] == lnLk(R_r | A_a) where R_r comes from Sample s.
      * </p>
+     * <p>
+     *     Keeping everything in one array means that the number of objects allocated does not depend on the amount of
+     *     evidence. The array is only replaced when a sample runs out of capacity or alleles are added.
+     * </p>
+     */
+    private double[] values;
+
+    /**
+     * Position of the first likelihood of each sample in {@link #values}.
      */
-    private final double[][][] valuesBySampleIndex;
+    private final int[] sampleOffsets;
 
     /**
      * Keeps track of the maximum number of evidences and likelihood values that can be stored
-     * stored across all alleles.
+     * stored across all alleles, that is the length of each allele row within the sample block.
      */
     private final int[] likelihoodsMatrixEvidenceCapacityBySampleIndex;
 
@@ -140,7 +151,7 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         final int alleleCount = alleles.numberOfAlleles();
 
         evidenceBySampleIndex = new ArrayList<>(sampleCount);
-        valuesBySampleIndex = new double[sampleCount][][];
+        sampleOffsets = new int[sampleCount];
         likelihoodsMatrixEvidenceCapacityBySampleIndex = new int[sampleCount]; // set to 0s; what we need.
         referenceAlleleIndex = findReferenceAllele(alleles);
         numberOfEvidences = new int[sampleCount];
@@ -161,13 +172,18 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
                       final SampleList samples,
                       final List<List<EVIDENCE>> evidenceBySampleIndex,
                       final List<List<EVIDENCE>> filteredEvidenceBySampleIndex,
-                      final double[][][] values) {
+                      final double[] values,
+                      final int[] evidenceCapacityBySampleIndex) {
         this.samples = samples;
         this.alleles = alleles;
         this.evidenceBySampleIndex = evidenceBySampleIndex;
-        this.valuesBySampleIndex = values;
+        this.values = values;
 
         final int sampleCount = samples.numberOfSamples();
+        likelihoodsMatrixEvidenceCapacityBySampleIndex = evidenceCapacityBySampleIndex;
+        sampleOffsets = new int[sampleCount];
+        Utils.validateArg(computeSampleOffsets(alleles.numberOfAlleles(), evidenceCapacityBySampleIndex, sampleOffsets) == values.length,
+                "the likelihood values do not match the number of alleles and evidence capacity");
 
         this.evidenceIndexBySampleIndex = new ArrayList<>(Collections.nCopies(sampleCount, null));
         if (filteredEvidenceBySampleIndex != null) {
@@ -182,14 +198,6 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         numberOfEvidences = IntStream.range(0, sampleCount)
           .map(i -> evidenceBySampleIndex.get(i).size())
           .toArray();
-
-        // We take the shortest allele's values array as the maximum evidence capacity for
-        // each sample.
-        likelihoodsMatrixEvidenceCapacityBySampleIndex = Arrays.stream(values)
-                .mapToInt(sampleValues -> Arrays.stream(sampleValues)
-                        .mapToInt(v -> v.length)
-                        .min().orElse(0))
-                .toArray();
     }
 
     // Add all the indices to alleles, sample and evidence in the look-up maps.
@@ -199,12 +207,49 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             final List<EVIDENCE> sampleEvidences = evidenceBySample.get(sample);
             numberOfEvidences[s] = sampleEvidences == null ? 0 : sampleEvidences.size();
             evidenceBySampleIndex.add(sampleEvidences == null ? new ArrayList<>() : new ArrayList<>(sampleEvidences));
-            final int sampleEvidenceCount = evidenceBySampleIndex.get(s).size();
+            likelihoodsMatrixEvidenceCapacityBySampleIndex[s] = evidenceBySampleIndex.get(s).size();
+        }
+        values = new double[computeSampleOffsets(alleleCount, likelihoodsMatrixEvidenceCapacityBySampleIndex, sampleOffsets)];
+    }
 
-            final double[][] sampleValues = new double[alleleCount][sampleEvidenceCount];
-            likelihoodsMatrixEvidenceCapacityBySampleIndex[s] = sampleEvidenceCount;
-            valuesBySampleIndex[s] = sampleValues;
+    // Fills in the start of each sample block for the given allele count and evidence capacities, returning the total
+    // number of values.
+    private static int computeSampleOffsets(final int alleleCount, final int[] evidenceCapacityBySampleIndex, final int[] sampleOffsets) {
+        long total = 0;
+        for (int s = 0; s < evidenceCapacityBySampleIndex.length; s++) {
+            sampleOffsets[s] = (int) total;
+            total += (long) alleleCount * evidenceCapacityBySampleIndex[s];
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("too many likelihoods to hold in a single array: " + total);
+            }
         }
+        return (int) total;
+    }
+
+    // Position in {@link #values} of the likelihood of the first unit of evidence of a sample given an allele.
+    private int rowOffset(final int sampleIndex, final int alleleIndex) {
+        return sampleOffsets[sampleIndex] + alleleIndex * likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
+    }
+
+    // Moves the likelihoods into a new array laid out for new allele count and evidence capacities. Existing values
+    // are kept and any new entries are set to NaN.
+    private void relayoutValues(final int oldAlleleCount, final int newAlleleCount, final int[] newEvidenceCapacityBySampleIndex) {
+        final int sampleCount = newEvidenceCapacityBySampleIndex.length;
+        final int[] newSampleOffsets = new int[sampleCount];
+        final double[] newValues = new double[computeSampleOffsets(newAlleleCount, newEvidenceCapacityBySampleIndex, newSampleOffsets)];
+        // With NaN we ensure some clear failure output in case there is a bug that
+        // uses "zombie" likelihoods (e.g. github issue {@link https://github.com/broadinstitute/gatk/pull/7153 #7153).
+        Arrays.fill(newValues, Double.NaN);
+        final int copiedAlleleCount = Math.min(oldAlleleCount, newAlleleCount);
+        for (int s = 0; s < sampleCount; s++) {
+            final int copiedLength = Math.min(likelihoodsMatrixEvidenceCapacityBySampleIndex[s], newEvidenceCapacityBySampleIndex[s]);
+            for (int a = 0; a < copiedAlleleCount; a++) {
+                System.arraycopy(values, rowOffset(s, a), newValues, newSampleOffsets[s] + a * newEvidenceCapacityBySampleIndex[s], copiedLength);
+            }
+        }
+        values = newValues;
+        System.arraycopy(newSampleOffsets, 0, sampleOffsets, 0, sampleCount);
+        System.arraycopy(newEvidenceCapacityBySampleIndex, 0, likelihoodsMatrixEvidenceCapacityBySampleIndex, 0, sampleCount);
     }
 
     // Search for the reference allele, if not found the index is {@link MISSING_REF}.
@@ -335,8 +380,9 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         for (int s = 0; s < sampleCount; s++) {
             final int evidenceCount = sampleEvidenceCount(s);
             for (int a = 0; a < alleleCount; a++) {
-                for (int e = 0; e < evidenceCount; e++) {
-                    valuesBySampleIndex[s][a][e] = MathUtils.log10ToLog(valuesBySampleIndex[s][a][e]);
+                final int rowOffset = rowOffset(s, a);
+                for (int e = rowOffset; e < rowOffset + evidenceCount; e++) {
+                    values[e] = MathUtils.log10ToLog(values[e]);
                 }
             }
         }
@@ -391,30 +437,31 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             return;
         }
 
-        for (int s = 0; s < valuesBySampleIndex.length; s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
+        final int sampleCount = samples.numberOfSamples();
+        for (int s = 0; s < sampleCount; s++) {
             final int evidenceCount = evidenceBySampleIndex.get(s).size();
             for (int r = 0; r < evidenceCount; r++) {
-                normalizeLikelihoodsPerEvidence(maximumLikelihoodDifferenceCap, sampleValues, s, r, symmetricallyNormalizeAllelesToReference);
+                normalizeLikelihoodsPerEvidence(maximumLikelihoodDifferenceCap, s, r, symmetricallyNormalizeAllelesToReference);
             }
         }
     }
 
     // Does the normalizeLikelihoods job for each piece of evidence.
     private void normalizeLikelihoodsPerEvidence(final double maximumBestAltLikelihoodDifference,
-                                                 final double[][] sampleValues, final int sampleIndex, final int evidenceIndex, final boolean symmetricallyNormalizeAllelesToReference) {
+                                                 final int sampleIndex, final int evidenceIndex, final boolean symmetricallyNormalizeAllelesToReference) {
 
         //allow the best allele to be the reference because asymmetry leads to strange artifacts like het calls with >90% alt reads
-        final BestAllele bestAllele = searchBestAllele(sampleIndex,evidenceIndex,symmetricallyNormalizeAllelesToReference);
+        final double bestLikelihood = bestAlleleLikelihood(sampleIndex, evidenceIndex, symmetricallyNormalizeAllelesToReference);
 
-        final double worstLikelihoodCap = bestAllele.likelihood + maximumBestAltLikelihoodDifference;
+        final double worstLikelihoodCap = bestLikelihood + maximumBestAltLikelihoodDifference;
 
         final int alleleCount = alleles.numberOfAlleles();
+        final int stride = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
 
         // Guarantee to be the case by enclosing code.
-        for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][evidenceIndex] < worstLikelihoodCap) {
-                sampleValues[a][evidenceIndex] = worstLikelihoodCap;
+        for (int a = 0, i = sampleOffsets[sampleIndex] + evidenceIndex; a < alleleCount; a++, i += stride) {
+            if (values[i] < worstLikelihoodCap) {
+                values[i] = worstLikelihoodCap;
             }
         }
 
@@ -471,18 +518,19 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             return new BestAllele(sampleIndex, evidenceIndex, MISSING_INDEX, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
         }
 
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int offset = sampleOffsets[sampleIndex] + evidenceIndex;
+        final int stride = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
         int bestAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
 
         int secondBestIndex = 0;
-        double bestLikelihood = sampleValues[bestAlleleIndex][evidenceIndex];
+        double bestLikelihood = values[offset + bestAlleleIndex * stride];
         double secondBestLikelihood = Double.NEGATIVE_INFINITY;
 
         for (int a = bestAlleleIndex + 1; a < alleleCount; a++) {
             if (!canBeReference && referenceAlleleIndex == a) {
                 continue;
             }
-            final double candidateLikelihood = sampleValues[a][evidenceIndex];
+            final double candidateLikelihood = values[offset + a * stride];
             if (candidateLikelihood > bestLikelihood) {
                 secondBestIndex = bestAlleleIndex;
                 bestAlleleIndex = a;
@@ -498,7 +546,7 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             double bestPriority = priorities[bestAlleleIndex];
             double secondBestPriority = priorities[secondBestIndex];
             for (int a = 0; a < alleleCount; a++) {
-                final double candidateLikelihood = sampleValues[a][evidenceIndex];
+                final double candidateLikelihood = values[offset + a * stride];
                 if (a == bestAlleleIndex || (!canBeReference && a == referenceAlleleIndex) || bestLikelihood - candidateLikelihood > getInformativeThreshold()) {
                     continue;
                 }
@@ -516,8 +564,8 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             }
         }
 
-        bestLikelihood = sampleValues[bestAlleleIndex][evidenceIndex];
-        secondBestLikelihood = secondBestIndex != bestAlleleIndex ? sampleValues[secondBestIndex][evidenceIndex] : Double.NEGATIVE_INFINITY;
+        bestLikelihood = values[offset + bestAlleleIndex * stride];
+        secondBestLikelihood = secondBestIndex != bestAlleleIndex ? values[offset + secondBestIndex * stride] : Double.NEGATIVE_INFINITY;
 
         return new BestAllele(sampleIndex, evidenceIndex, bestAlleleIndex, bestLikelihood, secondBestLikelihood);
     }
@@ -526,6 +574,33 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         return searchBestAllele(sampleIndex, evidenceIndex, canBeReference, null);
     }
 
+    /**
+     * Same as {@code searchBestAllele(sampleIndex, evidenceIndex, canBeReference).likelihood} but without creating a
+     * {@link BestAllele} for every unit of evidence.
+     */
+    private double bestAlleleLikelihood(final int sampleIndex, final int evidenceIndex, final boolean canBeReference) {
+        final int alleleCount = alleles.numberOfAlleles();
+        if (alleleCount == 0 || (alleleCount == 1 && referenceAlleleIndex == 0 && !canBeReference)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        final int offset = sampleOffsets[sampleIndex] + evidenceIndex;
+        final int stride = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
+        final int firstAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
+
+        double bestLikelihood = values[offset + firstAlleleIndex * stride];
+        for (int a = firstAlleleIndex + 1; a < alleleCount; a++) {
+            if (!canBeReference && referenceAlleleIndex == a) {
+                continue;
+            }
+            final double candidateLikelihood = values[offset + a * stride];
+            if (candidateLikelihood > bestLikelihood) {
+                bestLikelihood = candidateLikelihood;
+            }
+        }
+        return bestLikelihood;
+    }
+
     public void changeEvidence(final Map<EVIDENCE, EVIDENCE> evidenceReplacements) {
         final int sampleCount = samples.numberOfSamples();
         for (int s = 0; s < sampleCount; s++) {
@@ -591,19 +666,14 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
             referenceAlleleIndex = oldAlleleCount + indexOfReferenceInAllelesToAdd.getAsInt();
         }
 
-        //copy old allele likelihoods and set new allele likelihoods to the default value
+        //copy old allele likelihoods and set new allele likelihoods to the default value (the rest are left as NaNs)
+        relayoutValues(oldAlleleCount, newAlleleCount, likelihoodsMatrixEvidenceCapacityBySampleIndex.clone());
         for (int s = 0; s < samples.numberOfSamples(); s++) {
             final int sampleEvidenceCount = evidenceBySampleIndex.get(s).size();
-            final double[][] newValuesBySampleIndex = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount);
             for (int a = oldAlleleCount; a < newAlleleCount; a++) {
-                newValuesBySampleIndex[a] = new double[likelihoodsMatrixEvidenceCapacityBySampleIndex[s]];
-                if (defaultLikelihood != 0.0) {
-                    Arrays.fill(newValuesBySampleIndex[a], 0, sampleEvidenceCount, defaultLikelihood);
-                }
-                // Fill the rest with NaNs
-                Arrays.fill(newValuesBySampleIndex[a], sampleEvidenceCount, newValuesBySampleIndex[a].length, Double.NaN);
+                final int rowOffset = rowOffset(s, a);
+                Arrays.fill(values, rowOffset, rowOffset + sampleEvidenceCount, defaultLikelihood);
             }
-            valuesBySampleIndex[s] = newValuesBySampleIndex;
         }
         return true;
     }
@@ -623,31 +693,37 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
      */
     public <U, NEW_EVIDENCE_TYPE extends Locatable> AlleleLikelihoods<NEW_EVIDENCE_TYPE, A> groupEvidence(final Function<EVIDENCE, U> groupingFunction, final Function<List<EVIDENCE>, NEW_EVIDENCE_TYPE> gather) {
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] newLikelihoodValues = new double[sampleCount][][];
         final int alleleCount = alleles.numberOfAlleles();
 
         final List<List<NEW_EVIDENCE_TYPE>> newEvidenceBySampleIndex = new ArrayList<>(sampleCount);
+        final List<List<List<EVIDENCE>>> evidenceGroupsBySampleIndex = new ArrayList<>(sampleCount);
+        final int[] newEvidenceCounts = new int[sampleCount];
 
         for (int s = 0; s < sampleCount; s++) {
             final List<List<EVIDENCE>> evidenceGroups = new ArrayList<>(sampleEvidence(s).stream()
                     .collect(Collectors.groupingBy(groupingFunction)).values());
+            evidenceGroupsBySampleIndex.add(evidenceGroups);
+            newEvidenceCounts[s] = evidenceGroups.size();
+            newEvidenceBySampleIndex.add(evidenceGroups.stream().map(gather).collect(Collectors.toList()));
+        }
 
-
-            final int newEvidenceCount = evidenceGroups.size();
-
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
-            newLikelihoodValues[s] = new double[alleleCount][newEvidenceCount];
+        final int[] newSampleOffsets = new int[sampleCount];
+        final double[] newLikelihoodValues = new double[computeSampleOffsets(alleleCount, newEvidenceCounts, newSampleOffsets)];
+        for (int s = 0; s < sampleCount; s++) {
+            final List<List<EVIDENCE>> evidenceGroups = evidenceGroupsBySampleIndex.get(s);
+            final int newEvidenceCount = newEvidenceCounts[s];
 
             // For each old allele and read we update the new table keeping the maximum likelihood.
             for (int newEvidenceIndex = 0; newEvidenceIndex < newEvidenceCount; newEvidenceIndex++) {
                 for (int a = 0; a < alleleCount; a++) {
+                    final int newIndex = newSampleOffsets[s] + a * newEvidenceCount + newEvidenceIndex;
+                    final int oldRowOffset = rowOffset(s, a);
                     for (final EVIDENCE evidence : evidenceGroups.get(newEvidenceIndex)) {
                         final int oldEvidenceIndex = evidenceIndex(s, evidence);
-                        newLikelihoodValues[s][a][newEvidenceIndex] += oldSampleValues[a][oldEvidenceIndex];
+                        newLikelihoodValues[newIndex] += values[oldRowOffset + oldEvidenceIndex];
                     }
                 }
             }
-            newEvidenceBySampleIndex.add(evidenceGroups.stream().map(gather).collect(Collectors.toList()));
         }
 
         // Finally we create the new read-likelihood
@@ -656,7 +732,8 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
                 samples,
                 newEvidenceBySampleIndex,
                 null, //TODO this is only currently used for Somatic and i'm alright with removing this for now but this is NOT robust and 3 of these methods is too many
-                newLikelihoodValues);
+                newLikelihoodValues,
+                newEvidenceCounts);
 
         result.isNaturalLog = this.isNaturalLog;
         return result;
@@ -687,10 +764,11 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         // allele does not map to any new; supported but typically not the case.
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
-        // We calculate the marginal likelihoods.
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap);
-
         final int sampleCount = samples.numberOfSamples();
+        final int[] newEvidenceCapacities = Arrays.copyOf(numberOfEvidences, sampleCount);
+
+        // We calculate the marginal likelihoods.
+        final double[] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, newEvidenceCapacities);
 
         final List<List<EVIDENCE>> newEvidenceBySampleIndex = new ArrayList<>(sampleCount);
 
@@ -704,35 +782,38 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
                 samples,
                 newEvidenceBySampleIndex,
                 filteredEvidenceBySampleIndex,
-                newLikelihoodValues);
+                newLikelihoodValues,
+                newEvidenceCapacities);
         result.isNaturalLog = isNaturalLog;
         return result;
     }
 
     // Calculate the marginal likelihoods considering the old -> new allele index mapping.
-    private double[][][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount,
-                                             final int[] oldToNewAlleleIndexMap) {
+    // The result is laid out like {@link #values} for the new allele count and the given evidence capacities, which must
+    // be the current evidence counts.
+    private double[] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount,
+                                         final int[] oldToNewAlleleIndexMap, final int[] newEvidenceCapacities) {
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] result = new double[sampleCount][][];
+        final int[] newSampleOffsets = new int[sampleCount];
+        final double[] result = new double[computeSampleOffsets(newAlleleCount, newEvidenceCapacities, newSampleOffsets)];
+        // We initiate all likelihoods to -Inf.
+        Arrays.fill(result, Double.NEGATIVE_INFINITY);
 
         for (int s = 0; s < sampleCount; s++) {
-            final int sampleEvidenceCount = evidenceBySampleIndex.get(s).size();
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
-            final double[][] newSampleValues = result[s] = new double[newAlleleCount][sampleEvidenceCount];
-            // We initiate all likelihoods to -Inf.
-            for (int a = 0; a < newAlleleCount; a++) {
-                Arrays.fill(newSampleValues[a], Double.NEGATIVE_INFINITY);
-            }
+            final int sampleEvidenceCount = newEvidenceCapacities[s];
             // For each old allele and read we update the new table keeping the maximum likelihood.
-            for (int r = 0; r < sampleEvidenceCount; r++) {
-                for (int a = 0; a < oldAlleleCount; a++) {
-                    final int newAlleleIndex = oldToNewAlleleIndexMap[a];
-                    if (newAlleleIndex == MISSING_INDEX) {
-                        continue;
-                    }
-                    final double likelihood = oldSampleValues[a][r];
-                    if (likelihood > newSampleValues[newAlleleIndex][r]) {
-                        newSampleValues[newAlleleIndex][r] = likelihood;
+            // We go over whole rows at a time so that both the old and new values are accessed sequentially.
+            for (int a = 0; a < oldAlleleCount; a++) {
+                final int newAlleleIndex = oldToNewAlleleIndexMap[a];
+                if (newAlleleIndex == MISSING_INDEX) {
+                    continue;
+                }
+                final int oldRowOffset = rowOffset(s, a);
+                final int newRowOffset = newSampleOffsets[s] + newAlleleIndex * sampleEvidenceCount;
+                for (int r = 0; r < sampleEvidenceCount; r++) {
+                    final double likelihood = values[oldRowOffset + r];
+                    if (likelihood > result[newRowOffset + r]) {
+                        result[newRowOffset + r] = likelihood;
                     }
                 }
             }
@@ -776,50 +857,54 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
      *  collection.
      */
     public void addEvidence(final Map<String,List<EVIDENCE>> evidenceBySample, final double initialLikelihood) {
-        for (final Map.Entry<String,List<EVIDENCE>> entry : evidenceBySample.entrySet()) {
-            final String sample = entry.getKey();
-            final List<EVIDENCE> newSampleEvidence = entry.getValue();
-            final int sampleIndex = samples.indexOfSample(sample);
-
-            if (sampleIndex == MISSING_INDEX) {
+        for (final String sample : evidenceBySample.keySet()) {
+            if (samples.indexOfSample(sample) == MISSING_INDEX) {
                 throw new IllegalArgumentException("input sample " + sample + " is not part of the evidence-likelihoods collection");
             }
+        }
 
-            if (newSampleEvidence == null || newSampleEvidence.isEmpty()) {
-                continue;
+        final int sampleCount = samples.numberOfSamples();
+        final int[] oldEvidenceCounts = new int[sampleCount];
+        for (int s = 0; s < sampleCount; s++) {
+            oldEvidenceCounts[s] = evidenceBySampleIndex.get(s).size();
+        }
+        for (final Map.Entry<String,List<EVIDENCE>> entry : evidenceBySample.entrySet()) {
+            final List<EVIDENCE> newSampleEvidence = entry.getValue();
+            if (newSampleEvidence != null && !newSampleEvidence.isEmpty()) {
+                appendEvidence(newSampleEvidence, samples.indexOfSample(entry.getKey()));
             }
-
-            final int oldEvidenceCount = evidenceBySampleIndex.get(sampleIndex).size();
-            appendEvidence(newSampleEvidence, sampleIndex);
-            final int newEvidenceCount = evidenceBySampleIndex.get(sampleIndex).size();
-            extendsLikelihoodArrays(initialLikelihood, sampleIndex, oldEvidenceCount, newEvidenceCount);
         }
+        extendsLikelihoodArrays(initialLikelihood, oldEvidenceCounts);
     }
 
-    // Extends the likelihood arrays-matrices.
-    private void extendsLikelihoodArrays(final double initialLikelihood, final int sampleIndex, final int oldEvidenceCount, final int newEvidenceCount) {
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+    // Extends the likelihood arrays-matrices of all samples at once, and sets the likelihoods of the new evidence.
+    private void extendsLikelihoodArrays(final double initialLikelihood, final int[] oldEvidenceCounts) {
         final int numberOfAlleles = alleles.numberOfAlleles();
-        ensureLikelihoodsMatrixEvidenceCapacity(sampleIndex, newEvidenceCount, sampleValues, numberOfAlleles);
-        for (int a = 0; a < numberOfAlleles; a++) {
-            Arrays.fill(sampleValues[a], oldEvidenceCount, newEvidenceCount, initialLikelihood);
+        ensureLikelihoodsMatrixEvidenceCapacity(numberOfAlleles);
+        for (int s = 0; s < oldEvidenceCounts.length; s++) {
+            final int newEvidenceCount = evidenceBySampleIndex.get(s).size();
+            for (int a = 0; newEvidenceCount > oldEvidenceCounts[s] && a < numberOfAlleles; a++) {
+                final int rowOffset = rowOffset(s, a);
+                Arrays.fill(values, rowOffset + oldEvidenceCounts[s], rowOffset + newEvidenceCount, initialLikelihood);
+            }
         }
     }
 
-    // Resizes the lk value holding arrays to be able to handle at least "x" amount of evidence.
-    private void ensureLikelihoodsMatrixEvidenceCapacity(final int sampleIndex, final int x,
-                                                         final double[][] sampleValues, final int numberOfAlleles) {
-        final int currentCapacity = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
-        if (currentCapacity < x) {
-            final int newCapacity = Math.max(currentCapacity, x) << 1; // we double it to avoid repetitive 1-element extensions resizing.
-            for (int a  = 0; a < numberOfAlleles; a++) {
-                sampleValues[a] = Arrays.copyOf(sampleValues[a], newCapacity);
-                // We don't need the following fill for this to work as intended but
-                // with NaN we ensure some clear failure output in case there is a bug that
-                // uses "zombie" likelihoods (e.g. github issue {@link https://github.com/broadinstitute/gatk/pull/7153 #7153).
-                Arrays.fill(sampleValues[a], currentCapacity, newCapacity, Double.NaN);
+    // Resizes the lk value holding array to be able to handle all the evidence of every sample, moving the values only
+    // once however many samples need more room.
+    private void ensureLikelihoodsMatrixEvidenceCapacity(final int numberOfAlleles) {
+        int[] newCapacities = null;
+        for (int s = 0; s < likelihoodsMatrixEvidenceCapacityBySampleIndex.length; s++) {
+            final int evidenceCount = evidenceBySampleIndex.get(s).size();
+            if (likelihoodsMatrixEvidenceCapacityBySampleIndex[s] < evidenceCount) {
+                if (newCapacities == null) {
+                    newCapacities = likelihoodsMatrixEvidenceCapacityBySampleIndex.clone();
+                }
+                newCapacities[s] = evidenceCount << 1; // we double it to avoid repetitive 1-element extensions resizing.
             }
-            likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex] = newCapacity;
+        }
+        if (newCapacities != null) {
+            relayoutValues(numberOfAlleles, numberOfAlleles, newCapacities);
         }
     }
 
@@ -892,16 +977,21 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         // likelihood buffer reused across evidence:
         final double[] qualifiedAlleleLikelihoods = new double[nonSymbolicAlleleCount];
         final Median medianCalculator = new Median();
+        // whether each allele is to be considered, so that we don't look it up for every unit of evidence:
+        final boolean[] considerAllele = new boolean[alleleCount];
+        for (int i = 0; i < alleleCount; i++) {
+            considerAllele[i] = i != nonRefAlleleIndex && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != MISSING_INDEX;
+        }
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
             final int evidenceCount = evidenceBySampleIndex.get(s).size();
+            final int stride = likelihoodsMatrixEvidenceCapacityBySampleIndex[s];
             for (int r = 0; r < evidenceCount; r++) {
-                final BestAllele bestAllele = searchBestAllele(s, r, true);
+                final double bestLikelihood = bestAlleleLikelihood(s, r, true);
+                final int offset = sampleOffsets[s] + r;
                 int numberOfQualifiedAlleleLikelihoods = 0;
                 for (int i = 0; i < alleleCount; i++) {
-                    final double alleleLikelihood = sampleValues[i][r];
-                    if (i != nonRefAlleleIndex && alleleLikelihood < bestAllele.likelihood
-                            && !Double.isNaN(alleleLikelihood) && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != MISSING_INDEX) {
+                    final double alleleLikelihood = values[offset + i * stride];
+                    if (considerAllele[i] && alleleLikelihood < bestLikelihood && !Double.isNaN(alleleLikelihood)) {
                         qualifiedAlleleLikelihoods[numberOfQualifiedAlleleLikelihoods++] = alleleLikelihood;
                     }
                 }
@@ -910,8 +1000,8 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
                 // so the evidence is not informative at all given the existing alleles. Unless there is only one (or zero) concrete
                 // alleles with give the same (the best) likelihood to the NON-REF. When there is only one (or zero) concrete
                 // alleles we set the NON-REF likelihood to NaN.
-                sampleValues[nonRefAlleleIndex][r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
-                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood;
+                values[offset + nonRefAlleleIndex * stride] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
+                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestLikelihood;
             }
         }
     }
@@ -1105,10 +1195,10 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
     protected double maximumLikelihoodOverAllAlleles(final int sampleIndex, final int evidenceIndex) {
         double result = Double.NEGATIVE_INFINITY;
         final int alleleCount = alleles.numberOfAlleles();
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
-        for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][evidenceIndex] > result) {
-                result = sampleValues[a][evidenceIndex];
+        final int stride = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
+        for (int a = 0, i = sampleOffsets[sampleIndex] + evidenceIndex; a < alleleCount; a++, i += stride) {
+            if (values[i] > result) {
+                result = values[i];
             }
         }
         return result;
@@ -1201,16 +1291,22 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
                 numRemoved++;
             } else {
                 newEvidence.add(oldEvidence.get(n));
+            }
+        }
 
-                // update the likelihoods arrays in place
-                for (final double[] alleleValues : valuesBySampleIndex[sampleIndex]) {
-                    alleleValues[n - numRemoved] = alleleValues[n];
+        // update the likelihoods arrays in place, one allele row at a time, and set to NaN lks of the deleted positions.
+        final int alleleCount = alleles.numberOfAlleles();
+        final int capacity = likelihoodsMatrixEvidenceCapacityBySampleIndex[sampleIndex];
+        for (int a = 0; a < alleleCount; a++) {
+            final int rowOffset = rowOffset(sampleIndex, a);
+            for (int n = 0, numRemoved = 0; n < oldEvidenceCount; n++) {
+                if (numRemoved < numToRemove && n == evidencesToRemove[numRemoved]) {
+                    numRemoved++;
+                } else {
+                    values[rowOffset + n - numRemoved] = values[rowOffset + n];
                 }
             }
-        }
-        // set to NaN lks of the deleted positions in lk value arrays.
-        for (final double[] alleleValues : valuesBySampleIndex[sampleIndex]) {
-            Arrays.fill(alleleValues, newEvidenceCount, alleleValues.length, Double.NaN);
+            Arrays.fill(values, rowOffset + newEvidenceCount, rowOffset + capacity, Double.NaN);
         }
         evidenceBySampleIndex.set(sampleIndex, newEvidence);
         numberOfEvidences[sampleIndex] = newEvidenceCount;
@@ -1303,16 +1399,16 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
 
         @Override
         public void set(final int alleleIndex, final int evidenceIndex, final double value) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
             Utils.validIndex(evidenceIndex,  numberOfEvidences[sampleIndex]);
-            valuesBySampleIndex[sampleIndex][alleleIndex][evidenceIndex] = value;
+            values[rowOffset(sampleIndex, alleleIndex) + evidenceIndex] = value;
         }
 
         @Override
         public double get(final int alleleIndex, final int evidenceIndex) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
             Utils.validIndex(evidenceIndex, numberOfEvidences[sampleIndex]);
-            return valuesBySampleIndex[sampleIndex][alleleIndex][evidenceIndex];
+            return values[rowOffset(sampleIndex, alleleIndex) + evidenceIndex];
         }
 
         @Override
@@ -1352,8 +1448,8 @@ public class AlleleLikelihoods<EVIDENCE extends Locatable, A extends Allele> imp
         @Override
         public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
             Utils.nonNull(dest);
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            System.arraycopy(valuesBySampleIndex[sampleIndex][alleleIndex], 0, dest, offset, numberOfEvidences[sampleIndex]);
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
+            System.arraycopy(values, rowOffset(sampleIndex, alleleIndex), dest, offset, numberOfEvidences[sampleIndex]);
         }
     }
 }
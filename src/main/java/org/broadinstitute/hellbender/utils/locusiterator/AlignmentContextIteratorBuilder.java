@@ -72,6 +72,53 @@ public class AlignmentContextIteratorBuilder {
                 isDefinitelyReference, isEmitEmptyLoci, isIncludeDeletions, isIncludeNs);
     }
 
+    /**
+     * Have this builder return the {@link LocusIteratorByState} underlying the iterators returned by {@link #build},
+     * which produces pileups for all the loci covered by reads, regardless of any traversal intervals. This is intended
+     * for traversals that need direct access to the pileups, such as through {@link LocusIteratorByState#nextBatch}.
+     *
+     * @param readIterator iterator of sorted GATK reads.  Not {@code null}
+     * @param header SAM file header to use.  Not {@code null}
+     * @return a LocusIteratorByState configured according to this builder
+     */
+    public LocusIteratorByState buildLocusIteratorByState(final Iterator<GATKRead> readIterator, final SAMFileHeader header) {
+        Utils.nonNull(header, "Header cannot be null");
+        Utils.nonNull(readIterator, "Read iterator cannot be null");
+        return createLocusIteratorByState(header, readIterator, downsamplingInfo, isIncludeDeletions, isIncludeNs);
+    }
+
+    /**
+     * Get the loci the iterators returned by {@link #build} would traverse given the same arguments.
+     *
+     * @param intervalsForTraversal the intervals to generate alignment contexts over.
+     * @param dictionary the SAMSequenceDictionary being used for this traversal.  {@code null} is supported, but will often lead to invalid parameter combinations.
+     * @param isReference {@code true} if the specified dictionary came from a reference.  {@code false} otherwise.  If dictionary is {@code null}, this parameter is ignored.
+     * @return the intervals to traverse, or {@code null} if all loci covered by reads should be traversed.  When this builder
+     *         emits empty loci, all the loci in these intervals should be traversed, otherwise only those covered by reads.
+     */
+    public List<SimpleInterval> getTraversalIntervals(final List<SimpleInterval> intervalsForTraversal, final SAMSequenceDictionary dictionary, final boolean isReference) {
+        final boolean isDefinitelyReference = (dictionary != null) && isReference;
+        validateEmitEmptyLociParameters(isEmitEmptyLoci, dictionary, intervalsForTraversal, isDefinitelyReference);
+        // If no intervals were specified, then use the entire reference (or best available sequence dictionary).
+        if (isEmitEmptyLoci && !areIntervalsSpecified(intervalsForTraversal)) {
+            return IntervalUtils.getAllIntervalsForReference(dictionary);
+        }
+        return intervalsForTraversal;
+    }
+
+    private static LocusIteratorByState createLocusIteratorByState(final SAMFileHeader header,
+                                                                   final Iterator<GATKRead> readIterator,
+                                                                   final LIBSDownsamplingInfo downsamplingInfo,
+                                                                   final boolean isIncludeDeletions,
+                                                                   final boolean isIncludeNs) {
+        // get the samples from the read groups
+        final Set<String> samples = header.getReadGroups().stream()
+                .map(SAMReadGroupRecord::getSample)
+                .collect(Collectors.toSet());
+
+        return new LocusIteratorByState(readIterator, downsamplingInfo, samples, header, isIncludeDeletions, isIncludeNs);
+    }
+
     /**
      *  Create the appropriate instance of an alignment context spliterator based on the input parameters.
      *
@@ -98,13 +145,8 @@ public class AlignmentContextIteratorBuilder {
                                                                              boolean isIncludeDeletions,
                                                                              boolean isIncludeNs) {
 
-        // get the samples from the read groups
-        final Set<String> samples = header.getReadGroups().stream()
-                .map(SAMReadGroupRecord::getSample)
-                .collect(Collectors.toSet());
-
         // get the LIBS
-        final LocusIteratorByState libs = new LocusIteratorByState(readIterator, downsamplingInfo, samples, header, isIncludeDeletions, isIncludeNs);
+        final LocusIteratorByState libs = createLocusIteratorByState(header, readIterator, downsamplingInfo, isIncludeDeletions, isIncludeNs);
 
         List<SimpleInterval> finalIntervals = intervalsForTraversal;
         validateEmitEmptyLociParameters(emitEmptyLoci, dictionary, intervalsForTraversal, isReference);
@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.pileup.LocusPileupBatch;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -301,18 +302,7 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
                 while (iterator.hasNext()) {
                     // state object with the read/offset information
                     final AlignmentStateMachine state = iterator.next();
-                    final GATKRead read = state.getRead();
-                    final CigarOperator op = state.getCigarOperator();
-
-                    if (!includeReadsWithNsAtLoci && op == CigarOperator.N) {
-                        continue;
-                    }
-
-                    if (!dontIncludeReadInPileup(read, location.getStart())) {
-                        if (!includeReadsWithDeletionAtLoci && op == CigarOperator.D) {
-                            continue;
-                        }
-
+                    if (includeInPileup(state, location.getStart())) {
                         allPileupElements.add(state.makePileupElement());
                     }
                 }
@@ -325,6 +315,74 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
         }
     }
 
+    /**
+     * Fill a batch with the pileups of the next loci covered by at least one read, as would be returned by successive
+     * calls to {@link #next()}, but without creating an AlignmentContext, ReadPileup or PileupElements for each of them.
+     *
+     * The batch is cleared first, and then filled until it is full or there are no more loci. Loci in a batch are
+     * consecutive in the traversal, but may be on different contigs, and are not necessarily adjacent on the genome.
+     *
+     * Calls to this method may be freely interleaved with calls to {@link #next()}.
+     *
+     * @param batch the batch to fill
+     * @return true if at least one locus was added to the batch, false if this iterator is exhausted
+     */
+    public boolean nextBatch(final LocusPileupBatch batch) {
+        Utils.nonNull(batch, "batch cannot be null");
+        batch.clear();
+
+        // a context may already have been loaded by hasNext()
+        if (nextAlignmentContext != null) {
+            batch.startLocus(nextAlignmentContext.getContig(), nextAlignmentContext.getStart());
+            for (final PileupElement element : nextAlignmentContext.getBasePileup()) {
+                batch.addElement(element);
+            }
+            batch.endLocus();
+            nextAlignmentContext = null;
+        }
+
+        while (!batch.isFull() && readStates.hasNext()) {
+            readStates.collectPendingReads();
+
+            final AlignmentStateMachine first = readStates.getFirst();
+            final int position = first.getGenomePosition();
+            batch.startLocus(first.getContig(), position);
+            for (final Map.Entry<String, PerSampleReadStateManager> sampleStatePair : readStates) {
+                for (final AlignmentStateMachine state : sampleStatePair.getValue()) {
+                    if (includeInPileup(state, position)) {
+                        batch.addElement(state.getRead(), state.getReadOffset(), state.getCigarOperator() == CigarOperator.D);
+                    }
+                }
+            }
+            batch.endLocus();
+
+            readStates.updateReadStates(); // critical - must be called after we get the current state offsets and location
+            if (batch.getDepth(batch.size() - 1) == 0) {
+                // like next(), only return loci with at least one read over them
+                batch.removeLastLocus();
+            }
+        }
+        return !batch.isEmpty();
+    }
+
+    /**
+     * Should the read of this state be included in the pileup at the given position?
+     *
+     * @param state the state of the read at the current position
+     * @param position the genomic position of the current alignment
+     * @return true if the read should be included in the pileup
+     */
+    private boolean includeInPileup(final AlignmentStateMachine state, final int position) {
+        final CigarOperator op = state.getCigarOperator();
+        if (!includeReadsWithNsAtLoci && op == CigarOperator.N) {
+            return false;
+        }
+        if (dontIncludeReadInPileup(state.getRead(), position)) {
+            return false;
+        }
+        return includeReadsWithDeletionAtLoci || op != CigarOperator.D;
+    }
+
     /**
      * Should this read be excluded from the pileup?
      *
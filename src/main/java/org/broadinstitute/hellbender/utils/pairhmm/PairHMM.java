@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.utils.pairhmm;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.UnsignedBytes;
 import htsjdk.samtools.SAMUtils;
 import htsjdk.variant.variantcontext.Allele;
 import org.apache.logging.log4j.LogManager;
@@ -18,9 +19,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
  * Class for performing the pair HMM for global alignment. Figure 4.1 in Durbin 1998 book.
@@ -56,6 +59,12 @@ public abstract class PairHMM implements Closeable{
             logger.info("Using the non-hardware-accelerated Java LOGLESS_CACHING PairHMM implementation");
             return hmm;
         }),
+        /* Pure-Java version of LOGLESS_CACHING laid out so that the JIT can use the platform's SIMD instructions. Gives identical results to LOGLESS_CACHING */
+        JAVA_SIMD_LOGLESS_CACHING(args -> {
+            final VectorizableLoglessPairHMM hmm = new VectorizableLoglessPairHMM();
+            logger.info("Using the pure-Java JAVA_SIMD_LOGLESS_CACHING PairHMM implementation");
+            return hmm;
+        }),
         /* Optimized AVX implementation of LOGLESS_CACHING called through JNI. Throws if AVX is not available */
         AVX_LOGLESS_CACHING(args -> {
             // Constructor will throw a UserException if AVX is not available
@@ -74,7 +83,7 @@ public abstract class PairHMM implements Closeable{
            Order of precedence:
             1. AVX_LOGLESS_CACHING_OMP
             2. AVX_LOGLESS_CACHING
-            3. LOGLESS_CACHING
+            3. JAVA_SIMD_LOGLESS_CACHING
          */
         FASTEST_AVAILABLE(args -> {
             try {
@@ -92,8 +101,8 @@ public abstract class PairHMM implements Closeable{
             }
             catch ( UserException.HardwareFeatureException e ) {
                 logger.warn("***WARNING: Machine does not have the AVX instruction set support needed for the accelerated AVX PairHmm. " +
-                            "Falling back to the MUCH slower LOGLESS_CACHING implementation!");
-                return new LoglessPairHMM();
+                            "Falling back to the slower pure-Java JAVA_SIMD_LOGLESS_CACHING implementation!");
+                return new VectorizableLoglessPairHMM();
             }
         });
 
@@ -189,6 +198,11 @@ public abstract class PairHMM implements Closeable{
      *  Given a list of reads and haplotypes, for every read compute the total probability of said read arising from
      *  each haplotype given base substitution, insertion, and deletion probabilities.
      *
+     *  For every read, the haplotypes are evaluated in the order given by {@link #haplotypeEvaluationOrder}, which
+     *  places haplotypes sharing long prefixes next to each other, so that implementations that support it
+     *  (see {@link #computeReadLikelihoodGivenHaplotypeLog10}) only recompute the columns of the matrices past the
+     *  point where consecutive haplotypes differ. This does not change the results, only the amount of work.
+     *
      * @param processedReads reads to analyze instead of the ones present in the destination read-likelihoods.
      * @param logLikelihoods where to store the log likelihoods where position [a][r] is reserved for the log likelihood of {@code reads[r]}
      *             conditional to {@code alleles[a]}.
@@ -212,6 +226,8 @@ public abstract class PairHMM implements Closeable{
         final int readCount = processedReads.size();
         final List<Haplotype> alleles = logLikelihoods.alleles();
         final int alleleCount = alleles.size();
+        final int[] haplotypeOrder = haplotypeEvaluationOrder(alleles);
+        final double[] readLikelihoods = new double[alleleCount];
         mLogLikelihoodArray = new double[readCount * alleleCount];
         int idx = 0;
         int readIndex = 0;
@@ -224,17 +240,22 @@ public abstract class PairHMM implements Closeable{
             final byte[] readDelQuals = inputScoreImputation.delOpenPenalties();
             final byte[] overallGCP = inputScoreImputation.gapContinuationPenalties();
 
-            // peek at the next haplotype in the list (necessary to get nextHaplotypeBases, which is required for caching in the array implementation)
-            final boolean isFirstHaplotype = true;
+            // only the first haplotype for each read needs to recache the read values and start from scratch; each of the
+            // following ones reuses the columns it shares with the previous haplotype. We peek at the next haplotype in the
+            // evaluation order to find out how many columns that is.
+            for (int i = 0; i < alleleCount; i++) {
+                final int a = haplotypeOrder[i];
+                final byte[] alleleBases = alleles.get(a).getBases();
+                final byte[] nextAlleleBases = i == alleleCount - 1 ? null : alleles.get(haplotypeOrder[i + 1]).getBases();
+                readLikelihoods[a] = computeReadLikelihoodGivenHaplotypeLog10(alleleBases,
+                        readBases, readQuals, readInsQuals, readDelQuals, overallGCP, i == 0, nextAlleleBases);
+            }
+
             for (int a = 0; a < alleleCount; a++) {
-                final Allele allele = alleles.get(a);
-                final byte[] alleleBases = allele.getBases();
-                final byte[] nextAlleleBases = a == alleles.size() - 1 ? null : alleles.get(a + 1).getBases();
-                final double lk = computeReadLikelihoodGivenHaplotypeLog10(alleleBases,
-                        readBases, readQuals, readInsQuals, readDelQuals, overallGCP, isFirstHaplotype, nextAlleleBases);
+                final double lk = readLikelihoods[a];
                 logLikelihoods.set(a, readIndex, lk);
                 mLogLikelihoodArray[idx++] = lk;
-                writeToResultsFileIfApplicable(readBases, readQuals, readInsQuals, readDelQuals, overallGCP, alleleBases, lk);
+                writeToResultsFileIfApplicable(readBases, readQuals, readInsQuals, readDelQuals, overallGCP, alleles.get(a).getBases(), lk);
             }
             readIndex++;
         }
@@ -246,6 +267,29 @@ public abstract class PairHMM implements Closeable{
         }
     }
 
+    /**
+     * Order in which to evaluate a read against a list of haplotypes so as to maximize the matrix columns that can be
+     * reused between consecutive haplotypes: haplotypes are grouped by length (columns can only be reused between
+     * haplotypes of the same length) and sorted lexicographically within each group. This is the order of a
+     * depth-first traversal of a trie of the haplotypes, so each haplotype shares the longest possible prefix with
+     * the one before it.
+     *
+     * @param haplotypes haplotypes to order
+     * @return the indices of the haplotypes in {@code haplotypes}, in evaluation order
+     */
+    @VisibleForTesting
+    static int[] haplotypeEvaluationOrder(final List<? extends Allele> haplotypes) {
+        final byte[][] haplotypeBases = new byte[haplotypes.size()][];
+        for (int i = 0; i < haplotypeBases.length; i++) {
+            haplotypeBases[i] = haplotypes.get(i).getBases();
+        }
+        final Comparator<byte[]> lexicographical = UnsignedBytes.lexicographicalComparator();
+        return IntStream.range(0, haplotypeBases.length).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> haplotypeBases[i].length)
+                        .thenComparing(i -> haplotypeBases[i], lexicographical))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
 
     /**
      * Compute the total probability of read arising from haplotypeBases given base substitution, insertion, and deletion
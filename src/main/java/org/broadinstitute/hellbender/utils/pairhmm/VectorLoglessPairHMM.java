@@ -41,6 +41,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
     private long threadLocalSetupTimeDiff = 0;
     private long pairHMMSetupTime = 0;
 
+    private final Implementation implementation;
     private final PairHMMNativeBinding pairHmm;
 
     //Hold the mapping between haplotype and index in the list of Haplotypes passed to initialize
@@ -56,6 +57,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
      */
     public VectorLoglessPairHMM(Implementation implementation, PairHMMNativeArguments args) throws UserException.HardwareFeatureException {
         final boolean isSupported;
+        this.implementation = implementation;
 
         switch (implementation) {
             case AVX:
@@ -81,6 +83,13 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
         pairHmm.initialize(args);
     }
 
+    /**
+     * @return which native implementation this PairHMM uses
+     */
+    public Implementation getImplementation() {
+        return implementation;
+    }
+
 
     /**
      * {@inheritDoc}
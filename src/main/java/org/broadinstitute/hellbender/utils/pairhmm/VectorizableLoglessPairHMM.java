@@ -0,0 +1,94 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import static org.broadinstitute.hellbender.utils.pairhmm.PairHMMModel.*;
+
+/**
+ * Pure-Java version of {@link LoglessPairHMM} whose inner loops are laid out so that the JIT compiler can
+ * vectorize them with the SIMD instructions of whatever platform we are running on (SSE/AVX on x86, NEON on ARM).
+ *
+ * In each row of the dynamic programming matrices, the match and insertion cells only depend on the previous row,
+ * so they are computed together in a single loop over the row with no loop-carried dependencies. The deletion
+ * cells depend on the cell to their left in the same row, so they are computed afterwards in a separate
+ * (sequential) loop. Every cell is computed with exactly the same floating point operations, in the same order,
+ * as in {@link LoglessPairHMM}, so the two implementations produce bit-for-bit identical results.
+ *
+ * This is the implementation we fall back to when the native AVX PairHMM is not available.
+ */
+public final class VectorizableLoglessPairHMM extends LoglessPairHMM {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double subComputeReadLikelihoodGivenHaplotypeLog10( final byte[] haplotypeBases,
+                                                               final byte[] readBases,
+                                                               final byte[] readQuals,
+                                                               final byte[] insertionGOP,
+                                                               final byte[] deletionGOP,
+                                                               final byte[] overallGCP,
+                                                               final int hapStartIndex,
+                                                               final boolean recacheReadValues,
+                                                               final int nextHapStartIndex) {
+
+        if (previousHaplotypeBases == null || previousHaplotypeBases.length != haplotypeBases.length) {
+            final double initialValue = INITIAL_CONDITION / haplotypeBases.length;
+            // set the initial value (free deletions in the beginning) for the first row in the deletion matrix
+            for( int j = 0; j < paddedHaplotypeLength; j++ ) {
+                deletionMatrix[0][j] = initialValue;
+            }
+        }
+
+        if ( ! constantsAreInitialized || recacheReadValues ) {
+            initializeProbabilities(transition, insertionGOP, deletionGOP, overallGCP);
+
+            // note that we initialized the constants
+            constantsAreInitialized = true;
+        }
+
+        initializePriors(haplotypeBases, readBases, readQuals, hapStartIndex);
+
+        // +1 here is because hapStartIndex is 0-based, but our matrices are 1 based
+        final int startColumn = hapStartIndex + 1;
+        for (int i = 1; i < paddedReadLength; i++) {
+            // hoist the per-row constants and rows out of the inner loops so that they are plain array loops
+            final double[] transitionRow = transition[i];
+            final double matchToMatchProb = transitionRow[matchToMatch];
+            final double indelToMatchProb = transitionRow[indelToMatch];
+            final double matchToInsertionProb = transitionRow[matchToInsertion];
+            final double insertionToInsertionProb = transitionRow[insertionToInsertion];
+            final double matchToDeletionProb = transitionRow[matchToDeletion];
+            final double deletionToDeletionProb = transitionRow[deletionToDeletion];
+
+            final double[] priorRow = prior[i];
+            final double[] matchRow = matchMatrix[i];
+            final double[] insertionRow = insertionMatrix[i];
+            final double[] deletionRow = deletionMatrix[i];
+            final double[] previousMatchRow = matchMatrix[i - 1];
+            final double[] previousInsertionRow = insertionMatrix[i - 1];
+            final double[] previousDeletionRow = deletionMatrix[i - 1];
+
+            // match and insertion states only depend on the previous row, so this loop can be vectorized
+            for (int j = startColumn; j < paddedHaplotypeLength; j++) {
+                matchRow[j] = priorRow[j] * ( previousMatchRow[j - 1] * matchToMatchProb +
+                        previousInsertionRow[j - 1] * indelToMatchProb +
+                        previousDeletionRow[j - 1] * indelToMatchProb );
+                insertionRow[j] = previousMatchRow[j] * matchToInsertionProb + previousInsertionRow[j] * insertionToInsertionProb;
+            }
+
+            // the deletion state depends on the cell to its left, so it has to be computed sequentially
+            for (int j = startColumn; j < paddedHaplotypeLength; j++) {
+                deletionRow[j] = matchRow[j - 1] * matchToDeletionProb + deletionRow[j - 1] * deletionToDeletionProb;
+            }
+        }
+
+        // final log probability is the log10 sum of the last element in the Match and Insertion state arrays
+        // this way we ignore all paths that ended in deletions! (huge)
+        // but we have to sum all the paths ending in the M and I matrices, because they're no longer extended.
+        final int endI = paddedReadLength - 1;
+        double finalSumProbabilities = 0.0;
+        for (int j = 1; j < paddedHaplotypeLength; j++) {
+            finalSumProbabilities += matchMatrix[endI][j] + insertionMatrix[endI][j];
+        }
+        return Math.log10(finalSumProbabilities) - INITIAL_CONDITION_LOG10;
+    }
+}
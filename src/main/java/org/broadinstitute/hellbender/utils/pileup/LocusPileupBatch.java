@@ -0,0 +1,294 @@
+package org.broadinstitute.hellbender.utils.pileup;
+
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.Arrays;
+
+/**
+ * The pileups of a run of loci, stored as parallel primitive arrays rather than as a {@link ReadPileup} of
+ * {@link PileupElement}s per locus.
+ *
+ * Each locus has a contig, a position and a range of elements. Each element is one read aligned to the locus, and has
+ * the base, base quality, mapping quality, offset in the read and strand of that read, just like a {@link PileupElement}.
+ * The elements of locus {@code i} are those with indices in the range [{@link #getFirstElement}(i), {@link #getEndElement}(i)),
+ * so per-locus computations are simple loops over arrays, eg.:
+ *
+ * <pre>
+ *     for ( int e = batch.getFirstElement(i); e &lt; batch.getEndElement(i); e++ ) {
+ *         if ( ! batch.isDeletion(e) &amp;&amp; batch.getQual(e) &gt;= minBaseQuality ) {
+ *             counts[BaseUtils.simpleBaseToBaseIndex(batch.getBase(e))]++;
+ *         }
+ *     }
+ * </pre>
+ *
+ * A batch is meant to be filled, consumed and {@link #clear}ed repeatedly, so that its arrays are allocated once
+ * (they grow as needed, to fit the deepest batch seen so far) instead of allocating objects for each locus and read.
+ * As a consequence, nothing obtained from a batch other than the reads should be kept after the batch is cleared.
+ *
+ * Loci are added with {@link #startLocus}, then {@link #addElement} for each of their reads, then {@link #endLocus}.
+ * A locus with no elements is allowed, to represent a locus that is not covered by any read.
+ */
+public final class LocusPileupBatch {
+    private static final int INITIAL_ELEMENTS_PER_LOCUS = 16;
+
+    private final int maxLoci;
+    private int numLoci = 0;
+    private boolean locusStarted = false;
+
+    private final String[] contigs;
+    private final int[] positions;
+    // elements of locus i are in [locusStarts[i], locusStarts[i + 1])
+    private final int[] locusStarts;
+
+    private int numElements = 0;
+    private GATKRead[] reads;
+    private byte[] bases;
+    private byte[] quals;
+    private int[] mappingQuals;
+    private int[] offsets;
+    private boolean[] reverseStrand;
+    private boolean[] deletions;
+
+    /**
+     * @param maxLoci maximum number of loci this batch can hold, must be > 0
+     */
+    public LocusPileupBatch(final int maxLoci) {
+        Utils.validateArg(maxLoci > 0, "maxLoci must be > 0");
+        this.maxLoci = maxLoci;
+        contigs = new String[maxLoci];
+        positions = new int[maxLoci];
+        locusStarts = new int[maxLoci + 1];
+
+        final int initialElements = Math.max(maxLoci, 1) * INITIAL_ELEMENTS_PER_LOCUS;
+        reads = new GATKRead[initialElements];
+        bases = new byte[initialElements];
+        quals = new byte[initialElements];
+        mappingQuals = new int[initialElements];
+        offsets = new int[initialElements];
+        reverseStrand = new boolean[initialElements];
+        deletions = new boolean[initialElements];
+    }
+
+    /**
+     * Remove all the loci from this batch, keeping the allocated storage for reuse
+     */
+    public void clear() {
+        // drop the references to the reads, so that they are not kept alive by the batch
+        Arrays.fill(reads, 0, numElements, null);
+        Arrays.fill(contigs, 0, numLoci, null);
+        numLoci = 0;
+        numElements = 0;
+        locusStarted = false;
+    }
+
+    /**
+     * Start adding a new locus, which will be at index {@link #size()}
+     *
+     * @param contig contig of the locus
+     * @param position 1-based position of the locus
+     */
+    public void startLocus(final String contig, final int position) {
+        Utils.nonNull(contig);
+        Utils.validate(! locusStarted, "the previous locus must be ended before starting a new one");
+        Utils.validate(! isFull(), "batch is full");
+        contigs[numLoci] = contig;
+        positions[numLoci] = position;
+        locusStarts[numLoci] = numElements;
+        locusStarted = true;
+    }
+
+    /**
+     * Add an element to the locus being added
+     *
+     * @param read read aligned to the locus
+     * @param offset offset of the locus in the read
+     * @param isDeletion true if the read has a deletion at the locus, in which case the base and quality of the element
+     *                   are {@link PileupElement#DELETION_BASE} and {@link PileupElement#DELETION_QUAL}
+     */
+    public void addElement(final GATKRead read, final int offset, final boolean isDeletion) {
+        Utils.validate(locusStarted, "a locus must be started before adding elements to it");
+        if ( numElements == bases.length ) {
+            growElements();
+        }
+        reads[numElements] = read;
+        bases[numElements] = isDeletion ? PileupElement.DELETION_BASE : read.getBase(offset);
+        quals[numElements] = isDeletion ? PileupElement.DELETION_QUAL : read.getBaseQuality(offset);
+        mappingQuals[numElements] = read.getMappingQuality();
+        offsets[numElements] = offset;
+        reverseStrand[numElements] = read.isReverseStrand();
+        deletions[numElements] = isDeletion;
+        numElements++;
+    }
+
+    /**
+     * Add a pileup element to the locus being added
+     */
+    public void addElement(final PileupElement element) {
+        Utils.nonNull(element);
+        addElement(element.getRead(), element.getOffset(), element.isDeletion());
+    }
+
+    /**
+     * Finish adding the current locus
+     */
+    public void endLocus() {
+        Utils.validate(locusStarted, "no locus was started");
+        numLoci++;
+        locusStarts[numLoci] = numElements;
+        locusStarted = false;
+    }
+
+    /**
+     * Remove the last locus added to this batch, along with its elements
+     */
+    public void removeLastLocus() {
+        Utils.validate(! locusStarted, "cannot remove a locus while adding one");
+        Utils.validate(numLoci > 0, "batch is empty");
+        numLoci--;
+        Arrays.fill(reads, locusStarts[numLoci], numElements, null);
+        contigs[numLoci] = null;
+        numElements = locusStarts[numLoci];
+    }
+
+    private void growElements() {
+        final int newLength = (int) Math.min((long) bases.length * 2, Integer.MAX_VALUE - 8);
+        Utils.validate(newLength > bases.length, "too many pileup elements in batch");
+        reads = Arrays.copyOf(reads, newLength);
+        bases = Arrays.copyOf(bases, newLength);
+        quals = Arrays.copyOf(quals, newLength);
+        mappingQuals = Arrays.copyOf(mappingQuals, newLength);
+        offsets = Arrays.copyOf(offsets, newLength);
+        reverseStrand = Arrays.copyOf(reverseStrand, newLength);
+        deletions = Arrays.copyOf(deletions, newLength);
+    }
+
+    /**
+     * @return the number of loci in this batch
+     */
+    public int size() {
+        return numLoci;
+    }
+
+    public boolean isEmpty() {
+        return numLoci == 0;
+    }
+
+    /**
+     * @return true if no more loci can be added to this batch
+     */
+    public boolean isFull() {
+        return numLoci == maxLoci;
+    }
+
+    public int getMaxLoci() {
+        return maxLoci;
+    }
+
+    /**
+     * @return the total number of elements, over all the loci of this batch
+     */
+    public int getNumElements() {
+        return numElements;
+    }
+
+    public String getContig(final int locusIndex) {
+        return contigs[Utils.validIndex(locusIndex, numLoci)];
+    }
+
+    public int getPosition(final int locusIndex) {
+        return positions[Utils.validIndex(locusIndex, numLoci)];
+    }
+
+    /**
+     * @return a newly allocated interval for the given locus
+     */
+    public SimpleInterval getLocation(final int locusIndex) {
+        return new SimpleInterval(getContig(locusIndex), getPosition(locusIndex), getPosition(locusIndex));
+    }
+
+    /**
+     * @return the number of elements (reads) at the given locus
+     */
+    public int getDepth(final int locusIndex) {
+        Utils.validIndex(locusIndex, numLoci);
+        return locusStarts[locusIndex + 1] - locusStarts[locusIndex];
+    }
+
+    /**
+     * @return the index of the first element of the given locus
+     */
+    public int getFirstElement(final int locusIndex) {
+        return locusStarts[Utils.validIndex(locusIndex, numLoci)];
+    }
+
+    /**
+     * @return one plus the index of the last element of the given locus
+     */
+    public int getEndElement(final int locusIndex) {
+        return locusStarts[Utils.validIndex(locusIndex, numLoci) + 1];
+    }
+
+    // Element accessors below don't check their argument, as they are meant to be called in tight loops over ranges
+    // obtained from getFirstElement() and getEndElement().
+
+    public GATKRead getRead(final int elementIndex) {
+        return reads[elementIndex];
+    }
+
+    /**
+     * @return the base of the given element, or {@link PileupElement#DELETION_BASE} if it is a deletion
+     */
+    public byte getBase(final int elementIndex) {
+        return bases[elementIndex];
+    }
+
+    /**
+     * @return the base quality of the given element, or {@link PileupElement#DELETION_QUAL} if it is a deletion
+     */
+    public byte getQual(final int elementIndex) {
+        return quals[elementIndex];
+    }
+
+    public int getMappingQual(final int elementIndex) {
+        return mappingQuals[elementIndex];
+    }
+
+    /**
+     * @return the offset of the locus in the read of the given element
+     */
+    public int getOffset(final int elementIndex) {
+        return offsets[elementIndex];
+    }
+
+    public boolean isReverseStrand(final int elementIndex) {
+        return reverseStrand[elementIndex];
+    }
+
+    public boolean isDeletion(final int elementIndex) {
+        return deletions[elementIndex];
+    }
+
+    /**
+     * Get counts of A, C, G, T in order at the given locus, which returns an int[4] vector with counts according
+     * to {@link BaseUtils#simpleBaseToBaseIndex}, like {@link ReadPileup#getBaseCounts}.
+     *
+     * @return newly allocated array of base counts
+     */
+    public int[] getBaseCounts(final int locusIndex) {
+        final int[] counts = new int[4];
+        final int end = getEndElement(locusIndex);
+        for ( int e = getFirstElement(locusIndex); e < end; e++ ) {
+            // skip deletion sites
+            if ( ! deletions[e] ) {
+                final int index = BaseUtils.simpleBaseToBaseIndex(bases[e]);
+                if ( index != -1 ) {
+                    counts[index]++;
+                }
+            }
+        }
+        return counts;
+    }
+}
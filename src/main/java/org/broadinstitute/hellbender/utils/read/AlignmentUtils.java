@@ -63,23 +63,51 @@ public final class AlignmentUtils {
 
         // compute the smith-waterman alignment of read -> haplotype //TODO use more efficient than the read clipper here
         final GATKRead readMinusSoftClips = ReadClipper.hardClipSoftClippedBases(originalRead);
-        final int softClippedBases = originalRead.getLength() - readMinusSoftClips.getLength();
-        final SmithWatermanAlignment readToHaplotypeSWAlignment = aligner.align(haplotype.getBases(), readMinusSoftClips.getBases(), readToHaplotypeSWParameters, SWOverhangStrategy.SOFTCLIP);
+        final ReadToRefAlignment alignment = alignReadBasesToRef(readMinusSoftClips.getBases(), haplotype, refHaplotype, aligner, readToHaplotypeSWParameters);
+        return applyReadToRefAlignment(originalRead, readMinusSoftClips, alignment, haplotype, referenceStart, isInformative);
+    }
+
+    /**
+     * The alignment to the reference of the bases of a read without its soft clips, obtained through the alignment of
+     * those bases to a haplotype.  It only depends on the bases, the haplotype and the reference haplotype, so it can
+     * be shared by all reads with the same bases aligned to the same haplotype.
+     */
+    static final class ReadToRefAlignment {
+        // the result when smith-waterman fails to align the read, in which case the read is not realigned
+        static final ReadToRefAlignment FAILED = new ReadToRefAlignment(null, null, null, 0);
+
+        final Cigar swCigar;
+        final Cigar haplotypeToRef;
+        final Cigar readToRefCigar;
+        // the start of the read relative to the start of the reference of the haplotypes
+        final int readStartOffset;
+
+        private ReadToRefAlignment(final Cigar swCigar, final Cigar haplotypeToRef, final Cigar readToRefCigar, final int readStartOffset) {
+            this.swCigar = swCigar;
+            this.haplotypeToRef = haplotypeToRef;
+            this.readToRefCigar = readToRefCigar;
+            this.readStartOffset = readStartOffset;
+        }
+    }
+
+    /**
+     * Aligns the bases of a read without its soft clips to haplotype and projects the alignment onto the reference
+     *
+     * @return the alignment, or {@link ReadToRefAlignment#FAILED} if smith-waterman could not align the bases
+     */
+    static ReadToRefAlignment alignReadBasesToRef(final byte[] readBasesMinusSoftClips,
+                                                  final Haplotype haplotype,
+                                                  final Haplotype refHaplotype,
+                                                  final SmithWatermanAligner aligner,
+                                                  final SWParameters readToHaplotypeSWParameters) {
+        final SmithWatermanAlignment readToHaplotypeSWAlignment = aligner.align(haplotype.getBases(), readBasesMinusSoftClips, readToHaplotypeSWParameters, SWOverhangStrategy.SOFTCLIP);
         if ( readToHaplotypeSWAlignment.getAlignmentOffset() == -1 ) {
             // sw can fail (reasons not clear) so if it happens just don't realign the read
-            return originalRead;
+            return ReadToRefAlignment.FAILED;
         }
 
         final Cigar swCigar = new CigarBuilder().addAll(readToHaplotypeSWAlignment.getCigar()).make();
 
-        // since we're modifying the read we need to clone it
-        final GATKRead copiedRead = originalRead.copy();
-
-        // only informative reads are given the haplotype tag to enhance visualization
-        if ( isInformative ) {
-            copiedRead.setAttribute(HAPLOTYPE_TAG, haplotype.hashCode());
-        }
-
         // compute here the read starts w.r.t. the reference from the SW result and the hap -> ref cigar
         final Cigar rightPaddedHaplotypeVsRefCigar = haplotype.getConsolidatedPaddedCigar(1000);
 
@@ -92,8 +120,6 @@ public final class AlignmentUtils {
         // whether left-alignment shifted the start position.
         final int readStartOnReferenceHaplotype = readStartOnReferenceHaplotype(rightPaddedHaplotypeVsRefCigar, readToHaplotypeSWAlignment.getAlignmentOffset());
 
-        final int readStartOnReference = referenceStart + haplotype.getAlignmentStartHapwrtRef() + readStartOnReferenceHaplotype;
-
         // compute the read -> ref alignment by mapping read -> hap -> ref from the
         // SW of read -> hap mapped through the given by hap -> ref
 
@@ -101,18 +127,46 @@ public final class AlignmentUtils {
         final Cigar haplotypeToRef = trimCigarByBases(rightPaddedHaplotypeVsRefCigar, readToHaplotypeSWAlignment.getAlignmentOffset(), rightPaddedHaplotypeVsRefCigar.getReadLength() - 1).getCigar();
 
         final Cigar readToRefCigar = applyCigarToCigar(swCigar, haplotypeToRef);
-        final CigarBuilder.Result leftAlignedReadToRefCigarResult = leftAlignIndels(readToRefCigar, refHaplotype.getBases(), readMinusSoftClips.getBases(), readStartOnReferenceHaplotype);
-        final Cigar leftAlignedReadToRefCigar = leftAlignedReadToRefCigarResult.getCigar();
+        final CigarBuilder.Result leftAlignedReadToRefCigarResult = leftAlignIndels(readToRefCigar, refHaplotype.getBases(), readBasesMinusSoftClips, readStartOnReferenceHaplotype);
         // it's possible that left-alignment shifted a deletion to the beginning of a read and removed it, shifting the first aligned base to the right
-        copiedRead.setPosition(copiedRead.getContig(), readStartOnReference + leftAlignedReadToRefCigarResult.getLeadingDeletionBasesRemoved());
+        final int readStartOffset = haplotype.getAlignmentStartHapwrtRef() + readStartOnReferenceHaplotype + leftAlignedReadToRefCigarResult.getLeadingDeletionBasesRemoved();
+        return new ReadToRefAlignment(swCigar, haplotypeToRef, leftAlignedReadToRefCigarResult.getCigar(), readStartOffset);
+    }
+
+    /**
+     * @return a copy of originalRead realigned according to alignment, or originalRead itself if the alignment failed
+     */
+    static GATKRead applyReadToRefAlignment(final GATKRead originalRead,
+                                            final GATKRead readMinusSoftClips,
+                                            final ReadToRefAlignment alignment,
+                                            final Haplotype haplotype,
+                                            final int referenceStart,
+                                            final boolean isInformative) {
+        if ( alignment == ReadToRefAlignment.FAILED ) {
+            return originalRead;
+        }
+        final int softClippedBases = originalRead.getLength() - readMinusSoftClips.getLength();
+
+        // since we're modifying the read we need to clone it
+        final GATKRead copiedRead = originalRead.copy();
+
+        // only informative reads are given the haplotype tag to enhance visualization
+        if ( isInformative ) {
+            copiedRead.setAttribute(HAPLOTYPE_TAG, haplotype.hashCode());
+        }
+
+        copiedRead.setPosition(copiedRead.getContig(), referenceStart + alignment.readStartOffset);
 
         // the SW Cigar does not contain the hard clips of the original read
         // Here we reconcile the aligned read (that has had any softclips removed) with its softclipped bases
+        final Cigar leftAlignedReadToRefCigar = alignment.readToRefCigar;
         final Cigar originalCigar = originalRead.getCigar();
         final Cigar newCigar = appendClippedElementsFromCigarToCigar(leftAlignedReadToRefCigar, originalCigar);
         copiedRead.setCigar(newCigar);
 
         if ( leftAlignedReadToRefCigar.getReadLength() + softClippedBases != copiedRead.getLength() ) {
+            final Cigar haplotypeToRef = alignment.haplotypeToRef;
+            final Cigar swCigar = alignment.swCigar;
             throw new GATKException("Cigar " + leftAlignedReadToRefCigar + " with read length " + leftAlignedReadToRefCigar.getReadLength()
                     + " != read length " + copiedRead.getLength() + " for read " + copiedRead.toString() + "\nhapToRef " + haplotypeToRef + " length " + haplotypeToRef.getReadLength() + "/" + haplotypeToRef.getReferenceLength()
                     + "\nreadToHap " + swCigar + " length " + swCigar.getReadLength() + "/" + swCigar.getReferenceLength());
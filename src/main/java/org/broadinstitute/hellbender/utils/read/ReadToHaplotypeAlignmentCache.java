@@ -0,0 +1,127 @@
+package org.broadinstitute.hellbender.utils.read;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.clipping.ReadClipper;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Realigns the reads of an assembly region to the reference through their best haplotypes, as
+ * {@link AlignmentUtils#createReadAlignedToRef} does, remembering the alignment of each distinct sequence of bases
+ * to each haplotype.
+ *
+ * <p>
+ *     The alignment of a read only depends on its bases without soft clips and on its haplotype, so reads with the same
+ *     bases and clipping that support the same haplotype, which are common in deep amplicon data and with PCR
+ *     duplicates, share a single smith-waterman alignment.  Realigned reads are identical to those of
+ *     {@link AlignmentUtils#createReadAlignedToRef}.
+ * </p>
+ *
+ * <p>
+ *     Haplotypes are compared by identity, so a cache should only be used for the haplotypes of a single region.
+ * </p>
+ */
+public final class ReadToHaplotypeAlignmentCache {
+    private final Haplotype refHaplotype;
+    private final int referenceStart;
+    private final SmithWatermanAligner aligner;
+    private final SWParameters readToHaplotypeSWParameters;
+
+    private final Map<Haplotype, Map<BasesKey, AlignmentUtils.ReadToRefAlignment>> alignmentsByHaplotype = new IdentityHashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param refHaplotype the reference haplotype of the region
+     * @param referenceStart the start of the reference that the haplotypes are aligned to
+     * @param aligner the aligner used to align reads to their haplotypes
+     * @param readToHaplotypeSWParameters the parameters of the alignment of reads to haplotypes
+     */
+    public ReadToHaplotypeAlignmentCache(final Haplotype refHaplotype, final int referenceStart, final SmithWatermanAligner aligner,
+                                         final SWParameters readToHaplotypeSWParameters) {
+        this.refHaplotype = Utils.nonNull(refHaplotype);
+        Utils.validateArg(referenceStart >= 1, () -> "reference start must be >= 1 but got " + referenceStart);
+        this.referenceStart = referenceStart;
+        this.aligner = Utils.nonNull(aligner);
+        this.readToHaplotypeSWParameters = Utils.nonNull(readToHaplotypeSWParameters);
+    }
+
+    /**
+     * Aligns read to haplotype and projects the alignment onto the reference, reusing the alignment of a previous read
+     * with the same bases and clipping to the same haplotype if there is one.
+     *
+     * @param originalRead the read we want to write aligned to the reference genome
+     * @param haplotype the haplotype that the read should be aligned to, before aligning to the reference
+     * @param isInformative true if the read is differentially informative for one of the haplotypes
+     *
+     * @return a GATKRead aligned to reference, or originalRead if it could not be aligned. Never {@code null}.
+     */
+    public GATKRead createReadAlignedToRef(final GATKRead originalRead, final Haplotype haplotype, final boolean isInformative) {
+        Utils.nonNull(originalRead);
+        Utils.nonNull(haplotype);
+        Utils.nonNull(haplotype.getCigar());
+
+        final GATKRead readMinusSoftClips = ReadClipper.hardClipSoftClippedBases(originalRead);
+        final byte[] bases = readMinusSoftClips.getBases();
+        final Map<BasesKey, AlignmentUtils.ReadToRefAlignment> alignments = alignmentsByHaplotype.computeIfAbsent(haplotype, h -> new HashMap<>());
+        final BasesKey key = new BasesKey(bases);
+        AlignmentUtils.ReadToRefAlignment alignment = alignments.get(key);
+        if ( alignment == null ) {
+            misses++;
+            alignment = AlignmentUtils.alignReadBasesToRef(bases, haplotype, refHaplotype, aligner, readToHaplotypeSWParameters);
+            alignments.put(key, alignment);
+        } else {
+            hits++;
+        }
+        return AlignmentUtils.applyReadToRefAlignment(originalRead, readMinusSoftClips, alignment, haplotype, referenceStart, isInformative);
+    }
+
+    /**
+     * @return the number of reads realigned with the alignment of a previous read
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of reads that required a new alignment
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of reads realigned with the alignment of a previous read, or 0 if no reads were realigned
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    // read bases compared by content
+    private static final class BasesKey {
+        private final byte[] bases;
+        private final int hashCode;
+
+        BasesKey(final byte[] bases) {
+            this.bases = bases;
+            this.hashCode = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o || (o instanceof BasesKey && hashCode == ((BasesKey) o).hashCode && Arrays.equals(bases, ((BasesKey) o).bases));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -64,6 +64,12 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     private RecalibrationTables recalTables;
 
+    /**
+     * Dense storage the data is collected into if requested, instead of recalTables. It is moved into recalTables
+     * whenever these are needed.
+     */
+    private DenseRecalibrationTables denseRecalTables;
+
     private SAMFileHeader readsHeader;
 
     /**
@@ -98,6 +104,9 @@ public final class BaseRecalibrationEngine implements Serializable {
             throw new UserException("Number of read groups must be >= 1, but is " + numReadGroups);
         }
         recalTables = new RecalibrationTables(covariates, numReadGroups);
+        if ( recalArgs.useDenseRecalibrationTables ) {
+            denseRecalTables = new DenseRecalibrationTables(covariates, numReadGroups);
+        }
         keyCache = new CovariateKeyCache();
         cachedEventTypes = recalArgs.computeIndelBQSRTables ? EventType.values() : new EventType[]{EventType.BASE_SUBSTITUTION};
     }
@@ -149,6 +158,39 @@ public final class BaseRecalibrationEngine implements Serializable {
         numReadsProcessed++;
     }
 
+    /**
+     * Remove the data collected so far from this engine and return it, leaving the engine as if it had not processed
+     * any reads. This lets a single engine collect the data of consecutive batches of reads separately, so that the
+     * batches can be merged with {@link #combine} in a fixed order regardless of which engine processed them.
+     *
+     * @return the tables holding the data collected since the engine was created or this method was last called
+     */
+    public RecalibrationTables takeRecalibrationTables() {
+        Utils.validate(!finalized, "Cannot take the recalibration tables after finalizeData() has been called");
+        final RecalibrationTables result = getRecalibrationTables();
+        recalTables = new RecalibrationTables(covariates, readsHeader.getReadGroups().size());
+        numReadsProcessed = 0L;
+        return result;
+    }
+
+    /**
+     * Merge the data collected over a disjoint set of reads into this engine, so that several engines can process
+     * reads concurrently and be combined before calling {@link #finalizeData}.
+     *
+     * The tables must come from {@link #takeRecalibrationTables} on an engine created with the same arguments and
+     * header as this one, and must not be used afterwards, since some of their data may now be shared with this engine.
+     * The floating-point error counts are summed in the order the tables are combined in.
+     *
+     * @param tables tables whose data is added to this engine
+     * @param numReads number of reads processed to collect the tables
+     */
+    public void combine( final RecalibrationTables tables, final long numReads ) {
+        Utils.nonNull(tables);
+        Utils.validate(!finalized, "Cannot combine recalibration tables after finalizeData() has been called");
+        getRecalibrationTables().combine(tables);
+        numReadsProcessed += numReads;
+    }
+
     /**
      * Finalize, if appropriate, all derived data in recalibrationTables.
      *
@@ -159,6 +201,7 @@ public final class BaseRecalibrationEngine implements Serializable {
      */
     public void finalizeData() {
         Utils.validate(!finalized, "FinalizeData() has already been called");
+        flushDenseRecalibrationTables();
         finalizeRecalibrationTables(recalTables);
         finalized = true;
     }
@@ -212,9 +255,20 @@ public final class BaseRecalibrationEngine implements Serializable {
      * Get a possibly not-final recalibration table, to deal with distributed execution.
      */
     public RecalibrationTables getRecalibrationTables() {
+        flushDenseRecalibrationTables();
         return recalTables;
     }
 
+    /**
+     * Move the data collected in the dense tables, if any, into recalTables
+     */
+    private void flushDenseRecalibrationTables() {
+        if ( denseRecalTables != null && ! denseRecalTables.isEmpty() ) {
+            recalTables.combine(denseRecalTables.toRecalibrationTables());
+            denseRecalTables.clear();
+        }
+    }
+
     /**
      * Get the final recalibration tables, after finalizeData() has been called
      *
@@ -251,6 +305,10 @@ public final class BaseRecalibrationEngine implements Serializable {
         final int nCovariates = covariates.size();
         final int nSpecialCovariates = covariates.numberOfSpecialCovariates();
         final int readLength = read.getLength();
+        if ( denseRecalTables != null ) {
+            updateDenseRecalTablesForRead(recalInfo, readCovariates, nSpecialCovariates, nCovariates, readLength);
+            return;
+        }
         for( int offset = 0; offset < readLength; offset++ ) {
             if( ! recalInfo.skip(offset) ) {
                 for (int idx = 0; idx < cachedEventTypes.length; idx++) { //Note: we loop explicitly over cached values for speed
@@ -276,6 +334,35 @@ public final class BaseRecalibrationEngine implements Serializable {
         }
     }
 
+    /**
+     * Same as the loop in {@link #updateRecalTablesForRead}, for the dense tables
+     */
+    private void updateDenseRecalTablesForRead( final ReadRecalibrationInfo recalInfo, final ReadCovariates readCovariates,
+                                                final int nSpecialCovariates, final int nCovariates, final int readLength ) {
+        for( int offset = 0; offset < readLength; offset++ ) {
+            if( ! recalInfo.skip(offset) ) {
+                for (int idx = 0; idx < cachedEventTypes.length; idx++) {
+                    final EventType eventType = cachedEventTypes[idx];
+                    final int[] keys = readCovariates.getKeySet(offset, eventType);
+                    final int eventIndex = eventType.ordinal();
+                    final double isError = recalInfo.getErrorFraction(eventType, offset);
+
+                    final int key0 = keys[0];
+                    final int key1 = keys[1];
+
+                    denseRecalTables.incrementQualityScoreTable(key0, key1, eventIndex, isError);
+
+                    for (int i = nSpecialCovariates; i < nCovariates; i++) {
+                        final int keyi = keys[i];
+                        if (keyi >= 0) {
+                            denseRecalTables.incrementAdditionalTable(i, key0, key1, keyi, eventIndex, isError);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private ReadTransformer makeReadTransform() {
         ReadTransformer f0 = BaseRecalibrationEngine::consolidateCigar;
 
@@ -0,0 +1,245 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.QualityScoreCovariate;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Accumulates the same counts as the quality score and additional covariate tables of {@link RecalibrationTables},
+ * but in flat primitive arrays (one {@code long[]} of observations and one {@code double[]} of mismatches per table)
+ * rather than in a tree of {@link RecalDatum} objects.
+ *
+ * The cells of a table are allocated in blocks holding every quality score and event type for one read group and one
+ * covariate value, the first time that read group and covariate value are seen together. Covariates such as the
+ * context have a large key space of which only a few keys occur, so the memory used is proportional to the
+ * combinations actually observed (16 bytes per cell, {@link #getNumberOfAllocatedCells} in total, plus a hash map
+ * entry per covariate value) rather than to the key space. Collecting the counts for each base is much cheaper than with {@link RecalDatum}s, since there is no
+ * per-cell object to allocate or look up.
+ *
+ * The reported quality of each cell is its quality score key, so a cell is fully described by its two counts.
+ * The counts are converted to regular {@link RecalibrationTables} by {@link #toRecalibrationTables}, which gives
+ * exactly the same values as incrementing the {@link RecalDatum}s directly, in the same order.
+ *
+ * This class is not thread-safe: concurrent processing should give each thread its own tables, and combine them
+ * at the end.
+ */
+public final class DenseRecalibrationTables implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Largest number of cells of a single table, as the offsets are ints
+     */
+    private static final int MAX_CELLS_PER_TABLE = Integer.MAX_VALUE - 8;
+
+    private static final int INITIAL_NUMBER_OF_BLOCKS = 16;
+
+    private final StandardCovariateList covariates;
+    private final int numReadGroups;
+    private final int qualDimension;
+    private final int eventDimension = EventType.values().length;
+    private final int qualityScoreTableIndex;
+
+    // indexed like the tables in RecalibrationTables; null for the read group table, which is derived when finalizing
+    private final Table[] tables;
+
+    private boolean empty = true;
+
+    public DenseRecalibrationTables(final StandardCovariateList covariates, final int numReadGroups) {
+        Utils.nonNull(covariates);
+        Utils.validateArg(numReadGroups > 0, "numReadGroups must be > 0");
+        this.covariates = covariates;
+        this.numReadGroups = numReadGroups;
+        this.qualDimension = covariates.getQualityScoreCovariate().maximumKeyValue() + 1;
+        this.qualityScoreTableIndex = covariates.indexByClass(QualityScoreCovariate.class);
+
+        tables = new Table[covariates.size()];
+        for ( int i = qualityScoreTableIndex; i < tables.length; i++ ) {
+            // the quality score table has no covariate dimension, so all its cells have covariate key 0
+            tables[i] = new Table(numReadGroups, qualDimension * eventDimension);
+        }
+    }
+
+    /**
+     * @return the number of cells allocated so far in all the tables, each of which takes 16 bytes
+     */
+    public long getNumberOfAllocatedCells() {
+        long total = 0;
+        for ( final Table table : tables ) {
+            if ( table != null ) {
+                total += (long) table.numBlocks * table.blockSize;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Count an observation in the quality score table.
+     *
+     * @param readGroupKey read group covariate key
+     * @param qualKey quality score covariate key, which is also the reported quality
+     * @param eventIndex ordinal of the event type
+     * @param isError error value for this observation
+     */
+    public void incrementQualityScoreTable(final int readGroupKey, final int qualKey, final int eventIndex, final double isError) {
+        tables[qualityScoreTableIndex].increment(readGroupKey, 0, qualKey * eventDimension + eventIndex, isError);
+        empty = false;
+    }
+
+    /**
+     * Count an observation in the table of an additional covariate.
+     *
+     * @param tableIndex index of the covariate in the {@link StandardCovariateList}, which is also the index of its table
+     * @param readGroupKey read group covariate key
+     * @param qualKey quality score covariate key, which is also the reported quality
+     * @param covariateKey key of the additional covariate
+     * @param eventIndex ordinal of the event type
+     * @param isError error value for this observation
+     */
+    public void incrementAdditionalTable(final int tableIndex, final int readGroupKey, final int qualKey, final int covariateKey,
+                                         final int eventIndex, final double isError) {
+        tables[tableIndex].increment(readGroupKey, covariateKey, qualKey * eventDimension + eventIndex, isError);
+        empty = false;
+    }
+
+    /**
+     * @return true if no observations have been counted since creation or the last {@link #clear}
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Reset all the counts to 0. The cells allocated so far are kept, to be reused by later observations.
+     */
+    public void clear() {
+        for ( final Table table : tables ) {
+            if ( table != null ) {
+                table.clear();
+            }
+        }
+        empty = true;
+    }
+
+    /**
+     * Convert the counts to {@link RecalibrationTables}, with a {@link RecalDatum} for each cell with at least one
+     * observation. The read group table is left empty, to be filled in by
+     * {@link BaseRecalibrationEngine#finalizeRecalibrationTables}.
+     *
+     * @return newly allocated tables holding the counts
+     */
+    public RecalibrationTables toRecalibrationTables() {
+        final RecalibrationTables result = new RecalibrationTables(covariates, numReadGroups);
+        for ( int tableIndex = qualityScoreTableIndex; tableIndex < tables.length; tableIndex++ ) {
+            final NestedIntegerArray<RecalDatum> resultTable = result.getTable(tableIndex);
+            final Table table = tables[tableIndex];
+            for ( int block = 0; block < table.numBlocks; block++ ) {
+                final int readGroupKey = table.blockReadGroups[block];
+                final int covariateKey = table.keys[table.blockKeyIndexes[block]];
+                int offset = block * table.blockSize;
+                for ( int qualKey = 0; qualKey < qualDimension; qualKey++ ) {
+                    for ( int eventIndex = 0; eventIndex < eventDimension; eventIndex++, offset++ ) {
+                        if ( table.numObservations[offset] == 0 ) {
+                            continue;
+                        }
+                        final RecalDatum datum = RecalDatum.fromScaledCounts(table.numObservations[offset], table.scaledNumMismatches[offset], (byte) qualKey);
+                        if ( tableIndex == qualityScoreTableIndex ) {
+                            resultTable.put(datum, readGroupKey, qualKey, eventIndex);
+                        } else {
+                            resultTable.put(datum, readGroupKey, qualKey, covariateKey, eventIndex);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The counts of one table, in blocks of cells for every quality score and event type of a read group and covariate
+     * value. Covariate keys are first mapped to a compact index in the order they are seen, by a primitive hash map
+     * since the key space may be far larger than the keys seen, and each of those has the block of each read group it
+     * was seen with.
+     */
+    private static final class Table implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int numReadGroups;
+        private final int blockSize;
+
+        // compact index of each covariate key seen (-1 for the others), and the key of each compact index
+        private final Int2IntOpenHashMap keyIndexes = new Int2IntOpenHashMap();
+        private int[] keys = new int[INITIAL_NUMBER_OF_BLOCKS];
+        private int numKeys = 0;
+
+        // for each compact key index, the block of each read group, or -1 if there is none yet
+        private int[][] blocksByKeyIndex = new int[INITIAL_NUMBER_OF_BLOCKS][];
+
+        // the read group and compact key index of each block, and the counts of the cells of all the blocks
+        private int[] blockReadGroups = new int[INITIAL_NUMBER_OF_BLOCKS];
+        private int[] blockKeyIndexes = new int[INITIAL_NUMBER_OF_BLOCKS];
+        private int numBlocks = 0;
+        private long[] numObservations;
+        private double[] scaledNumMismatches;
+
+        private Table(final int numReadGroups, final int blockSize) {
+            this.numReadGroups = numReadGroups;
+            this.blockSize = blockSize;
+            keyIndexes.defaultReturnValue(-1);
+            numObservations = new long[INITIAL_NUMBER_OF_BLOCKS * blockSize];
+            scaledNumMismatches = new double[INITIAL_NUMBER_OF_BLOCKS * blockSize];
+        }
+
+        private void increment(final int readGroupKey, final int covariateKey, final int offsetInBlock, final double isError) {
+            int keyIndex = keyIndexes.get(covariateKey);
+            if ( keyIndex < 0 ) {
+                keyIndex = addKey(covariateKey);
+            }
+            int block = blocksByKeyIndex[keyIndex][readGroupKey];
+            if ( block < 0 ) {
+                block = addBlock(readGroupKey, keyIndex);
+            }
+            final int offset = block * blockSize + offsetInBlock;
+            numObservations[offset]++;
+            scaledNumMismatches[offset] += isError * RecalDatum.MULTIPLIER;
+        }
+
+        private int addKey(final int covariateKey) {
+            if ( numKeys == keys.length ) {
+                keys = Arrays.copyOf(keys, numKeys << 1);
+                blocksByKeyIndex = Arrays.copyOf(blocksByKeyIndex, numKeys << 1);
+            }
+            final int[] blocks = new int[numReadGroups];
+            Arrays.fill(blocks, -1);
+            blocksByKeyIndex[numKeys] = blocks;
+            keys[numKeys] = covariateKey;
+            keyIndexes.put(covariateKey, numKeys);
+            return numKeys++;
+        }
+
+        private int addBlock(final int readGroupKey, final int keyIndex) {
+            if ( numBlocks == blockReadGroups.length ) {
+                final int maxBlocks = MAX_CELLS_PER_TABLE / blockSize;
+                Utils.validate(numBlocks < maxBlocks, "too many recalibration table cells for dense storage");
+                final int newCapacity = (int) Math.min(maxBlocks, (long) numBlocks << 1);
+                blockReadGroups = Arrays.copyOf(blockReadGroups, newCapacity);
+                blockKeyIndexes = Arrays.copyOf(blockKeyIndexes, newCapacity);
+                numObservations = Arrays.copyOf(numObservations, newCapacity * blockSize);
+                scaledNumMismatches = Arrays.copyOf(scaledNumMismatches, newCapacity * blockSize);
+            }
+            blockReadGroups[numBlocks] = readGroupKey;
+            blockKeyIndexes[numBlocks] = keyIndex;
+            blocksByKeyIndex[keyIndex][readGroupKey] = numBlocks;
+            return numBlocks++;
+        }
+
+        private void clear() {
+            Arrays.fill(numObservations, 0, numBlocks * blockSize, 0L);
+            Arrays.fill(scaledNumMismatches, 0, numBlocks * blockSize, 0.0);
+        }
+    }
+}
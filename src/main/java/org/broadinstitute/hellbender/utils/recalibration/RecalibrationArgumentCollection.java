@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.utils.recalibration;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.Hidden;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
@@ -107,6 +108,15 @@ public final class RecalibrationArgumentCollection implements Serializable {
     @Argument(fullName = "compute-indel-bqsr-tables", shortName = "indels", doc = "compute indel BQSR tables")
     public boolean computeIndelBQSRTables = false;
 
+    /**
+     * Collect the recalibration data in dense primitive arrays rather than in a table of objects. This is faster, and
+     * allocates memory for all the quality scores and event types of each read group and covariate value that is seen,
+     * so it uses more memory than the regular tables when the data are sparse. The output is the same either way.
+     */
+    @Advanced
+    @Argument(fullName = "dense-recalibration-tables", doc = "Collect the recalibration data in dense arrays", optional = true)
+    public boolean useDenseRecalibrationTables = false;
+
 
     // --------------------------------------------------------------------------------------------------------------
     //
@@ -0,0 +1,298 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reference in a packed, memory-mapped format: the bases of all the contigs, one byte per base with no line breaks,
+ * preceded by a small header with the contig names and lengths.
+ *
+ * The bases are normalized the same way {@link CachingIndexedFastaSequenceFile} normalizes them by default (upper case,
+ * with IUPAC ambiguity codes converted to N), so queries are straight copies from the mapped file, without any line
+ * break stripping or base conversion. Since the file is mapped rather than read, its pages live in the OS page cache
+ * and are shared by all the processes on a machine that use the same reference, instead of each one keeping its own copy.
+ *
+ * The packed file is usually a sidecar of the fasta ({@link #getSidecarPath}), created with {@link #create}, in which case
+ * it is picked up automatically by {@link org.broadinstitute.hellbender.engine.ReferenceDataSource#of(Path)}.
+ *
+ * Instances are safe to query from multiple threads at once.
+ */
+public final class PackedReferenceFile implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PackedReferenceFile.class);
+
+    /**
+     * Extension appended to the name of the fasta file to get the name of its packed sidecar
+     */
+    public static final String SIDECAR_EXTENSION = ".gatkref";
+
+    private static final byte[] MAGIC = {'G', 'A', 'T', 'K', 'R', 'E', 'F', 1};
+
+    // contigs are read from the fasta in chunks of this size while creating a packed file
+    private static final int WRITE_CHUNK_SIZE = (int) CachingIndexedFastaSequenceFile.DEFAULT_CACHE_SIZE;
+
+    private final Path path;
+    private final Map<String, Contig> contigs;
+    private volatile List<MappedByteBuffer> mappings;
+
+    /**
+     * Location of a contig in the mappings of the file
+     */
+    private static final class Contig {
+        private final int index;
+        private final int length;
+        private final int mapping;
+        private final int offset;
+
+        private Contig(final int index, final int length, final int mapping, final int offset) {
+            this.index = index;
+            this.length = length;
+            this.mapping = mapping;
+            this.offset = offset;
+        }
+    }
+
+    private PackedReferenceFile(final Path path, final Map<String, Contig> contigs, final List<MappedByteBuffer> mappings) {
+        this.path = path;
+        this.contigs = contigs;
+        this.mappings = mappings;
+    }
+
+    /**
+     * @return the path of the packed sidecar of the given fasta
+     */
+    public static Path getSidecarPath(final Path fastaPath) {
+        Utils.nonNull(fastaPath);
+        return fastaPath.resolveSibling(fastaPath.getFileName().toString() + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Does the given fasta have a packed sidecar that can be used in its place? That is the case when the sidecar
+     * exists on the local file system (a requirement to map it), and is not older than the fasta itself.
+     */
+    public static boolean hasUsableSidecar(final Path fastaPath) {
+        final Path sidecarPath = getSidecarPath(fastaPath);
+        if ( sidecarPath.getFileSystem() != FileSystems.getDefault() || ! Files.isRegularFile(sidecarPath) ) {
+            return false;
+        }
+        try {
+            if ( Files.getLastModifiedTime(sidecarPath).compareTo(Files.getLastModifiedTime(fastaPath)) < 0 ) {
+                logger.warn("Ignoring packed reference " + sidecarPath + " since it is older than " + fastaPath);
+                return false;
+            }
+            return true;
+        } catch ( final IOException e ) {
+            return false;
+        }
+    }
+
+    /**
+     * Create a packed reference from an indexed fasta file.
+     *
+     * The file is first written under a temporary name and then moved into place, so that processes opening the output
+     * while it is being created, or creating it at the same time, never see a partially written file.
+     *
+     * @param fastaPath fasta file, which must have companion .fai and .dict files
+     * @param outputPath packed reference to create, usually {@link #getSidecarPath}(fastaPath)
+     */
+    public static void create(final Path fastaPath, final Path outputPath) {
+        Utils.nonNull(fastaPath);
+        Utils.nonNull(outputPath);
+        final Path tempPath = outputPath.resolveSibling(outputPath.getFileName().toString() + ".tmp" + Long.toHexString(System.nanoTime()));
+        try ( final CachingIndexedFastaSequenceFile fasta = new CachingIndexedFastaSequenceFile(fastaPath) ) {
+            final SAMSequenceDictionary dictionary = fasta.getSequenceDictionary();
+            try ( final OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath)) ) {
+                out.write(makeHeader(dictionary));
+                for ( final SAMSequenceRecord sequence : dictionary.getSequences() ) {
+                    for ( long start = 1; start <= sequence.getSequenceLength(); start += WRITE_CHUNK_SIZE ) {
+                        final long stop = Math.min(start + WRITE_CHUNK_SIZE - 1, sequence.getSequenceLength());
+                        out.write(fasta.getSubsequenceAt(sequence.getSequenceName(), start, stop).getBases());
+                    }
+                }
+            }
+            try {
+                Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch ( final AtomicMoveNotSupportedException e ) {
+                Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(outputPath.toString(), "Could not write packed reference", e);
+        } finally {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch ( final IOException e ) {
+                logger.warn("Could not delete temporary file " + tempPath);
+            }
+        }
+    }
+
+    /**
+     * The header is the magic number, the number of contigs, the name and length of each contig, and the offset of the
+     * bases in the file.
+     */
+    private static byte[] makeHeader(final SAMSequenceDictionary dictionary) throws IOException {
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(header);
+        out.write(MAGIC);
+        out.writeInt(dictionary.size());
+        for ( final SAMSequenceRecord sequence : dictionary.getSequences() ) {
+            out.writeUTF(sequence.getSequenceName());
+            out.writeInt(sequence.getSequenceLength());
+        }
+        out.flush();
+        out.writeLong(header.size() + Long.BYTES);
+        out.flush();
+        return header.toByteArray();
+    }
+
+    /**
+     * Open a packed reference, mapping its bases in memory.
+     *
+     * @param path packed reference file, on the local file system
+     */
+    public static PackedReferenceFile open(final Path path) {
+        Utils.nonNull(path);
+        final List<String> names = new ArrayList<>();
+        final List<Integer> lengths = new ArrayList<>();
+        final long dataOffset;
+        try ( final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))) ) {
+            final byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if ( ! Arrays.equals(magic, MAGIC) ) {
+                throw new UserException.MalformedFile(path, "Not a packed reference file, or a packed reference created by an incompatible version");
+            }
+            final int numContigs = in.readInt();
+            for ( int i = 0; i < numContigs; i++ ) {
+                names.add(in.readUTF());
+                lengths.add(in.readInt());
+            }
+            dataOffset = in.readLong();
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "Could not read packed reference header", e);
+        }
+
+        // contigs are grouped into as few mappings as possible, each mapping being limited to 2GB
+        final Map<String, Contig> contigs = new LinkedHashMap<>();
+        final List<MappedByteBuffer> mappings = new ArrayList<>();
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            long mappingStart = dataOffset;
+            long mappingSize = 0;
+            for ( int i = 0; i < names.size(); i++ ) {
+                final int length = lengths.get(i);
+                if ( mappingSize + length > Integer.MAX_VALUE ) {
+                    mappings.add(channel.map(FileChannel.MapMode.READ_ONLY, mappingStart, mappingSize));
+                    mappingStart += mappingSize;
+                    mappingSize = 0;
+                }
+                contigs.put(names.get(i), new Contig(i, length, mappings.size(), (int) mappingSize));
+                mappingSize += length;
+            }
+            if ( mappingStart + mappingSize > channel.size() ) {
+                throw new UserException.MalformedFile(path, "Packed reference is truncated");
+            }
+            mappings.add(channel.map(FileChannel.MapMode.READ_ONLY, mappingStart, mappingSize));
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "Could not map packed reference", e);
+        }
+        return new PackedReferenceFile(path, contigs, mappings);
+    }
+
+    /**
+     * @return the names of the contigs in this reference, in order
+     */
+    public List<String> getContigNames() {
+        return Collections.unmodifiableList(new ArrayList<>(contigs.keySet()));
+    }
+
+    /**
+     * @return the length of the given contig, or -1 if it is not in this reference
+     */
+    public int getContigLength(final String contig) {
+        final Contig c = contigs.get(contig);
+        return c == null ? -1 : c.length;
+    }
+
+    /**
+     * Get a read-only view of the bases of a range of a contig, without copying them.
+     *
+     * @param contig contig to query
+     * @param start inclusive, 1-based start of the range
+     * @param stop inclusive, 1-based stop of the range
+     * @return a newly allocated read-only buffer over the bases of the range, positioned at its start
+     */
+    public ByteBuffer getBasesView(final String contig, final long start, final long stop) {
+        final Contig c = getContig(contig);
+        Utils.validateArg(start >= 1 && start <= stop + 1 && stop <= c.length,
+                () -> "Invalid range " + contig + ":" + start + "-" + stop + " for a contig of length " + c.length);
+        final ByteBuffer view = getMapping(c).duplicate();
+        final int from = c.offset + (int) start - 1;
+        view.limit(from + (int) (stop - start + 1));
+        view.position(from);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the bases of a range of a contig.
+     *
+     * @param contig contig to query
+     * @param start inclusive, 1-based start of the range
+     * @param stop inclusive, 1-based stop of the range
+     * @return a ReferenceSequence with a copy of the bases of the range
+     */
+    public ReferenceSequence getSubsequenceAt(final String contig, final long start, final long stop) {
+        final ByteBuffer view = getBasesView(contig, start, stop);
+        final byte[] bases = new byte[view.remaining()];
+        view.get(bases);
+        return new ReferenceSequence(contig, getContig(contig).index, bases);
+    }
+
+    private Contig getContig(final String contig) {
+        Utils.nonNull(contig);
+        final Contig c = contigs.get(contig);
+        Utils.validateArg(c != null, () -> "Contig " + contig + " not found in packed reference " + path);
+        return c;
+    }
+
+    private MappedByteBuffer getMapping(final Contig contig) {
+        final List<MappedByteBuffer> currentMappings = mappings;
+        Utils.validate(currentMappings != null, "Packed reference is closed");
+        return currentMappings.get(contig.mapping);
+    }
+
+    /**
+     * Drop the references to the mappings of the file. The mappings themselves are released by the garbage collector,
+     * since there is no supported way to unmap a file explicitly.
+     */
+    @Override
+    public void close() {
+        mappings = null;
+    }
+}
@@ -65,7 +65,13 @@ public interface SmithWatermanAligner extends Closeable {
         /**
          * use the pure java implementation of Smith-Waterman, works on all hardware
          */
-        JAVA(SmithWatermanJavaAligner::getInstance);
+        JAVA(SmithWatermanJavaAligner::getInstance),
+
+        /**
+         * use the pure java implementation of Smith-Waterman restricted to a band around the diagonal, works on all
+         * hardware; falls back to the full java implementation for alignments that don't fit in the band
+         */
+        BANDED_JAVA(SmithWatermanBandedAligner::getInstance);
 
         private final Supplier<SmithWatermanAligner> alignerSupplier;
 
@@ -0,0 +1,377 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import com.google.common.collect.Lists;
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner.SWPairwiseAlignmentResult;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Banded pairwise Smith-Waterman alignment implemented in pure java
+ *
+ * <p>
+ *     Computes the same recurrences as {@link SmithWatermanJavaAligner}, but only for the cells of the matrix whose
+ *     diagonal (reference index minus alternate index) is within {@code maxIndelLength} of the diagonals of the
+ *     alignments of alt that start and end within ref without indels. For the alignments of haplotypes to the
+ *     reference, which have similar lengths and few short indels, this is a small fraction of the matrix.
+ *     The band is kept in flat arrays reused across calls by each thread, so aligning allocates nothing but the result.
+ * </p>
+ *
+ * <p>
+ *     The alignment is the one {@link SmithWatermanJavaAligner} finds whenever that alignment fits in the band (up to
+ *     ties between alignments with the same score), but alignments that don't fit in the band, e.g. with longer indels,
+ *     are not found. Whenever the best alignment in the band runs along one of its edges, it is likely to have been cut
+ *     off, so the sequences are aligned again with {@link SmithWatermanJavaAligner}. So are sequences whose band would
+ *     be as wide as the full matrix, such as reads much shorter than the haplotype they are aligned to.
+ * </p>
+ *
+ * ************************************************************************
+ * ****                    IMPORTANT NOTE:                             ****
+ * ****  This class assumes that all bytes come from UPPERCASED chars! ****
+ * ************************************************************************
+ */
+public final class SmithWatermanBandedAligner implements SmithWatermanAligner {
+    /**
+     * Default longest indel, relative to the length difference of the sequences, guaranteed to fit in the band
+     */
+    public static final int DEFAULT_MAX_INDEL_LENGTH = 50;
+
+    private static final SmithWatermanBandedAligner ALIGNER = new SmithWatermanBandedAligner(DEFAULT_MAX_INDEL_LENGTH);
+
+    private static final int MATRIX_MIN_CUTOFF = (int) -1.0e8;   // never let matrix elements drop below this cutoff
+    // score of the cells outside the band, low enough to never be part of an alignment but without overflowing
+    private static final int OUTSIDE_BAND = Integer.MIN_VALUE / 2;
+
+    private static final ThreadLocal<BandMatrices> THREAD_MATRICES = ThreadLocal.withInitial(BandMatrices::new);
+
+    private final int maxIndelLength;
+    private final AtomicLong totalComputeTime = new AtomicLong();
+    private final AtomicLong numFullAlignments = new AtomicLong();
+
+    /**
+     * return the stateless singleton instance of SmithWatermanBandedAligner with {@link #DEFAULT_MAX_INDEL_LENGTH}
+     */
+    public static SmithWatermanBandedAligner getInstance() {
+        return ALIGNER;
+    }
+
+    /**
+     * @param maxIndelLength half width of the band, the longest indel (beyond the length difference of the
+     *                       sequences) certain to fit in it; must be >= 0
+     */
+    public SmithWatermanBandedAligner(final int maxIndelLength) {
+        Utils.validateArg(maxIndelLength >= 0, () -> "maxIndelLength must be >= 0 but was " + maxIndelLength);
+        this.maxIndelLength = maxIndelLength;
+    }
+
+    /**
+     * Scores and back track steps of the cells of the band, stored row by row: cell (i, j) of the full matrix, on
+     * diagonal d = i - j, is at i * width + (maxDiagonal - d)
+     */
+    private static final class BandMatrices {
+        private int[] sw = new int[0];
+        private int[] btrack = new int[0];
+        private int[] bestGapV = new int[0];
+        private int[] gapSizeV = new int[0];
+
+        private void ensureCapacity(final int numCells, final int numColumns) {
+            if ( sw.length < numCells ) {
+                sw = new int[numCells];
+                btrack = new int[numCells];
+            }
+            if ( bestGapV.length < numColumns ) {
+                bestGapV = new int[numColumns];
+                gapSizeV = new int[numColumns];
+            }
+        }
+    }
+
+    /**
+     * Aligns the alternate sequence to the reference sequence
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     */
+    @Override
+    public SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+        final long startTime = System.nanoTime();
+        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 ) {
+            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+        }
+        Utils.nonNull(parameters);
+        Utils.nonNull(overhangStrategy);
+
+        final SmithWatermanAlignment alignmentResult;
+        // avoid running Smith-Waterman if there is an exact match of alternate in reference
+        final int matchIndex = overhangStrategy == SWOverhangStrategy.SOFTCLIP || overhangStrategy == SWOverhangStrategy.IGNORE ?
+                Utils.lastIndexOf(reference, alternate) : -1;
+        if ( matchIndex != -1 ) {
+            alignmentResult = new SWPairwiseAlignmentResult(new Cigar(Collections.singletonList(new CigarElement(alternate.length, CigarOperator.M))), matchIndex);
+        } else {
+            final Band band = new Band(reference.length, alternate.length, maxIndelLength);
+            if ( band.width > alternate.length ) {
+                // the band has as many cells per row as the full matrix, e.g. when aligning a read to a much longer haplotype
+                numFullAlignments.incrementAndGet();
+                totalComputeTime.addAndGet(System.nanoTime() - startTime);
+                return SmithWatermanJavaAligner.getInstance().align(reference, alternate, parameters, overhangStrategy);
+            }
+            final BandMatrices matrices = THREAD_MATRICES.get();
+            matrices.ensureCapacity((reference.length + 1) * band.width, alternate.length + 1);
+            calculateMatrix(reference, alternate, band, matrices, overhangStrategy, parameters);
+            final SmithWatermanAlignment bandedResult = calculateCigar(band, matrices, overhangStrategy);
+            if ( bandedResult != null ) {
+                alignmentResult = bandedResult;
+            } else {
+                numFullAlignments.incrementAndGet();
+                alignmentResult = SmithWatermanJavaAligner.getInstance().align(reference, alternate, parameters, overhangStrategy);
+            }
+        }
+
+        totalComputeTime.addAndGet(System.nanoTime() - startTime);
+        return alignmentResult;
+    }
+
+    /**
+     * The diagonals of the matrix in the band
+     */
+    private static final class Band {
+        private final int refLength;
+        private final int altLength;
+        private final int minDiagonal;
+        private final int maxDiagonal;
+        private final int width;
+
+        private Band(final int refLength, final int altLength, final int maxIndelLength) {
+            this.refLength = refLength;
+            this.altLength = altLength;
+            // the band never needs to extend past the corners of the matrix
+            minDiagonal = Math.max(-altLength, Math.min(0, refLength - altLength) - maxIndelLength);
+            maxDiagonal = Math.min(refLength, Math.max(0, refLength - altLength) + maxIndelLength);
+            width = maxDiagonal - minDiagonal + 1;
+        }
+
+        private boolean contains(final int i, final int j) {
+            final int diagonal = i - j;
+            return diagonal >= minDiagonal && diagonal <= maxDiagonal && i >= 0 && i <= refLength && j >= 0 && j <= altLength;
+        }
+
+        private int index(final int i, final int j) {
+            return i * width + maxDiagonal - (i - j);
+        }
+
+        // the first and last columns of row i in the band
+        private int firstColumn(final int i) {
+            return Math.max(0, i - maxDiagonal);
+        }
+
+        private int lastColumn(final int i) {
+            return Math.min(altLength, i - minDiagonal);
+        }
+
+        /**
+         * @return true if cell (i, j) is next to cells that are in the matrix but not in the band
+         */
+        private boolean isOnEdge(final int i, final int j) {
+            final int diagonal = i - j;
+            return (diagonal == minDiagonal && minDiagonal > -altLength) || (diagonal == maxDiagonal && maxDiagonal < refLength);
+        }
+    }
+
+    private static int score(final Band band, final int[] sw, final int i, final int j) {
+        return band.contains(i, j) ? sw[band.index(i, j)] : OUTSIDE_BAND;
+    }
+
+    /**
+     * Calculates the Smith-Waterman matrices in the band, as {@link SmithWatermanJavaAligner} does for the full matrices
+     */
+    private static void calculateMatrix(final byte[] reference, final byte[] alternate, final Band band, final BandMatrices matrices,
+                                        final SWOverhangStrategy overhangStrategy, final SWParameters parameters) {
+        final int[] sw = matrices.sw;
+        final int[] btrack = matrices.btrack;
+        final int[] bestGapV = matrices.bestGapV;
+        final int[] gapSizeV = matrices.gapSizeV;
+        Arrays.fill(bestGapV, 0, alternate.length + 1, OUTSIDE_BAND);
+        Arrays.fill(gapSizeV, 0, alternate.length + 1, 0);
+
+        final int w_open = parameters.getGapOpenPenalty();
+        final int w_extend = parameters.getGapExtendPenalty();
+        final int w_match = parameters.getMatchValue();
+        final int w_mismatch = parameters.getMismatchPenalty();
+
+        // initialize the first row and column, with gap penalties if we want to keep track of indels at the edges of alignments
+        final boolean penalizeOverhangs = overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL;
+        for ( int j = 0, lastColumn = band.lastColumn(0); j <= lastColumn; j++ ) {
+            sw[band.index(0, j)] = penalizeOverhangs && j > 0 ? w_open + (j - 1) * w_extend : 0;
+            btrack[band.index(0, j)] = 0;
+        }
+        for ( int i = 1, lastRow = Math.min(band.refLength, band.maxDiagonal); i <= lastRow; i++ ) {
+            sw[band.index(i, 0)] = penalizeOverhangs ? w_open + (i - 1) * w_extend : 0;
+            btrack[band.index(i, 0)] = 0;
+        }
+
+        for ( int i = 1; i <= band.refLength; i++ ) {
+            final byte a_base = reference[i - 1];
+            int best_gap_h = OUTSIDE_BAND;
+            int gap_size_h = 0;
+            for ( int j = Math.max(1, band.firstColumn(i)), lastColumn = band.lastColumn(i); j <= lastColumn; j++ ) {
+                final byte b_base = alternate[j - 1];
+                // the cell on the diagonal is always in the band
+                final int step_diag = sw[band.index(i - 1, j - 1)] + (a_base == b_base ? w_match : w_mismatch);
+
+                // see SmithWatermanJavaAligner for the "traversal" of all the cells above and to the left of the current one
+                int prev_gap = score(band, sw, i - 1, j) + w_open;
+                bestGapV[j] += w_extend;
+                if ( prev_gap > bestGapV[j] ) {
+                    bestGapV[j] = prev_gap;
+                    gapSizeV[j] = 1;
+                } else {
+                    gapSizeV[j]++;
+                }
+                final int step_down = bestGapV[j];
+                final int kd = gapSizeV[j];
+
+                prev_gap = score(band, sw, i, j - 1) + w_open;
+                best_gap_h += w_extend;
+                if ( prev_gap > best_gap_h ) {
+                    best_gap_h = prev_gap;
+                    gap_size_h = 1;
+                } else {
+                    gap_size_h++;
+                }
+                final int step_right = best_gap_h;
+                final int ki = gap_size_h;
+
+                //priority here will be step diagonal, step right, step down
+                final int index = band.index(i, j);
+                if ( step_diag >= step_down && step_diag >= step_right ) {
+                    sw[index] = Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                    btrack[index] = 0;
+                } else if ( step_right >= step_down ) {
+                    sw[index] = Math.max(MATRIX_MIN_CUTOFF, step_right);
+                    btrack[index] = -ki; // negative = horizontal
+                } else {
+                    sw[index] = Math.max(MATRIX_MIN_CUTOFF, step_down);
+                    btrack[index] = kd; // positive = vertical
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the CIGAR for the alignment from the back track matrix, as {@link SmithWatermanJavaAligner} does
+     *
+     * @return the alignment, or null if it runs along an edge of the band
+     */
+    private static SWPairwiseAlignmentResult calculateCigar(final Band band, final BandMatrices matrices, final SWOverhangStrategy overhangStrategy) {
+        final int[] sw = matrices.sw;
+        final int[] btrack = matrices.btrack;
+        final int refLength = band.refLength;
+        final int altLength = band.altLength;
+
+        int p1 = 0, p2 = 0;
+        int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
+        int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
+
+        if ( overhangStrategy == SWOverhangStrategy.INDEL ) {
+            p1 = refLength;
+            p2 = altLength;
+        } else {
+            // look for the largest score on the rightmost column, and then on the bottom-most row
+            p2 = altLength;
+            for ( int i = Math.max(1, altLength + band.minDiagonal), lastRow = Math.min(refLength, altLength + band.maxDiagonal); i <= lastRow; i++ ) {
+                final int curScore = sw[band.index(i, altLength)];
+                if ( curScore >= maxscore ) {
+                    p1 = i;
+                    maxscore = curScore;
+                }
+            }
+            if ( overhangStrategy != SWOverhangStrategy.LEADING_INDEL ) {
+                for ( int j = Math.max(1, band.firstColumn(refLength)); j <= altLength; j++ ) {
+                    final int curScore = sw[band.index(refLength, j)];
+                    if ( curScore > maxscore ||
+                            (curScore == maxscore && Math.abs(refLength - j) < Math.abs(p1 - p2) ) ) {
+                        p1 = refLength;
+                        p2 = j;
+                        maxscore = curScore;
+                        segment_length = altLength - j; // end of sequence 2 is overhanging; we will just record it as 'M' segment
+                    }
+                }
+            }
+        }
+
+        final List<CigarElement> lce = new ArrayList<>(5);
+        if ( segment_length > 0 && overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+            lce.add(SmithWatermanJavaAligner.makeElement(State.CLIP, segment_length));
+            segment_length = 0;
+        }
+
+        State state = State.MATCH;
+        do {
+            if ( band.isOnEdge(p1, p2) ) {
+                return null;
+            }
+            final int btr = btrack[band.index(p1, p2)];
+            final State new_state;
+            int step_length = 1;
+            if ( btr > 0 ) {
+                new_state = State.DELETION;
+                step_length = btr;
+            } else if ( btr < 0 ) {
+                new_state = State.INSERTION;
+                step_length = (-btr);
+            } else new_state = State.MATCH;
+
+            switch( new_state ) {
+                case MATCH:  p1--; p2--; break;
+                case INSERTION: p2 -= step_length; break;
+                case DELETION:  p1 -= step_length; break;
+            }
+
+            if ( new_state == state ) segment_length+=step_length;
+            else {
+                if (segment_length > 0) {
+                    lce.add(SmithWatermanJavaAligner.makeElement(state, segment_length));
+                }
+                segment_length = step_length;
+                state = new_state;
+            }
+        } while ( p1 > 0 && p2 > 0 );
+
+        // see SmithWatermanJavaAligner for the handling of overhangs at the start of the alignment
+        final int alignment_offset;
+        if ( overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+            lce.add(SmithWatermanJavaAligner.makeElement(state, segment_length));
+            if ( p2 > 0 ) lce.add(SmithWatermanJavaAligner.makeElement(State.CLIP, p2));
+            alignment_offset = p1;
+        } else if ( overhangStrategy == SWOverhangStrategy.IGNORE ) {
+            lce.add(SmithWatermanJavaAligner.makeElement(state, segment_length + p2));
+            alignment_offset = p1 - p2;
+        } else {
+            lce.add(SmithWatermanJavaAligner.makeElement(state, segment_length));
+            if ( p1 > 0 ) {
+                lce.add(SmithWatermanJavaAligner.makeElement(State.DELETION, p1));
+            } else if ( p2 > 0 ) {
+                lce.add(SmithWatermanJavaAligner.makeElement(State.INSERTION, p2));
+            }
+            alignment_offset = 0;
+        }
+
+        return new SWPairwiseAlignmentResult(new Cigar(Lists.reverse(lce)), alignment_offset);
+    }
+
+    @Override
+    public void close() {
+        logger.info(String.format("Total compute time in banded java Smith-Waterman : %.2f sec, %d alignments outside the band",
+                totalComputeTime.get() * 1e-9, numFullAlignments.get()));
+    }
+}
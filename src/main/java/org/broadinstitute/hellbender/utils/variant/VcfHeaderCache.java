@@ -0,0 +1,310 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFContigHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A cache of parsed VCF headers in a local directory, for tools that read the headers of many inputs before doing
+ * any work.
+ *
+ * Each header is stored in a compact binary file named after the VCF it comes from, and is valid as long as the
+ * path, size and modification time of the VCF are unchanged. The contig lines, which make up most of the headers of
+ * large references, are stored as binary fields and rebuilt without any parsing. Headers with identical contig lines
+ * share the same contig line objects, in all the caches of the JVM. The few other lines are stored as text, and
+ * parsed by {@link VCFCodec} when they are read back.
+ *
+ * Any problem reading or writing the cache only results in a warning, and in the header being read from the VCF.
+ */
+public final class VcfHeaderCache {
+    private static final Logger logger = LogManager.getLogger(VcfHeaderCache.class);
+
+    /**
+     * Extension of the cached header files
+     */
+    public static final String CACHE_FILE_EXTENSION = ".vcfheader";
+
+    private static final byte[] MAGIC = {'G', 'A', 'T', 'K', 'V', 'C', 'F', 'H', 1};
+
+    private static final byte TEXT_LINE = 0;
+    private static final byte CONTIG_LINE = 1;
+
+    // contig lines of the headers read back from caches, shared by all the headers with the same contigs
+    private static final Map<String, InternedContigs> INTERNED_CONTIGS = new ConcurrentHashMap<>();
+
+    private final Path cacheDirectory;
+    private final AtomicInteger numCacheHits = new AtomicInteger();
+    private final AtomicInteger numCacheMisses = new AtomicInteger();
+
+    private static final class InternedContigs {
+        private final byte[] encoded;
+        private final List<VCFContigHeaderLine> lines;
+
+        private InternedContigs(final byte[] encoded, final List<VCFContigHeaderLine> lines) {
+            this.encoded = encoded;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * @param cacheDirectory local directory holding the cached headers, created if it does not exist
+     */
+    public VcfHeaderCache(final Path cacheDirectory) {
+        Utils.nonNull(cacheDirectory);
+        try {
+            Files.createDirectories(cacheDirectory);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(cacheDirectory.toString(), "Could not create VCF header cache directory", e);
+        }
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @return Number of headers that were read from the cache
+     */
+    public int getNumCacheHits() {
+        return numCacheHits.get();
+    }
+
+    /**
+     * @return Number of headers that had to be read from their VCF
+     */
+    public int getNumCacheMisses() {
+        return numCacheMisses.get();
+    }
+
+    /**
+     * Get the header of a VCF from the cache if it has an up-to-date copy, or else read it from the VCF and cache it.
+     *
+     * @param vcfPath VCF file
+     * @param headerReader reads the header from the VCF, on cache misses
+     * @return the header of the VCF
+     */
+    public VCFHeader getHeader(final Path vcfPath, final Function<Path, VCFHeader> headerReader) {
+        Utils.nonNull(vcfPath);
+        Utils.nonNull(headerReader);
+        final String key;
+        try {
+            key = vcfPath.toUri() + "\t" + Files.size(vcfPath) + "\t" + Files.getLastModifiedTime(vcfPath).toMillis();
+        } catch (final IOException | UnsupportedOperationException e) {
+            // without a size and modification time, we can't tell whether a cached copy is up to date
+            numCacheMisses.incrementAndGet();
+            return headerReader.apply(vcfPath);
+        }
+
+        final Path cachePath = cacheDirectory.resolve(Utils.calcMD5(vcfPath.toUri().toString()) + CACHE_FILE_EXTENSION);
+        if ( Files.exists(cachePath) ) {
+            try {
+                final VCFHeader header = readHeader(cachePath, key);
+                if ( header != null ) {
+                    numCacheHits.incrementAndGet();
+                    return header;
+                }
+            } catch (final IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable cached VCF header " + cachePath + ": " + e.getMessage());
+            }
+        }
+
+        numCacheMisses.incrementAndGet();
+        final VCFHeader header = headerReader.apply(vcfPath);
+        if ( header != null ) {
+            writeHeader(cachePath, key, header);
+        }
+        return header;
+    }
+
+    /**
+     * @return the cached header, or null if the cache file holds the header of another version of the VCF
+     */
+    private static VCFHeader readHeader(final Path cachePath, final String key) throws IOException {
+        final List<Byte> lineTypes = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+        final byte[] encodedContigs;
+        final List<String> samples = new ArrayList<>();
+        try ( final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath))) ) {
+            final byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if ( ! Arrays.equals(magic, MAGIC) ) {
+                throw new IOException("not a cached VCF header, or one written by an incompatible version");
+            }
+            if ( ! readString(in).equals(key) ) {
+                return null;
+            }
+            final int numLines = in.readInt();
+            for ( int i = 0; i < numLines; i++ ) {
+                final byte type = in.readByte();
+                lineTypes.add(type);
+                if ( type == TEXT_LINE ) {
+                    text.append(readString(in)).append('\n');
+                }
+            }
+            encodedContigs = new byte[in.readInt()];
+            in.readFully(encodedContigs);
+            final int numSamples = in.readInt();
+            for ( int i = 0; i < numSamples; i++ ) {
+                samples.add(readString(in));
+            }
+        }
+
+        final int numTextLines = (int) lineTypes.stream().filter(type -> type == TEXT_LINE).count();
+        final List<VCFHeaderLine> textLines = parseTextLines(text.toString(), numTextLines);
+        final List<VCFContigHeaderLine> contigLines = internContigs(encodedContigs);
+        if ( textLines.size() != numTextLines || contigLines.size() != lineTypes.size() - numTextLines ) {
+            throw new IOException("cached VCF header is inconsistent");
+        }
+
+        // restore the lines in their original order
+        final Set<VCFHeaderLine> lines = new LinkedHashSet<>(lineTypes.size() * 2);
+        int nextText = 0;
+        int nextContig = 0;
+        for ( final byte type : lineTypes ) {
+            lines.add(type == TEXT_LINE ? textLines.get(nextText++) : contigLines.get(nextContig++));
+        }
+        return new VCFHeader(lines, samples);
+    }
+
+    /**
+     * Parse the non-contig lines of a header with {@link VCFCodec}, which requires them to start with a fileformat line
+     */
+    private static List<VCFHeaderLine> parseTextLines(final String text, final int numTextLines) {
+        final String fileFormatKey = VCFHeader.METADATA_INDICATOR + VCFHeaderVersion.VCF4_2.getFormatString() + "=";
+        final boolean hasFileFormat = text.startsWith(fileFormatKey);
+        final String headerText = (hasFileFormat ? "" : fileFormatKey + VCFHeaderVersion.VCF4_2.getVersionString() + "\n") + text +
+                VCFHeader.HEADER_INDICATOR + Arrays.stream(VCFHeader.HEADER_FIELDS.values()).map(Enum::name).collect(Collectors.joining("\t")) + "\n";
+        final VCFHeader parsed = (VCFHeader) new VCFCodec().readActualHeader(
+                new LineIteratorImpl(new SynchronousLineReader(new StringReader(headerText))));
+        final List<VCFHeaderLine> lines = new ArrayList<>(parsed.getMetaDataInInputOrder());
+        return hasFileFormat || lines.size() != numTextLines + 1 ? lines : lines.subList(1, lines.size());
+    }
+
+    /**
+     * Decode the contig lines of a header, reusing the lines of an identical set of contigs read earlier
+     */
+    private static List<VCFContigHeaderLine> internContigs(final byte[] encodedContigs) throws IOException {
+        final String digest = Utils.calcMD5(encodedContigs);
+        final InternedContigs interned = INTERNED_CONTIGS.get(digest);
+        if ( interned != null && Arrays.equals(interned.encoded, encodedContigs) ) {
+            return interned.lines;
+        }
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedContigs));
+        final int numContigs = in.readInt();
+        final List<VCFContigHeaderLine> lines = new ArrayList<>(numContigs);
+        for ( int i = 0; i < numContigs; i++ ) {
+            final int contigIndex = in.readInt();
+            final int numFields = in.readInt();
+            final Map<String, String> fields = new LinkedHashMap<>(numFields * 2);
+            for ( int j = 0; j < numFields; j++ ) {
+                fields.put(readString(in), readString(in));
+            }
+            lines.add(new VCFContigHeaderLine(fields, contigIndex));
+        }
+        final List<VCFContigHeaderLine> contigLines = Collections.unmodifiableList(lines);
+        INTERNED_CONTIGS.putIfAbsent(digest, new InternedContigs(encodedContigs, contigLines));
+        return contigLines;
+    }
+
+    /**
+     * Write a header to the cache. The file is written under a temporary name and then moved into place, so that
+     * concurrent readers never see a partial file.
+     */
+    private static void writeHeader(final Path cachePath, final String key, final VCFHeader header) {
+        final Path tempPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp" + Long.toHexString(System.nanoTime()));
+        try {
+            final ByteArrayOutputStream contigBytes = new ByteArrayOutputStream();
+            final DataOutputStream contigs = new DataOutputStream(contigBytes);
+            contigs.writeInt(header.getContigLines().size());
+            for ( final VCFContigHeaderLine contig : header.getContigLines() ) {
+                contigs.writeInt(contig.getContigIndex());
+                contigs.writeInt(contig.getGenericFields().size());
+                for ( final Map.Entry<String, String> field : contig.getGenericFields().entrySet() ) {
+                    writeString(contigs, field.getKey());
+                    writeString(contigs, field.getValue());
+                }
+            }
+            contigs.flush();
+
+            try ( final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath))) ) {
+                out.write(MAGIC);
+                writeString(out, key);
+                out.writeInt(header.getMetaDataInInputOrder().size());
+                for ( final VCFHeaderLine line : header.getMetaDataInInputOrder() ) {
+                    if ( line instanceof VCFContigHeaderLine ) {
+                        out.writeByte(CONTIG_LINE);
+                    } else {
+                        out.writeByte(TEXT_LINE);
+                        writeString(out, VCFHeader.METADATA_INDICATOR + line.toString());
+                    }
+                }
+                out.writeInt(contigBytes.size());
+                contigBytes.writeTo(out);
+                out.writeInt(header.getGenotypeSamples().size());
+                for ( final String sample : header.getGenotypeSamples() ) {
+                    writeString(out, sample);
+                }
+            }
+            try {
+                Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            logger.warn("Could not cache VCF header in " + cachePath + ": " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (final IOException e) {
+                logger.warn("Could not delete temporary file " + tempPath);
+            }
+        }
+    }
+
+    // DataOutput.writeUTF is limited to 64KB strings, which long header lines may exceed
+    private static void writeString(final DataOutput out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
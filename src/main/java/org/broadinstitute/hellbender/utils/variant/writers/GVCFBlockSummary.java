@@ -0,0 +1,270 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.tribble.Feature;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import org.broadinstitute.hellbender.tools.walkers.variantutils.ReblockGVCF;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact summary of a single-sample GVCF record: either a reference block, i.e. a run of positions in a single GQ band,
+ * or a variant site along with the per-sample annotations joint-genotyping tools sum across samples.
+ *
+ * <p>Only the fields needed by ReblockGVCF and GnarlyGenotyper style processing are kept, as primitive values, so that
+ * summaries can be written in a binary format (see {@link org.broadinstitute.hellbender.utils.codecs.GVCFBlockSummaryBCICodec})
+ * and read back without parsing VCF text. Missing values are represented by {@link #MISSING_VALUE}, missing arrays by
+ * empty arrays.</p>
+ */
+public final class GVCFBlockSummary implements Feature {
+    public static final String BCI_VERSION = "1.0";
+    public static final int MISSING_VALUE = -1;
+
+    private static final int[] EMPTY_ARRAY = new int[0];
+
+    private final String contig;
+    private final int start;
+    private final int end;
+    private final boolean referenceBlock;
+    private final List<Allele> alleles;
+    // index into alleles of each allele of the genotype, or MISSING_VALUE for no-calls
+    private final int[] genotypeAlleleIndices;
+    private final int genotypeQuality;
+    private final int depth;
+    // MIN_DP of reference blocks, MISSING_VALUE for variants
+    private final int minDepth;
+    private final int[] alleleDepths;
+    private final int[] likelihoods;
+    private final int[] strandBiasCounts;
+    private final int qualApprox;
+    private final int variantDepth;
+    private final double rawMappingQuality;
+    private final int mappingQualityDepth;
+
+    public GVCFBlockSummary(final String contig, final int start, final int end, final boolean referenceBlock,
+                            final List<Allele> alleles, final int[] genotypeAlleleIndices,
+                            final int genotypeQuality, final int depth, final int minDepth,
+                            final int[] alleleDepths, final int[] likelihoods, final int[] strandBiasCounts,
+                            final int qualApprox, final int variantDepth,
+                            final double rawMappingQuality, final int mappingQualityDepth) {
+        Utils.nonNull(contig);
+        Utils.nonEmpty(alleles, "a GVCF record needs at least a reference allele");
+        Utils.nonNull(genotypeAlleleIndices);
+        Utils.nonNull(alleleDepths);
+        Utils.nonNull(likelihoods);
+        Utils.nonNull(strandBiasCounts);
+        Utils.validateArg(start <= end, () -> "start " + start + " is after end " + end);
+        this.contig = contig;
+        this.start = start;
+        this.end = end;
+        this.referenceBlock = referenceBlock;
+        this.alleles = Collections.unmodifiableList(new ArrayList<>(alleles));
+        this.genotypeAlleleIndices = genotypeAlleleIndices;
+        this.genotypeQuality = genotypeQuality;
+        this.depth = depth;
+        this.minDepth = minDepth;
+        this.alleleDepths = alleleDepths;
+        this.likelihoods = likelihoods;
+        this.strandBiasCounts = strandBiasCounts;
+        this.qualApprox = qualApprox;
+        this.variantDepth = variantDepth;
+        this.rawMappingQuality = rawMappingQuality;
+        this.mappingQualityDepth = mappingQualityDepth;
+    }
+
+    /**
+     * Summarize a GVCF record as emitted by {@link GVCFWriter}
+     *
+     * @param vc a record with exactly one genotype
+     * @return the summary of the record, which doesn't keep any other INFO or FORMAT annotation, nor the AD, SB and
+     *         INFO annotations of reference blocks
+     */
+    public static GVCFBlockSummary fromVariantContext(final VariantContext vc) {
+        Utils.nonNull(vc);
+        Utils.validateArg(vc.getNSamples() == 1, () -> "GVCF block summaries are single-sample, but found " + vc.getNSamples() + " samples at " + vc.getContig() + ":" + vc.getStart());
+        final Genotype genotype = vc.getGenotype(0);
+        final List<Allele> alleles = vc.getAlleles();
+        final int[] genotypeAlleleIndices = new int[genotype.getPloidy()];
+        for ( int i = 0; i < genotypeAlleleIndices.length; i++ ) {
+            final Allele allele = genotype.getAllele(i);
+            genotypeAlleleIndices[i] = allele.isNoCall() ? MISSING_VALUE : alleles.indexOf(allele);
+        }
+
+        final int genotypeQuality = genotype.hasGQ() ? genotype.getGQ() : MISSING_VALUE;
+        final int depth = genotype.hasDP() ? genotype.getDP() : MISSING_VALUE;
+        final int[] likelihoods = genotype.hasPL() ? genotype.getPL() : EMPTY_ARRAY;
+        if ( ReblockGVCF.isHomRefBlock(vc) ) {
+            return new GVCFBlockSummary(vc.getContig(), vc.getStart(), vc.getEnd(), true, alleles, genotypeAlleleIndices,
+                    genotypeQuality, depth, getIntGenotypeAttribute(genotype, GATKVCFConstants.MIN_DP_FORMAT_KEY),
+                    EMPTY_ARRAY, likelihoods, EMPTY_ARRAY, MISSING_VALUE, MISSING_VALUE, Double.NaN, MISSING_VALUE);
+        }
+
+        final List<Double> rawMappingQualityAndDepth = vc.getAttributeAsDoubleList(GATKVCFConstants.RAW_MAPPING_QUALITY_WITH_DEPTH_KEY, 0);
+        final boolean hasRawMappingQuality = rawMappingQualityAndDepth.size() == 2;
+        return new GVCFBlockSummary(vc.getContig(), vc.getStart(), vc.getEnd(), false, alleles, genotypeAlleleIndices,
+                genotypeQuality, depth, getIntGenotypeAttribute(genotype, GATKVCFConstants.MIN_DP_FORMAT_KEY),
+                genotype.hasAD() ? genotype.getAD() : EMPTY_ARRAY,
+                likelihoods,
+                getIntArrayGenotypeAttribute(genotype, GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY),
+                vc.getAttributeAsInt(GATKVCFConstants.RAW_QUAL_APPROX_KEY, MISSING_VALUE),
+                vc.getAttributeAsInt(GATKVCFConstants.VARIANT_DEPTH_KEY, MISSING_VALUE),
+                hasRawMappingQuality ? rawMappingQualityAndDepth.get(0) : Double.NaN,
+                hasRawMappingQuality ? rawMappingQualityAndDepth.get(1).intValue() : MISSING_VALUE);
+    }
+
+    private static int getIntGenotypeAttribute(final Genotype genotype, final String key) {
+        final Object value = genotype.getExtendedAttribute(key);
+        return value == null ? MISSING_VALUE : Integer.parseInt(value.toString());
+    }
+
+    private static int[] getIntArrayGenotypeAttribute(final Genotype genotype, final String key) {
+        final Object value = genotype.getExtendedAttribute(key);
+        if ( value == null ) {
+            return EMPTY_ARRAY;
+        }
+        if ( value instanceof int[] ) {
+            return (int[]) value;
+        }
+        final List<?> values = value instanceof List ? (List<?>) value : Arrays.asList(value.toString().split(","));
+        return values.stream().mapToInt(v -> Integer.parseInt(v.toString().trim())).toArray();
+    }
+
+    /**
+     * Rebuild a GVCF record with the fields kept in this summary
+     *
+     * @param sampleName name of the sample the summary belongs to
+     * @return a single-sample record, with END set for reference blocks
+     */
+    public VariantContext toVariantContext(final String sampleName) {
+        Utils.nonNull(sampleName);
+        final VariantContextBuilder builder = new VariantContextBuilder(GVCFBlockSummary.class.getSimpleName(), contig, start, end, alleles);
+        if ( referenceBlock ) {
+            builder.attribute(VCFConstants.END_KEY, end);
+        }
+        if ( qualApprox != MISSING_VALUE ) {
+            builder.attribute(GATKVCFConstants.RAW_QUAL_APPROX_KEY, qualApprox);
+        }
+        if ( variantDepth != MISSING_VALUE ) {
+            builder.attribute(GATKVCFConstants.VARIANT_DEPTH_KEY, variantDepth);
+        }
+        if ( mappingQualityDepth != MISSING_VALUE ) {
+            builder.attribute(GATKVCFConstants.RAW_MAPPING_QUALITY_WITH_DEPTH_KEY, Arrays.asList(rawMappingQuality, (double) mappingQualityDepth));
+        }
+
+        final List<Allele> genotypeAlleles = new ArrayList<>(genotypeAlleleIndices.length);
+        for ( final int alleleIndex : genotypeAlleleIndices ) {
+            genotypeAlleles.add(alleleIndex == MISSING_VALUE ? Allele.NO_CALL : alleles.get(alleleIndex));
+        }
+        final GenotypeBuilder genotypeBuilder = new GenotypeBuilder(sampleName, genotypeAlleles);
+        if ( genotypeQuality != MISSING_VALUE ) {
+            genotypeBuilder.GQ(genotypeQuality);
+        }
+        if ( depth != MISSING_VALUE ) {
+            genotypeBuilder.DP(depth);
+        }
+        if ( minDepth != MISSING_VALUE ) {
+            genotypeBuilder.attribute(GATKVCFConstants.MIN_DP_FORMAT_KEY, minDepth);
+        }
+        if ( alleleDepths.length > 0 ) {
+            genotypeBuilder.AD(alleleDepths);
+        }
+        if ( likelihoods.length > 0 ) {
+            genotypeBuilder.PL(likelihoods);
+        }
+        if ( strandBiasCounts.length > 0 ) {
+            genotypeBuilder.attribute(GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY, strandBiasCounts);
+        }
+        return builder.genotypes(genotypeBuilder.make()).make();
+    }
+
+    @Override
+    public String getContig() {
+        return contig;
+    }
+
+    @Override
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public int getEnd() {
+        return end;
+    }
+
+    /** @return true for reference blocks, false for variant sites */
+    public boolean isReferenceBlock() { return referenceBlock; }
+
+    /** @return the alleles of the record, reference first */
+    public List<Allele> getAlleles() { return alleles; }
+
+    public int[] getGenotypeAlleleIndices() { return genotypeAlleleIndices; }
+
+    public int getGenotypeQuality() { return genotypeQuality; }
+
+    public int getDepth() { return depth; }
+
+    public int getMinDepth() { return minDepth; }
+
+    public int[] getAlleleDepths() { return alleleDepths; }
+
+    public int[] getLikelihoods() { return likelihoods; }
+
+    public int[] getStrandBiasCounts() { return strandBiasCounts; }
+
+    public int getQualApprox() { return qualApprox; }
+
+    public int getVariantDepth() { return variantDepth; }
+
+    public double getRawMappingQuality() { return rawMappingQuality; }
+
+    public int getMappingQualityDepth() { return mappingQualityDepth; }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GVCFBlockSummary)) return false;
+        final GVCFBlockSummary that = (GVCFBlockSummary) o;
+        return start == that.start &&
+                end == that.end &&
+                referenceBlock == that.referenceBlock &&
+                genotypeQuality == that.genotypeQuality &&
+                depth == that.depth &&
+                minDepth == that.minDepth &&
+                qualApprox == that.qualApprox &&
+                variantDepth == that.variantDepth &&
+                Double.compare(rawMappingQuality, that.rawMappingQuality) == 0 &&
+                mappingQualityDepth == that.mappingQualityDepth &&
+                contig.equals(that.contig) &&
+                alleles.equals(that.alleles) &&
+                Arrays.equals(genotypeAlleleIndices, that.genotypeAlleleIndices) &&
+                Arrays.equals(alleleDepths, that.alleleDepths) &&
+                Arrays.equals(likelihoods, that.likelihoods) &&
+                Arrays.equals(strandBiasCounts, that.strandBiasCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(contig, start, end, referenceBlock, alleles, genotypeQuality, depth);
+        result = 31 * result + Arrays.hashCode(genotypeAlleleIndices);
+        result = 31 * result + Arrays.hashCode(likelihoods);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return contig + "\t" + start + "\t" + end + "\t" + (referenceBlock ? "REF_BLOCK" : "VARIANT") + "\t" + alleles +
+                "\tGT=" + Arrays.toString(genotypeAlleleIndices) + "\tGQ=" + genotypeQuality + "\tDP=" + depth +
+                "\tPL=" + Arrays.toString(likelihoods);
+    }
+}
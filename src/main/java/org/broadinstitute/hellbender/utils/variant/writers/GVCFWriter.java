@@ -3,7 +3,12 @@ package org.broadinstitute.hellbender.utils.variant.writers;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.codecs.FeatureSink;
+import org.broadinstitute.hellbender.utils.codecs.GVCFBlockSummaryBCICodec;
+import org.broadinstitute.hellbender.utils.io.BlockCompressedIntervalStream;
 
 import java.util.List;
 
@@ -19,6 +24,10 @@ public class GVCFWriter implements VariantContextWriter {
     final VariantContextWriter underlyingWriter;
     GVCFBlockCombiner gvcfBlockCombiner;
 
+    /** Where we'll write a summary of every record, if requested */
+    private GATKPath blockSummaryPath = null;
+    private FeatureSink<GVCFBlockSummary> blockSummarySink = null;
+
     /**
      * Create a new GVCF writer
      *
@@ -45,6 +54,32 @@ public class GVCFWriter implements VariantContextWriter {
     }
 
 
+    /**
+     * Also write a {@link GVCFBlockSummary} of every record emitted by this writer to the given path, in the binary
+     * format of {@link GVCFBlockSummaryBCICodec}. Must be called before the header is written.
+     *
+     * @param blockSummaryPath the block summary output, which should end with {@link GVCFBlockSummaryBCICodec#GVCF_SUMMARY_BCI_FILE_EXTENSION}
+     */
+    public void setBlockSummaryOutput(final GATKPath blockSummaryPath) {
+        Utils.nonNull(blockSummaryPath);
+        Utils.validate(blockSummarySink == null, "the block summary output must be set before the header is written");
+        this.blockSummaryPath = blockSummaryPath;
+    }
+
+    private void openBlockSummarySink(final VCFHeader header) {
+        if ( blockSummaryPath == null || blockSummarySink != null ) {
+            return;
+        }
+        if ( header.getSequenceDictionary() == null ) {
+            throw new UserException("A sequence dictionary is required in the GVCF header to write the block summary " + blockSummaryPath);
+        }
+        if ( header.getNGenotypeSamples() != 1 ) {
+            throw new UserException("Block summaries can only be written for single-sample GVCFs, but there are " +
+                    header.getNGenotypeSamples() + " samples in the GVCF header");
+        }
+        blockSummarySink = new GVCFBlockSummaryBCICodec().makeSink(blockSummaryPath, header.getSequenceDictionary(),
+                header.getGenotypeSamples(), BlockCompressedIntervalStream.Writer.DEFAULT_COMPRESSION_LEVEL);
+    }
 
     /**
      * Write the VCF header
@@ -57,6 +92,7 @@ public class GVCFWriter implements VariantContextWriter {
     public void writeHeader(VCFHeader header) {
         gvcfBlockCombiner.addRangesToHeader(header);
         underlyingWriter.writeHeader(header);
+        openBlockSummarySink(header);
     }
 
     /**
@@ -69,6 +105,9 @@ public class GVCFWriter implements VariantContextWriter {
             output();
         } finally {
             underlyingWriter.close();
+            if ( blockSummarySink != null ) {
+                blockSummarySink.close();
+            }
         }
     }
 
@@ -92,7 +131,14 @@ public class GVCFWriter implements VariantContextWriter {
 
     void output() {
         if (gvcfBlockCombiner.hasFinalizedItems()) {
-            gvcfBlockCombiner.consumeFinalizedItems().forEach(underlyingWriter::add);
+            gvcfBlockCombiner.consumeFinalizedItems().forEach(this::emit);
+        }
+    }
+
+    private void emit(final VariantContext vc) {
+        underlyingWriter.add(vc);
+        if ( blockSummarySink != null ) {
+            blockSummarySink.write(GVCFBlockSummary.fromVariantContext(vc));
         }
     }
 
@@ -100,5 +146,6 @@ public class GVCFWriter implements VariantContextWriter {
     public void setHeader(VCFHeader header) {
         gvcfBlockCombiner.addRangesToHeader(header);
         underlyingWriter.setHeader(header);
+        openBlockSummarySink(header);
     }
 }
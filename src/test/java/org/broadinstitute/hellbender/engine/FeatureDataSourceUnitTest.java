@@ -1,11 +1,14 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import com.google.common.util.concurrent.Uninterruptibles;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
 import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.GATKBaseTest;
@@ -15,7 +18,15 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public final class FeatureDataSourceUnitTest extends GATKBaseTest {
@@ -413,6 +424,109 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    private static FeatureInput<VariantContext> makeFullyCachedInput( final File featureFile, final String cacheValue ) {
+        return new FeatureInput<>(featureFile.getAbsolutePath(), "cached", Collections.singletonMap(FeatureInput.CACHE_ATTRIBUTE_KEY, cacheValue));
+    }
+
+    @Test(dataProvider = "IndependentFeatureQueryTestData")
+    public void testFullyCachedQuerying( final SimpleInterval queryInterval, final List<String> expectedVariantIDs ) {
+        try ( FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_VCF, FeatureInput.FULL_CACHE), 0, VariantContext.class) ) {
+            final List<VariantContext> queryResults = featureSource.queryAndPrefetch(queryInterval);
+            checkVariantQueryResults(queryResults, expectedVariantIDs, queryInterval);
+        }
+    }
+
+    @Test(dataProvider = "GVCFQueryTestData")
+    public void testFullyCachedQueryGVCF( final SimpleInterval queryInterval, final List<String> expectedVariantIDs ) {
+        try ( FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_GVCF, FeatureInput.FULL_CACHE), 0, VariantContext.class) ) {
+            final List<VariantContext> queryResults = featureSource.queryAndPrefetch(queryInterval);
+            checkVariantQueryResults(queryResults, expectedVariantIDs, queryInterval);
+        }
+    }
+
+    @Test
+    public void testFullyCachedQueryOverUnindexedFile() {
+        try ( FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(makeFullyCachedInput(UNINDEXED_VCF, FeatureInput.FULL_CACHE), 0, VariantContext.class) ) {
+            final List<VariantContext> allVariants = new ArrayList<>();
+            featureSource.iterator().forEachRemaining(allVariants::add);
+            Assert.assertFalse(allVariants.isEmpty());
+
+            for ( final VariantContext variant : allVariants ) {
+                final SimpleInterval queryInterval = new SimpleInterval(variant);
+                final List<String> expectedIDs = allVariants.stream().filter(queryInterval::overlaps).map(VariantContext::getID).collect(Collectors.toList());
+                Assert.assertEquals(featureSource.queryAndPrefetch(queryInterval).stream().map(VariantContext::getID).collect(Collectors.toList()), expectedIDs);
+            }
+        }
+    }
+
+    @Test
+    public void testFullyCachedIndexIsSharedWhileOpen() {
+        final ResidentFeatureIndex firstIndex;
+        try ( FeatureDataSource<VariantContext> first = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_VCF, FeatureInput.FULL_CACHE), 0, VariantContext.class);
+              FeatureDataSource<VariantContext> second = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_VCF, FeatureInput.FULL_CACHE), 0, VariantContext.class) ) {
+            firstIndex = first.getResidentIndex();
+            Assert.assertNotNull(firstIndex);
+            Assert.assertSame(second.getResidentIndex(), firstIndex);
+            // each data source decodes its own Features
+            final SimpleInterval queryInterval = new SimpleInterval("1", 100, 200);
+            Assert.assertNotSame(first.queryAndPrefetch(queryInterval).get(0), second.queryAndPrefetch(queryInterval).get(0));
+            // and keeps them in its query cache, rather than decoding them again for the next query
+            Assert.assertSame(first.queryAndPrefetch(queryInterval).get(0), first.queryAndPrefetch(new SimpleInterval("1", 100, 150)).get(0));
+        }
+
+        // the index is dropped once all the data sources using it are closed
+        try ( FeatureDataSource<VariantContext> third = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_VCF, FeatureInput.FULL_CACHE), 0, VariantContext.class) ) {
+            Assert.assertNotNull(third.getResidentIndex());
+            Assert.assertNotSame(third.getResidentIndex(), firstIndex);
+        }
+    }
+
+    @Test(timeOut = 60000)
+    public void testResidentIndexBuild() throws Exception {
+        final Supplier<ResidentFeatureIndex> builder = () -> {
+            try {
+                return ResidentFeatureIndex.load(QUERY_TEST_VCF.toPath(), new VCFCodec());
+            } catch ( final IOException e ) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        final CountDownLatch buildStarted = new CountDownLatch(1);
+        final CountDownLatch finishBuild = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ResidentFeatureIndex> slowIndex = executor.submit(() -> ResidentFeatureIndex.acquire("slow", () -> {
+                buildStarted.countDown();
+                Uninterruptibles.awaitUninterruptibly(finishBuild);
+                return builder.get();
+            }));
+            buildStarted.await();
+
+            // other indices can be acquired and released while one is being built
+            Assert.assertEquals(ResidentFeatureIndex.acquire("other", builder).size(), ResidentFeatureIndex.load(QUERY_TEST_VCF.toPath(), new VCFCodec()).size());
+            ResidentFeatureIndex.release("other");
+
+            finishBuild.countDown();
+            final ResidentFeatureIndex index = slowIndex.get();
+            Assert.assertSame(ResidentFeatureIndex.acquire("slow", () -> { throw new AssertionError("the index should be shared"); }), index);
+            ResidentFeatureIndex.release("slow");
+            ResidentFeatureIndex.release("slow");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // a failed build leaves no index behind, so the next user builds it again
+        Assert.assertThrows(UncheckedIOException.class, () -> ResidentFeatureIndex.acquire("failing", () -> { throw new UncheckedIOException(new IOException("failed")); }));
+        Assert.assertNotNull(ResidentFeatureIndex.acquire("failing", builder));
+        ResidentFeatureIndex.release("failing");
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testUnknownCacheAttributeValue() {
+        try ( FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(makeFullyCachedInput(QUERY_TEST_VCF, "partial"), 0, VariantContext.class) ) {
+            featureSource.queryAndPrefetch(new SimpleInterval("1", 1, 100));
+        }
+    }
+
     /**************************************************
      * Direct testing on the FeatureCache inner class
      **************************************************/
@@ -467,189 +581,135 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
-    private FeatureCache<ArtificialTestFeature> initializeFeatureCache( final List<ArtificialTestFeature> features, final String cacheContig, final int cacheStart, final int cacheEnd ) {
-        FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
-
-        cache.fill(features.iterator(), new SimpleInterval(cacheContig, cacheStart, cacheEnd));
-        return cache;
-    }
-
-    @DataProvider(name = "FeatureCacheFillDataProvider")
-    public Object[][] getFeatureCacheFillData() {
-        return new Object[][] {
-                { Arrays.asList(new ArtificialTestFeature("1", 1, 100), new ArtificialTestFeature("1", 50, 150),
-                                new ArtificialTestFeature("1", 200, 300), new ArtificialTestFeature("1", 350, 400)),
-                  "1", 1, 400 },
-                { Arrays.asList(new ArtificialTestFeature("1", 1, 100)), "1", 1, 100 },
-                { Collections.<ArtificialTestFeature>emptyList(), "1", 1, 1 }
-        };
-    }
+    /**
+     * Fetches the Features overlapping an interval from a sorted list, counting the number of fetches
+     */
+    private static final class ArtificialFeatureFetcher implements Function<SimpleInterval, List<ArtificialTestFeature>> {
+        private final List<ArtificialTestFeature> features;
+        private int numFetches = 0;
 
-    @Test(dataProvider = "FeatureCacheFillDataProvider")
-    public void testCacheFill( final List<ArtificialTestFeature> features, final String cacheContig, final int cacheStart, final int cacheEnd) {
-        FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(features, cacheContig, cacheStart, cacheEnd);
+        private ArtificialFeatureFetcher( final List<ArtificialTestFeature> features ) {
+            this.features = features;
+        }
 
-        List<ArtificialTestFeature> cachedFeatures = cache.getCachedFeaturesUpToStopPosition(cacheEnd);
-        Assert.assertEquals(cache.getContig(), cacheContig, "Wrong contig reported by cache after fill");
-        Assert.assertEquals(cache.getCacheStart(), cacheStart, "Wrong start position reported by cache after fill");
-        Assert.assertEquals(cache.getCacheEnd(), cacheEnd, "Wrong stop position reported by cache after fill");
-        Assert.assertEquals(cachedFeatures, features, "Wrong Features in cache after fill()");
+        @Override
+        public List<ArtificialTestFeature> apply( final SimpleInterval interval ) {
+            ++numFetches;
+            return features.stream().filter(interval::overlaps).collect(Collectors.toList());
+        }
     }
 
-    @DataProvider(name = "FeatureCacheHitDetectionDataProvider")
-    public Object[][] getFeatureCacheHitDetectionData() {
-        List<ArtificialTestFeature> features = Arrays.asList(new ArtificialTestFeature("1", 1, 100),
-                                                             new ArtificialTestFeature("1", 50, 150),
-                                                             new ArtificialTestFeature("1", 200, 300));
-        FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(features, "1", 50, 250);
-
+    @DataProvider(name = "FeatureCacheQueryDataProvider")
+    public Object[][] getFeatureCacheQueryData() {
         return new Object[][] {
-                // Exact match for cache boundaries
-                { cache, new SimpleInterval("1", 50, 250), true },
-                // Interval completely contained within cache boundaries
-                { cache, new SimpleInterval("1", 100, 200), true },
-                // Interval left-aligned with cache boundaries
-                { cache, new SimpleInterval("1", 50, 100), true },
-                // Interval right-aligned with cache boundaries
-                { cache, new SimpleInterval("1", 200, 250), true },
-                // Interval overlaps, but is off the left edge of cache boundaries
-                { cache, new SimpleInterval("1", 49, 100), false },
-                // Interval overlaps, but is off the right edge of cache boundaries
-                { cache, new SimpleInterval("1", 200, 251), false },
-                // Interval does not overlap and is to the left of cache boundaries
-                { cache, new SimpleInterval("1", 1, 40), false },
-                // Interval does not overlap and is to the right of cache boundaries
-                { cache, new SimpleInterval("1", 300, 350), false },
-                // Interval is on different contig
-                { cache, new SimpleInterval("2", 50, 250), false }
+                // block size, max cached features, lookahead
+                { 100, 1000000L, 0 },
+                { 100, 1000000L, 1000 },
+                { 100, 50L, 500 },
+                { 7, 10L, 20 },
+                { 1000, 1L, 0 }
         };
     }
 
-    @Test(dataProvider = "FeatureCacheHitDetectionDataProvider")
-    public void testCacheHitDetection( final FeatureCache<ArtificialTestFeature> cache,
-                                       final SimpleInterval testInterval, final boolean cacheHitExpectedResult ) {
-        Assert.assertEquals(cache.cacheHit(testInterval), cacheHitExpectedResult,
-                            "Cache hit detection failed for interval " + testInterval);
-    }
-
-    @DataProvider(name = "FeatureCacheTrimmingDataProvider")
-    public Object[][] getFeatureCacheTrimmingData() {
-        // Features are required to always be sorted by start position, but stop positions need not be sorted.
-        // This complicates cache trimming.
-        List<ArtificialTestFeature> feats = Arrays.asList(
-                new ArtificialTestFeature("1", 1, 1),     // Feature 0
-                new ArtificialTestFeature("1", 1, 100),   // Feature 1
-                new ArtificialTestFeature("1", 1, 1),     // Feature 2
-                new ArtificialTestFeature("1", 1, 50),    // Feature 3
-                new ArtificialTestFeature("1", 1, 3),     // Feature 4
-                new ArtificialTestFeature("1", 1, 5),     // Feature 5
-                new ArtificialTestFeature("1", 5, 5),     // Feature 6
-                new ArtificialTestFeature("1", 5, 50),    // Feature 7
-                new ArtificialTestFeature("1", 5, 10),    // Feature 8
-                new ArtificialTestFeature("1", 50, 100),  // Feature 9
-                new ArtificialTestFeature("1", 50, 50),   // Feature 10
-                new ArtificialTestFeature("1", 50, 200),  // Feature 11
-                new ArtificialTestFeature("1", 100, 100), // Feature 12
-                new ArtificialTestFeature("1", 100, 110), // Feature 13
-                new ArtificialTestFeature("1", 100, 200), // Feature 14
-                new ArtificialTestFeature("1", 100, 150), // Feature 15
-                new ArtificialTestFeature("1", 100, 199)  // Feature 16
-        );
-        FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(feats, "1", 1, 200);
-
-        // Pairing of start position to which to trim the cache with the List of Features we expect to see
-        // in the cache after trimming
-        List<Pair<Integer, List<ArtificialTestFeature>>> trimOperations = Arrays.asList(
-                Pair.of(1, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(2, Arrays.asList(feats.get(1), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(3, Arrays.asList(feats.get(1), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(4, Arrays.asList(feats.get(1), feats.get(3), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(5, Arrays.asList(feats.get(1), feats.get(3), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(6, Arrays.asList(feats.get(1), feats.get(3), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(10, Arrays.asList(feats.get(1), feats.get(3), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(11, Arrays.asList(feats.get(1), feats.get(3), feats.get(7), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(50, Arrays.asList(feats.get(1), feats.get(3), feats.get(7), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(51, Arrays.asList(feats.get(1), feats.get(9), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(100, Arrays.asList(feats.get(1), feats.get(9), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(101, Arrays.asList(feats.get(11), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(111, Arrays.asList(feats.get(11), feats.get(14), feats.get(15), feats.get(16))),
-                Pair.of(151, Arrays.asList(feats.get(11), feats.get(14), feats.get(16))),
-                Pair.of(151, Arrays.asList(feats.get(11), feats.get(14), feats.get(16))),
-                Pair.of(200, Arrays.asList(feats.get(11), feats.get(14)))
-        );
-
-        return new Object[][] {
-                { cache, trimOperations }
-        };
+    @Test(dataProvider = "FeatureCacheQueryDataProvider")
+    public void testCacheQueriesMatchUncachedQueries( final int blockSize, final long maxCachedFeatures, final int lookahead ) {
+        final Random random = new Random(42);
+        final List<ArtificialTestFeature> features = new ArrayList<>();
+        for ( final String contig : Arrays.asList("1", "2") ) {
+            int start = 1;
+            for ( int i = 0; i < 500; i++ ) {
+                start += random.nextInt(20);
+                // mostly short Features, with a few spanning many blocks
+                final int length = random.nextInt(10) == 0 ? random.nextInt(2000) : random.nextInt(10);
+                features.add(new ArtificialTestFeature(contig, start, start + length));
+            }
+        }
+        final ArtificialFeatureFetcher fetcher = new ArtificialFeatureFetcher(features);
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(blockSize, maxCachedFeatures);
+
+        for ( int i = 0; i < 2000; i++ ) {
+            final String contig = random.nextBoolean() ? "1" : "2";
+            final int start = 1 + random.nextInt(6000);
+            final SimpleInterval interval = new SimpleInterval(contig, start, start + random.nextInt(300));
+            Assert.assertEquals(cache.query(interval, lookahead, fetcher), fetcher.apply(interval), "Wrong Features returned for query " + interval);
+            Assert.assertTrue(cache.getNumCachedFeatures() <= maxCachedFeatures, "Cache exceeds its maximum size");
+        }
+        Assert.assertEquals(cache.getNumCacheHits() + cache.getNumCacheMisses(), 2000);
     }
 
-    @Test(dataProvider = "FeatureCacheTrimmingDataProvider")
-    public void testCacheTrimming( final FeatureCache<ArtificialTestFeature> cache, final List<Pair<Integer, List<ArtificialTestFeature>>> trimOperations ) {
-        // Repeatedly trim the cache to ever-increasing start positions, and verify after each trim operation
-        // that the cache holds the correct Features in the correc order
-        for ( Pair<Integer, List<ArtificialTestFeature>> trimOperation : trimOperations ) {
-            final int trimPosition = trimOperation.getLeft();
-            final List<ArtificialTestFeature> expectedFeatures = trimOperation.getRight();
-
-            cache.trimToNewStartPosition(trimPosition);
+    @Test
+    public void testCacheHitsAndLookahead() {
+        final List<ArtificialTestFeature> features = Arrays.asList(
+                new ArtificialTestFeature("1", 1, 10),
+                new ArtificialTestFeature("1", 50, 250),
+                new ArtificialTestFeature("1", 150, 160),
+                new ArtificialTestFeature("1", 900, 1000),
+                new ArtificialTestFeature("2", 5, 5));
+        final ArtificialFeatureFetcher fetcher = new ArtificialFeatureFetcher(features);
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(100, 1000);
+
+        // a miss fetches the blocks of the query and of the lookahead in a single read
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 1, 60), 500, fetcher), Arrays.asList(features.get(0), features.get(1)));
+        Assert.assertEquals(fetcher.numFetches, 1);
+        Assert.assertEquals(cache.getNumCachedBlocks(), 6);
+        Assert.assertEquals(cache.getNumCacheMisses(), 1);
+
+        // a Feature spanning several blocks is returned once
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 100, 400), 500, fetcher), Arrays.asList(features.get(1), features.get(2)));
+        // going back is still a hit
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 5, 5), 500, fetcher), Arrays.asList(features.get(0)));
+        Assert.assertEquals(cache.getNumCacheHits(), 2);
+        Assert.assertEquals(fetcher.numFetches, 1);
+
+        // only the missing blocks are fetched when a query extends past the cached ones
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 550, 950), 0, fetcher), Arrays.asList(features.get(3)));
+        Assert.assertEquals(fetcher.numFetches, 2);
+        Assert.assertEquals(cache.getNumCachedBlocks(), 10);
+
+        // contigs are cached separately
+        Assert.assertEquals(cache.query(new SimpleInterval("2", 1, 10), 0, fetcher), Arrays.asList(features.get(4)));
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 1, 10), 0, fetcher), Arrays.asList(features.get(0)));
+        Assert.assertEquals(fetcher.numFetches, 3);
+        Assert.assertEquals(cache.getNumCacheMisses(), 3);
+    }
 
-            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeaturesUpToStopPosition(cache.getCacheEnd());
-            Assert.assertEquals(actualFeatures, expectedFeatures, "Wrong Features in cache after trimming start position to " + trimPosition);
+    @Test
+    public void testCacheLeastRecentlyUsedEviction() {
+        final List<ArtificialTestFeature> features = Arrays.asList(
+                new ArtificialTestFeature("1", 5, 5),
+                new ArtificialTestFeature("1", 15, 15),
+                new ArtificialTestFeature("1", 25, 25),
+                new ArtificialTestFeature("1", 35, 35));
+        final ArtificialFeatureFetcher fetcher = new ArtificialFeatureFetcher(features);
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(10, 3);
+
+        for ( int i = 0; i < 3; i++ ) {
+            cache.query(new SimpleInterval("1", 10 * i + 1, 10 * i + 10), 0, fetcher);
         }
-    }
+        Assert.assertEquals(cache.getNumCachedFeatures(), 3);
+        Assert.assertEquals(cache.getNumBlockEvictions(), 0);
 
-    @DataProvider(name = "FeatureCacheRetrievalDataProvider")
-    public Object[][] getFeatureCacheRetrievalData() {
-        List<ArtificialTestFeature> feats = Arrays.asList(
-                new ArtificialTestFeature("1", 1, 1),      // Feature 0
-                new ArtificialTestFeature("1", 1, 100),    // Feature 1
-                new ArtificialTestFeature("1", 5, 5),      // Feature 2
-                new ArtificialTestFeature("1", 10, 10),    // Feature 3
-                new ArtificialTestFeature("1", 10, 100),   // Feature 4
-                new ArtificialTestFeature("1", 50, 50),    // Feature 5
-                new ArtificialTestFeature("1", 51, 55),    // Feature 6
-                new ArtificialTestFeature("1", 52, 52),    // Feature 7
-                new ArtificialTestFeature("1", 55, 60),    // Feature 8
-                new ArtificialTestFeature("1", 75, 75),    // Feature 9
-                new ArtificialTestFeature("1", 80, 100)    // Feature 10
-        );
-        FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(feats, "1", 1, 100);
-
-        // Pairing of end position with which to bound cache retrieval with the List of Features we expect to see
-        // after retrieval
-        List<Pair<Integer, List<ArtificialTestFeature>>> retrievalOperations = Arrays.asList(
-                Pair.of(100, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10))),
-                Pair.of(80, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10))),
-                Pair.of(79, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9))),
-                Pair.of(80, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10))),
-                Pair.of(75, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9))),
-                Pair.of(74, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8))),
-                Pair.of(54, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7))),
-                Pair.of(52, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7))),
-                Pair.of(51, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6))),
-                Pair.of(50, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5))),
-                Pair.of(49, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4))),
-                Pair.of(10, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4))),
-                Pair.of(9, Arrays.asList(feats.get(0), feats.get(1), feats.get(2))),
-                Pair.of(5, Arrays.asList(feats.get(0), feats.get(1), feats.get(2))),
-                Pair.of(4, Arrays.asList(feats.get(0), feats.get(1))),
-                Pair.of(1, Arrays.asList(feats.get(0), feats.get(1)))
-        );
+        // touch the first block, so that the second one is the least-recently used
+        cache.query(new SimpleInterval("1", 1, 10), 0, fetcher);
+        cache.query(new SimpleInterval("1", 31, 40), 0, fetcher);
+        Assert.assertEquals(cache.getNumCachedFeatures(), 3);
+        Assert.assertEquals(cache.getNumBlockEvictions(), 1);
+        Assert.assertEquals(fetcher.numFetches, 4);
 
-        return new Object[][] {
-                { cache, retrievalOperations }
-        };
-    }
+        cache.query(new SimpleInterval("1", 1, 10), 0, fetcher);
+        Assert.assertEquals(fetcher.numFetches, 4);
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 11, 20), 0, fetcher), Arrays.asList(features.get(1)));
+        Assert.assertEquals(fetcher.numFetches, 5);
 
-    @Test(dataProvider = "FeatureCacheRetrievalDataProvider")
-    public void testCacheFeatureRetrieval( final FeatureCache<ArtificialTestFeature> cache, final List<Pair<Integer, List<ArtificialTestFeature>>> retrievalOperations ) {
-        for ( Pair<Integer, List<ArtificialTestFeature>> retrievalOperation: retrievalOperations ) {
-            final int stopPosition = retrievalOperation.getLeft();
-            final List<ArtificialTestFeature> expectedFeatures = retrievalOperation.getRight();
+        // shrinking the cache evicts immediately
+        cache.setMaxCachedFeatures(1);
+        Assert.assertEquals(cache.getNumCachedFeatures(), 1);
+        Assert.assertEquals(cache.getNumCachedBlocks(), 1);
+    }
 
-            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeaturesUpToStopPosition(stopPosition);
-            Assert.assertEquals(actualFeatures, expectedFeatures, "Wrong Features returned in retrieval operation with stop position " + stopPosition);
-        }
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCacheInvalidMaxCachedFeatures() {
+        new FeatureCache<ArtificialTestFeature>(100, 0);
     }
 
     /**
@@ -658,19 +718,14 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
      */
     @Test
     public void testHandleCachingOfEmptyRegion() {
-        FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
-        List<ArtificialTestFeature> emptyRegion = new ArrayList<>();
-
-        cache.fill(emptyRegion.iterator(), new SimpleInterval("1", 1, 100));
+        final ArtificialFeatureFetcher fetcher = new ArtificialFeatureFetcher(Collections.emptyList());
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
 
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 1, 100), 0, fetcher), Collections.emptyList(), "Should get back empty List for empty region");
         Assert.assertTrue(cache.isEmpty(), "Cache should be empty");
-        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 1, 100)), "Unexpected cache miss");
-        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 2, 99)), "Unexpected cache miss");
-
-        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
-        cache.trimToNewStartPosition(2);
-        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 2, 100)), "Unexpected cache miss");
-        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
+        Assert.assertEquals(cache.query(new SimpleInterval("1", 2, 99), 0, fetcher), Collections.emptyList(), "Should get back empty List for empty region");
+        Assert.assertEquals(cache.getNumCacheHits(), 1, "Unexpected cache miss");
+        Assert.assertEquals(fetcher.numFetches, 1);
     }
 
     /*********************************************************
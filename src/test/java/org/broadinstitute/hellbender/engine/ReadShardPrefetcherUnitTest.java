@@ -0,0 +1,115 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReadShardPrefetcherUnitTest extends GATKBaseTest {
+    private static final String READS_PATH = publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam";
+
+    private static List<MultiIntervalLocalReadShard> makeShards(final ReadsDataSource readsSource) {
+        return Arrays.asList(
+                new MultiIntervalLocalReadShard(Arrays.asList(new SimpleInterval("1", 200, 210)), 0, readsSource),
+                new MultiIntervalLocalReadShard(Arrays.asList(new SimpleInterval("1", 400, 500)), 0, readsSource),
+                new MultiIntervalLocalReadShard(Arrays.asList(new SimpleInterval("1", 205, 950), new SimpleInterval("1", 1200, 1500)), 50, readsSource),
+                new MultiIntervalLocalReadShard(Arrays.asList(new SimpleInterval("2", 1, 600)), 0, readsSource)
+        );
+    }
+
+    private static List<String> getReadNames(final Iterable<GATKRead> shard) {
+        final List<String> names = new ArrayList<>();
+        for ( final GATKRead read : shard ) {
+            names.add(read.getName());
+        }
+        return names;
+    }
+
+    @DataProvider
+    public Object[][] prefetchBufferSizes() {
+        return new Object[][] { {1}, {2}, {ReadShardPrefetcher.READ_BATCH_SIZE}, {100 * ReadShardPrefetcher.READ_BATCH_SIZE} };
+    }
+
+    @Test(dataProvider = "prefetchBufferSizes")
+    public void testPrefetchedReadsMatchShardReads(final int maxPrefetchedReads) {
+        final List<List<String>> expectedReadNames = new ArrayList<>();
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH)) ) {
+            for ( final MultiIntervalLocalReadShard shard : makeShards(readsSource) ) {
+                expectedReadNames.add(getReadNames(shard));
+            }
+        }
+
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH));
+              final ReadShardPrefetcher prefetcher = new ReadShardPrefetcher(makeShards(readsSource), maxPrefetchedReads) ) {
+            final List<List<String>> actualReadNames = new ArrayList<>();
+            while ( prefetcher.hasNextShard() ) {
+                actualReadNames.add(getReadNames(prefetcher.nextShard()));
+            }
+            Assert.assertEquals(actualReadNames, expectedReadNames);
+        }
+    }
+
+    @Test
+    public void testPrefetchedShardIntervals() {
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH)) ) {
+            final List<MultiIntervalLocalReadShard> shards = makeShards(readsSource);
+            try ( final ReadShardPrefetcher prefetcher = new ReadShardPrefetcher(shards, 1) ) {
+                for ( final MultiIntervalLocalReadShard shard : shards ) {
+                    final MultiIntervalShard<GATKRead> prefetchedShard = prefetcher.nextShard();
+                    Assert.assertEquals(prefetchedShard.getIntervals(), shard.getIntervals());
+                    Assert.assertEquals(prefetchedShard.getPaddedIntervals(), shard.getPaddedIntervals());
+                }
+                Assert.assertFalse(prefetcher.hasNextShard());
+            }
+        }
+    }
+
+    @Test
+    public void testUnconsumedReadsAreDiscarded() {
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH));
+              final ReadShardPrefetcher prefetcher = new ReadShardPrefetcher(makeShards(readsSource), 1) ) {
+            // skip the first shard entirely, and only partially consume the second one
+            prefetcher.nextShard();
+            prefetcher.nextShard().iterator().hasNext();
+            Assert.assertEquals(getReadNames(prefetcher.nextShard()), Arrays.asList("a", "b", "c", "d", "e"));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testPrefetchedShardCanOnlyBeIteratedOnce() {
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH));
+              final ReadShardPrefetcher prefetcher = new ReadShardPrefetcher(makeShards(readsSource), 1) ) {
+            final MultiIntervalShard<GATKRead> shard = prefetcher.nextShard();
+            getReadNames(shard);
+            shard.iterator();
+        }
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testLoadingErrorsArePropagated() {
+        final ReadFilter failingFilter = new ReadFilter() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public boolean test( final GATKRead read ) {
+                throw new GATKException("filter failure");
+            }
+        };
+
+        try ( final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(READS_PATH)) ) {
+            final List<MultiIntervalLocalReadShard> shards = makeShards(readsSource);
+            shards.forEach(shard -> shard.setReadFilter(failingFilter));
+            try ( final ReadShardPrefetcher prefetcher = new ReadShardPrefetcher(shards, 1) ) {
+                getReadNames(prefetcher.nextShard());
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceFile;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ReferencePackedFileSourceUnitTest extends GATKBaseTest {
+
+    private Path fasta;
+
+    @BeforeClass
+    public void createPackedReference() throws IOException {
+        // work on a copy, so that the sidecar is not created next to the test resources
+        final Path dir = IOUtils.createTempDir("packedReference").toPath();
+        fasta = dir.resolve("hg19mini.fasta");
+        Files.copy(IOUtils.getPath(hg19MiniReference), fasta);
+        Files.copy(IOUtils.getPath(hg19MiniReference + ".fai"), dir.resolve("hg19mini.fasta.fai"));
+        Files.copy(IOUtils.getPath(publicTestDir + "hg19mini.dict"), dir.resolve("hg19mini.dict"));
+        PackedReferenceFile.create(fasta, PackedReferenceFile.getSidecarPath(fasta));
+    }
+
+    private List<SimpleInterval> getTestIntervals(final ReferenceDataSource reference) {
+        final List<SimpleInterval> intervals = new ArrayList<>();
+        for ( final SAMSequenceRecord sequence : reference.getSequenceDictionary().getSequences() ) {
+            final int length = sequence.getSequenceLength();
+            intervals.add(new SimpleInterval(sequence.getSequenceName(), 1, 1));
+            intervals.add(new SimpleInterval(sequence.getSequenceName(), 1, 100));
+            intervals.add(new SimpleInterval(sequence.getSequenceName(), length / 2, length / 2 + 1234));
+            intervals.add(new SimpleInterval(sequence.getSequenceName(), length, length));
+            intervals.add(new SimpleInterval(sequence.getSequenceName(), 1, length));
+        }
+        return intervals;
+    }
+
+    @Test
+    public void testQueriesMatchFasta() {
+        try ( final ReferenceDataSource expected = new ReferenceFileSource(fasta);
+              final ReferencePackedFileSource actual = new ReferencePackedFileSource(fasta) ) {
+            Assert.assertEquals(actual.getSequenceDictionary(), expected.getSequenceDictionary());
+            for ( final SimpleInterval interval : getTestIntervals(expected) ) {
+                final ReferenceSequence expectedSequence = expected.queryAndPrefetch(interval);
+                final ReferenceSequence actualSequence = actual.queryAndPrefetch(interval);
+                Assert.assertEquals(actualSequence.getName(), expectedSequence.getName());
+                Assert.assertEquals(actualSequence.getContigIndex(), expectedSequence.getContigIndex());
+                Assert.assertEquals(actualSequence.getBases(), expectedSequence.getBases(), "bases differ at " + interval);
+
+                final ByteBuffer view = actual.queryView(interval.getContig(), interval.getStart(), interval.getEnd());
+                Assert.assertTrue(view.isReadOnly());
+                final byte[] viewBases = new byte[view.remaining()];
+                view.get(viewBases);
+                Assert.assertEquals(viewBases, expectedSequence.getBases(), "view differs at " + interval);
+            }
+        }
+    }
+
+    @Test
+    public void testSidecarIsUsedByDefault() throws IOException {
+        try ( final ReferenceDataSource reference = ReferenceDataSource.of(fasta) ) {
+            Assert.assertTrue(reference instanceof ReferencePackedFileSource);
+        }
+
+        // a sidecar older than the fasta is ignored
+        final Path sidecar = PackedReferenceFile.getSidecarPath(fasta);
+        final FileTime sidecarTime = Files.getLastModifiedTime(sidecar);
+        try {
+            Files.setLastModifiedTime(sidecar, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() - 10000));
+            try ( final ReferenceDataSource reference = ReferenceDataSource.of(fasta) ) {
+                Assert.assertTrue(reference instanceof ReferenceFileSource);
+            }
+        } finally {
+            Files.setLastModifiedTime(sidecar, sidecarTime);
+        }
+
+        // as is the sidecar of a fasta that doesn't have one
+        try ( final ReferenceDataSource reference = ReferenceDataSource.of(IOUtils.getPath(hg19MiniReference)) ) {
+            Assert.assertTrue(reference instanceof ReferenceFileSource);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MissingContigInSequenceDictionary.class)
+    public void testQueryMissingContig() {
+        try ( final ReferenceDataSource reference = new ReferencePackedFileSource(fasta) ) {
+            reference.queryAndPrefetch("nonexistent", 1, 10);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testQueryPastEndOfContig() {
+        try ( final ReferenceDataSource reference = new ReferencePackedFileSource(fasta) ) {
+            final SAMSequenceRecord sequence = reference.getSequenceDictionary().getSequence(0);
+            reference.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength() + 1);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAPackedReference() {
+        PackedReferenceFile.open(IOUtils.getPath(hg19MiniReference));
+    }
+}
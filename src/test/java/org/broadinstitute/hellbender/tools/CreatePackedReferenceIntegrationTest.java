@@ -0,0 +1,36 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceFileSource;
+import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceFile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+public final class CreatePackedReferenceIntegrationTest extends CommandLineProgramTest {
+
+    @Test
+    public void testCreatePackedReference() {
+        final File output = createTempFile("packedReference", PackedReferenceFile.SIDECAR_EXTENSION);
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addReference(hg19MiniReference)
+                .addOutput(output);
+        runCommandLine(args);
+
+        try ( final ReferenceDataSource fasta = new ReferenceFileSource(IOUtils.getPath(hg19MiniReference));
+              final PackedReferenceFile packed = PackedReferenceFile.open(output.toPath()) ) {
+            Assert.assertEquals(packed.getContigNames().size(), fasta.getSequenceDictionary().size());
+            fasta.getSequenceDictionary().getSequences().forEach(sequence -> {
+                final SimpleInterval contig = new SimpleInterval(sequence.getSequenceName(), 1, sequence.getSequenceLength());
+                Assert.assertEquals(packed.getContigLength(contig.getContig()), sequence.getSequenceLength());
+                Assert.assertEquals(packed.getSubsequenceAt(contig.getContig(), contig.getStart(), contig.getEnd()).getBases(),
+                        fasta.queryAndPrefetch(contig).getBases());
+            });
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
+import org.broadinstitute.hellbender.engine.WalkerBase;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.SamAssertionUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
@@ -18,6 +20,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public final class PrintReadsIntegrationTest extends AbstractPrintReadsIntegrationTest {
@@ -50,6 +53,50 @@ public final class PrintReadsIntegrationTest extends AbstractPrintReadsIntegrati
         Assert.assertNotNull(SamReaderFactory.makeDefault().open(outFile).getFileHeader().getProgramRecord("GATK PrintReads.1"));
     }
 
+    @DataProvider
+    public Object[][] getParallelTraversalData() {
+        final File unmappedBam = new File(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1_with_unmapped.bam");
+        final File ceuSnippet = new File(publicTestDir + "org/broadinstitute/hellbender/engine/CEUTrio.HiSeq.WGS.b37.NA12878.snippet_with_unmapped.bam");
+        return new Object[][] {
+                { unmappedBam, Collections.emptyList() },
+                { unmappedBam, Arrays.asList("1:200-300", "4:700-701", "unmapped") },
+                { unmappedBam, Arrays.asList("1", "2", "3") },
+                { ceuSnippet, Collections.emptyList() },
+                { ceuSnippet, Arrays.asList("20:10000009-10000013", "unmapped") }
+        };
+    }
+
+    @Test(dataProvider = "getParallelTraversalData")
+    public void testParallelTraversalMatchesSerialTraversal(final File input, final List<String> intervals) throws IOException {
+        final File serialOutput = createTempFile("testParallelTraversal.serial", ".bam");
+        final File parallelOutput = createTempFile("testParallelTraversal.parallel", ".bam");
+        for ( final File output : Arrays.asList(serialOutput, parallelOutput) ) {
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addInput(input)
+                    .addOutput(output)
+                    .add(StandardArgumentDefinitions.ADD_OUTPUT_SAM_PROGRAM_RECORD, false);
+            for ( final String interval : intervals ) {
+                args.addInterval(interval);
+            }
+            if ( output == parallelOutput ) {
+                args.add(WalkerBase.TRAVERSAL_THREADS_LONG_NAME, 3);
+            }
+            runCommandLine(args);
+        }
+
+        SamAssertionUtils.assertSamsEqual(parallelOutput, serialOutput);
+    }
+
+    @Test(expectedExceptions = UserException.class)
+    public void testParallelTraversalRequiresSortedInput() {
+        final File unsortedInput = new File(TEST_DATA_DIR, "print_reads.bam");
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addInput(unsortedInput)
+                .addOutput(createTempFile("testParallelTraversalRequiresSortedInput", ".bam"))
+                .add(WalkerBase.TRAVERSAL_THREADS_LONG_NAME, 2);
+        runCommandLine(args);
+    }
+
     @DataProvider
     public Object[][] getHttpPaths(){
         final String bam = "gs://hellbender/test/resources/benchmark/CEUTrio.HiSeq.WEx.b37.NA12892.bam";
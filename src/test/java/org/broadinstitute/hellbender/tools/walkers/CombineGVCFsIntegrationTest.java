@@ -13,7 +13,9 @@ import org.apache.commons.collections.IteratorUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.runtime.ProcessController;
 import org.broadinstitute.hellbender.utils.runtime.ProcessOutput;
@@ -32,6 +34,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -292,6 +298,94 @@ public class CombineGVCFsIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(allVCs.size(), 5);
     }
 
+    private static final String BANDED_COMBINE_REGION = "20:69485-69770";
+    // contains all the blocks overlapping BANDED_COMBINE_REGION, so that none of them is cut
+    private static final String BANDED_COMBINE_ALL_BLOCKS_REGION = "20:69485-69800";
+
+    @DataProvider
+    public Object[][] bandedCombineData() {
+        final List<List<String>> intervalLists = Arrays.asList(
+                // many overlapping reference blocks from both samples, and two variants
+                Collections.singletonList(BANDED_COMBINE_REGION),
+                // intervals ending in the middle of reference blocks, including one spanning several intervals
+                Arrays.asList("20:69495-69530", "20:69600-69700", "20:69760-69770"));
+        final List<Object[]> data = new ArrayList<>();
+        for (final List<String> intervals : intervalLists) {
+            data.add(new Object[]{intervals, Collections.singletonList("--" + CombineGVCFs.BP_RES_LONG_NAME), 1});
+            for (final int bandMultiple : new int[]{3, 10, 25}) {
+                data.add(new Object[]{intervals, Collections.singletonList("--" + CombineGVCFs.BREAK_BANDS_LONG_NAME + " " + bandMultiple), bandMultiple});
+            }
+        }
+        return data.toArray(new Object[0][]);
+    }
+
+    @Test(dataProvider = "bandedCombineData")
+    public void testBandedOutputMatchesUnbandedOutput(final List<String> intervals, final List<String> bandingArgs, final int bandMultiple) throws IOException {
+        final List<SimpleInterval> parsedIntervals = intervals.stream().map(SimpleInterval::new).collect(Collectors.toList());
+        final Map<Integer, List<String>> wholeRegionGenotypes = getGenotypesByPosition(combineGVCFExamples(Collections.singletonList(BANDED_COMBINE_ALL_BLOCKS_REGION), NO_EXTRA_ARGS));
+        final List<VariantContext> unbanded = combineGVCFExamples(intervals, NO_EXTRA_ARGS);
+        final List<VariantContext> banded = combineGVCFExamples(intervals, bandingArgs);
+        Assert.assertFalse(unbanded.isEmpty());
+
+        // Inside the intervals, every position is covered by records with the genotypes of all the blocks overlapping it,
+        // whichever way the blocks are cut. Records that don't end inside the intervals are dropped, so banded output
+        // may cover more positions than unbanded output, where the intervals cut a block after a band boundary.
+        final Map<Integer, List<String>> unbandedGenotypes = getGenotypesByPosition(unbanded);
+        final Map<Integer, List<String>> bandedGenotypes = getGenotypesByPosition(banded);
+        Assert.assertTrue(bandedGenotypes.keySet().containsAll(unbandedGenotypes.keySet()));
+        unbandedGenotypes.forEach((pos, genotypes) -> Assert.assertEquals(bandedGenotypes.get(pos), genotypes, "at " + pos));
+        bandedGenotypes.forEach((pos, genotypes) -> {
+            if (parsedIntervals.stream().anyMatch(interval -> interval.getStart() <= pos && pos <= interval.getEnd())) {
+                Assert.assertEquals(genotypes, wholeRegionGenotypes.get(pos), "at " + pos);
+            }
+        });
+
+        // records are split at the same places, and before every multiple of the band size inside the intervals
+        final Set<Integer> expectedEnds = unbanded.stream().map(VariantContext::getEnd).collect(Collectors.toCollection(TreeSet::new));
+        bandedGenotypes.keySet().stream()
+                .filter(pos -> (pos + 1) % bandMultiple == 0)
+                .filter(pos -> parsedIntervals.stream().anyMatch(interval -> interval.getStart() <= pos && pos <= interval.getEnd()))
+                .forEach(expectedEnds::add);
+        Assert.assertEquals(banded.stream().map(VariantContext::getEnd).collect(Collectors.toCollection(TreeSet::new)), expectedEnds);
+
+        // and the reference blocks cut from longer blocks start with the right reference base
+        try (final ReferenceDataSource reference = ReferenceDataSource.of(new File(b37_reference_20_21).toPath())) {
+            for (final VariantContext vc : banded) {
+                if (vc.getNAlleles() == 2 && vc.getAlternateAllele(0).equals(Allele.NON_REF_ALLELE)) {
+                    Assert.assertEquals(vc.getReference().getBases()[0], reference.queryAndPrefetch(vc.getContig(), vc.getStart(), vc.getStart()).getBases()[0],
+                            "wrong reference base for " + vc);
+                }
+            }
+        }
+    }
+
+    private List<VariantContext> combineGVCFExamples(final List<String> intervals, final List<String> extraArgs) throws IOException {
+        final File output = createTempFile("combinegvcfs", ".vcf");
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(b37_reference_20_21))
+                .addOutput(output);
+        args.addVCF(getTestFile("gvcfExample1.vcf"));
+        args.addVCF(getTestFile("gvcfExample2.vcf"));
+        intervals.forEach(interval -> args.addInterval(interval));
+        extraArgs.forEach(args::addRaw);
+
+        runCommandLine(args);
+        return getVariantContexts(output);
+    }
+
+    // the genotypes of the records covering each position, by position
+    private static Map<Integer, List<String>> getGenotypesByPosition(final List<VariantContext> vcs) {
+        final Map<Integer, List<String>> genotypesByPosition = new TreeMap<>();
+        for (final VariantContext vc : vcs) {
+            for (int pos = vc.getStart(); pos <= vc.getEnd(); pos++) {
+                final List<String> genotypes = genotypesByPosition.computeIfAbsent(pos, p -> new ArrayList<>());
+                vc.getGenotypesOrderedByName().forEach(g -> genotypes.add(g.toString()));
+            }
+        }
+        return genotypesByPosition;
+    }
+
     // Ensuring that no exception is thrown and that the resulting VCF is empty
     @Test
     public void testNoDataInInterval() throws Exception {
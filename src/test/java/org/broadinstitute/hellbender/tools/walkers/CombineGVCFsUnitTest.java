@@ -10,14 +10,14 @@ import java.util.stream.Collectors;
 
 public class CombineGVCFsUnitTest {
 
-    @DataProvider(name="breakIntermediateStopSites")
-    public Object[][] getIntermediateStopSitesData() {
+    @DataProvider(name="bandStopSites")
+    public Object[][] getBandStopSitesData() {
         return new Object[][] {
                 // Note that the expected results here do not represent a final set of stop sites for the given
-                // interval. Rather, they are intended to match the output of the CombineGVCFs.getIntermediateStopSites
-                // method, which returns an initial set of intermediate stop sites that in some cases includes sites
-                // outside the actual interval being closed, but which  are subsequently filtered out by additional
-                // downstream code in CombineGVCFs.
+                // interval. Rather, they are intended to match the output of the CombineGVCFs.getBandStopSites
+                // method, which returns the band stop sites that in some cases include sites outside the actual
+                // interval being closed, but which are subsequently skipped by additional downstream code in
+                // CombineGVCFs.
                 { new SimpleInterval("contig", 1, 1), 1, Collections.EMPTY_LIST },
                 { new SimpleInterval("contig", 1, 2), 1, Arrays.asList(1) },
                 { new SimpleInterval("contig", 1, 2), 2, Arrays.asList(1) },
@@ -42,17 +42,29 @@ public class CombineGVCFsUnitTest {
         };
     }
 
-    @Test(dataProvider = "breakIntermediateStopSites")
-    public void testGetIntermediateStopSites(
+    @Test(dataProvider = "bandStopSites")
+    public void testGetBandStopSites(
             final SimpleInterval intervalToClose,
             final int breakBandMultiple,
             final List<Integer> expectedCloseSites)
     {
-        final List<Integer> actualStopSites = new ArrayList<>(CombineGVCFs.getIntermediateStopSites(intervalToClose, breakBandMultiple));
-        actualStopSites.sort(Comparator.naturalOrder());
+        final List<Integer> actualStopSites = new ArrayList<>();
+        CombineGVCFs.getBandStopSites(intervalToClose, breakBandMultiple).forEachRemaining((int stopSite) -> actualStopSites.add(stopSite));
         // validate that the resulting stop sites all result in valid single-position stop intervals
         actualStopSites.stream().forEach(stopSite -> Assert.assertNotNull(new SimpleInterval(intervalToClose.getContig(), stopSite, stopSite)));
+        // the stop sites come in increasing order
         Assert.assertEquals(actualStopSites, expectedCloseSites);
     }
 
+    @Test
+    public void testBandStopSitesAreGeneratedLazily() {
+        // a contig-sized reference block at single base resolution has hundreds of millions of band stop sites,
+        // which must not be held in memory at once
+        final PrimitiveIterator.OfInt stopSites = CombineGVCFs.getBandStopSites(new SimpleInterval("contig", 1, 250_000_000), 1);
+        Assert.assertEquals(stopSites.nextInt(), 1);
+        Assert.assertEquals(stopSites.nextInt(), 2);
+        Assert.assertEquals(stopSites.nextInt(), 3);
+        Assert.assertTrue(stopSites.hasNext());
+    }
+
 }
@@ -15,6 +15,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.WalkerBase;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.GenomicsDBTestUtils;
@@ -396,6 +397,41 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
         runAndCheckGenomicsDBOutput(args, expected, output);
     }
 
+    @Test(dataProvider = "getGVCFsForGenomicsDBOverMultipleIntervals")
+    public void testGenotypeGVCFsMultiIntervalGDBQueryInParallel(File input, File expected, List<Locatable> intervals, String reference) throws IOException {
+        final File tempGenomicsDB = GenomicsDBTestUtils.createTempGenomicsDB(input, intervals, true);
+        final String genomicsDBUri = GenomicsDBTestUtils.makeGenomicsDBUri(tempGenomicsDB);
+
+        final File output = createTempFile("genotypegvcf", ".vcf");
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(reference))
+                .add("V", genomicsDBUri)
+                .add(WalkerBase.TRAVERSAL_THREADS_LONG_NAME, 3);
+        args.addOutput(output);
+        intervals.forEach(args::addInterval);
+        args.addRaw("--" + GenomicsDBImport.MERGE_INPUT_INTERVALS_LONG_NAME);
+        args.addRaw("--only-output-calls-starting-in-intervals");
+
+        runAndCheckGenomicsDBOutput(args, expected, output);
+    }
+
+    @Test
+    public void testParallelTraversalMatchesSingleThreaded() {
+        // all sites, so that the traversal is by locus and every site is output
+        final List<String> allSitesArgs = Arrays.asList("-L", "20:10000000-10020000", "--" + GenotypeGVCFs.ALL_SITES_LONG_NAME);
+        final File expected = runGenotypeGVCFS(getTestFile(BASE_PAIR_GVCF).getAbsolutePath(), null, allSitesArgs, b37_reference_20_21);
+
+        final List<String> parallelArgs = new ArrayList<>(allSitesArgs);
+        parallelArgs.addAll(Arrays.asList("--" + WalkerBase.TRAVERSAL_THREADS_LONG_NAME, "4"));
+        final File actual = runGenotypeGVCFS(getTestFile(BASE_PAIR_GVCF).getAbsolutePath(), null, parallelArgs, b37_reference_20_21);
+
+        final List<VariantContext> expectedVC = VariantContextTestUtils.getVariantContexts(expected);
+        final List<VariantContext> actualVC = VariantContextTestUtils.getVariantContexts(actual);
+        Assert.assertFalse(expectedVC.isEmpty());
+        assertForEachElementInLists(actualVC, expectedVC, (a, e) -> VariantContextTestUtils.assertVariantContextsAreEqual(a, e, Collections.emptyList(), ATTRIBUTES_WITH_JITTER));
+    }
+
     //this tests single-sample with new MQ format
     @Test (dataProvider = "singleSampleGVCFWithNewMQFormat")
     public void assertMatchingAnnotationsFromGenomicsDB_newMQformat(File input, File expected, Locatable interval, String reference) throws IOException {
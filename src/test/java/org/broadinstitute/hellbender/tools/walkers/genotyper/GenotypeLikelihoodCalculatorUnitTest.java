@@ -79,6 +79,23 @@ public final class GenotypeLikelihoodCalculatorUnitTest {
         }
     }
 
+    @Test
+    public void testCalculatorsSharingReadBuffers() {
+        final AlleleLikelihoods<GATKRead, Allele> smallLikelihoods = ReadLikelihoodsUnitTester.readLikelihoods(2, new int[] {5});
+        final AlleleLikelihoods<GATKRead, Allele> largeLikelihoods = ReadLikelihoodsUnitTester.readLikelihoods(4, new int[] {100});
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final double[] expectedSmall = calculators.getInstance(2, 2).genotypeLikelihoods(smallLikelihoods.sampleMatrix(0)).getAsVector();
+        final double[] expectedLarge = calculators.getInstance(3, 4).genotypeLikelihoods(largeLikelihoods.sampleMatrix(0)).getAsVector();
+
+        // calculators on the same thread share their read buffers, which must not carry over between calculations
+        final GenotypeLikelihoodCalculator small = calculators.getInstance(2, 2);
+        final GenotypeLikelihoodCalculator large = calculators.getInstance(3, 4);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(small.genotypeLikelihoods(smallLikelihoods.sampleMatrix(0)).getAsVector(), expectedSmall);
+            Assert.assertEquals(large.genotypeLikelihoods(largeLikelihoods.sampleMatrix(0)).getAsVector(), expectedLarge);
+        }
+    }
+
     @Test(dataProvider = "ploidyAndMaximumAlleleAndNewMaximumAlleleData")
     public void testGenotypeIndexMap(final int ploidy, final int oldAlleleCount, final int newAlleleCount) {
         final Random rnd = Utils.getRandomGenerator();
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.genotyper;
 
 import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.MathUtils;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -9,6 +10,9 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
 
@@ -75,6 +79,31 @@ public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testConcurrentInstancesShareTables() throws Exception {
+        final int[] ploidies = {1, 2, 3, 4, 6};
+        final int[] alleleCounts = {1, 2, 5, 12};
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final int ploidy : ploidies) {
+                for (final int alleleCount : alleleCounts) {
+                    futures.add(executor.submit(() -> {
+                        // each thread uses its own calculators object, but they all grow and read the same tables
+                        final GenotypeLikelihoodCalculator inst = new GenotypeLikelihoodCalculators().getInstance(ploidy, alleleCount);
+                        Assert.assertEquals(inst.genotypeCount(), (int) Math.round(Math.pow(10, MathUtils.log10BinomialCoefficient(ploidy + alleleCount - 1, alleleCount - 1))));
+                        Assert.assertEquals(inst.genotypeAlleleCountsAt(inst.genotypeCount() - 1).ploidy(), ploidy);
+                    }));
+                }
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testGenotypeCountOverflow() throws Exception {
         final int genotypeCount = new GenotypeLikelihoodCalculators().genotypeCount(10_000, 10_000);
@@ -0,0 +1,71 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class CollapsedReadLikelihoodMatrixUnitTest extends GATKBaseTest {
+
+    private static GATKRead makeRead(final String name, final String bases, final int qual, final int insertionQual) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(bases.getBytes(), Utils.dupBytes((byte) qual, bases.length()), bases.length() + "M");
+        read.setName(name);
+        ReadUtils.setInsertionBaseQualities(read, Utils.dupBytes((byte) insertionQual, bases.length()));
+        ReadUtils.setDeletionBaseQualities(read, Utils.dupBytes((byte) 45, bases.length()));
+        return read;
+    }
+
+    @Test
+    public void testIdenticalReadsShareARow() {
+        final List<GATKRead> reads = Arrays.asList(
+                makeRead("a", "ACGTACGT", 30, 45),
+                makeRead("b", "ACGTACGT", 30, 45),   // same as a
+                makeRead("c", "ACGTACGA", 30, 45),   // different bases
+                makeRead("d", "ACGTACGT", 20, 45),   // different base qualities
+                makeRead("e", "ACGTACGT", 30, 40),   // different insertion qualities
+                makeRead("f", "ACGTACGA", 30, 45));  // same as c
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTAA".getBytes(), true), new Haplotype("ACGTACGAAA".getBytes(), false));
+        final AlleleLikelihoods<GATKRead, Haplotype> likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("sample"),
+                new IndexedAlleleList<>(haplotypes), Collections.singletonMap("sample", reads));
+        final LikelihoodMatrix<GATKRead, Haplotype> matrix = likelihoods.sampleMatrix(0);
+
+        final CollapsedReadLikelihoodMatrix collapsed = new CollapsedReadLikelihoodMatrix(matrix, reads);
+        Assert.assertEquals(collapsed.evidenceCount(), 4);
+        Assert.assertEquals(collapsed.uniqueProcessedReads(), Arrays.asList(reads.get(0), reads.get(2), reads.get(3), reads.get(4)));
+        Assert.assertEquals(collapsed.indexOfEvidence(reads.get(1)), 0);
+        Assert.assertEquals(collapsed.indexOfEvidence(reads.get(5)), 1);
+
+        // setting a row sets the likelihoods of all the reads collapsed into it
+        for (int a = 0; a < collapsed.numberOfAlleles(); a++) {
+            for (int row = 0; row < collapsed.evidenceCount(); row++) {
+                collapsed.set(a, row, -(10 * a + row));
+            }
+        }
+        final int[] expectedRows = {0, 0, 1, 2, 3, 1};
+        for (int a = 0; a < matrix.numberOfAlleles(); a++) {
+            for (int r = 0; r < matrix.evidenceCount(); r++) {
+                Assert.assertEquals(matrix.get(a, r), (double) -(10 * a + expectedRows[r]));
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWrongNumberOfProcessedReads() {
+        final List<GATKRead> reads = Collections.singletonList(makeRead("a", "ACGT", 30, 45));
+        final AlleleLikelihoods<GATKRead, Haplotype> likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("sample"),
+                new IndexedAlleleList<>(new Haplotype("ACGT".getBytes(), true)), Collections.singletonMap("sample", reads));
+        new CollapsedReadLikelihoodMatrix(likelihoods.sampleMatrix(0), Collections.emptyList());
+    }
+}
@@ -12,6 +12,7 @@ import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.IntervalArgumentCollection;
@@ -101,6 +102,55 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
             IntegrationTestSpec.assertEqualTextFiles(output, expected);
         }
     }
+
+    /*
+     * Test that processing assembly regions in parallel produces exactly the same output as the single-threaded traversal
+     */
+    @Test(dataProvider="HaplotypeCallerTestInputs")
+    public void testParallelRegionProcessingIsConsistentWithPastResults(final String inputFileName, final String referenceFileName) throws Exception {
+        Utils.resetRandomGenerator();
+
+        final File vcfOutput = createTempFile("testParallelRegionProcessingVCFMode", ".vcf");
+        final File gvcfOutput = createTempFile("testParallelRegionProcessingGVCFMode", ".g.vcf");
+
+        final String[] vcfArgs = {
+                "-I", inputFileName,
+                "-R", referenceFileName,
+                "-L", "20:10000000-10100000",
+                "-O", vcfOutput.getAbsolutePath(),
+                "-pairHMM", "AVX_LOGLESS_CACHING",
+                "--" + AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, "4",
+                "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+        };
+        runCommandLine(vcfArgs);
+        IntegrationTestSpec.assertEqualTextFiles(vcfOutput, new File(TEST_FILES_DIR, "expected.testVCFMode.gatk4.vcf"));
+
+        Utils.resetRandomGenerator();
+        final String[] gvcfArgs = {
+                "-I", inputFileName,
+                "-R", referenceFileName,
+                "-L", "20:10000000-10100000",
+                "-O", gvcfOutput.getAbsolutePath(),
+                "--" + AssemblyBasedCallerArgumentCollection.EMIT_REF_CONFIDENCE_LONG_NAME, ReferenceConfidenceMode.GVCF.toString(),
+                "-pairHMM", "AVX_LOGLESS_CACHING",
+                "--" + AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, "4",
+                "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+        };
+        runCommandLine(gvcfArgs);
+        IntegrationTestSpec.assertEqualTextFiles(gvcfOutput, new File(TEST_FILES_DIR, "expected.testGVCFMode.gatk4.g.vcf"));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testParallelRegionProcessingRejectsBamout() {
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addInput(NA12878_20_21_WGS_bam)
+                .addReference(b37_reference_20_21)
+                .addInterval("20:10000000-10010000")
+                .addOutput(createTempFile("testParallelRegionProcessingRejectsBamout", ".vcf"))
+                .add(AssemblyBasedCallerArgumentCollection.BAM_OUTPUT_LONG_NAME, createTempFile("testParallelRegionProcessingRejectsBamout", ".bam"))
+                .add(AssemblyRegionArgumentCollection.REGION_THREADS_LONG_NAME, 2);
+        runCommandLine(args);
+    }
     
     /*
      * Test that in JunctionTree mode we're consistent with past JunctionTree results (over non-complicated data)
@@ -0,0 +1,162 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.TextCigarCodec;
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public final class PairHMMLikelihoodCacheUnitTest extends GATKBaseTest {
+
+    private static final long ENTRY_SIZE_FOR_TEN_VALUES = 2 * Integer.BYTES + 10 * Double.BYTES;
+
+    private static double[] values(final double offset) {
+        final double[] result = new double[10];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offset - i * 0.5;
+        }
+        return result;
+    }
+
+    @Test
+    public void testPutAndGetAcrossInstances() {
+        final Path directory = createTempDir("likelihoodCache").toPath();
+
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(directory, 1024 * 1024);
+        Assert.assertNull(cache.get("key1", 10));
+        cache.put("key1", values(-1.0));
+        Assert.assertEquals(cache.get("key1", 10), values(-1.0));
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.sizeInBytes(), ENTRY_SIZE_FOR_TEN_VALUES);
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 1);
+
+        final PairHMMLikelihoodCache reopened = new PairHMMLikelihoodCache(directory, 1024 * 1024);
+        Assert.assertEquals(reopened.size(), 1);
+        Assert.assertEquals(reopened.get("key1", 10), values(-1.0));
+        // an entry of the wrong shape is a miss, and is dropped
+        Assert.assertNull(reopened.get("key1", 12));
+        Assert.assertEquals(reopened.size(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final Path directory = createTempDir("likelihoodCache").toPath();
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(directory, 2 * ENTRY_SIZE_FOR_TEN_VALUES);
+
+        cache.put("key1", values(-1.0));
+        cache.put("key2", values(-2.0));
+        Assert.assertNotNull(cache.get("key1", 10));
+        cache.put("key3", values(-3.0));
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.sizeInBytes(), 2 * ENTRY_SIZE_FOR_TEN_VALUES);
+        Assert.assertEquals(cache.get("key1", 10), values(-1.0));
+        Assert.assertNull(cache.get("key2", 10));
+        Assert.assertEquals(cache.get("key3", 10), values(-3.0));
+        Assert.assertEquals(new PairHMMLikelihoodCache(directory, 2 * ENTRY_SIZE_FOR_TEN_VALUES).size(), 2);
+
+        // entries that are larger than the whole cache are not stored at all
+        cache.put("key4", new double[100]);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNull(cache.get("key4", 100));
+    }
+
+    @Test
+    public void testKeyDependsOnAllInputs() {
+        final StandardPairHMMInputScoreImputator imputator = StandardPairHMMInputScoreImputator.newInstance((byte) 10);
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTAC".getBytes(), true), new Haplotype("ACGTTCGTAC".getBytes(), false));
+        final GATKRead read = ArtificialReadUtils.createArtificialRead("ACGTACGT".getBytes(), new byte[]{30, 30, 30, 30, 30, 30, 30, 30}, "8M");
+        final GATKRead readWithOtherQuals = ArtificialReadUtils.createArtificialRead("ACGTACGT".getBytes(), new byte[]{30, 30, 30, 20, 30, 30, 30, 30}, "8M");
+
+        final String key = PairHMMLikelihoodCache.computeKey("hmm", haplotypes, Collections.singletonList(read), imputator);
+        Assert.assertEquals(PairHMMLikelihoodCache.computeKey("hmm", haplotypes, Collections.singletonList(read.copy()), imputator), key);
+
+        Assert.assertNotEquals(PairHMMLikelihoodCache.computeKey("otherHmm", haplotypes, Collections.singletonList(read), imputator), key);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.computeKey("hmm", haplotypes.subList(0, 1), Collections.singletonList(read), imputator), key);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.computeKey("hmm", haplotypes, Collections.singletonList(readWithOtherQuals), imputator), key);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.computeKey("hmm", haplotypes, Collections.singletonList(read),
+                StandardPairHMMInputScoreImputator.newInstance((byte) 20)), key);
+    }
+
+    @Test
+    public void testEngineReusesCachedLikelihoods() {
+        final Path directory = createTempDir("likelihoodCache").toPath();
+
+        final int n = 10;
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(n + "M"));
+        read.setMappingQuality(60);
+        final Map<String, List<GATKRead>> perSampleReadList = Collections.singletonMap("sample1", Collections.singletonList(read));
+        final SampleList samples = new IndexedSampleList("sample1");
+
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final byte[] bases = "AAAAAAAAAAA".getBytes();
+        final Haplotype hap1 = new Haplotype(bases, true);
+        hap1.setGenomeLocation(read);
+        assemblyResultSet.add(hap1);
+        final Haplotype hap2 = new Haplotype("AAAAACAAAAA".getBytes(), false);
+        hap2.setGenomeLocation(read);
+        assemblyResultSet.add(hap2);
+
+        final double[][] results = new double[2][];
+        for (int run = 0; run < 2; run++) {
+            final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(directory, 1024 * 1024);
+            final PairHMMLikelihoodCalculationEngine engine = new PairHMMLikelihoodCalculationEngine((byte) 10, null, new PairHMMNativeArguments(),
+                    PairHMM.Implementation.LOGLESS_CACHING, null, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                    PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false, PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR,
+                    PairHMMLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE, true, false, true, cache);
+            final AlleleLikelihoods<GATKRead, Haplotype> likelihoods = engine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList);
+            final LikelihoodMatrix<GATKRead, Haplotype> matrix = likelihoods.sampleMatrix(0);
+            results[run] = new double[]{matrix.get(0, 0), matrix.get(1, 0)};
+            engine.close();
+
+            Assert.assertEquals(cache.getHits(), run);
+            Assert.assertEquals(cache.size(), 1);
+        }
+        Assert.assertEquals(results[1], results[0]);
+        Assert.assertTrue(results[0][0] > results[0][1], "matching haplotype should have a higher likelihood");
+
+        // a different precision may give different likelihoods, so it must not reuse the cached ones
+        final PairHMMNativeArguments doublePrecision = new PairHMMNativeArguments();
+        doublePrecision.useDoublePrecision = true;
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(directory, 1024 * 1024);
+        final PairHMMLikelihoodCalculationEngine engine = new PairHMMLikelihoodCalculationEngine((byte) 10, null, doublePrecision,
+                PairHMM.Implementation.LOGLESS_CACHING, null, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false, PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR,
+                PairHMMLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE, true, false, true, cache);
+        engine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList);
+        engine.close();
+        Assert.assertEquals(cache.getHits(), 0);
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void testPairHMMDescriptionDependsOnNativeArguments() {
+        final PairHMM pairHMM = PairHMM.Implementation.LOGLESS_CACHING.makeNewHMM(new PairHMMNativeArguments());
+        final PairHMMNativeArguments singlePrecision = new PairHMMNativeArguments();
+        final PairHMMNativeArguments doublePrecision = new PairHMMNativeArguments();
+        doublePrecision.useDoublePrecision = true;
+        final PairHMMNativeArguments moreThreads = new PairHMMNativeArguments();
+        moreThreads.maxNumberOfThreads = singlePrecision.maxNumberOfThreads + 1;
+
+        final String description = PairHMMLikelihoodCache.describePairHMM(pairHMM, singlePrecision);
+        Assert.assertEquals(PairHMMLikelihoodCache.describePairHMM(pairHMM, new PairHMMNativeArguments()), description);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.describePairHMM(pairHMM, doublePrecision), description);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.describePairHMM(pairHMM, moreThreads), description);
+        Assert.assertNotEquals(PairHMMLikelihoodCache.describePairHMM(pairHMM, null), description);
+    }
+}
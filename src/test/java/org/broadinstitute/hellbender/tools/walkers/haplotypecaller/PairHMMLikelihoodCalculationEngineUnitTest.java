@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.*;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
@@ -199,4 +200,61 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         Assert.assertTrue(v1 > v2, "matching haplotype should have a higher likelihood");
         lce.close();
     }
+
+    @Test
+    public void testCollapsingIdenticalReadsGivesIdenticalLikelihoods() {
+        final Random random = new Random(3);
+        final byte[] refBases = new byte[60];
+        for (int i = 0; i < refBases.length; i++) {
+            refBases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final List<byte[]> haplotypeBases = new ArrayList<>();
+        for (int h = 0; h < 3; h++) {
+            final byte[] bases = refBases.clone();
+            if (h > 0) {
+                bases[10 * h] = bases[10 * h] == 'A' ? (byte) 'T' : (byte) 'A';
+            }
+            haplotypeBases.add(bases);
+        }
+
+        // a few distinct reads, some of them soft clipped, each repeated several times under different names
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int n = 0; n < 40; n++) {
+            final byte[] bases = Arrays.copyOfRange(haplotypeBases.get(n % 3), 5 + 5 * (n % 2), 45 + 5 * (n % 2));
+            final byte[] quals = Utils.dupBytes((byte) 30, bases.length);
+            quals[n % 2] = 10;
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(bases, quals, n % 6 == 0 ? "2S38M" : "40M");
+            read.setName("read" + n);
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+        final Map<String, List<GATKRead>> perSampleReadList = Collections.singletonMap("sample1", reads);
+        final SampleList samples = new IndexedSampleList("sample1");
+        for (final byte[] bases : haplotypeBases) {
+            final Haplotype haplotype = new Haplotype(bases, bases == haplotypeBases.get(0));
+            haplotype.setGenomeLocation(reads.get(0));
+            assemblyResultSet.add(haplotype);
+        }
+
+        final List<LikelihoodMatrix<GATKRead, Haplotype>> results = new ArrayList<>();
+        for (final boolean collapseIdenticalReads : new boolean[] {false, true}) {
+            final PairHMMLikelihoodCalculationEngine engine = new PairHMMLikelihoodCalculationEngine((byte) 10, null, new PairHMMNativeArguments(),
+                    PairHMM.Implementation.LOGLESS_CACHING, null, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                    PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false, PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR,
+                    PairHMMLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE, true, false, false, null, collapseIdenticalReads);
+            results.add(engine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList).sampleMatrix(0));
+            engine.close();
+        }
+
+        final LikelihoodMatrix<GATKRead, Haplotype> expected = results.get(0);
+        final LikelihoodMatrix<GATKRead, Haplotype> actual = results.get(1);
+        Assert.assertEquals(actual.evidence(), expected.evidence());
+        for (int a = 0; a < expected.numberOfAlleles(); a++) {
+            for (int r = 0; r < expected.evidenceCount(); r++) {
+                // exactly equal, not just within a tolerance
+                Assert.assertEquals(Double.doubleToLongBits(actual.get(a, r)), Double.doubleToLongBits(expected.get(a, r)));
+            }
+        }
+    }
 }
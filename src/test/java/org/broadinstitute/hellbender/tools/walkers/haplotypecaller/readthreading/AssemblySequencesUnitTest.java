@@ -0,0 +1,78 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs.MultiSampleEdge;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class AssemblySequencesUnitTest extends GATKBaseTest {
+    // matches the minimum base quality of the ReadThreadingGraph(kmerSize) constructor
+    private static final byte MIN_BASE_QUALITY = 6;
+
+    private static List<String> describe(final AbstractReadThreadingGraph graph) {
+        final List<String> description = graph.vertexSet().stream().map(v -> v.getSequenceString()).collect(Collectors.toList());
+        for ( final MultiSampleEdge edge : graph.edgeSet() ) {
+            description.add(graph.getEdgeSource(edge).getSequenceString() + "->" + graph.getEdgeTarget(edge).getSequenceString()
+                    + ':' + edge.getMultiplicity() + ':' + edge.isRef());
+        }
+        return description;
+    }
+
+    @Test
+    public void testGraphsMatchGraphsBuiltFromReads() {
+        final Random random = new Random(13);
+        final byte[] ref = new byte[300];
+        for ( int i = 0; i < ref.length; i++ ) {
+            ref[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        final byte[] alt = ref.clone();
+        alt[150] = alt[150] == 'A' ? (byte) 'C' : (byte) 'A';
+
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int start = 0; start + 100 <= alt.length; start += 7 ) {
+            final byte[] bases = Arrays.copyOfRange(start % 2 == 0 ? alt : ref, start, start + 100);
+            final byte[] quals = Utils.dupBytes((byte) 30, 100);
+            // Ns and low quality bases split reads into shorter sequences, some shorter than the kmers
+            bases[random.nextInt(100)] = 'N';
+            quals[random.nextInt(100)] = 2;
+            reads.add(ArtificialReadUtils.createArtificialRead(bases, quals, "100M"));
+        }
+
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        final AssemblySequences sequences = new AssemblySequences(new Haplotype(ref, true), reads, header, MIN_BASE_QUALITY, 10);
+        for ( final int kmerSize : Arrays.asList(10, 25, 35, 55) ) {
+            final ReadThreadingGraph expected = new ReadThreadingGraph(kmerSize);
+            expected.addSequence(AssemblySequences.REFERENCE_NAME, ref, true);
+            reads.forEach(read -> expected.addRead(read, header));
+            expected.buildGraphIfNecessary();
+
+            final ReadThreadingGraph actual = new ReadThreadingGraph(kmerSize);
+            sequences.addTo(actual);
+            actual.buildGraphIfNecessary();
+
+            Assert.assertEquals(describe(actual), describe(expected), "graphs differ for kmer size " + kmerSize);
+        }
+    }
+
+    @Test
+    public void testReferenceNonUniqueKmers() {
+        final byte[] ref = "ACGTTGCAAAAAAAAAAAAGGCTTACGATCGTTGCAAAAAAAAAAAAGGCTAAC".getBytes();
+        final AssemblySequences sequences = new AssemblySequences(new Haplotype(ref, true), Collections.emptyList(),
+                ArtificialReadUtils.createArtificialSamHeader(), MIN_BASE_QUALITY, 5);
+        final AbstractReadThreadingGraph.SequenceForKmers refSequence =
+                new AbstractReadThreadingGraph.SequenceForKmers("ref", ref, 0, ref.length, 1, true);
+        // out of order, so that answers come from both the cache and the computation
+        for ( final int kmerSize : Arrays.asList(10, 25, 5, 12, 30, 15, 11, 20, 19) ) {
+            Assert.assertEquals(sequences.referenceHasNonUniqueKmers(kmerSize),
+                    !ReadThreadingGraph.determineNonUniqueKmers(refSequence, kmerSize).isEmpty(), "kmer size " + kmerSize);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class PackedKmerMapUnitTest {
+
+    @DataProvider(name = "kmerSizes")
+    public Object[][] kmerSizes() {
+        // 31 is the largest packed size, 32 and above always fall back to Kmer keys
+        return new Object[][] { {1}, {4}, {10}, {25}, {31}, {32}, {45} };
+    }
+
+    @Test(dataProvider = "kmerSizes")
+    public void testAgreesWithHashMap(final int kmerSize) {
+        final Random random = new Random(kmerSize);
+        final byte[] alphabet = "ACGTACGTACGTNacgt".getBytes();
+        final byte[] sequence = new byte[2000];
+        for ( int i = 0; i < sequence.length; i++ ) {
+            sequence[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+
+        final PackedKmerMap<Integer> map = new PackedKmerMap<>(kmerSize);
+        final Map<Kmer, Integer> expected = new HashMap<>();
+        for ( int i = 0; i + kmerSize <= sequence.length; i++ ) {
+            final Kmer kmer = new Kmer(sequence, i, kmerSize);
+            Assert.assertEquals(map.putIfAbsent(sequence, i, i), expected.putIfAbsent(kmer, i));
+        }
+        Assert.assertEquals(map.size(), expected.size());
+        Assert.assertEquals(new HashSet<>(map.values()), new HashSet<>(expected.values()));
+
+        // remove every other kmer, which shuffles the probing sequences around
+        for ( int i = 0; i + kmerSize <= sequence.length; i += 2 ) {
+            Assert.assertEquals(map.remove(sequence, i), expected.remove(new Kmer(sequence, i, kmerSize)));
+        }
+        Assert.assertEquals(map.size(), expected.size());
+        for ( int i = 0; i + kmerSize <= sequence.length; i++ ) {
+            final Kmer kmer = new Kmer(sequence, i, kmerSize);
+            Assert.assertEquals(map.get(sequence, i), expected.get(kmer));
+            Assert.assertEquals(map.get(kmer), expected.get(kmer));
+            Assert.assertEquals(map.containsKey(sequence, i), expected.containsKey(kmer));
+        }
+    }
+
+    @Test
+    public void testKmersAtDifferentOffsets() {
+        final PackedKmerMap<String> map = new PackedKmerMap<>(4);
+        Assert.assertNull(map.putIfAbsent(new Kmer("ACGT"), "first"));
+        Assert.assertEquals(map.putIfAbsent("TTACGTTT".getBytes(), 2, "second"), "first");
+        Assert.assertEquals(map.get("GGGACGT".getBytes(), 3), "first");
+        Assert.assertEquals(map.get(new Kmer("TTACGTTT".getBytes(), 2, 4)), "first");
+        Assert.assertNull(map.get("ACGA".getBytes(), 0));
+
+        // kmers of other sizes are never in the map
+        Assert.assertNull(map.get(new Kmer("ACG")));
+        Assert.assertFalse(map.containsKey(new Kmer("ACGTA")));
+
+        Assert.assertEquals(map.remove("ACGT".getBytes(), 0), "first");
+        Assert.assertNull(map.remove("ACGT".getBytes(), 0));
+        Assert.assertEquals(map.size(), 0);
+        Assert.assertTrue(map.values().isEmpty());
+    }
+
+    @Test
+    public void testNonACGTKmersAreDistinct() {
+        final PackedKmerMap<String> map = new PackedKmerMap<>(3);
+        Assert.assertNull(map.putIfAbsent(new Kmer("ACG"), "upper"));
+        Assert.assertNull(map.putIfAbsent(new Kmer("acg"), "lower"));
+        Assert.assertNull(map.putIfAbsent(new Kmer("ANG"), "N"));
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(map.get("acg".getBytes(), 0), "lower");
+        Assert.assertEquals(map.get("ANG".getBytes(), 0), "N");
+        Assert.assertEquals(map.remove("ANG".getBytes(), 0), "N");
+        Assert.assertEquals(map.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testKmerOutOfBounds() {
+        new PackedKmerMap<String>(4).get("ACG".getBytes(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBadKmerSize() {
+        new PackedKmerMap<String>(0);
+    }
+}
@@ -1,16 +1,22 @@
 package org.broadinstitute.hellbender.tools.walkers.variantutils;
 
+import htsjdk.samtools.util.FileExtensions;
+import htsjdk.tribble.index.IndexFactory;
+import htsjdk.variant.vcf.VCFCodec;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.WalkerBase;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 
 
@@ -49,6 +55,26 @@ public class LeftAlignAndTrimVariantsIntegrationTest extends CommandLineProgramT
         spec.executeTest("testLeftAlignment--" + expectedOutputFile.toString(), this);
     }
 
+    @Test(dataProvider = "LeftAlignDataProvider")
+    public void testParallelLeftAlignment(Path inputFile, Path ref, Path expectedOutputFile, String options) throws IOException {
+        // traversing contigs in parallel requires an indexed input
+        final File indexedInput = createTempFile("test_left_align_hg38", ".vcf");
+        Files.copy(inputFile, indexedInput.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        IndexFactory.createDynamicIndex(indexedInput, new VCFCodec()).write(new File(indexedInput.getAbsolutePath() + FileExtensions.TRIBBLE_INDEX));
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                " -R " + ref.toString()
+                        + " -V " + indexedInput.getAbsolutePath()
+                        + " -O %s"
+                        + " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE + " false"
+                        + " --suppress-reference-path "
+                        + " --" + WalkerBase.TRAVERSAL_THREADS_LONG_NAME + " 2"
+                        + options,
+                Collections.singletonList(expectedOutputFile.toString())
+        );
+        spec.executeTest("testParallelLeftAlignment--" + expectedOutputFile.toString(), this);
+    }
+
     @DataProvider(name = "LeftAlignRequireReferenceDataProvider")
     public Object[][] LeftAlignRequireReferenceData() {
         return new Object[][]{{testDataDir.resolve("test_left_align_hg38.vcf")}};
@@ -2203,6 +2203,68 @@ public final class IntervalUtilsUnitTest extends GATKBaseTest {
         Assert.assertEquals(result, expectedResult);
     }
 
+    @DataProvider
+    public Object[][] createGroupIntervalsByContigWithMaxGroupsTestData() {
+        final SimpleInterval contig1 = new SimpleInterval("1", 1, 1000);
+        final SimpleInterval contig2a = new SimpleInterval("2", 1, 50);
+        final SimpleInterval contig2b = new SimpleInterval("2", 101, 150);
+        final SimpleInterval contig3 = new SimpleInterval("3", 1, 100);
+        final SimpleInterval contig4 = new SimpleInterval("4", 1, 100);
+        final SimpleInterval contig5 = new SimpleInterval("5", 1, 1000);
+        final List<SimpleInterval> intervals = Arrays.asList(contig1, contig2a, contig2b, contig3, contig4, contig5);
+        return new Object[][] {
+                // input intervals, max groups, expected output
+                { intervals, 1, Arrays.asList(intervals) },
+                { intervals, 3, Arrays.asList(Arrays.asList(contig1), Arrays.asList(contig2a, contig2b, contig3, contig4), Arrays.asList(contig5)) },
+                { intervals, 4, Arrays.asList(Arrays.asList(contig1), Arrays.asList(contig2a, contig2b, contig3), Arrays.asList(contig4), Arrays.asList(contig5)) },
+                { intervals, 5, IntervalUtils.groupIntervalsByContig(intervals) },
+                { intervals, 10, IntervalUtils.groupIntervalsByContig(intervals) },
+                { Arrays.asList(contig3, contig4), 1, Arrays.asList(Arrays.asList(contig3, contig4)) },
+                { Arrays.asList(contig2a, contig2b), 2, Arrays.asList(Arrays.asList(contig2a, contig2b)) },
+                { Collections.emptyList(), 2, Collections.emptyList() }
+        };
+    }
+
+    @Test(dataProvider = "createGroupIntervalsByContigWithMaxGroupsTestData")
+    public void testGroupIntervalsByContigWithMaxGroups(final List<SimpleInterval> inputIntervals, final int maxGroups, final List<List<SimpleInterval>> expectedResult) {
+        final List<List<SimpleInterval>> result = IntervalUtils.groupIntervalsByContig(inputIntervals, maxGroups);
+        Assert.assertEquals(result, expectedResult);
+        Assert.assertEquals(result.stream().flatMap(List::stream).collect(Collectors.toList()), inputIntervals);
+    }
+
+    @DataProvider
+    public Object[][] createDivideIntervalsByLengthTestData() {
+        final SimpleInterval contig1 = new SimpleInterval("1", 1, 100);
+        final SimpleInterval contig2a = new SimpleInterval("2", 1, 50);
+        final SimpleInterval contig2b = new SimpleInterval("2", 101, 150);
+        final List<SimpleInterval> intervals = Arrays.asList(contig1, contig2a, contig2b);
+        return new Object[][] {
+                // input intervals, max groups, expected output
+                { intervals, 1, Arrays.asList(intervals) },
+                { intervals, 2, Arrays.asList(Arrays.asList(contig1), Arrays.asList(contig2a, contig2b)) },
+                { intervals, 3, Arrays.asList(
+                        Arrays.asList(new SimpleInterval("1", 1, 67)),
+                        Arrays.asList(new SimpleInterval("1", 68, 100), new SimpleInterval("2", 1, 34)),
+                        Arrays.asList(new SimpleInterval("2", 35, 50), contig2b)) },
+                { intervals, 4, Arrays.asList(
+                        Arrays.asList(new SimpleInterval("1", 1, 50)),
+                        Arrays.asList(new SimpleInterval("1", 51, 100)),
+                        Arrays.asList(contig2a),
+                        Arrays.asList(contig2b)) },
+                { Arrays.asList(new SimpleInterval("1", 1, 3)), 5, Arrays.asList(
+                        Arrays.asList(new SimpleInterval("1", 1, 1)),
+                        Arrays.asList(new SimpleInterval("1", 2, 2)),
+                        Arrays.asList(new SimpleInterval("1", 3, 3))) },
+                { Collections.emptyList(), 2, Collections.emptyList() }
+        };
+    }
+
+    @Test(dataProvider = "createDivideIntervalsByLengthTestData")
+    public void testDivideIntervalsByLength(final List<SimpleInterval> inputIntervals, final int maxGroups, final List<List<SimpleInterval>> expectedResult) {
+        final List<List<SimpleInterval>> result = IntervalUtils.divideIntervalsByLength(inputIntervals, maxGroups);
+        Assert.assertEquals(result, expectedResult);
+    }
+
     @DataProvider
     public Object[][] provideReciprocalOverlapTestData(){
         return new Object[][] {
@@ -804,6 +804,87 @@ public final class AlleleLikelihoodsUnitTest {
         Assert.assertEquals(newLk, 0.0, " reporting the zoombie lk of 99.0?");
     }
 
+    @Test
+    public void testGrowingSeveralSamplesAtOnce() {
+        final Map<String, List<SimpleInterval>> evidenceBySample = new LinkedHashMap<>();
+        evidenceBySample.put("sample1", Collections.singletonList(new SimpleInterval("seq1", 1, 1)));
+        evidenceBySample.put("sample2", Collections.emptyList());
+        evidenceBySample.put("sample3", Collections.singletonList(new SimpleInterval("seq3", 1, 1)));
+        final AlleleLikelihoods<SimpleInterval, Allele> lk = new AlleleLikelihoods<>(
+                new IndexedSampleList("sample1", "sample2", "sample3"),
+                AlleleList.newList(Arrays.asList(Allele.REF_A, Allele.ALT_C)),
+                evidenceBySample);
+        for (int s = 0; s < 3; s += 2) {
+            for (int a = 0; a < 2; a++) {
+                lk.sampleMatrix(s).set(a, 0, -(s * 100 + a * 10));
+            }
+        }
+
+        // the first and last samples both need more room, the middle one gets its first evidence
+        final Map<String, List<SimpleInterval>> newEvidenceBySample = new LinkedHashMap<>();
+        newEvidenceBySample.put("sample3", Arrays.asList(new SimpleInterval("seq3", 2, 2), new SimpleInterval("seq3", 3, 3)));
+        newEvidenceBySample.put("sample1", Arrays.asList(new SimpleInterval("seq1", 2, 2), new SimpleInterval("seq1", 1, 1)));
+        newEvidenceBySample.put("sample2", Collections.singletonList(new SimpleInterval("seq2", 1, 1)));
+        lk.addEvidence(newEvidenceBySample, -50.0);
+
+        // duplicate evidence is not added again
+        Assert.assertEquals(lk.sampleEvidenceCount(0), 2);
+        Assert.assertEquals(lk.sampleEvidenceCount(1), 1);
+        Assert.assertEquals(lk.sampleEvidenceCount(2), 3);
+        for (int a = 0; a < 2; a++) {
+            Assert.assertEquals(lk.sampleMatrix(0).get(a, 0), -(a * 10.0));
+            Assert.assertEquals(lk.sampleMatrix(0).get(a, 1), -50.0);
+            Assert.assertEquals(lk.sampleMatrix(1).get(a, 0), -50.0);
+            Assert.assertEquals(lk.sampleMatrix(2).get(a, 0), -(200 + a * 10.0));
+            Assert.assertEquals(lk.sampleMatrix(2).get(a, 1), -50.0);
+            Assert.assertEquals(lk.sampleMatrix(2).get(a, 2), -50.0);
+        }
+    }
+
+    @Test
+    public void testGrowingOneSampleKeepsTheOthers() {
+        final List<SimpleInterval> evidence1 = Arrays.asList(new SimpleInterval("seq1", 1, 1), new SimpleInterval("seq1", 2, 2));
+        final List<SimpleInterval> evidence2 = Arrays.asList(new SimpleInterval("seq2", 1, 1), new SimpleInterval("seq2", 2, 2), new SimpleInterval("seq2", 3, 3));
+        final Map<String, List<SimpleInterval>> evidenceBySample = new LinkedHashMap<>();
+        evidenceBySample.put("sample1", evidence1);
+        evidenceBySample.put("sample2", evidence2);
+
+        final AlleleLikelihoods<SimpleInterval, Allele> lk = new AlleleLikelihoods<>(
+                new IndexedSampleList("sample1", "sample2"),
+                AlleleList.newList(Arrays.asList(Allele.REF_A, Allele.ALT_C)),
+                evidenceBySample);
+        for (int s = 0; s < 2; s++) {
+            for (int a = 0; a < 2; a++) {
+                for (int r = 0; r < lk.sampleEvidenceCount(s); r++) {
+                    lk.sampleMatrix(s).set(a, r, -(s * 100 + a * 10 + r));
+                }
+            }
+        }
+
+        // both of these need a new layout for the likelihood values
+        lk.addEvidence(Collections.singletonMap("sample1", Collections.singletonList(new SimpleInterval("seq1", 3, 3))), -50.0);
+        lk.addMissingAlleles(Collections.singletonList(Allele.ALT_G), -60.0);
+        lk.retainEvidence(e -> e.getStart() != 1);
+
+        Assert.assertEquals(lk.sampleEvidenceCount(0), 2);
+        Assert.assertEquals(lk.sampleEvidenceCount(1), 2);
+        Assert.assertEquals(lk.sampleMatrix(0).get(0, 0), -1.0);
+        Assert.assertEquals(lk.sampleMatrix(0).get(1, 0), -11.0);
+        Assert.assertEquals(lk.sampleMatrix(0).get(0, 1), -50.0);
+        Assert.assertEquals(lk.sampleMatrix(0).get(2, 1), -60.0);
+        for (int a = 0; a < 2; a++) {
+            for (int r = 0; r < 2; r++) {
+                Assert.assertEquals(lk.sampleMatrix(1).get(a, r), -(100 + a * 10 + r + 1.0));
+            }
+            Assert.assertEquals(lk.sampleMatrix(1).get(2, a), -60.0);
+        }
+
+        final AlleleLikelihoods<SimpleInterval, Allele> marginal = lk.marginalize(Collections.singletonMap(Allele.REF_A, Arrays.asList(Allele.REF_A, Allele.ALT_C)));
+        Assert.assertEquals(marginal.sampleMatrix(0).get(0, 0), -1.0);
+        Assert.assertEquals(marginal.sampleMatrix(0).get(0, 1), -50.0);
+        Assert.assertEquals(marginal.sampleMatrix(1).get(0, 1), -102.0);
+    }
+
     @DataProvider(name="readCountsAndnumberOfAllelesData")
     public Object[][] readCountsAndnumberOfAllelesData() {
         final Object[][] result = new Object[READ_COUNTS.length * ALLELE_COUNTS.length * 2][];
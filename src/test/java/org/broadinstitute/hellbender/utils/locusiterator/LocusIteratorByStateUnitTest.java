@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsampleType;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.pileup.LocusPileupBatch;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.ArtificialBAMBuilder;
@@ -187,6 +188,65 @@ public final class LocusIteratorByStateUnitTest extends LocusIteratorByStateBase
          Assert.assertTrue(foundIndel,"Indel in pileup not found");
     }
 
+    @DataProvider(name = "PileupBatchTest")
+    public Object[][] makePileupBatchTest() {
+        return new Object[][] { {1, false}, {3, false}, {3, true}, {1000, false}, {1000, true} };
+    }
+
+    @Test(dataProvider = "PileupBatchTest")
+    public void testNextBatchMatchesNext(final int batchSize, final boolean callHasNextFirst) {
+        final SAMFileHeader twoContigHeader = ArtificialReadUtils.createArtificialSamHeader(2, 1, 1000);
+        final List<GATKRead> reads = new ArrayList<>();
+        final String[] cigars = {"10M", "4M2D6M", "3M2I5M", "10M", "2S8M", "5M100N5M"};
+        for ( int i = 0; i < cigars.length; i++ ) {
+            // two groups of reads on each contig, with a gap between them
+            for ( final int start : Arrays.asList(1 + i, 500 + i) ) {
+                for ( int contig = 0; contig < 2; contig++ ) {
+                    final GATKRead read = ArtificialReadUtils.createArtificialRead(twoContigHeader, cigars[i]);
+                    read.setName("read" + i + "_" + contig + "_" + start);
+                    read.setPosition(twoContigHeader.getSequence(contig).getSequenceName(), start);
+                    read.setMappingQuality(10 + i);
+                    read.setIsReverseStrand(i % 2 == 1);
+                    reads.add(read);
+                }
+            }
+        }
+
+        final List<AlignmentContext> expected = new ArrayList<>();
+        makeLIBS(new ArrayList<>(reads), null, twoContigHeader).forEachRemaining(expected::add);
+
+        final LocusIteratorByState li = makeLIBS(new ArrayList<>(reads), null, twoContigHeader);
+        final LocusPileupBatch batch = new LocusPileupBatch(batchSize);
+        int locus = 0;
+        while ( (! callHasNextFirst || li.hasNext()) && li.nextBatch(batch) ) {
+            Assert.assertTrue(batch.size() <= batchSize);
+            for ( int i = 0; i < batch.size(); i++, locus++ ) {
+                Assert.assertTrue(locus < expected.size(), "too many loci in batches");
+                final AlignmentContext context = expected.get(locus);
+                Assert.assertEquals(batch.getContig(i), context.getContig());
+                Assert.assertEquals(batch.getPosition(i), context.getStart());
+                Assert.assertEquals(batch.getBaseCounts(i), context.getBasePileup().getBaseCounts());
+
+                final List<PileupElement> elements = new ArrayList<>();
+                context.getBasePileup().forEach(elements::add);
+                Assert.assertEquals(batch.getDepth(i), elements.size());
+                for ( int e = batch.getFirstElement(i); e < batch.getEndElement(i); e++ ) {
+                    final PileupElement pe = elements.get(e - batch.getFirstElement(i));
+                    Assert.assertSame(batch.getRead(e), pe.getRead());
+                    Assert.assertEquals(batch.getOffset(e), pe.getOffset());
+                    Assert.assertEquals(batch.getBase(e), pe.getBase());
+                    Assert.assertEquals(batch.getQual(e), pe.getQual());
+                    Assert.assertEquals(batch.getMappingQual(e), pe.getMappingQual());
+                    Assert.assertEquals(batch.isDeletion(e), pe.isDeletion());
+                    Assert.assertEquals(batch.isReverseStrand(e), pe.getRead().isReverseStrand());
+                }
+            }
+        }
+        Assert.assertEquals(locus, expected.size());
+        Assert.assertFalse(li.nextBatch(batch));
+        Assert.assertTrue(batch.isEmpty());
+    }
+
     /**
      * Test to make sure that reads supporting only an indel (example cigar string: 76I) do
      * not negatively influence the ordering of the pileup.
@@ -27,6 +27,7 @@ public final class PairHMMUnitTest extends GATKBaseTest {
     private final N2MemoryPairHMM exactHMM = new Log10PairHMM(true); // the log truth implementation
     private final N2MemoryPairHMM originalHMM = new Log10PairHMM(false); // the reference implementation
     private final N2MemoryPairHMM loglessHMM = new LoglessPairHMM();
+    private final N2MemoryPairHMM vectorizableLoglessHMM = new VectorizableLoglessPairHMM();
 
     private static final byte MASSIVE_QUAL = 100;
 
@@ -35,10 +36,11 @@ public final class PairHMMUnitTest extends GATKBaseTest {
         exactHMM.doNotUseTristateCorrection();
         originalHMM.doNotUseTristateCorrection();
         loglessHMM.doNotUseTristateCorrection();
+        vectorizableLoglessHMM.doNotUseTristateCorrection();
     }
 
     private List<N2MemoryPairHMM> getHMMs() {
-        return Arrays.asList(exactHMM, originalHMM, loglessHMM);
+        return Arrays.asList(exactHMM, originalHMM, loglessHMM, vectorizableLoglessHMM);
     }
 
     // --------------------------------------------------------------------------------
@@ -535,6 +537,64 @@ public final class PairHMMUnitTest extends GATKBaseTest {
 
     }
 
+    @Test
+    public void testHaplotypeEvaluationOrder() {
+        final List<Haplotype> haplotypes = Arrays.asList(
+                new Haplotype("ACGTT".getBytes(), true),
+                new Haplotype("ACG".getBytes()),
+                new Haplotype("ACCTT".getBytes()),
+                new Haplotype("TCGTT".getBytes()),
+                new Haplotype("ACGTA".getBytes()),
+                new Haplotype("AAG".getBytes()));
+
+        // grouped by length, then lexicographic within each group
+        Assert.assertEquals(PairHMM.haplotypeEvaluationOrder(haplotypes), new int[]{5, 1, 2, 4, 0, 3});
+        Assert.assertEquals(PairHMM.haplotypeEvaluationOrder(Collections.emptyList()), new int[0]);
+    }
+
+    @Test(enabled = !DEBUG, dataProvider = "JustHMMProvider")
+    public void testLikelihoodsFromHaplotypesSharingPrefixes(final PairHMM hmm) {
+        Utils.resetRandomGenerator();
+        final Random random = Utils.getRandomGenerator();
+        final int haplotypeLength = 60;
+        final int readLength = 40;
+
+        // haplotypes that each differ from a common reference by a single SNP, in no particular order, plus one of a different length
+        final byte[] refBases = ArtificialReadUtils.createRandomReadBases(haplotypeLength, false);
+        final List<Haplotype> haplotypes = new ArrayList<>();
+        haplotypes.add(new Haplotype(refBases, true));
+        for ( final int snpOffset : Arrays.asList(45, 3, 30, 59, 10, 0) ) {
+            final byte[] altBases = refBases.clone();
+            altBases[snpOffset] = altBases[snpOffset] == 'A' ? (byte)'C' : (byte)'A';
+            haplotypes.add(new Haplotype(altBases));
+        }
+        haplotypes.add(new Haplotype(Arrays.copyOf(refBases, haplotypeLength - 5)));
+
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < 5; i++ ) {
+            final int start = random.nextInt(haplotypeLength - readLength);
+            final byte[] readBases = Arrays.copyOfRange(haplotypes.get(i).getBases(), start, start + readLength);
+            final byte[] readQuals = Utils.dupBytes((byte) 30, readLength);
+            reads.add(ArtificialReadUtils.createArtificialRead(readBases, readQuals, readLength + "M"));
+        }
+
+        final PairHMMInputScoreImputator inputScoreImputator = StandardPairHMMInputScoreImputator.newInstance((byte) 10);
+        hmm.computeLog10Likelihoods(matrix(haplotypes), reads, inputScoreImputator);
+        final double[] actual = hmm.getLogLikelihoodArray();
+        Assert.assertEquals(actual.length, reads.size() * haplotypes.size());
+
+        // evaluating each pair from scratch must give exactly the same results
+        int idx = 0;
+        for ( final GATKRead read : reads ) {
+            final PairHMMInputScoreImputation inputScoreImputation = inputScoreImputator.impute(read);
+            for ( final Haplotype haplotype : haplotypes ) {
+                final double expected = hmm.computeReadLikelihoodGivenHaplotypeLog10(haplotype.getBases(), read.getBases(), read.getBaseQualities(),
+                        inputScoreImputation.insOpenPenalties(), inputScoreImputation.delOpenPenalties(), inputScoreImputation.gapContinuationPenalties(), true, null);
+                Assert.assertEquals(actual[idx++], expected, 0.0, "Failed with hmm " + hmm + " for haplotype " + haplotype);
+            }
+        }
+    }
+
     private LikelihoodMatrix<GATKRead, Haplotype> matrix(final List<Haplotype> haplotypes) {
         return new LikelihoodMatrix<GATKRead, Haplotype>() {
             @Override
@@ -676,6 +736,51 @@ public final class PairHMMUnitTest extends GATKBaseTest {
         return d;
     }
 
+    @Test(enabled = !DEBUG)
+    public void testVectorizableLoglessMatchesLoglessExactly() {
+        Utils.resetRandomGenerator();
+        final Random random = Utils.getRandomGenerator();
+        final int maxReadLength = 150;
+        final int maxHaplotypeLength = 300;
+        final LoglessPairHMM logless = new LoglessPairHMM();
+        final VectorizableLoglessPairHMM vectorizable = new VectorizableLoglessPairHMM();
+        logless.initialize(maxReadLength, maxHaplotypeLength);
+        vectorizable.initialize(maxReadLength, maxHaplotypeLength);
+
+        for ( int readIndex = 0; readIndex < 50; readIndex++ ) {
+            final int readLength = 1 + random.nextInt(maxReadLength);
+            final byte[] readBases = ArtificialReadUtils.createRandomReadBases(readLength, true);
+            final byte[] readQuals = ArtificialReadUtils.createRandomReadQuals(readLength);
+            final byte[] insQuals = ArtificialReadUtils.createRandomReadQuals(readLength);
+            final byte[] delQuals = ArtificialReadUtils.createRandomReadQuals(readLength);
+            final byte[] gcp = Utils.dupBytes((byte) 10, readLength);
+            for ( int i = 0; i < readLength; i++ ) {
+                // likelihoods and transition probabilities are degenerate for quals of 0
+                readQuals[i] = (byte) Math.max(readQuals[i], QualityUtils.MIN_USABLE_Q_SCORE);
+                insQuals[i]++;
+                delQuals[i]++;
+            }
+
+            // a few haplotypes of the same length that share prefixes of varying length, so that caching is exercised
+            final int haplotypeLength = readLength + random.nextInt(maxHaplotypeLength - readLength + 1);
+            final byte[][] haplotypes = new byte[4][];
+            haplotypes[0] = ArtificialReadUtils.createRandomReadBases(haplotypeLength, false);
+            for ( int h = 1; h < haplotypes.length; h++ ) {
+                haplotypes[h] = haplotypes[h - 1].clone();
+                final int offset = random.nextInt(haplotypeLength);
+                haplotypes[h][offset] = haplotypes[h][offset] == 'A' ? (byte)'C' : (byte)'A';
+            }
+
+            for ( int h = 0; h < haplotypes.length; h++ ) {
+                final byte[] nextHaplotype = h + 1 < haplotypes.length ? haplotypes[h + 1] : null;
+                final double expected = logless.computeReadLikelihoodGivenHaplotypeLog10(haplotypes[h], readBases, readQuals, insQuals, delQuals, gcp, h == 0, nextHaplotype);
+                final double actual = vectorizable.computeReadLikelihoodGivenHaplotypeLog10(haplotypes[h], readBases, readQuals, insQuals, delQuals, gcp, h == 0, nextHaplotype);
+                Assert.assertEquals(Double.doubleToLongBits(actual), Double.doubleToLongBits(expected),
+                        "VectorizableLoglessPairHMM result " + actual + " differs from LoglessPairHMM result " + expected + " for read " + readIndex + " haplotype " + h);
+            }
+        }
+    }
+
     @Test(enabled = !DEBUG)
     public void testFindFirstPositionWhereHaplotypesDiffer() {
         for ( int haplotypeSize1 = 10; haplotypeSize1 < 30; haplotypeSize1++ ) {
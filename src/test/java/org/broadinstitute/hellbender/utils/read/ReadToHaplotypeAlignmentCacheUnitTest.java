@@ -0,0 +1,74 @@
+package org.broadinstitute.hellbender.utils.read;
+
+import htsjdk.samtools.TextCigarCodec;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAlignmentConstants;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public final class ReadToHaplotypeAlignmentCacheUnitTest extends GATKBaseTest {
+
+    private static Haplotype makeHaplotype(final byte[] bases, final String cigar, final boolean isRef) {
+        final Haplotype haplotype = new Haplotype(bases, isRef);
+        haplotype.setCigar(TextCigarCodec.decode(cigar));
+        return haplotype;
+    }
+
+    @Test
+    public void testRealignedReadsMatchUncachedAlignment() {
+        final Random random = new Random(11);
+        final byte[] refBases = new byte[200];
+        for ( int i = 0; i < refBases.length; i++ ) {
+            refBases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        // the alt haplotype has a 3 base deletion and a SNP
+        final byte[] altBases = new byte[refBases.length - 3];
+        System.arraycopy(refBases, 0, altBases, 0, 100);
+        System.arraycopy(refBases, 103, altBases, 100, refBases.length - 103);
+        altBases[120] = altBases[120] == 'A' ? (byte) 'C' : (byte) 'A';
+        final Haplotype refHaplotype = makeHaplotype(refBases, "200M", true);
+        final Haplotype altHaplotype = makeHaplotype(altBases, "100M3D97M", false);
+        final int referenceStart = 1000;
+
+        final ReadToHaplotypeAlignmentCache cache = new ReadToHaplotypeAlignmentCache(refHaplotype, referenceStart,
+                SmithWatermanJavaAligner.getInstance(), SmithWatermanAlignmentConstants.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS);
+        final Set<String> distinctAlignments = new HashSet<>();
+        final int numReads = 100;
+        for ( int n = 0; n < numReads; n++ ) {
+            final Haplotype haplotype = random.nextBoolean() ? refHaplotype : altHaplotype;
+            final int start = 70 + 5 * random.nextInt(4);
+            final byte[] bases = Arrays.copyOfRange(haplotype.getBases(), start, start + 60);
+            // reads with the same bases but different clipping need different alignments
+            final String cigar = random.nextBoolean() ? "60M" : "5S55M";
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(bases, Utils.dupBytes((byte) 30, bases.length), cigar);
+            read.setName("read" + n);
+            final GATKRead originalReadCopy = read.copy();
+            final boolean isInformative = random.nextBoolean();
+
+            final GATKRead expected = AlignmentUtils.createReadAlignedToRef(read, haplotype, refHaplotype, referenceStart, isInformative,
+                    SmithWatermanJavaAligner.getInstance(), SmithWatermanAlignmentConstants.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS);
+            final GATKRead actual = cache.createReadAlignedToRef(read, haplotype, isInformative);
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(read, originalReadCopy, "the original read was modified");
+            distinctAlignments.add(haplotype.isReference() + " " + start + " " + cigar);
+        }
+
+        Assert.assertEquals(cache.getMisses(), distinctAlignments.size());
+        Assert.assertEquals(cache.getHits(), numReads - distinctAlignments.size());
+        Assert.assertEquals(cache.getHitRate(), (double) cache.getHits() / numReads);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBadReferenceStart() {
+        new ReadToHaplotypeAlignmentCache(makeHaplotype("ACGT".getBytes(), "4M", true), 0,
+                SmithWatermanJavaAligner.getInstance(), SmithWatermanAlignmentConstants.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS);
+    }
+}
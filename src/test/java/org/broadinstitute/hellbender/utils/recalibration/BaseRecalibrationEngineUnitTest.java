@@ -1,10 +1,12 @@
 package org.broadinstitute.hellbender.utils.recalibration;
 
+import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.TextCigarCodec;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
@@ -16,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public final class BaseRecalibrationEngineUnitTest {
 
@@ -146,4 +149,60 @@ public final class BaseRecalibrationEngineUnitTest {
         final int[] actual = (mode == EventType.BASE_INSERTION ? isInsertion : isDeletion);
         Assert.assertEquals(actual, expected, "calculateIsSNPOrIndel() failed with " + mode + " and cigar " + cigar + " Expected " + Arrays.toString(expected) + " but got " + Arrays.toString(actual));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCombiningBatchesGivesSameTablesAsSingleEngine() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, 1000, 2);
+        final Random random = new Random(5);
+        final byte[] referenceBases = new byte[1000];
+        for ( int i = 0; i < referenceBases.length; i++ ) {
+            referenceBases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        final ReferenceDataSource reference = new ReferenceMemorySource(new ReferenceBases(referenceBases, new SimpleInterval("1", 1, referenceBases.length)),
+                header.getSequenceDictionary());
+
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < 200; i++ ) {
+            final int start = random.nextInt(referenceBases.length - 50) + 1;
+            final byte[] bases = Arrays.copyOfRange(referenceBases, start - 1, start + 49);
+            bases[random.nextInt(bases.length)] = 'A';
+            final byte[] quals = new byte[bases.length];
+            for ( int j = 0; j < quals.length; j++ ) {
+                quals[j] = (byte) (10 + random.nextInt(30));
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, start, bases, quals, "50M");
+            read.setReadGroup(header.getReadGroups().get(i % 2).getId());
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+
+        final RecalibrationArgumentCollection recalArgs = new RecalibrationArgumentCollection();
+        final BaseRecalibrationEngine expected = new BaseRecalibrationEngine(recalArgs, header);
+        reads.forEach(read -> expected.processRead(read, reference, Collections.emptyList()));
+
+        // the same engine collects the two halves of the reads separately, and they are combined into another one
+        final BaseRecalibrationEngine batchEngine = new BaseRecalibrationEngine(recalArgs, header);
+        final BaseRecalibrationEngine actual = new BaseRecalibrationEngine(recalArgs, header);
+        for ( final List<GATKRead> batch : Arrays.asList(reads.subList(0, 100), reads.subList(100, 200)) ) {
+            batch.forEach(read -> batchEngine.processRead(read, reference, Collections.emptyList()));
+            final long numReads = batchEngine.getNumReadsProcessed();
+            actual.combine(batchEngine.takeRecalibrationTables(), numReads);
+            Assert.assertEquals(batchEngine.getNumReadsProcessed(), 0L);
+        }
+
+        Assert.assertEquals(actual.getNumReadsProcessed(), expected.getNumReadsProcessed());
+        final RecalibrationTables expectedTables = expected.getRecalibrationTables();
+        final RecalibrationTables actualTables = actual.getRecalibrationTables();
+        for ( int i = 0; i < expectedTables.numTables(); i++ ) {
+            final List<NestedIntegerArray.Leaf<RecalDatum>> expectedLeaves = expectedTables.getTable(i).getAllLeaves();
+            Assert.assertEquals(actualTables.getTable(i).getAllLeaves().size(), expectedLeaves.size());
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedLeaves ) {
+                final RecalDatum datum = actualTables.getTable(i).get(leaf.keys);
+                Assert.assertNotNull(datum);
+                Assert.assertEquals(datum.getNumObservations(), leaf.value.getNumObservations());
+                // without BAQ the error counts are whole numbers, so they add up exactly in any order
+                Assert.assertEquals(datum.getNumMismatches(), leaf.value.getNumMismatches());
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.ContextCovariate;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class DenseRecalibrationTablesUnitTest extends GATKBaseTest {
+    private static final int NUM_READ_GROUPS = 3;
+    private static final int NUM_KEYS_PER_TABLE = 20;
+
+    private static StandardCovariateList makeCovariates() {
+        final List<String> readGroups = IntStream.range(0, NUM_READ_GROUPS).mapToObj(i -> "readgroup" + i).collect(Collectors.toList());
+        return new StandardCovariateList(new RecalibrationArgumentCollection(), readGroups);
+    }
+
+    @Test
+    public void testSameValuesAsRecalibrationTables() {
+        final StandardCovariateList covariates = makeCovariates();
+        final RecalibrationTables expected = new RecalibrationTables(covariates, NUM_READ_GROUPS);
+        final DenseRecalibrationTables dense = new DenseRecalibrationTables(covariates, NUM_READ_GROUPS);
+        Assert.assertTrue(dense.isEmpty());
+
+        // a few keys from all over the key space of each covariate, so that keys collide but the tables stay small
+        final Random random = new Random(13);
+        final int[][] keysByTable = new int[covariates.size()][];
+        for ( int tableIndex = covariates.numberOfSpecialCovariates(); tableIndex < covariates.size(); tableIndex++ ) {
+            final int maxKeyValue = covariates.get(tableIndex).maximumKeyValue();
+            keysByTable[tableIndex] = IntStream.range(0, NUM_KEYS_PER_TABLE).map(k -> random.nextInt(maxKeyValue + 1)).toArray();
+        }
+        for ( int i = 0; i < 2000; i++ ) {
+            final int rg = random.nextInt(NUM_READ_GROUPS);
+            final byte qual = (byte) random.nextInt(50);
+            final int event = random.nextInt(EventType.values().length);
+            final double isError = random.nextInt(4) == 0 ? random.nextDouble() : 0.0;
+            RecalUtils.incrementDatumOrPutIfNecessary3keys(expected.getQualityScoreTable(), qual, isError, rg, qual, event);
+            dense.incrementQualityScoreTable(rg, qual, event, isError);
+            for ( int tableIndex = covariates.numberOfSpecialCovariates(); tableIndex < covariates.size(); tableIndex++ ) {
+                final int key = keysByTable[tableIndex][random.nextInt(NUM_KEYS_PER_TABLE)];
+                RecalUtils.incrementDatumOrPutIfNecessary4keys(expected.getTable(tableIndex), qual, isError, rg, qual, key, event);
+                dense.incrementAdditionalTable(tableIndex, rg, qual, key, event, isError);
+            }
+        }
+        Assert.assertFalse(dense.isEmpty());
+
+        final RecalibrationTables actual = dense.toRecalibrationTables();
+        Assert.assertTrue(actual.getReadGroupTable().getAllLeaves().isEmpty());
+        for ( int tableIndex = 0; tableIndex < expected.numTables(); tableIndex++ ) {
+            final NestedIntegerArray<RecalDatum> expectedTable = expected.getTable(tableIndex);
+            final NestedIntegerArray<RecalDatum> actualTable = actual.getTable(tableIndex);
+            Assert.assertEquals(actualTable.getAllLeaves().size(), expectedTable.getAllLeaves().size());
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedTable.getAllLeaves() ) {
+                final RecalDatum actualDatum = actualTable.get(leaf.keys);
+                Assert.assertNotNull(actualDatum);
+                Assert.assertEquals(actualDatum.getNumObservations(), leaf.value.getNumObservations());
+                // the counts must be identical, not just close
+                Assert.assertEquals(Double.compare(actualDatum.getNumMismatches(), leaf.value.getNumMismatches()), 0);
+                Assert.assertEquals(actualDatum.getEstimatedQReported(), leaf.value.getEstimatedQReported());
+                Assert.assertEquals(actualDatum.getEmpiricalQuality(), leaf.value.getEmpiricalQuality());
+            }
+        }
+
+        dense.clear();
+        Assert.assertTrue(dense.isEmpty());
+    }
+
+    @Test
+    public void testCellsAreOnlyAllocatedForObservedKeys() {
+        final StandardCovariateList covariates = makeCovariates();
+        final DenseRecalibrationTables dense = new DenseRecalibrationTables(covariates, NUM_READ_GROUPS);
+        Assert.assertEquals(dense.getNumberOfAllocatedCells(), 0L);
+
+        final int tableIndex = covariates.numberOfSpecialCovariates();
+        final int maxKeyValue = covariates.get(tableIndex).maximumKeyValue();
+        final long cellsPerBlock = (covariates.getQualityScoreCovariate().maximumKeyValue() + 1) * EventType.values().length;
+
+        final Runnable increment = () -> {
+            dense.incrementQualityScoreTable(0, 30, 0, 1.0);
+            dense.incrementQualityScoreTable(2, 20, 1, 0.0);
+            dense.incrementAdditionalTable(tableIndex, 0, 30, 0, 0, 1.0);
+            dense.incrementAdditionalTable(tableIndex, 0, 10, 0, 2, 0.0);   // same read group and key as above
+            dense.incrementAdditionalTable(tableIndex, 1, 30, 0, 0, 0.0);
+            dense.incrementAdditionalTable(tableIndex, 1, 30, maxKeyValue, 0, 0.0);
+        };
+        increment.run();
+        // one block per read group and key: 2 in the quality score table and 3 in the covariate table
+        Assert.assertEquals(dense.getNumberOfAllocatedCells(), 5 * cellsPerBlock);
+        Assert.assertEquals(dense.toRecalibrationTables().getTable(tableIndex).getAllLeaves().size(), 4);
+
+        // clearing keeps the cells for reuse
+        dense.clear();
+        Assert.assertTrue(dense.toRecalibrationTables().getQualityScoreTable().getAllLeaves().isEmpty());
+        increment.run();
+        Assert.assertEquals(dense.getNumberOfAllocatedCells(), 5 * cellsPerBlock);
+        Assert.assertEquals(dense.toRecalibrationTables().getQualityScoreTable().getAllLeaves().size(), 2);
+    }
+
+    @Test
+    public void testLargestContextKeySpace() {
+        // the context covariate then has a key space of hundreds of millions, which must not be allocated
+        final RecalibrationArgumentCollection rac = new RecalibrationArgumentCollection();
+        rac.MISMATCHES_CONTEXT_SIZE = 13;
+        rac.INDELS_CONTEXT_SIZE = 13;
+        final StandardCovariateList covariates = new StandardCovariateList(rac, Arrays.asList("readgroup0"));
+        final DenseRecalibrationTables dense = new DenseRecalibrationTables(covariates, 1);
+
+        final int tableIndex = covariates.indexByClass(ContextCovariate.class);
+        final int maxKeyValue = covariates.get(tableIndex).maximumKeyValue();
+        Assert.assertTrue(maxKeyValue > 100_000_000);
+        final long cellsPerBlock = (covariates.getQualityScoreCovariate().maximumKeyValue() + 1) * EventType.values().length;
+        dense.incrementAdditionalTable(tableIndex, 0, 30, maxKeyValue, 0, 1.0);
+        dense.incrementAdditionalTable(tableIndex, 0, 30, maxKeyValue - 1, 0, 0.0);
+        dense.incrementAdditionalTable(tableIndex, 0, 20, maxKeyValue, 0, 0.0);
+        Assert.assertEquals(dense.getNumberOfAllocatedCells(), 2 * cellsPerBlock);
+    }
+}
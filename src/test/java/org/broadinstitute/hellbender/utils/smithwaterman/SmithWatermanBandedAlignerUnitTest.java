@@ -0,0 +1,119 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class SmithWatermanBandedAlignerUnitTest extends SmithWatermanAlignerAbstractUnitTest {
+
+    @Override
+    protected SmithWatermanBandedAligner getAligner() {
+        return SmithWatermanBandedAligner.getInstance();
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        return bases;
+    }
+
+    // mutate bases with SNPs and indels of up to maxIndelLength bases
+    private static byte[] mutate(final Random random, final byte[] bases, final int numEvents, final int maxIndelLength) {
+        byte[] result = bases.clone();
+        for ( int event = 0; event < numEvents; event++ ) {
+            final int position = random.nextInt(result.length - maxIndelLength - 1) + 1;
+            final int length = random.nextInt(maxIndelLength) + 1;
+            final byte[] mutated;
+            switch ( random.nextInt(3) ) {
+                case 0:
+                    mutated = result.clone();
+                    mutated[position] = mutated[position] == 'A' ? (byte) 'C' : (byte) 'A';
+                    break;
+                case 1:
+                    mutated = new byte[result.length - length];
+                    System.arraycopy(result, 0, mutated, 0, position);
+                    System.arraycopy(result, position + length, mutated, position, result.length - position - length);
+                    break;
+                default:
+                    mutated = new byte[result.length + length];
+                    System.arraycopy(result, 0, mutated, 0, position);
+                    System.arraycopy(randomBases(random, length), 0, mutated, position, length);
+                    System.arraycopy(result, position, mutated, position + length, result.length - position);
+            }
+            result = mutated;
+        }
+        return result;
+    }
+
+    @DataProvider(name = "randomAlignments")
+    public Object[][] randomAlignments() {
+        final List<Object[]> tests = new ArrayList<>();
+        final Random random = new Random(7);
+        for ( final SWOverhangStrategy strategy : SWOverhangStrategy.values() ) {
+            for ( final SWParameters parameters : new SWParameters[] {SmithWatermanAlignmentConstants.NEW_SW_PARAMETERS, SmithWatermanAlignmentConstants.STANDARD_NGS} ) {
+                for ( final int maxIndelLength : new int[] {1, 10, 80} ) {
+                    for ( int i = 0; i < 10; i++ ) {
+                        final byte[] ref = randomBases(random, 200 + random.nextInt(200));
+                        tests.add(new Object[] {ref, mutate(random, ref, random.nextInt(4), maxIndelLength), parameters, strategy});
+                    }
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    /**
+     * @return true if the cells of the matrix on the path of alignment are all within the band of the banded aligner
+     */
+    private static boolean fitsInBand(final SmithWatermanAlignment alignment, final int refLength, final int altLength, final int maxIndelLength) {
+        final int minDiagonal = Math.min(0, refLength - altLength) - maxIndelLength;
+        final int maxDiagonal = Math.max(0, refLength - altLength) + maxIndelLength;
+        // a negative offset means that the alignment starts with bases of alt overhanging ref
+        int i = Math.max(0, alignment.getAlignmentOffset());
+        int j = Math.max(0, -alignment.getAlignmentOffset());
+        final List<CigarElement> elements = alignment.getCigar().getCigarElements();
+        for ( int e = 0; e < elements.size(); e++ ) {
+            final CigarElement element = elements.get(e);
+            if ( element.getOperator() == CigarOperator.S ) {
+                j += e == 0 ? element.getLength() : 0;
+                continue;
+            }
+            for ( int k = 0; k < element.getLength(); k++ ) {
+                i += element.getOperator().consumesReferenceBases() ? 1 : 0;
+                j += element.getOperator().consumesReadBases() ? 1 : 0;
+                if ( i - j < minDiagonal || i - j > maxDiagonal ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test(dataProvider = "randomAlignments")
+    public void testMatchesFullAlignment(final byte[] ref, final byte[] alt, final SWParameters parameters, final SWOverhangStrategy strategy) {
+        final SmithWatermanAlignment expected = SmithWatermanJavaAligner.getInstance().align(ref, alt, parameters, strategy);
+        // the alignment is the same whenever it fits in the band, while narrow bands miss alignments with long indels
+        for ( final int maxIndelLength : new int[] {0, 5, SmithWatermanBandedAligner.DEFAULT_MAX_INDEL_LENGTH} ) {
+            if ( fitsInBand(expected, ref.length, alt.length, maxIndelLength) ) {
+                final SmithWatermanAlignment actual = new SmithWatermanBandedAligner(maxIndelLength).align(ref, alt, parameters, strategy);
+                Assert.assertEquals(actual.getCigar(), expected.getCigar(), "band of " + maxIndelLength);
+                Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset(), "band of " + maxIndelLength);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeMaxIndelLength() {
+        new SmithWatermanBandedAligner(-1);
+    }
+}
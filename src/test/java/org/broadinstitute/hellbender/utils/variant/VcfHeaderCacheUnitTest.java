@@ -0,0 +1,127 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public final class VcfHeaderCacheUnitTest extends GATKBaseTest {
+    private static final File TEST_GVCF = new File(publicTestDir + "org/broadinstitute/hellbender/engine/GenomicsDBIntegration/tiny.g.vcf");
+
+    private static VCFHeader readHeader(final Path vcf) {
+        try ( final VCFFileReader reader = new VCFFileReader(vcf, false) ) {
+            return reader.getFileHeader();
+        }
+    }
+
+    private static Function<Path, VCFHeader> countingReader(final AtomicInteger numReads) {
+        return path -> {
+            numReads.incrementAndGet();
+            return readHeader(path);
+        };
+    }
+
+    private static void assertSameHeader(final VCFHeader actual, final VCFHeader expected) {
+        Assert.assertEquals(new ArrayList<>(actual.getMetaDataInInputOrder()), new ArrayList<>(expected.getMetaDataInInputOrder()));
+        Assert.assertEquals(actual.getGenotypeSamples(), expected.getGenotypeSamples());
+        Assert.assertEquals(actual.getSequenceDictionary(), expected.getSequenceDictionary());
+        Assert.assertEquals(actual.getInfoHeaderLines(), expected.getInfoHeaderLines());
+        Assert.assertEquals(actual.getFormatHeaderLines(), expected.getFormatHeaderLines());
+    }
+
+    private Path copyTestGVCF(final File dir, final String name) throws IOException {
+        final Path copy = dir.toPath().resolve(name);
+        Files.copy(TEST_GVCF.toPath(), copy);
+        return copy;
+    }
+
+    @Test
+    public void testCachedHeaderMatchesOriginal() throws IOException {
+        final File dir = createTempDir("vcfHeaderCache");
+        final Path gvcf = copyTestGVCF(dir, "sample.g.vcf");
+        final VcfHeaderCache cache = new VcfHeaderCache(dir.toPath().resolve("cache"));
+        final AtomicInteger numReads = new AtomicInteger();
+
+        final VCFHeader expected = readHeader(gvcf);
+        assertSameHeader(cache.getHeader(gvcf, countingReader(numReads)), expected);
+        Assert.assertEquals(numReads.get(), 1);
+        Assert.assertEquals(cache.getNumCacheMisses(), 1);
+
+        // a new cache over the same directory reads the header from the cache
+        final VcfHeaderCache newCache = new VcfHeaderCache(dir.toPath().resolve("cache"));
+        final VCFHeader cached = newCache.getHeader(gvcf, countingReader(numReads));
+        assertSameHeader(cached, expected);
+        Assert.assertEquals(numReads.get(), 1);
+        Assert.assertEquals(newCache.getNumCacheHits(), 1);
+    }
+
+    @Test
+    public void testIdenticalContigsAreShared() throws IOException {
+        final File dir = createTempDir("vcfHeaderCache");
+        final Path gvcf1 = copyTestGVCF(dir, "sample1.g.vcf");
+        final Path gvcf2 = copyTestGVCF(dir, "sample2.g.vcf");
+        final Path cacheDir = dir.toPath().resolve("cache");
+        final VcfHeaderCache cache = new VcfHeaderCache(cacheDir);
+        cache.getHeader(gvcf1, VcfHeaderCacheUnitTest::readHeader);
+        cache.getHeader(gvcf2, VcfHeaderCacheUnitTest::readHeader);
+
+        final VcfHeaderCache newCache = new VcfHeaderCache(cacheDir);
+        final VCFHeader header1 = newCache.getHeader(gvcf1, VcfHeaderCacheUnitTest::readHeader);
+        final VCFHeader header2 = newCache.getHeader(gvcf2, VcfHeaderCacheUnitTest::readHeader);
+        Assert.assertEquals(newCache.getNumCacheHits(), 2);
+        Assert.assertFalse(header1.getContigLines().isEmpty());
+        for ( int i = 0; i < header1.getContigLines().size(); i++ ) {
+            Assert.assertSame(header1.getContigLines().get(i), header2.getContigLines().get(i));
+        }
+    }
+
+    @Test
+    public void testModifiedFileIsReadAgain() throws IOException {
+        final File dir = createTempDir("vcfHeaderCache");
+        final Path gvcf = copyTestGVCF(dir, "sample.g.vcf");
+        final VcfHeaderCache cache = new VcfHeaderCache(dir.toPath().resolve("cache"));
+        final AtomicInteger numReads = new AtomicInteger();
+
+        cache.getHeader(gvcf, countingReader(numReads));
+        Files.setLastModifiedTime(gvcf, FileTime.fromMillis(Files.getLastModifiedTime(gvcf).toMillis() + 10000));
+        assertSameHeader(cache.getHeader(gvcf, countingReader(numReads)), readHeader(gvcf));
+        Assert.assertEquals(numReads.get(), 2);
+
+        // the cache was updated
+        cache.getHeader(gvcf, countingReader(numReads));
+        Assert.assertEquals(numReads.get(), 2);
+    }
+
+    @Test
+    public void testCorruptCacheFileIsIgnored() throws IOException {
+        final File dir = createTempDir("vcfHeaderCache");
+        final Path gvcf = copyTestGVCF(dir, "sample.g.vcf");
+        final Path cacheDir = dir.toPath().resolve("cache");
+        final VcfHeaderCache cache = new VcfHeaderCache(cacheDir);
+        final AtomicInteger numReads = new AtomicInteger();
+        cache.getHeader(gvcf, countingReader(numReads));
+
+        try ( final Stream<Path> cacheFiles = Files.list(cacheDir) ) {
+            cacheFiles.forEach(cacheFile -> {
+                try {
+                    Files.write(cacheFile, new byte[]{1, 2, 3});
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        assertSameHeader(cache.getHeader(gvcf, countingReader(numReads)), readHeader(gvcf));
+        Assert.assertEquals(numReads.get(), 2);
+    }
+}
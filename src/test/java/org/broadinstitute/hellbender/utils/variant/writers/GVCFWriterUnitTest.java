@@ -3,6 +3,8 @@ package org.broadinstitute.hellbender.utils.variant.writers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFConstants;
@@ -10,10 +12,12 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFStandardHeaderLines;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.GATKPath;
 import org.broadinstitute.hellbender.tools.walkers.variantutils.ReblockGVCF;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
+import org.broadinstitute.hellbender.utils.codecs.GVCFBlockSummaryBCICodec;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
@@ -650,4 +654,46 @@ public class GVCFWriterUnitTest extends GATKBaseTest {
         Assert.assertTrue(mockWriter.emitted.get(1).getStart() == block2.getStart());
     }
 
+    @Test
+    public void testBlockSummaryOutput() {
+        final MockWriter mockWriter = new MockWriter();
+        final GVCFWriter writer = new GVCFWriter(mockWriter, standardPartition);
+        final File summaryFile = createTempFile("blockSummary", GVCFBlockSummaryBCICodec.GVCF_SUMMARY_BCI_FILE_EXTENSION);
+        writer.setBlockSummaryOutput(new GATKPath(summaryFile.getAbsolutePath()));
+        final VCFHeader header = new VCFHeader(Collections.emptySet(), Collections.singletonList(SAMPLE_NAME));
+        header.setSequenceDictionary(new SAMSequenceDictionary(Arrays.asList(new SAMSequenceRecord(CHR1, 1000), new SAMSequenceRecord(CHR2, 1000))));
+        writer.writeHeader(header);
+
+        writer.add(makeHomRef(1));
+        writer.add(makeHomRef(2));
+        writer.add(new VariantContextBuilder(makeNonRef(CHR1, 3))
+                .attribute(GATKVCFConstants.RAW_QUAL_APPROX_KEY, 30)
+                .attribute(GATKVCFConstants.VARIANT_DEPTH_KEY, 2)
+                .attribute(GATKVCFConstants.RAW_MAPPING_QUALITY_WITH_DEPTH_KEY, Arrays.asList(7200.0, 2.0))
+                .make());
+        writer.add(makeHomRef(CHR2, 10, 30));
+        writer.add(makeHomRef(CHR2, 11, 30));
+        writer.close();
+
+        final List<GVCFBlockSummary> summaries = new ArrayList<>();
+        try ( final FeatureDataSource<GVCFBlockSummary> input = new FeatureDataSource<>(summaryFile) ) {
+            input.forEach(summaries::add);
+        }
+        Assert.assertEquals(summaries.size(), 3);
+        for ( int i = 0; i < summaries.size(); i++ ) {
+            Assert.assertEquals(summaries.get(i), GVCFBlockSummary.fromVariantContext(mockWriter.emitted.get(i)));
+        }
+        Assert.assertTrue(summaries.get(0).isReferenceBlock());
+        Assert.assertEquals(summaries.get(2).getEnd(), 11);
+
+        final GVCFBlockSummary variant = summaries.get(1);
+        Assert.assertFalse(variant.isReferenceBlock());
+        Assert.assertEquals(variant.getQualApprox(), 30);
+        Assert.assertEquals(variant.getMappingQualityDepth(), 2);
+        final VariantContext rebuilt = variant.toVariantContext(SAMPLE_NAME);
+        Assert.assertEquals(rebuilt.getAlleles(), mockWriter.emitted.get(1).getAlleles());
+        Assert.assertEquals(rebuilt.getGenotype(0).getPL(), mockWriter.emitted.get(1).getGenotype(0).getPL());
+        Assert.assertEquals(rebuilt.getAttributeAsInt(GATKVCFConstants.VARIANT_DEPTH_KEY, 0), 2);
+    }
+
 }